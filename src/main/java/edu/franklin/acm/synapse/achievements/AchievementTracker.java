@@ -0,0 +1,275 @@
+package edu.franklin.acm.synapse.achievements;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jdbi.v3.core.Jdbi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.franklin.acm.synapse.activity.achievement.Achievement;
+import edu.franklin.acm.synapse.activity.achievement.AchievementDao;
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import edu.franklin.acm.synapse.activity.rules.RuleOutcome;
+import edu.franklin.acm.synapse.rules.engine.RuleContext;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * Achievement progress, counted in memory.
+ *
+ * <p>Each member's progress and grants are loaded once, on their first
+ * counted event, and then advanced in memory: an event costs a map lookup of
+ * the achievements counting its type and one increment each, never a
+ * {@code COUNT} over the Event Lake. The rule engine reports every live event
+ * through {@link #onEvent} and every {@code ACHIEVEMENT} outcome through
+ * {@link #onOutcome}. An achievement is granted the moment its threshold is
+ * reached, and its counter then stops.
+ *
+ * <p>Progress deltas and grants are queued and written by a scheduled flush,
+ * one batched transaction per guild. Deltas are added to the stored counters
+ * and grants ignore members who already hold the achievement, so replaying a
+ * failed flush is safe. A crash loses at most one flush interval of progress.
+ *
+ * <p>Definitions are cached and reloaded after
+ * {@code synapse.achievements.refresh-seconds} or on {@link #invalidate()},
+ * which {@link edu.franklin.acm.synapse.rules.engine.RuleEngine#invalidate()}
+ * calls whenever rules are reloaded.
+ * State is kept per guild, for the guild bound by {@link GuildContext}.
+ */
+@ApplicationScoped
+public class AchievementTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(AchievementTracker.class);
+
+    @Inject Jdbi jdbi;
+    @Inject AchievementDao achievementDao;
+    @Inject ObjectMapper mapper;
+
+    @ConfigProperty(name = "synapse.achievements.refresh-seconds", defaultValue = "30")
+    long refreshSeconds;
+
+    /**
+     * Enabled achievements, by ID and by the event type they count.
+     */
+    private record Definitions(Map<Long, Achievement> byId, Map<String, List<Achievement>> byEventType,
+                               long loadedAtNanos) {
+    }
+
+    /**
+     * One member's progress by achievement ID and the achievements they hold.
+     * Guarded by its own monitor.
+     */
+    private record MemberProgress(Map<Long, Integer> progress, Set<Long> granted) {
+    }
+
+    private record ProgressKey(long memberId, long achievementId) {
+    }
+
+    private record Grant(long memberId, long achievementId, long eventId, String grantedAt) {
+    }
+
+    /**
+     * One guild's definitions, member progress, and queued writes. Internal
+     * IDs are only unique within a guild's partition.
+     */
+    private static final class GuildAchievements {
+        volatile Definitions definitions;
+        final Map<Long, MemberProgress> members = new ConcurrentHashMap<>();
+        final Map<ProgressKey, Integer> pendingProgress = new ConcurrentHashMap<>();
+        final ConcurrentLinkedQueue<Grant> pendingGrants = new ConcurrentLinkedQueue<>();
+    }
+
+    private final Map<Long, GuildAchievements> guilds = new ConcurrentHashMap<>();
+
+    /**
+     * Counts a live event towards every achievement of its type.
+     */
+    public void onEvent(RuleContext ctx) {
+        try {
+            GuildAchievements guild = guild();
+            List<Achievement> counting = definitions(guild).byEventType().get(ctx.eventType());
+            if (counting == null) return;
+            for (Achievement achievement : counting) {
+                advance(guild, achievement, ctx.memberId(), 1, ctx.eventId());
+            }
+        } catch (Exception e) {
+            log.error("Cannot count event {} towards achievements", ctx.eventId(), e);
+        }
+    }
+
+    /**
+     * Applies an {@code ACHIEVEMENT} outcome. Its parameters name the
+     * achievement and, optionally, the progress to add (default 1):
+     * <pre>{@code {"achievement_id": 3, "amount": 1}}</pre>
+     *
+     * @throws IllegalArgumentException if the parameters are not valid JSON
+     */
+    public void onOutcome(RuleOutcome outcome, RuleContext ctx) {
+        JsonNode parameters = parameters(outcome);
+        long achievementId = parameters.path("achievement_id").asLong(0);
+        int amount = parameters.path("amount").asInt(1);
+
+        GuildAchievements guild = guild();
+        Achievement achievement = definitions(guild).byId().get(achievementId);
+        if (achievement == null || amount <= 0) {
+            log.warn("Achievement outcome {} names no enabled achievement or a non-positive amount", outcome.id());
+            return;
+        }
+        advance(guild, achievement, ctx.memberId(), amount, ctx.eventId());
+    }
+
+    /**
+     * Drops the cached definitions of every guild; they are reloaded on the
+     * next event. Called by the rule engine whenever it drops its compiled
+     * rules.
+     */
+    public void invalidate() {
+        guilds.values().forEach(guild -> guild.definitions = null);
+    }
+
+    private void advance(GuildAchievements guild, Achievement achievement, long memberId, int amount, long eventId) {
+        MemberProgress member = guild.members.computeIfAbsent(memberId, this::load);
+        synchronized (member) {
+            if (member.granted().contains(achievement.id())) return;
+
+            int progress = member.progress().merge(achievement.id(), amount, Integer::sum);
+            guild.pendingProgress.merge(new ProgressKey(memberId, achievement.id()), amount, Integer::sum);
+            if (progress >= achievement.threshold()) {
+                member.granted().add(achievement.id());
+                guild.pendingGrants.add(new Grant(memberId, achievement.id(), eventId, utcNow()));
+                log.info("Member {} earned achievement '{}'", memberId, achievement.name());
+            }
+        }
+    }
+
+    private MemberProgress load(long memberId) {
+        return new MemberProgress(
+                new HashMap<>(achievementDao.findProgressByMember(memberId)),
+                new HashSet<>(achievementDao.findGrantedIdsByMember(memberId)));
+    }
+
+    /**
+     * State of the guild bound to the calling thread.
+     */
+    private GuildAchievements guild() {
+        return guilds.computeIfAbsent(GuildContext.current(), id -> new GuildAchievements());
+    }
+
+    private Definitions definitions(GuildAchievements guild) {
+        Definitions current = guild.definitions;
+        long maxAgeNanos = TimeUnit.SECONDS.toNanos(refreshSeconds);
+        if (current != null && System.nanoTime() - current.loadedAtNanos() < maxAgeNanos) {
+            return current;
+        }
+
+        Map<Long, Achievement> byId = new HashMap<>();
+        Map<String, List<Achievement>> byEventType = new HashMap<>();
+        for (Achievement achievement : achievementDao.findEnabled()) {
+            byId.put(achievement.id(), achievement);
+            if (achievement.eventType() != null) {
+                byEventType.computeIfAbsent(achievement.eventType(), type -> new ArrayList<>()).add(achievement);
+            }
+        }
+        Definitions loaded = new Definitions(byId, byEventType, System.nanoTime());
+        guild.definitions = loaded;
+        return loaded;
+    }
+
+    private JsonNode parameters(RuleOutcome outcome) {
+        if (outcome.parameters() == null) return mapper.createObjectNode();
+        try {
+            return mapper.readTree(outcome.parameters());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid parameters for rule_outcome "
+                    + outcome.id() + ": " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Writes all queued progress and grants, one transaction per guild
+     * partition. Writes queued during a flush are left for the next one.
+     */
+    @Scheduled(every = "${synapse.achievements.flush-interval:5s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public synchronized void flush() {
+        guilds.forEach((guildId, guild) -> {
+            Map<ProgressKey, Integer> deltas = new LinkedHashMap<>();
+            for (ProgressKey key : guild.pendingProgress.keySet()) {
+                Integer delta = guild.pendingProgress.remove(key);
+                if (delta != null) deltas.put(key, delta);
+            }
+            List<Grant> grants = new ArrayList<>();
+            Grant grant;
+            while ((grant = guild.pendingGrants.poll()) != null) {
+                grants.add(grant);
+            }
+            if (deltas.isEmpty() && grants.isEmpty()) return;
+
+            try {
+                GuildContext.run(guildId, () -> write(deltas, grants));
+            } catch (Exception e) {
+                // Requeue; deltas add up and grants are idempotent, so a retry is exact
+                deltas.forEach((key, delta) -> guild.pendingProgress.merge(key, delta, Integer::sum));
+                guild.pendingGrants.addAll(grants);
+                log.error("Failed to flush {} achievement counters and {} grants for guild {}",
+                        deltas.size(), grants.size(), guildId, e);
+            }
+        });
+    }
+
+    void onShutdown(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    private void write(Map<ProgressKey, Integer> deltas, List<Grant> grants) {
+        List<Long> progressMembers = new ArrayList<>(deltas.size());
+        List<Long> progressAchievements = new ArrayList<>(deltas.size());
+        List<Integer> progressDeltas = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            progressMembers.add(key.memberId());
+            progressAchievements.add(key.achievementId());
+            progressDeltas.add(delta);
+        });
+
+        List<Long> grantMembers = new ArrayList<>(grants.size());
+        List<Long> grantAchievements = new ArrayList<>(grants.size());
+        List<Long> grantEvents = new ArrayList<>(grants.size());
+        List<String> grantTimes = new ArrayList<>(grants.size());
+        for (Grant grant : grants) {
+            grantMembers.add(grant.memberId());
+            grantAchievements.add(grant.achievementId());
+            grantEvents.add(grant.eventId());
+            grantTimes.add(grant.grantedAt());
+        }
+
+        jdbi.useTransaction(h -> {
+            AchievementDao tx = h.attach(AchievementDao.class);
+            if (!progressMembers.isEmpty()) tx.addProgressBatch(progressMembers, progressAchievements, progressDeltas);
+            if (!grantMembers.isEmpty()) tx.grantBatch(grantMembers, grantAchievements, grantEvents, grantTimes);
+        });
+        log.debug("Flushed {} achievement counters and {} grants", progressMembers.size(), grantMembers.size());
+    }
+
+    private static String utcNow() {
+        return LocalDateTime.now(ZoneOffset.UTC).toString();
+    }
+}
@@ -3,10 +3,16 @@ package edu.franklin.acm.synapse.activity;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.sqlobject.SqlObjectPlugin;
 
+import edu.franklin.acm.synapse.activity.achievement.AchievementDao;
+import edu.franklin.acm.synapse.activity.announcement.AnnouncementDao;
 import edu.franklin.acm.synapse.activity.channel.CategoryDao;
 import edu.franklin.acm.synapse.activity.channel.ChannelDao;
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
 import edu.franklin.acm.synapse.activity.guild.GuildMetadataDao;
+import edu.franklin.acm.synapse.activity.guild.GuildPartitions;
+import edu.franklin.acm.synapse.activity.guild.GuildRoutingDataSource;
 import edu.franklin.acm.synapse.activity.guild.SynapseStatisticsDao;
+import edu.franklin.acm.synapse.activity.indexing.QueryProfiler;
 import edu.franklin.acm.synapse.activity.member.MemberDao;
 import edu.franklin.acm.synapse.activity.member.MemberRoleDao;
 import edu.franklin.acm.synapse.activity.member.RoleDao;
@@ -34,6 +40,13 @@ import jakarta.inject.Inject;
  * <p>Initializes the JDBI instance with the application's datasource and the
  * {@link SqlObjectPlugin}, then produces {@code @ApplicationScoped} DAO beans
  * for dependency injection throughout the application.
+ *
+ * <p>A second, {@link ReadOnly} JDBI instance runs on the guild read pools
+ * (see {@link GuildPartitions}) and produces read-only variants of the DAOs
+ * that reports and endpoints query, so those reads stay off the writer.
+ *
+ * <p>Each DAO produced here must also be listed in
+ * {@link NativeDaoRegistrations} for native builds.
  */
 @ApplicationScoped
 public class DaoProducer {
@@ -41,16 +54,35 @@ public class DaoProducer {
     @Inject
     AgroalDataSource ds;
 
+    @Inject
+    GuildPartitions partitions;
+
+    @Inject
+    QueryProfiler profiler;
+
     private Jdbi jdbi;
+    private Jdbi readJdbi;
 
     /**
-     * Initializes the JDBI instance with the datasource and enables SQL object
-     * mapping via the {@link SqlObjectPlugin}.
+     * Initializes the JDBI instance, enables SQL object mapping via the
+     * {@link SqlObjectPlugin} and registers the {@link RowMappers}. With
+     * profiling enabled every statement is recorded by the
+     * {@link QueryProfiler}. Connections are routed to the database of the
+     * guild bound to the calling thread; see {@link GuildContext}.
      */
     @PostConstruct
     public void init() {
-        jdbi = Jdbi.create(ds);
-        jdbi.installPlugin(new SqlObjectPlugin());
+        jdbi = configure(Jdbi.create(new GuildRoutingDataSource(ds, partitions)));
+        readJdbi = configure(Jdbi.create(new GuildRoutingDataSource(ds, partitions, true)));
+    }
+
+    private Jdbi configure(Jdbi instance) {
+        instance.installPlugin(new SqlObjectPlugin());
+        RowMappers.register(instance);
+        if (profiler.enabled()) {
+            instance.setSqlLogger(profiler);
+        }
+        return instance;
     }
 
     // Bean Export for JDBI itself, for more advanced SQL work like migrations.
@@ -60,6 +92,66 @@ public class DaoProducer {
         return jdbi;
     }
 
+    // Read-only JDBI on the guild read pools, for reports and endpoints.
+    @Produces
+    @ReadOnly
+    @ApplicationScoped
+    public Jdbi readJdbi() {
+        return readJdbi;
+    }
+
+    // Read-only DAO producers: the DAOs that reports and endpoints query. Add
+    // one here when a DAO gains a read path outside ingestion.
+
+    @Produces
+    @ReadOnly
+    @ApplicationScoped
+    public EventDao readEventDao() {
+        return readJdbi.onDemand(EventDao.class);
+    }
+
+    @Produces
+    @ReadOnly
+    @ApplicationScoped
+    public MemberDao readMemberDao() {
+        return readJdbi.onDemand(MemberDao.class);
+    }
+
+    @Produces
+    @ReadOnly
+    @ApplicationScoped
+    public SeasonalMemberStatisticsDao readSeasonalMemberStatisticsDao() {
+        return readJdbi.onDemand(SeasonalMemberStatisticsDao.class);
+    }
+
+    @Produces
+    @ReadOnly
+    @ApplicationScoped
+    public RuleEvaluationDao readRuleEvaluationDao() {
+        return readJdbi.onDemand(RuleEvaluationDao.class);
+    }
+
+    @Produces
+    @ReadOnly
+    @ApplicationScoped
+    public MessageEventDao readMessageEventDao() {
+        return readJdbi.onDemand(MessageEventDao.class);
+    }
+
+    @Produces
+    @ReadOnly
+    @ApplicationScoped
+    public VoiceSessionDao readVoiceSessionDao() {
+        return readJdbi.onDemand(VoiceSessionDao.class);
+    }
+
+    @Produces
+    @ReadOnly
+    @ApplicationScoped
+    public LeaderboardDao readLeaderboardDao() {
+        return readJdbi.onDemand(LeaderboardDao.class);
+    }
+
     // DAO Producers: each method creates an application-scoped, on-demand JDBI
     // proxy for the corresponding DAO interface.
 
@@ -171,6 +263,12 @@ public class DaoProducer {
         return jdbi.onDemand(SeasonDao.class);
     }
 
+    @Produces
+    @ApplicationScoped
+    public SeasonalMemberStatisticsDao seasonalMemberStatisticsDao() {
+        return jdbi.onDemand(SeasonalMemberStatisticsDao.class);
+    }
+
     @Produces
     @ApplicationScoped
     public ThreadDao threadDao() {
@@ -188,4 +286,16 @@ public class DaoProducer {
     public ThreadTagDao threadTagDao() {
         return jdbi.onDemand(ThreadTagDao.class);
     }
+
+    @Produces
+    @ApplicationScoped
+    public AnnouncementDao announcementDao() {
+        return jdbi.onDemand(AnnouncementDao.class);
+    }
+
+    @Produces
+    @ApplicationScoped
+    public AchievementDao achievementDao() {
+        return jdbi.onDemand(AchievementDao.class);
+    }
 }
@@ -2,9 +2,11 @@ package edu.franklin.acm.synapse.activity;
 
 import java.util.List;
 
-import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
+import org.jdbi.v3.core.result.ResultIterator;
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindMethods;
+import org.jdbi.v3.sqlobject.customizer.FetchSize;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
@@ -13,7 +15,7 @@ import org.jdbi.v3.sqlobject.statement.SqlUpdate;
  * Writes to and reads from the lean Event Lake parent table.
  * No JSON blob. Child tables carry type-specific detail.
  */
-@RegisterConstructorMapper(Event.class)
+@GenerateSqlObject
 public interface EventDao {
 
     @SqlUpdate("""
@@ -51,4 +53,66 @@ public interface EventDao {
             WHERE member_id = :memberId AND event_type = :eventType
             """)
     int countByMemberAndType(@Bind("memberId") long memberId, @Bind("eventType") String eventType);
+
+    /**
+     * One page of a member's events, newest first, strictly before the cursor.
+     */
+    @SqlQuery("""
+            SELECT id, member_id, channel_id, event_type, created_at
+            FROM events
+            WHERE member_id = :memberId AND id < :before
+            ORDER BY id DESC
+            LIMIT :limit
+            """)
+    List<Event> findPageByMember(
+            @Bind("memberId") long memberId,
+            @Bind("before") long before,
+            @Bind("limit") int limit);
+
+    /**
+     * A token that changes whenever {@link #findPageByMember} would return a
+     * different page. Events are immutable, so their IDs suffice.
+     */
+    @SqlQuery("""
+            SELECT COUNT(*) || ':' || COALESCE(MAX(id), 0) || ':' || COALESCE(MIN(id), 0)
+            FROM (SELECT id FROM events WHERE member_id = :memberId AND id < :before ORDER BY id DESC LIMIT :limit)
+            """)
+    String findPageVersionByMember(
+            @Bind("memberId") long memberId,
+            @Bind("before") long before,
+            @Bind("limit") int limit);
+
+    /**
+     * Every event after the cursor in ID order, optionally of one type, as a
+     * cursor over the result set. Rows are mapped as they are read; the
+     * handle stays open until the iterator is exhausted or closed.
+     */
+    @SqlQuery("""
+            SELECT id, member_id, channel_id, event_type, created_at
+            FROM events
+            WHERE id > :after
+              AND (:type IS NULL OR event_type = :type)
+            ORDER BY id
+            """)
+    @FetchSize(1000)
+    ResultIterator<Event> streamAfter(@Bind("after") long after, @Bind("type") String type);
+
+    /**
+     * Streams the events of one type created at or after {@code since}, up to
+     * and including {@code maxId}, for rebuilding sliding-window counters.
+     * The handle stays open until the iterator is exhausted or closed.
+     */
+    @SqlQuery("""
+            SELECT id, member_id, channel_id, event_type, created_at
+            FROM events
+            WHERE event_type = :type AND created_at >= :since AND id <= :maxId
+            """)
+    @FetchSize(1000)
+    ResultIterator<Event> streamByTypeSince(
+            @Bind("type") String type,
+            @Bind("since") String since,
+            @Bind("maxId") long maxId);
+
+    @SqlQuery("SELECT COALESCE(MAX(id), 0) FROM events")
+    long findMaxId();
 }
@@ -0,0 +1,35 @@
+package edu.franklin.acm.synapse.activity;
+
+import java.util.Map;
+
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
+import org.jdbi.v3.sqlobject.config.KeyColumn;
+import org.jdbi.v3.sqlobject.config.ValueColumn;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.Define;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+
+/**
+ * Full score columns, read once to build an in-memory leaderboard. The
+ * {@code column} is always a fixed column name chosen by the caller, never
+ * user input.
+ */
+@GenerateSqlObject
+public interface LeaderboardDao {
+
+    /**
+     * Every active, non-bot member's value of a {@code members} column.
+     */
+    @SqlQuery("SELECT id AS member_id, <column> AS score FROM members WHERE is_active = 1 AND is_bot = 0")
+    @KeyColumn("member_id")
+    @ValueColumn("score")
+    Map<Long, Long> findMemberScores(@Define("column") String column);
+
+    /**
+     * Every member's value of a {@code seasonal_member_statistics} column in one season.
+     */
+    @SqlQuery("SELECT member_id, <column> AS score FROM seasonal_member_statistics WHERE season_id = :seasonId")
+    @KeyColumn("member_id")
+    @ValueColumn("score")
+    Map<Long, Long> findSeasonalScores(@Define("column") String column, @Bind("seasonId") long seasonId);
+}
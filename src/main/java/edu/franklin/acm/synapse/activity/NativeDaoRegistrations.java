@@ -0,0 +1,149 @@
+package edu.franklin.acm.synapse.activity;
+
+import edu.franklin.acm.synapse.activity.achievement.AchievementDao;
+import edu.franklin.acm.synapse.activity.announcement.AnnouncementDao;
+import edu.franklin.acm.synapse.activity.channel.CategoryDao;
+import edu.franklin.acm.synapse.activity.channel.ChannelDao;
+import edu.franklin.acm.synapse.activity.guild.GuildMetadataDao;
+import edu.franklin.acm.synapse.activity.guild.SynapseStatisticsDao;
+import edu.franklin.acm.synapse.activity.member.MemberDao;
+import edu.franklin.acm.synapse.activity.member.MemberProfile;
+import edu.franklin.acm.synapse.activity.member.MemberRole;
+import edu.franklin.acm.synapse.activity.member.MemberRoleChangeEvent;
+import edu.franklin.acm.synapse.activity.member.MemberRoleDao;
+import edu.franklin.acm.synapse.activity.member.RoleDao;
+import edu.franklin.acm.synapse.activity.message.MessageAttachment;
+import edu.franklin.acm.synapse.activity.message.MessageAttachmentDao;
+import edu.franklin.acm.synapse.activity.message.MessageEvent;
+import edu.franklin.acm.synapse.activity.message.MessageEventDao;
+import edu.franklin.acm.synapse.activity.message.MessageReaction;
+import edu.franklin.acm.synapse.activity.message.MessageReactionDao;
+import edu.franklin.acm.synapse.activity.message.ReactionDelta;
+import edu.franklin.acm.synapse.activity.migrations.MigrationDao;
+import edu.franklin.acm.synapse.activity.rules.RuleDao;
+import edu.franklin.acm.synapse.activity.rules.RuleEvaluationDao;
+import edu.franklin.acm.synapse.activity.rules.RuleOutcome;
+import edu.franklin.acm.synapse.activity.rules.RuleOutcomeDao;
+import edu.franklin.acm.synapse.activity.rules.RulePredicate;
+import edu.franklin.acm.synapse.activity.rules.RulePredicateDao;
+import edu.franklin.acm.synapse.activity.thread.ForumTagDao;
+import edu.franklin.acm.synapse.activity.thread.ThreadDao;
+import edu.franklin.acm.synapse.activity.thread.ThreadTagDao;
+import edu.franklin.acm.synapse.activity.voice.VoiceSessionDao;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * Build-time registrations that let the JDBI SQL objects run in a native
+ * image. Nothing here is used at runtime on the JVM.
+ *
+ * <p>Every DAO interface is marked {@code @GenerateSqlObject}, so
+ * {@code jdbi3-generator} writes its implementation at compile time and
+ * {@code Jdbi.onDemand} and {@code Handle.attach} instantiate that class
+ * instead of building a dynamic proxy. The generated {@code *Impl} classes and
+ * their {@code OnDemand} variants are looked up by name, and the interfaces'
+ * statement annotations are still read from their methods, so both are
+ * registered for reflection here. Records bound with {@code @BindMethods} are
+ * registered so their accessors can be called by name. Records read back from
+ * queries need no entry; see {@link RowMappers}.
+ *
+ * <p>Add new DAOs, with {@code @GenerateSqlObject}, and new
+ * {@code @BindMethods} arguments here alongside their producer in
+ * {@link DaoProducer}. {@code SqlObjectCheck} fails the startup probe for any
+ * DAO that cannot be attached.
+ */
+@RegisterForReflection(targets = {
+        // SQL object interfaces
+        AchievementDao.class,
+        AnnouncementDao.class,
+        CategoryDao.class,
+        ChannelDao.class,
+        EventDao.class,
+        ForumTagDao.class,
+        GuildMetadataDao.class,
+        LeaderboardDao.class,
+        MemberDao.class,
+        MemberRoleDao.class,
+        MessageAttachmentDao.class,
+        MessageEventDao.class,
+        MessageReactionDao.class,
+        MigrationDao.class,
+        RoleDao.class,
+        RuleDao.class,
+        RuleEvaluationDao.class,
+        RuleOutcomeDao.class,
+        RulePredicateDao.class,
+        SeasonDao.class,
+        SeasonalMemberStatisticsDao.class,
+        SynapseStatisticsDao.class,
+        ThreadDao.class,
+        ThreadTagDao.class,
+        VoiceSessionDao.class,
+        // @BindMethods arguments
+        Event.class,
+        MemberProfile.class,
+        MemberRole.class,
+        MemberRoleChangeEvent.class,
+        MessageAttachment.class,
+        MessageEvent.class,
+        MessageReaction.class,
+        ReactionDelta.class,
+        RuleOutcome.class,
+        RulePredicate.class
+}, classNames = {
+        // Implementations generated by jdbi3-generator
+        "edu.franklin.acm.synapse.activity.achievement.AchievementDaoImpl",
+        "edu.franklin.acm.synapse.activity.achievement.AchievementDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.announcement.AnnouncementDaoImpl",
+        "edu.franklin.acm.synapse.activity.announcement.AnnouncementDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.channel.CategoryDaoImpl",
+        "edu.franklin.acm.synapse.activity.channel.CategoryDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.channel.ChannelDaoImpl",
+        "edu.franklin.acm.synapse.activity.channel.ChannelDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.EventDaoImpl",
+        "edu.franklin.acm.synapse.activity.EventDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.thread.ForumTagDaoImpl",
+        "edu.franklin.acm.synapse.activity.thread.ForumTagDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.guild.GuildMetadataDaoImpl",
+        "edu.franklin.acm.synapse.activity.guild.GuildMetadataDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.LeaderboardDaoImpl",
+        "edu.franklin.acm.synapse.activity.LeaderboardDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.member.MemberDaoImpl",
+        "edu.franklin.acm.synapse.activity.member.MemberDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.member.MemberRoleDaoImpl",
+        "edu.franklin.acm.synapse.activity.member.MemberRoleDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.message.MessageAttachmentDaoImpl",
+        "edu.franklin.acm.synapse.activity.message.MessageAttachmentDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.message.MessageEventDaoImpl",
+        "edu.franklin.acm.synapse.activity.message.MessageEventDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.message.MessageReactionDaoImpl",
+        "edu.franklin.acm.synapse.activity.message.MessageReactionDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.migrations.MigrationDaoImpl",
+        "edu.franklin.acm.synapse.activity.migrations.MigrationDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.member.RoleDaoImpl",
+        "edu.franklin.acm.synapse.activity.member.RoleDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.rules.RuleDaoImpl",
+        "edu.franklin.acm.synapse.activity.rules.RuleDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.rules.RuleEvaluationDaoImpl",
+        "edu.franklin.acm.synapse.activity.rules.RuleEvaluationDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.rules.RuleOutcomeDaoImpl",
+        "edu.franklin.acm.synapse.activity.rules.RuleOutcomeDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.rules.RulePredicateDaoImpl",
+        "edu.franklin.acm.synapse.activity.rules.RulePredicateDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.SeasonDaoImpl",
+        "edu.franklin.acm.synapse.activity.SeasonDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.SeasonalMemberStatisticsDaoImpl",
+        "edu.franklin.acm.synapse.activity.SeasonalMemberStatisticsDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.guild.SynapseStatisticsDaoImpl",
+        "edu.franklin.acm.synapse.activity.guild.SynapseStatisticsDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.thread.ThreadDaoImpl",
+        "edu.franklin.acm.synapse.activity.thread.ThreadDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.thread.ThreadTagDaoImpl",
+        "edu.franklin.acm.synapse.activity.thread.ThreadTagDaoImpl$OnDemand",
+        "edu.franklin.acm.synapse.activity.voice.VoiceSessionDaoImpl",
+        "edu.franklin.acm.synapse.activity.voice.VoiceSessionDaoImpl$OnDemand"
+}, methods = true, fields = false)
+final class NativeDaoRegistrations {
+
+    private NativeDaoRegistrations() {
+    }
+}
@@ -0,0 +1,21 @@
+package edu.franklin.acm.synapse.activity;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import jakarta.inject.Qualifier;
+
+/**
+ * Selects the read-only {@code Jdbi} and DAOs, which run on each guild's
+ * read pool instead of the writer. Use them for queries that serve reports
+ * and endpoints rather than ingestion. Writes through them fail.
+ */
+@Qualifier
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.TYPE, ElementType.METHOD, ElementType.FIELD, ElementType.PARAMETER})
+public @interface ReadOnly {
+}
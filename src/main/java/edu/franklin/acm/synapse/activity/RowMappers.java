@@ -0,0 +1,180 @@
+package edu.franklin.acm.synapse.activity;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+
+import org.jdbi.v3.core.Jdbi;
+
+import edu.franklin.acm.synapse.activity.achievement.Achievement;
+import edu.franklin.acm.synapse.activity.announcement.Announcement;
+import edu.franklin.acm.synapse.activity.member.MemberProfile;
+import edu.franklin.acm.synapse.activity.member.MemberRole;
+import edu.franklin.acm.synapse.activity.member.MemberSummary;
+import edu.franklin.acm.synapse.activity.message.MessageSummary;
+import edu.franklin.acm.synapse.activity.migrations.Migration;
+import edu.franklin.acm.synapse.activity.rules.Rule;
+import edu.franklin.acm.synapse.activity.rules.RuleEvaluation;
+import edu.franklin.acm.synapse.activity.rules.RuleOutcome;
+import edu.franklin.acm.synapse.activity.rules.RulePredicate;
+import edu.franklin.acm.synapse.activity.voice.VoiceSession;
+
+/**
+ * Hand-written row mappers for every record the DAOs read back.
+ *
+ * <p>These replace {@code @RegisterConstructorMapper}, which discovers record
+ * constructors and parameter names by reflection on every new mapping. Plain
+ * column reads work identically on the JVM and in a native image, and skip the
+ * reflective lookup on the JVM too. Columns are read by name, so a mapper only
+ * depends on the columns a query selects, not their order.
+ */
+public final class RowMappers {
+
+    private RowMappers() {
+    }
+
+    /**
+     * Registers all mappers on the given {@link Jdbi}, making them available
+     * to every DAO and handle it creates.
+     */
+    public static void register(Jdbi jdbi) {
+        jdbi.registerRowMapper(Achievement.class, (rs, ctx) -> new Achievement(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getString("event_type"),
+                rs.getInt("threshold")));
+
+        jdbi.registerRowMapper(Announcement.class, (rs, ctx) -> new Announcement(
+                rs.getLong("id"),
+                rs.getLong("channel_ext_id"),
+                rs.getString("content"),
+                rs.getInt("attempts")));
+
+        jdbi.registerRowMapper(Event.class, (rs, ctx) -> new Event(
+                rs.getLong("id"),
+                rs.getLong("member_id"),
+                nullableLong(rs, "channel_id"),
+                rs.getString("event_type"),
+                rs.getString("created_at")));
+
+        jdbi.registerRowMapper(MemberProfile.class, (rs, ctx) -> new MemberProfile(
+                rs.getLong("id"),
+                rs.getLong("ext_id"),
+                rs.getString("name"),
+                rs.getString("global_name"),
+                rs.getString("nickname"),
+                rs.getString("avatar_hash"),
+                rs.getBoolean("is_bot"),
+                rs.getBoolean("is_active"),
+                rs.getString("joined_at"),
+                rs.getString("premium_since"),
+                rs.getBoolean("pending")));
+
+        jdbi.registerRowMapper(MemberRole.class, (rs, ctx) -> new MemberRole(
+                rs.getLong("member_id"),
+                rs.getLong("role_id")));
+
+        jdbi.registerRowMapper(MemberSummary.class, (rs, ctx) -> new MemberSummary(
+                rs.getLong("id"),
+                rs.getLong("ext_id"),
+                rs.getString("name"),
+                rs.getString("global_name"),
+                rs.getString("nickname"),
+                rs.getBoolean("is_bot"),
+                rs.getBoolean("is_active"),
+                rs.getString("joined_at"),
+                rs.getInt("level"),
+                rs.getInt("p_currency"),
+                rs.getInt("s_currency"),
+                rs.getString("updated_at")));
+
+        jdbi.registerRowMapper(MessageSummary.class, (rs, ctx) -> new MessageSummary(
+                rs.getLong("id"),
+                rs.getLong("event_id"),
+                rs.getLong("ext_id"),
+                nullableLong(rs, "channel_id"),
+                nullableLong(rs, "thread_id"),
+                rs.getInt("content_length"),
+                rs.getBoolean("is_reply"),
+                rs.getInt("attachment_count"),
+                rs.getInt("reaction_count"),
+                rs.getString("created_at"),
+                rs.getString("edited_at"),
+                rs.getString("deleted_at")));
+
+        jdbi.registerRowMapper(Migration.class, (rs, ctx) -> new Migration(
+                rs.getString("name"),
+                rs.getBoolean("succeeded"),
+                localDateTime(rs, "occurred_at")));
+
+        jdbi.registerRowMapper(Rule.class, (rs, ctx) -> new Rule(
+                rs.getLong("id"),
+                rs.getString("name"),
+                rs.getString("description"),
+                rs.getString("event_type"),
+                rs.getBoolean("enabled"),
+                rs.getBoolean("applies_live"),
+                rs.getBoolean("applies_historic"),
+                rs.getInt("cooldown_seconds"),
+                rs.getString("created_at"),
+                rs.getString("updated_at")));
+
+        jdbi.registerRowMapper(RuleEvaluation.class, (rs, ctx) -> new RuleEvaluation(
+                rs.getLong("id"),
+                rs.getLong("rule_id"),
+                rs.getLong("event_id"),
+                rs.getLong("member_id"),
+                rs.getString("created_at")));
+
+        jdbi.registerRowMapper(RuleOutcome.class, (rs, ctx) -> new RuleOutcome(
+                rs.getLong("id"),
+                rs.getLong("rule_id"),
+                rs.getString("type"),
+                nullableInt(rs, "p_currency"),
+                nullableInt(rs, "s_currency"),
+                rs.getString("parameters")));
+
+        jdbi.registerRowMapper(RulePredicate.class, (rs, ctx) -> new RulePredicate(
+                rs.getLong("id"),
+                rs.getLong("rule_id"),
+                rs.getString("predicate_type"),
+                rs.getString("parameters"),
+                rs.getInt("sort_order")));
+
+        jdbi.registerRowMapper(VoiceSession.class, (rs, ctx) -> new VoiceSession(
+                rs.getLong("id"),
+                rs.getLong("event_id"),
+                rs.getLong("member_id"),
+                rs.getLong("channel_id"),
+                localDateTime(rs, "joined_at"),
+                localDateTime(rs, "left_at"),
+                nullableDouble(rs, "duration_secs"),
+                rs.getDouble("accrued_secs"),
+                localDateTime(rs, "checkpointed_at")));
+    }
+
+    /**
+     * Reads a timestamp stored as text, as SQLite keeps them: either SQL
+     * ({@code 2025-01-01 12:00:00}) or ISO ({@code 2025-01-01T12:00:00}) form.
+     */
+    private static LocalDateTime localDateTime(ResultSet rs, String column) throws SQLException {
+        String value = rs.getString(column);
+        return value != null ? LocalDateTime.parse(value.replace(' ', 'T')) : null;
+    }
+
+    private static Double nullableDouble(ResultSet rs, String column) throws SQLException {
+        double value = rs.getDouble(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Long nullableLong(ResultSet rs, String column) throws SQLException {
+        long value = rs.getLong(column);
+        return rs.wasNull() ? null : value;
+    }
+
+    private static Integer nullableInt(ResultSet rs, String column) throws SQLException {
+        int value = rs.getInt(column);
+        return rs.wasNull() ? null : value;
+    }
+}
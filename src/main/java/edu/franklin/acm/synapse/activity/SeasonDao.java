@@ -1,11 +1,15 @@
 package edu.franklin.acm.synapse.activity;
 
+import java.util.List;
+
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 
 /**
  * Queries the seasons table for active-season checks used by the rule engine.
  */
+@GenerateSqlObject
 public interface SeasonDao {
 
     /**
@@ -19,6 +23,12 @@ public interface SeasonDao {
             """)
     int countActiveSeason(@Bind("seasonId") long seasonId, @Bind("now") String now);
 
+    /**
+     * Returns whether a season with the given ID exists, active or not.
+     */
+    @SqlQuery("SELECT EXISTS (SELECT 1 FROM seasons WHERE id = :seasonId)")
+    boolean exists(@Bind("seasonId") long seasonId);
+
     /**
      * Returns the count of currently active seasons (any season that has started and not yet ended).
      */
@@ -28,4 +38,14 @@ public interface SeasonDao {
               AND (ends_at IS NULL OR ends_at > :now)
             """)
     int countActiveSeasons(@Bind("now") String now);
+
+    /**
+     * Returns the IDs of every season active at the given time.
+     */
+    @SqlQuery("""
+            SELECT id FROM seasons
+            WHERE starts_at <= :now
+              AND (ends_at IS NULL OR ends_at > :now)
+            """)
+    List<Long> findActiveIds(@Bind("now") String now);
 }
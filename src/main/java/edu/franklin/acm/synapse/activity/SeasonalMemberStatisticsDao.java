@@ -0,0 +1,34 @@
+package edu.franklin.acm.synapse.activity;
+
+import java.util.List;
+
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
+
+/**
+ * Maintains the per-member, per-season aggregates in
+ * {@code seasonal_member_statistics}. Counters are applied as deltas to every
+ * season active at the given time, creating the row on first contribution.
+ */
+@GenerateSqlObject
+public interface SeasonalMemberStatisticsDao {
+
+    /**
+     * Adds voice minutes for many members in one batch. {@code now} is shared
+     * by every row and selects the seasons to credit.
+     */
+    @SqlBatch("""
+            INSERT INTO seasonal_member_statistics (member_id, season_id, voice_minutes)
+            SELECT :memberId, id, :minutes FROM seasons
+            WHERE starts_at <= :now
+              AND (ends_at IS NULL OR ends_at > :now)
+            ON CONFLICT (member_id, season_id) DO UPDATE SET
+                voice_minutes = voice_minutes + excluded.voice_minutes,
+                updated_at    = CURRENT_TIMESTAMP
+            """)
+    void addVoiceMinutes(
+            @Bind("memberId") List<Long> memberIds,
+            @Bind("minutes") List<Integer> minutes,
+            @Bind("now") String now);
+}
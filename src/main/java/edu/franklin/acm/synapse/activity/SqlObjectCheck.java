@@ -0,0 +1,142 @@
+package edu.franklin.acm.synapse.activity;
+
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.Startup;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.UnableToExecuteStatementException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.franklin.acm.synapse.activity.achievement.AchievementDao;
+import edu.franklin.acm.synapse.activity.announcement.AnnouncementDao;
+import edu.franklin.acm.synapse.activity.channel.CategoryDao;
+import edu.franklin.acm.synapse.activity.channel.ChannelDao;
+import edu.franklin.acm.synapse.activity.guild.GuildMetadataDao;
+import edu.franklin.acm.synapse.activity.guild.SynapseStatisticsDao;
+import edu.franklin.acm.synapse.activity.member.MemberDao;
+import edu.franklin.acm.synapse.activity.member.MemberRoleDao;
+import edu.franklin.acm.synapse.activity.member.RoleDao;
+import edu.franklin.acm.synapse.activity.message.MessageAttachmentDao;
+import edu.franklin.acm.synapse.activity.message.MessageEventDao;
+import edu.franklin.acm.synapse.activity.message.MessageReactionDao;
+import edu.franklin.acm.synapse.activity.migrations.MigrationDao;
+import edu.franklin.acm.synapse.activity.rules.RuleDao;
+import edu.franklin.acm.synapse.activity.rules.RuleEvaluationDao;
+import edu.franklin.acm.synapse.activity.rules.RuleOutcomeDao;
+import edu.franklin.acm.synapse.activity.rules.RulePredicateDao;
+import edu.franklin.acm.synapse.activity.thread.ForumTagDao;
+import edu.franklin.acm.synapse.activity.thread.ThreadDao;
+import edu.franklin.acm.synapse.activity.thread.ThreadTagDao;
+import edu.franklin.acm.synapse.activity.voice.VoiceSessionDao;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Startup probe for the SQL objects. Attaches every DAO listed in
+ * {@link DaoProducer} to the default database and runs one statement through
+ * it, each in its own transaction that is rolled back, so a DAO whose
+ * generated implementation, statement annotations or row mapper is missing
+ * (typically from a native build, see {@link NativeDaoRegistrations}) is
+ * reported before any traffic reaches it.
+ *
+ * <p>The probe is repeated on each call until every DAO has passed once.
+ */
+@Startup
+@ApplicationScoped
+public class SqlObjectCheck implements HealthCheck {
+
+    private static final Logger log = LoggerFactory.getLogger(SqlObjectCheck.class);
+
+    @Inject Jdbi jdbi;
+
+    private volatile Map<String, String> passed;
+
+    @Override
+    public HealthCheckResponse call() {
+        Map<String, String> results = passed;
+        if (results == null) {
+            results = probeAll();
+            if (results.values().stream().allMatch("ok"::equals)) passed = results;
+        }
+
+        HealthCheckResponseBuilder response = HealthCheckResponse.named("synapse-sql-objects")
+                .status(results.values().stream().allMatch("ok"::equals));
+        results.forEach(response::withData);
+        return response.build();
+    }
+
+    private Map<String, String> probeAll() {
+        String now = LocalDateTime.now(ZoneOffset.UTC).toString();
+        Map<String, String> results = new TreeMap<>();
+        probe(results, AchievementDao.class, dao -> dao.findGrantedIdsByMember(-1));
+        probe(results, AnnouncementDao.class, dao -> dao.findDue(now, 1));
+        probe(results, CategoryDao.class, CategoryDao::findAllActiveExtIds);
+        probe(results, ChannelDao.class, ChannelDao::findAllActiveExtIds);
+        probe(results, EventDao.class, EventDao::findMaxId);
+        probe(results, ForumTagDao.class, dao -> dao.upsert(-1, -1, "", null, null, false, null));
+        probe(results, GuildMetadataDao.class, GuildMetadataDao::getExtId);
+        probe(results, LeaderboardDao.class, dao -> dao.findSeasonalScores("messages_sent", -1));
+        probe(results, MemberDao.class, dao -> dao.findIdsByExtIds(List.of(-1L)));
+        probe(results, MemberRoleDao.class, dao -> dao.findRoleExtIdsByMemberId(-1));
+        probe(results, MessageAttachmentDao.class, dao -> dao.deleteByMessageId(-1));
+        probe(results, MessageEventDao.class, dao -> dao.findIdsByExtIds(List.of(-1L)));
+        probe(results, MessageReactionDao.class, dao -> dao.decrementCount(-1, "", null));
+        probe(results, MigrationDao.class, MigrationDao::getAppliedChecksums);
+        probe(results, RoleDao.class, RoleDao::findAllActiveExtIds);
+        probe(results, RuleDao.class, RuleDao::findAll);
+        probe(results, RuleEvaluationDao.class, dao -> dao.countByRuleAndEvent(-1, -1));
+        probe(results, RuleOutcomeDao.class, dao -> dao.findByRuleId(-1));
+        probe(results, RulePredicateDao.class, dao -> dao.findByRuleId(-1));
+        probe(results, SeasonDao.class, dao -> dao.countActiveSeasons(now));
+        probe(results, SeasonalMemberStatisticsDao.class, dao -> dao.addVoiceMinutes(List.of(-1L), List.of(0), now));
+        probe(results, SynapseStatisticsDao.class, SynapseStatisticsDao::recordStartup);
+        probe(results, ThreadDao.class, ThreadDao::findAllActiveExtIds);
+        probe(results, ThreadTagDao.class, dao -> dao.deleteByThreadId(-1));
+        probe(results, VoiceSessionDao.class, dao -> dao.countOpen(-1, -1));
+        return results;
+    }
+
+    private <T> void probe(Map<String, String> results, Class<T> type, Consumer<T> statement) {
+        try {
+            jdbi.useHandle(h -> {
+                h.begin();
+                try {
+                    statement.accept(h.attach(type));
+                } finally {
+                    h.rollback();
+                }
+            });
+            results.put(type.getSimpleName(), "ok");
+        } catch (Exception e) {
+            if (constraintViolation(e)) {
+                // The statement was built, bound and executed; the probe values just broke a constraint
+                results.put(type.getSimpleName(), "ok");
+                return;
+            }
+            log.error("SQL object {} failed its startup probe", type.getSimpleName(), e);
+            results.put(type.getSimpleName(), String.valueOf(e.getMessage()));
+        }
+    }
+
+    /**
+     * Whether the database rejected the statement for an integrity
+     * constraint (SQLSTATE class 23), such as a foreign key the probe
+     * values cannot satisfy.
+     */
+    private static boolean constraintViolation(Exception e) {
+        return e instanceof UnableToExecuteStatementException
+                && e.getCause() instanceof SQLException sql
+                && sql.getSQLState() != null
+                && sql.getSQLState().startsWith("23");
+    }
+}
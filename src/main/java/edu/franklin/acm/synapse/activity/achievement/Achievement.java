@@ -0,0 +1,16 @@
+package edu.franklin.acm.synapse.activity.achievement;
+
+/**
+ * An achievement definition.
+ *
+ * @param eventType the event type counted towards it, or {@code null} if only
+ *                  rule outcomes advance it
+ * @param threshold progress at which it is granted
+ */
+public record Achievement(
+        long id,
+        String name,
+        String description,
+        String eventType,
+        int threshold) {
+}
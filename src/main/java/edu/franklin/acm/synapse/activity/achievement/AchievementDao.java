@@ -0,0 +1,67 @@
+package edu.franklin.acm.synapse.activity.achievement;
+
+import java.util.List;
+import java.util.Map;
+
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
+import org.jdbi.v3.sqlobject.config.KeyColumn;
+import org.jdbi.v3.sqlobject.config.ValueColumn;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+
+/**
+ * Achievement definitions, progress counters and grants.
+ */
+@GenerateSqlObject
+public interface AchievementDao {
+
+    @SqlQuery("""
+            SELECT id, name, description, event_type, threshold
+            FROM achievements
+            WHERE enabled = 1
+            """)
+    List<Achievement> findEnabled();
+
+    /**
+     * A member's saved progress, by achievement ID.
+     */
+    @SqlQuery("SELECT achievement_id, progress FROM achievement_progress WHERE member_id = :memberId")
+    @KeyColumn("achievement_id")
+    @ValueColumn("progress")
+    Map<Long, Integer> findProgressByMember(@Bind("memberId") long memberId);
+
+    @SqlQuery("SELECT achievement_id FROM member_achievements WHERE member_id = :memberId")
+    List<Long> findGrantedIdsByMember(@Bind("memberId") long memberId);
+
+    /**
+     * Adds progress deltas in one batch, creating counters on first
+     * contribution.
+     */
+    @SqlBatch("""
+            INSERT INTO achievement_progress (member_id, achievement_id, progress)
+            VALUES (:memberId, :achievementId, :delta)
+            ON CONFLICT (member_id, achievement_id) DO UPDATE SET
+                progress   = progress + excluded.progress,
+                updated_at = CURRENT_TIMESTAMP
+            """)
+    void addProgressBatch(
+            @Bind("memberId") List<Long> memberIds,
+            @Bind("achievementId") List<Long> achievementIds,
+            @Bind("delta") List<Integer> deltas);
+
+    /**
+     * Records grants in one batch. A member is granted an achievement at most
+     * once; repeated grants are ignored.
+     */
+    @SqlBatch("""
+            INSERT INTO member_achievements (member_id, achievement_id, event_id, granted_at)
+            VALUES (:memberId, :achievementId, :eventId, :grantedAt)
+            ON CONFLICT (member_id, achievement_id) DO NOTHING
+            """)
+    void grantBatch(
+            @Bind("memberId") List<Long> memberIds,
+            @Bind("achievementId") List<Long> achievementIds,
+            @Bind("eventId") List<Long> eventIds,
+            @Bind("grantedAt") List<String> grantedAt);
+}
@@ -0,0 +1,13 @@
+package edu.franklin.acm.synapse.activity.announcement;
+
+/**
+ * A pending row of the announcement outbox.
+ *
+ * @param attempts failed deliveries so far
+ */
+public record Announcement(
+        long id,
+        long channelExtId,
+        String content,
+        int attempts) {
+}
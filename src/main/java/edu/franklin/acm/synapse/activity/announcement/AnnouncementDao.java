@@ -0,0 +1,74 @@
+package edu.franklin.acm.synapse.activity.announcement;
+
+import java.util.Collection;
+import java.util.List;
+
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
+import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindList;
+import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
+
+/**
+ * The announcement outbox. Rows move from {@code PENDING} to {@code SENT}, or
+ * to {@code FAILED} once out of attempts.
+ */
+@GenerateSqlObject
+public interface AnnouncementDao {
+
+    /**
+     * Queues an announcement for delivery now. An outcome announces an event
+     * at most once.
+     */
+    @SqlUpdate("""
+            INSERT INTO announcements (outcome_id, event_id, member_id, channel_ext_id, content, next_attempt_at)
+            VALUES (:outcomeId, :eventId, :memberId, :channelExtId, :content, :now)
+            ON CONFLICT DO NOTHING
+            """)
+    void enqueue(
+            @Bind("outcomeId") long outcomeId,
+            @Bind("eventId") long eventId,
+            @Bind("memberId") long memberId,
+            @Bind("channelExtId") long channelExtId,
+            @Bind("content") String content,
+            @Bind("now") String now);
+
+    /**
+     * Pending announcements due at {@code now}, oldest first.
+     */
+    @SqlQuery("""
+            SELECT id, channel_ext_id, content, attempts
+            FROM announcements
+            WHERE status = 'PENDING' AND next_attempt_at <= :now
+            ORDER BY id
+            LIMIT :limit
+            """)
+    List<Announcement> findDue(@Bind("now") String now, @Bind("limit") int limit);
+
+    /**
+     * Defers rows being delivered until {@code until}, so later polls skip
+     * them while the send is in flight. If the process stops before the send
+     * completes, the rows become due again when the lease runs out.
+     */
+    @SqlUpdate("UPDATE announcements SET next_attempt_at = :until WHERE id IN (<ids>)")
+    void lease(@BindList("ids") Collection<Long> ids, @Bind("until") String until);
+
+    @SqlUpdate("UPDATE announcements SET status = 'SENT', sent_at = :now WHERE id IN (<ids>)")
+    void markSent(@BindList("ids") Collection<Long> ids, @Bind("now") String now);
+
+    /**
+     * Counts a failed delivery: the rows are retried at {@code retryAt}, or
+     * marked {@code FAILED} once they reach {@code maxAttempts}.
+     */
+    @SqlUpdate("""
+            UPDATE announcements
+            SET attempts = attempts + 1,
+                next_attempt_at = :retryAt,
+                status = CASE WHEN attempts + 1 >= :maxAttempts THEN 'FAILED' ELSE 'PENDING' END
+            WHERE id IN (<ids>)
+            """)
+    void recordFailure(
+            @BindList("ids") Collection<Long> ids,
+            @Bind("retryAt") String retryAt,
+            @Bind("maxAttempts") int maxAttempts);
+}
@@ -2,12 +2,18 @@ package edu.franklin.acm.synapse.activity.channel;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
+import org.jdbi.v3.sqlobject.config.KeyColumn;
+import org.jdbi.v3.sqlobject.config.ValueColumn;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindList;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
+@GenerateSqlObject
 public interface CategoryDao {
 
     @SqlQuery("""
@@ -22,6 +28,22 @@ public interface CategoryDao {
     long upsert(@Bind("extId") long extId, @Bind("name") String name,
                 @Bind("createdAt") String createdAt);
 
+    @SqlBatch("""
+            INSERT INTO categories (ext_id, name, is_active, created_at)
+            VALUES (:extId, :name, 1, COALESCE(:createdAt, CURRENT_TIMESTAMP))
+            ON CONFLICT (ext_id) DO UPDATE SET
+                name       = :name,
+                is_active  = 1,
+                updated_at = CURRENT_TIMESTAMP
+            """)
+    void upsertBatch(@Bind("extId") List<Long> extIds, @Bind("name") List<String> names,
+                     @Bind("createdAt") List<String> createdAts);
+
+    @SqlQuery("SELECT ext_id, id FROM categories")
+    @KeyColumn("ext_id")
+    @ValueColumn("id")
+    Map<Long, Long> findAllIds();
+
     @SqlQuery("SELECT ext_id FROM categories WHERE is_active = 1")
     List<Long> findAllActiveExtIds();
 
@@ -2,12 +2,18 @@ package edu.franklin.acm.synapse.activity.channel;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
+import org.jdbi.v3.sqlobject.config.KeyColumn;
+import org.jdbi.v3.sqlobject.config.ValueColumn;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindList;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
+@GenerateSqlObject
 public interface ChannelDao {
 
     @SqlQuery("""
@@ -28,6 +34,28 @@ public interface ChannelDao {
             @Bind("categoryId") Long categoryId,
             @Bind("createdAt") String createdAt);
 
+    @SqlBatch("""
+            INSERT INTO channels (ext_id, name, type, category_id, is_active, created_at)
+            VALUES (:extId, :name, :type, :categoryId, 1, COALESCE(:createdAt, CURRENT_TIMESTAMP))
+            ON CONFLICT (ext_id) DO UPDATE SET
+                name        = :name,
+                type        = :type,
+                category_id = :categoryId,
+                is_active   = 1,
+                updated_at  = CURRENT_TIMESTAMP
+            """)
+    void upsertBatch(
+            @Bind("extId") List<Long> extIds,
+            @Bind("name") List<String> names,
+            @Bind("type") List<String> types,
+            @Bind("categoryId") List<Long> categoryIds,
+            @Bind("createdAt") List<String> createdAts);
+
+    @SqlQuery("SELECT ext_id, id FROM channels")
+    @KeyColumn("ext_id")
+    @ValueColumn("id")
+    Map<Long, Long> findAllIds();
+
     @SqlQuery("SELECT id FROM channels WHERE ext_id = :extId")
     Long findIdByExtId(@Bind("extId") long extId);
 
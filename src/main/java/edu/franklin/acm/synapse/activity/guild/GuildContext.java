@@ -0,0 +1,86 @@
+package edu.franklin.acm.synapse.activity.guild;
+
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * The guild whose data partition the current thread is working on. Every
+ * database connection handed out by {@link GuildRoutingDataSource} is
+ * resolved through it, so DAOs and {@code Jdbi} transactions reach the right
+ * guild's database without carrying a guild parameter.
+ *
+ * <p>Guild lanes bind it for each event they run. Work that hops threads
+ * (executors, async CDI events, scheduled flushes) must bind it again, via
+ * {@link #run}, {@link #wrap} or {@link #bind(Executor)}. A thread with no
+ * guild bound reports {@link #NONE} and reaches the default datasource.
+ */
+public final class GuildContext {
+
+    /** No guild bound; connections go to the default datasource. */
+    public static final long NONE = 0L;
+
+    private static final ThreadLocal<Long> CURRENT = new ThreadLocal<>();
+
+    private GuildContext() {
+    }
+
+    /**
+     * The guild bound to this thread, or {@link #NONE}.
+     */
+    public static long current() {
+        Long guildId = CURRENT.get();
+        return guildId != null ? guildId : NONE;
+    }
+
+    /**
+     * Runs a task with the guild bound, restoring the previous binding after.
+     */
+    public static void run(long guildId, Runnable task) {
+        call(guildId, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Computes a value with the guild bound, restoring the previous binding after.
+     */
+    public static <T> T call(long guildId, Supplier<T> task) {
+        Long previous = CURRENT.get();
+        CURRENT.set(guildId);
+        try {
+            return task.get();
+        } finally {
+            if (previous != null) {
+                CURRENT.set(previous);
+            } else {
+                CURRENT.remove();
+            }
+        }
+    }
+
+    /**
+     * Captures the current guild so the task runs bound to it on any thread.
+     */
+    public static Runnable wrap(Runnable task) {
+        long guildId = current();
+        return () -> run(guildId, task);
+    }
+
+    /**
+     * Captures the current guild so the supplier runs bound to it on any thread.
+     */
+    public static <T> Supplier<T> wrap(Supplier<T> task) {
+        long guildId = current();
+        return () -> call(guildId, task);
+    }
+
+    /**
+     * An executor that runs every task bound to the guild current at the time
+     * of this call, whichever thread later submits the task.
+     */
+    public static Executor bind(Executor delegate) {
+        long guildId = current();
+        return task -> delegate.execute(() -> run(guildId, task));
+    }
+}
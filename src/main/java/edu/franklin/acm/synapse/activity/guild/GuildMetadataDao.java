@@ -1,5 +1,6 @@
 package edu.franklin.acm.synapse.activity.guild;
 
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
@@ -7,6 +8,7 @@ import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 /**
  * Single-row table holding metadata about the guild this instance manages.
  */
+@GenerateSqlObject
 public interface GuildMetadataDao {
 
     @SqlUpdate("""
@@ -0,0 +1,206 @@
+package edu.franklin.acm.synapse.activity.guild;
+
+import java.sql.SQLException;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import javax.sql.DataSource;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.franklin.acm.synapse.activity.migrations.MigrationManager;
+import io.agroal.api.AgroalDataSource;
+import io.agroal.api.configuration.supplier.AgroalDataSourceConfigurationSupplier;
+import io.agroal.api.security.NamePrincipal;
+import io.agroal.api.security.SimplePassword;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * The set of guilds this process serves and the database partition each one
+ * writes to.
+ *
+ * <p>The guild in {@code synapse.discord.guild.id} uses the default Quarkus
+ * datasource, exactly as in a single-guild deployment. Every guild listed in
+ * {@code synapse.discord.guild.ids} gets its own SQLite file, named from
+ * {@code synapse.guilds.datasource.url}, behind a small Agroal pool. The
+ * schema is single-guild, so a file per guild keeps every table, unique
+ * constraint and singleton row ({@code guild_metadata}) valid unchanged.
+ *
+ * <p>Each database can also have a read pool, used by the {@code @ReadOnly}
+ * {@code Jdbi} for queries that should not compete with ingestion: on SQLite
+ * a read-only connection to the same file, whose transactions read a WAL
+ * snapshot without blocking the writer; on Postgres a replica. The default
+ * database's read pool is {@code synapse.datasource.read.url}, a partition's
+ * is named from {@code synapse.guilds.datasource.read-url}. When these are
+ * unset and the writer is SQLite, a read-only URL for the writer's file is
+ * derived; otherwise reads use the writer's pool.
+ *
+ * <p>Partitions are opened when this bean is created. When
+ * {@code synapse.datasource.auto-migrate} is set, the {@link MigrationManager}
+ * migrates them after the default database; opening them does not wait for
+ * it, since migrating reaches the partitions through this bean.
+ */
+@ApplicationScoped
+public class GuildPartitions {
+
+    private static final Logger log = LoggerFactory.getLogger(GuildPartitions.class);
+
+    @Inject AgroalDataSource defaultDataSource;
+
+    @ConfigProperty(name = "synapse.discord.guild.id", defaultValue = "0")
+    long primaryGuildId;
+
+    @ConfigProperty(name = "synapse.discord.guild.ids")
+    Optional<List<Long>> additionalGuildIds;
+
+    @ConfigProperty(name = "synapse.guilds.datasource.url", defaultValue = "jdbc:sqlite:target/synapse-%d.sqlite?journal_mode=WAL")
+    String urlTemplate;
+
+    @ConfigProperty(name = "synapse.guilds.datasource.max-size", defaultValue = "2")
+    int maxPoolSize;
+
+    @ConfigProperty(name = "synapse.datasource.read.url")
+    Optional<String> readUrl;
+
+    @ConfigProperty(name = "synapse.guilds.datasource.read-url")
+    Optional<String> readUrlTemplate;
+
+    @ConfigProperty(name = "quarkus.datasource.jdbc.url")
+    Optional<String> writerUrl;
+
+    @ConfigProperty(name = "synapse.datasource.read.max-size", defaultValue = "4")
+    int maxReadPoolSize;
+
+    @ConfigProperty(name = "quarkus.datasource.username")
+    Optional<String> username;
+
+    @ConfigProperty(name = "quarkus.datasource.password")
+    Optional<String> password;
+
+    private final Set<Long> guildIds = new LinkedHashSet<>();
+    private final Map<Long, AgroalDataSource> partitions = new ConcurrentHashMap<>();
+    private final Map<Long, AgroalDataSource> readPartitions = new ConcurrentHashMap<>();
+    private AgroalDataSource defaultReadDataSource;
+
+    @PostConstruct
+    void open() {
+        if (primaryGuildId > 0) guildIds.add(primaryGuildId);
+        Optional<String> partitionReadUrl = readUrlTemplate.or(() -> readOnly(urlTemplate));
+        for (long guildId : additionalGuildIds.orElse(List.of())) {
+            if (guildId <= 0 || !guildIds.add(guildId)) continue;
+            partitions.put(guildId, createPool(urlTemplate.formatted(guildId), maxPoolSize, guildId));
+            if (partitionReadUrl.isPresent()) {
+                readPartitions.put(guildId,
+                        createPool(partitionReadUrl.get().formatted(guildId), maxReadPoolSize, guildId));
+            }
+        }
+        Optional<String> defaultReadUrl = readUrl.or(() -> writerUrl.flatMap(GuildPartitions::readOnly));
+        if (defaultReadUrl.isPresent()) {
+            defaultReadDataSource = createPool(defaultReadUrl.get(), maxReadPoolSize, GuildContext.NONE);
+        }
+
+        if (!partitions.isEmpty()) {
+            log.info("Serving {} guilds ({} in separate partitions)", guildIds.size(), partitions.size());
+        }
+    }
+
+    @PreDestroy
+    void close() {
+        readPartitions.values().forEach(AgroalDataSource::close);
+        readPartitions.clear();
+        partitions.values().forEach(AgroalDataSource::close);
+        partitions.clear();
+        if (defaultReadDataSource != null) {
+            defaultReadDataSource.close();
+        }
+    }
+
+    /**
+     * Every guild this process serves, primary first.
+     */
+    public Set<Long> guildIds() {
+        return guildIds;
+    }
+
+    /**
+     * The guild in {@code synapse.discord.guild.id}, or {@link GuildContext#NONE}
+     * if none is configured. Endpoints use it when no guild is given.
+     */
+    public long primaryGuildId() {
+        return primaryGuildId > 0 ? primaryGuildId : GuildContext.NONE;
+    }
+
+    /**
+     * True if events from this guild should be ingested. With no guild
+     * configured at all, every guild is served from the default datasource,
+     * as before guilds were partitioned.
+     */
+    public boolean serves(long guildId) {
+        return guildIds.isEmpty() || guildIds.contains(guildId);
+    }
+
+    /**
+     * Guilds with a partition of their own, i.e. every served guild but the
+     * primary.
+     */
+    public Set<Long> partitionedGuildIds() {
+        return partitions.keySet();
+    }
+
+    /**
+     * The datasource holding a guild's data: its own partition if it has one,
+     * otherwise the default datasource ({@link GuildContext#NONE} and the
+     * primary guild).
+     */
+    public DataSource dataSource(long guildId) {
+        AgroalDataSource partition = partitions.get(guildId);
+        return partition != null ? partition : defaultDataSource;
+    }
+
+    /**
+     * The datasource for a guild's read-only queries: its read pool if one is
+     * configured, otherwise the same datasource as {@link #dataSource}.
+     */
+    public DataSource readDataSource(long guildId) {
+        AgroalDataSource reads = readPartitions.get(guildId);
+        if (reads != null) return reads;
+        if (partitions.containsKey(guildId)) return partitions.get(guildId);
+        return defaultReadDataSource != null ? defaultReadDataSource : defaultDataSource;
+    }
+
+    /**
+     * A read-only URL for the same SQLite file as {@code url}, whose
+     * connections read WAL snapshots without blocking the writer; empty for
+     * other databases, which need an explicit replica URL.
+     */
+    static Optional<String> readOnly(String url) {
+        if (!url.startsWith("jdbc:sqlite:")) return Optional.empty();
+        int query = url.indexOf('?');
+        return Optional.of((query < 0 ? url : url.substring(0, query)) + "?open_mode=1");
+    }
+
+    private AgroalDataSource createPool(String url, int maxSize, long guildId) {
+        try {
+            return AgroalDataSource.from(new AgroalDataSourceConfigurationSupplier()
+                    .connectionPoolConfiguration(pool -> pool
+                            .maxSize(maxSize)
+                            .connectionFactoryConfiguration(factory -> {
+                                factory.jdbcUrl(url);
+                                username.ifPresent(user -> factory.principal(new NamePrincipal(user)));
+                                password.ifPresent(secret -> factory.credential(new SimplePassword(secret)));
+                                return factory;
+                            })));
+        } catch (SQLException e) {
+            throw new IllegalStateException("Cannot open datasource for guild " + guildId + ": " + url, e);
+        }
+    }
+}
@@ -0,0 +1,85 @@
+package edu.franklin.acm.synapse.activity.guild;
+
+import java.io.PrintWriter;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.util.logging.Logger;
+
+import javax.sql.DataSource;
+
+/**
+ * Hands out connections from the datasource of the guild bound to the calling
+ * thread by {@link GuildContext}. This is the datasource behind the shared
+ * {@code Jdbi}, so every DAO is partitioned per guild without knowing it.
+ *
+ * <p>A read-only instance routes to each guild's read pool instead; see
+ * {@link GuildPartitions#readDataSource}.
+ */
+public class GuildRoutingDataSource implements DataSource {
+
+    private final DataSource defaultDataSource;
+    private final GuildPartitions partitions;
+    private final boolean readOnly;
+
+    public GuildRoutingDataSource(DataSource defaultDataSource, GuildPartitions partitions) {
+        this(defaultDataSource, partitions, false);
+    }
+
+    public GuildRoutingDataSource(DataSource defaultDataSource, GuildPartitions partitions, boolean readOnly) {
+        this.defaultDataSource = defaultDataSource;
+        this.partitions = partitions;
+        this.readOnly = readOnly;
+    }
+
+    private DataSource target() {
+        long guildId = GuildContext.current();
+        return readOnly ? partitions.readDataSource(guildId) : partitions.dataSource(guildId);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        return target().getConnection();
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return target().getConnection(username, password);
+    }
+
+    @Override
+    public PrintWriter getLogWriter() throws SQLException {
+        return defaultDataSource.getLogWriter();
+    }
+
+    @Override
+    public void setLogWriter(PrintWriter out) throws SQLException {
+        defaultDataSource.setLogWriter(out);
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) throws SQLException {
+        defaultDataSource.setLoginTimeout(seconds);
+    }
+
+    @Override
+    public int getLoginTimeout() throws SQLException {
+        return defaultDataSource.getLoginTimeout();
+    }
+
+    @Override
+    public Logger getParentLogger() throws SQLFeatureNotSupportedException {
+        return defaultDataSource.getParentLogger();
+    }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        return target().unwrap(iface);
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) throws SQLException {
+        return iface.isInstance(this) || target().isWrapperFor(iface);
+    }
+}
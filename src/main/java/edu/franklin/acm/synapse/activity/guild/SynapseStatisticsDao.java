@@ -1,5 +1,6 @@
 package edu.franklin.acm.synapse.activity.guild;
 
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
 /**
@@ -7,6 +8,7 @@ import org.jdbi.v3.sqlobject.statement.SqlUpdate;
  * health tracking. Records when the bot started and when reconciliation
  * last completed.
  */
+@GenerateSqlObject
 public interface SynapseStatisticsDao {
 
     @SqlUpdate("""
@@ -0,0 +1,204 @@
+package edu.franklin.acm.synapse.activity.indexing;
+
+import java.sql.Types;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import javax.sql.DataSource;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.core.statement.Query;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.franklin.acm.synapse.activity.ReadOnly;
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import edu.franklin.acm.synapse.activity.guild.GuildPartitions;
+import edu.franklin.acm.synapse.activity.indexing.QueryProfiler.QueryStats;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Suggests indexes from the workload recorded by the {@link QueryProfiler}.
+ *
+ * <p>Each of the most expensive query shapes is run through SQLite's
+ * {@code EXPLAIN QUERY PLAN}. Where the plan scans a table, or searches it
+ * with an index that covers fewer of the filtered columns than the query
+ * uses, an index is suggested: equality columns first, then the first range
+ * column, made partial on an {@code IS NULL} filter. Only single-table
+ * statements are analysed; joins are reported with their plan but no
+ * suggestion.
+ *
+ * <p>Suggestions are not applied automatically. An approved suggestion is
+ * built with {@link #apply}, on every guild partition, while the bot keeps
+ * running. SQLite blocks writers for the duration of the build, so prefer
+ * quiet periods for large tables.
+ */
+@ApplicationScoped
+public class IndexAdvisor {
+
+    private static final Logger log = LoggerFactory.getLogger(IndexAdvisor.class);
+
+    private static final Pattern TABLE = Pattern.compile("(?i)\\b(?:FROM|UPDATE)\\s+(\\w+)");
+    private static final Pattern WHERE = Pattern.compile(
+            "(?is)\\bWHERE\\b(.*?)(?:\\bGROUP BY\\b|\\bORDER BY\\b|\\bLIMIT\\b|\\bRETURNING\\b|$)");
+    private static final Pattern EQUALITY = Pattern.compile("(?i)(?:\\w+\\.)?(\\w+)\\s*(?:=|\\bIN\\s*\\()\\s*\\?");
+    private static final Pattern RANGE = Pattern.compile("(?i)(?:\\w+\\.)?(\\w+)\\s*(?:<=|>=|<|>)\\s*\\?");
+    private static final Pattern IS_NULL = Pattern.compile("(?i)(?:\\w+\\.)?(\\w+)\\s+IS\\s+NULL");
+    private static final Pattern SEARCH = Pattern.compile("(?i)SEARCH (\\w+) USING (?:COVERING )?INDEX \\w+ \\((.*)\\)");
+
+    @Inject Jdbi jdbi;
+    @Inject @ReadOnly Jdbi readJdbi;
+    @Inject QueryProfiler profiler;
+    @Inject GuildPartitions partitions;
+
+    /**
+     * Analysis of one query shape.
+     *
+     * @param plan       the {@code EXPLAIN QUERY PLAN} detail lines
+     * @param suggestion DDL for a suggested index, or {@code null} if none
+     */
+    public record IndexAdvice(String sql, long calls, double meanMillis, double totalMillis,
+                              List<String> plan, String suggestion) {
+    }
+
+    /** Suggestions from the latest report, keyed by index name. */
+    private final Map<String, String> suggested = new ConcurrentHashMap<>();
+
+    /**
+     * Explains the {@code limit} most expensive recorded shapes against the
+     * default database's read pool and suggests indexes for them.
+     */
+    public List<IndexAdvice> report(int limit) {
+        List<IndexAdvice> report = new ArrayList<>();
+        for (QueryStats stats : profiler.snapshot()) {
+            if (report.size() >= limit) break;
+            if (!explainable(stats.sql())) continue;
+
+            List<String> plan;
+            try {
+                plan = readJdbi.withHandle(h -> explain(h, stats.sql()));
+            } catch (Exception e) {
+                log.debug("Cannot explain query shape: {}", stats.sql(), e);
+                continue;
+            }
+
+            String suggestion = suggest(stats.sql(), plan);
+            if (suggestion != null) {
+                suggested.put(indexName(suggestion), suggestion);
+            }
+            report.add(new IndexAdvice(stats.sql(), stats.calls(), stats.meanMillis(), stats.totalMillis(),
+                    plan, suggestion));
+        }
+        return report;
+    }
+
+    /**
+     * Builds a suggested index on every guild's database. Only indexes
+     * suggested by a previous {@link #report} can be applied.
+     *
+     * @param name the index name from the suggestion
+     * @return the DDL that was run
+     * @throws IllegalArgumentException if no such index was suggested
+     */
+    public String apply(String name) {
+        String ddl = suggested.get(name);
+        if (ddl == null) {
+            throw new IllegalArgumentException("No index named '" + name + "' has been suggested");
+        }
+
+        // The primary guild and unbound work share the default database; build it once
+        Set<Long> guilds = new LinkedHashSet<>(partitions.guildIds());
+        guilds.add(GuildContext.NONE);
+        Set<DataSource> built = Collections.newSetFromMap(new IdentityHashMap<>());
+        for (long guildId : guilds) {
+            if (!built.add(partitions.dataSource(guildId))) continue;
+            long start = System.nanoTime();
+            GuildContext.run(guildId, () -> jdbi.useHandle(h -> h.execute(ddl)));
+            log.info("Built index {} for guild {} in {} ms", name, guildId, (System.nanoTime() - start) / 1_000_000);
+        }
+        suggested.remove(name);
+        return ddl;
+    }
+
+    /**
+     * Runs {@code EXPLAIN QUERY PLAN} for a recorded shape. Shapes keep their
+     * parameters as {@code ?}; each is bound to {@code NULL}, which SQLite
+     * plans like any other value.
+     */
+    static List<String> explain(Handle handle, String sql) {
+        Query query = handle.createQuery("EXPLAIN QUERY PLAN " + sql);
+        int parameters = parameterCount(sql);
+        for (int i = 0; i < parameters; i++) {
+            query.bindNull(i, Types.NULL);
+        }
+        return query.map((rs, ctx) -> rs.getString("detail")).list();
+    }
+
+    /**
+     * Counts the {@code ?} placeholders outside string literals.
+     */
+    static int parameterCount(String sql) {
+        int count = 0;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') quoted = !quoted;
+            else if (c == '?' && !quoted) count++;
+        }
+        return count;
+    }
+
+    private static boolean explainable(String sql) {
+        String verb = sql.stripLeading().split("\\s", 2)[0].toUpperCase(Locale.ROOT);
+        return verb.equals("SELECT") || verb.equals("UPDATE") || verb.equals("DELETE") || verb.equals("WITH");
+    }
+
+    /**
+     * Derives an index for a single-table statement whose plan does not
+     * already use one covering all of its filtered columns.
+     */
+    static String suggest(String sql, List<String> plan) {
+        if (sql.toUpperCase(Locale.ROOT).contains(" JOIN ")) return null;
+
+        Matcher table = TABLE.matcher(sql);
+        Matcher where = WHERE.matcher(sql);
+        if (!table.find() || !where.find()) return null;
+        String tableName = table.group(1);
+        String filter = where.group(1);
+
+        Set<String> columns = new LinkedHashSet<>();
+        EQUALITY.matcher(filter).results().forEach(m -> columns.add(m.group(1)));
+        RANGE.matcher(filter).results().findFirst().ifPresent(m -> columns.add(m.group(1)));
+        String nullColumn = IS_NULL.matcher(filter).results().findFirst().map(m -> m.group(1)).orElse(null);
+        if (columns.isEmpty() && nullColumn != null) columns.add(nullColumn);
+        if (columns.isEmpty() || columns.contains("id")) return null;
+
+        for (String step : plan) {
+            if (step.contains("USING INTEGER PRIMARY KEY") || step.contains("USING PRIMARY KEY")) return null;
+            Matcher search = SEARCH.matcher(step);
+            if (search.find() && search.group(1).equalsIgnoreCase(tableName)
+                    && search.group(2).split(" AND ").length >= columns.size()) {
+                return null;
+            }
+        }
+
+        String name = tableName + "_" + String.join("_", columns) + (nullColumn != null ? "_open" : "") + "_idx";
+        return "CREATE INDEX IF NOT EXISTS " + name + " ON " + tableName + " (" + String.join(", ", columns) + ")"
+                + (nullColumn != null ? " WHERE " + nullColumn + " IS NULL" : "");
+    }
+
+    private static String indexName(String ddl) {
+        return ddl.split("\\s+")[5];
+    }
+}
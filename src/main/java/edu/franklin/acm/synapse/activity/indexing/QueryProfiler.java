@@ -0,0 +1,118 @@
+package edu.franklin.acm.synapse.activity.indexing;
+
+import java.sql.SQLException;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jdbi.v3.core.statement.SqlLogger;
+import org.jdbi.v3.core.statement.StatementContext;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Records the shape of every statement run through the shared {@code Jdbi},
+ * with how often it ran and how long it took. A shape is the statement's SQL
+ * with parameters as {@code ?} and expanded lists collapsed, so one DAO
+ * method is one shape whatever its arguments.
+ *
+ * <p>Installed as the {@link SqlLogger} by the DAO producer when
+ * {@code synapse.db.profiling.enabled} is set. The {@link IndexAdvisor} reads
+ * it to decide which queries are worth explaining.
+ */
+@ApplicationScoped
+public class QueryProfiler implements SqlLogger {
+
+    /** Distinct shapes kept; statements beyond this are not recorded. */
+    static final int MAX_SHAPES = 512;
+
+    private static final Pattern PARAMETER_LIST = Pattern.compile("\\?(\\s*,\\s*\\?)+");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    @ConfigProperty(name = "synapse.db.profiling.enabled", defaultValue = "false")
+    boolean enabled;
+
+    /**
+     * Execution totals for one statement shape.
+     */
+    private static final class Shape {
+        final LongAdder calls = new LongAdder();
+        final LongAdder totalNanos = new LongAdder();
+        final LongAccumulator maxNanos = new LongAccumulator(Math::max, 0L);
+    }
+
+    /**
+     * Snapshot of one shape's totals.
+     */
+    public record QueryStats(String sql, long calls, long totalNanos, long maxNanos) {
+
+        public double meanMillis() {
+            return calls == 0 ? 0 : totalNanos / (calls * 1_000_000.0);
+        }
+
+        public double totalMillis() {
+            return totalNanos / 1_000_000.0;
+        }
+    }
+
+    private final Map<String, Shape> shapes = new ConcurrentHashMap<>();
+
+    public boolean enabled() {
+        return enabled;
+    }
+
+    @Override
+    public void logAfterExecution(StatementContext context) {
+        record(context);
+    }
+
+    @Override
+    public void logException(StatementContext context, SQLException ex) {
+        record(context);
+    }
+
+    private void record(StatementContext context) {
+        if (context.getParsedSql() == null) return;
+
+        String sql = shape(context.getParsedSql().getSql());
+        Shape shape = shapes.get(sql);
+        if (shape == null) {
+            if (shapes.size() >= MAX_SHAPES) return;
+            shape = shapes.computeIfAbsent(sql, s -> new Shape());
+        }
+
+        long nanos = context.getElapsedTime(ChronoUnit.NANOS);
+        shape.calls.increment();
+        shape.totalNanos.add(nanos);
+        shape.maxNanos.accumulate(nanos);
+    }
+
+    /**
+     * Recorded shapes, most total time first.
+     */
+    public List<QueryStats> snapshot() {
+        List<QueryStats> stats = new ArrayList<>(shapes.size());
+        shapes.forEach((sql, s) -> stats.add(new QueryStats(sql, s.calls.sum(), s.totalNanos.sum(), s.maxNanos.get())));
+        stats.sort(Comparator.comparingLong(QueryStats::totalNanos).reversed());
+        return stats;
+    }
+
+    /**
+     * Forgets everything recorded so far.
+     */
+    public void reset() {
+        shapes.clear();
+    }
+
+    static String shape(String sql) {
+        String collapsed = PARAMETER_LIST.matcher(sql).replaceAll("?");
+        return WHITESPACE.matcher(collapsed).replaceAll(" ").strip();
+    }
+}
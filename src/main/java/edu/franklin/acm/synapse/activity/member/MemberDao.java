@@ -1,6 +1,16 @@
 package edu.franklin.acm.synapse.activity.member;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
+import org.jdbi.v3.sqlobject.config.KeyColumn;
+import org.jdbi.v3.sqlobject.config.ValueColumn;
 import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindList;
+import org.jdbi.v3.sqlobject.customizer.BindMethods;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
@@ -11,6 +21,7 @@ import org.jdbi.v3.sqlobject.statement.SqlUpdate;
  * Live scanner maintains currency for name, global_name, nickname, avatar_hash,
  * pending.
  */
+@GenerateSqlObject
 public interface MemberDao {
 
     /**
@@ -24,6 +35,7 @@ public interface MemberDao {
             ON CONFLICT (ext_id) DO UPDATE SET
                 name = :name,
                 is_active = 1,
+                version = version + 1,
                 updated_at = CURRENT_TIMESTAMP
             RETURNING id
             """)
@@ -48,6 +60,7 @@ public interface MemberDao {
                 joined_at = :joinedAt,
                 premium_since = :premiumSince,
                 pending = :pending,
+                version = version + 1,
                 updated_at = CURRENT_TIMESTAMP
             RETURNING id
             """)
@@ -62,15 +75,63 @@ public interface MemberDao {
             @Bind("premiumSince") String premiumSince,
             @Bind("pending") boolean pending);
 
+    /**
+     * Batched form of {@link #upsertFull}. Used by startup reconciliation for
+     * members whose profile differs from the stored row.
+     */
+    @SqlBatch("""
+            INSERT INTO members (ext_id, name, global_name, nickname, avatar_hash,
+                                is_bot, is_active, joined_at, premium_since, pending)
+            VALUES (:extId, :name, :globalName, :nickname, :avatarHash,
+                    :isBot, 1, :joinedAt, :premiumSince, :pending)
+            ON CONFLICT (ext_id) DO UPDATE SET
+                name = :name,
+                global_name = :globalName,
+                nickname = :nickname,
+                avatar_hash = :avatarHash,
+                is_bot = :isBot,
+                is_active = 1,
+                joined_at = :joinedAt,
+                premium_since = :premiumSince,
+                pending = :pending,
+                version = version + 1,
+                updated_at = CURRENT_TIMESTAMP
+            """)
+    void upsertFullBatch(@BindMethods List<MemberProfile> profiles);
+
+    /**
+     * The stored profiles of the given members. Used by startup
+     * reconciliation to diff each streamed chunk of the guild roster.
+     *
+     * @param extIds Discord user IDs; callers keep this under SQLite's bound parameter limit
+     */
+    @SqlQuery("""
+            SELECT id, ext_id, name, global_name, nickname, avatar_hash,
+                   is_bot, is_active, joined_at, premium_since, pending
+            FROM members
+            WHERE ext_id IN (<extIds>)
+            """)
+    List<MemberProfile> findProfilesByExtIds(@BindList("extIds") Collection<Long> extIds);
+
     @SqlQuery("SELECT id FROM members WHERE ext_id = :extId")
     Long findIdByExtId(@Bind("extId") long extId);
 
+    @SqlQuery("SELECT ext_id, id FROM members WHERE ext_id IN (<extIds>)")
+    @KeyColumn("ext_id")
+    @ValueColumn("id")
+    Map<Long, Long> findIdsByExtIds(@BindList("extIds") Collection<Long> extIds);
+
+    @SqlQuery("SELECT id, ext_id FROM members WHERE id IN (<ids>)")
+    @KeyColumn("id")
+    @ValueColumn("ext_id")
+    Map<Long, Long> findExtIdsByIds(@BindList("ids") Collection<Long> ids);
+
     /**
      * Soft-delete: mark a member as inactive when they leave the guild. We
      * never nuke member data — they might come back.
      */
     @SqlUpdate("""
-            UPDATE members SET is_active = 0, updated_at = CURRENT_TIMESTAMP
+            UPDATE members SET is_active = 0, version = version + 1, updated_at = CURRENT_TIMESTAMP
             WHERE ext_id = :extId
             """)
     void deactivate(@Bind("extId") long extId);
@@ -79,22 +140,43 @@ public interface MemberDao {
      * Re-activate a member (called on re-join or startup reconciliation).
      */
     @SqlUpdate("""
-            UPDATE members SET is_active = 1, updated_at = CURRENT_TIMESTAMP
+            UPDATE members SET is_active = 1, version = version + 1, updated_at = CURRENT_TIMESTAMP
             WHERE ext_id = :extId
             """)
     void activate(@Bind("extId") long extId);
 
     /**
-     * Mark all members as inactive. Used during startup reconciliation — we'll
-     * then re-activate the ones who are actually present in the guild.
+     * Allocates the stamp for a new reconciliation pass. Members seen by the
+     * pass are stamped with it; active members left with an older stamp at
+     * the end are no longer in the guild.
+     */
+    @SqlQuery("SELECT COALESCE(MAX(reconcile_generation), 0) + 1 FROM members")
+    long nextReconcileGeneration();
+
+    @SqlUpdate("UPDATE members SET reconcile_generation = :generation WHERE ext_id IN (<extIds>)")
+    void stampReconcileGeneration(@Bind("generation") long generation,
+                                  @BindList("extIds") Collection<Long> extIds);
+
+    /**
+     * Deactivates members the given reconciliation pass did not see. Only
+     * the generation decides: {@code updated_at} also moves on currency and
+     * profile writes, so it cannot tell a departed member from one who was
+     * merely active. Live joins are applied after the pass, and re-activate
+     * anyone it swept.
+     *
+     * @return the number of members deactivated
      */
-    @SqlUpdate("UPDATE members SET is_active = 0, updated_at = CURRENT_TIMESTAMP")
-    void deactivateAll();
+    @SqlUpdate("""
+            UPDATE members SET is_active = 0, version = version + 1, updated_at = CURRENT_TIMESTAMP
+            WHERE is_active = 1
+              AND reconcile_generation < :generation
+            """)
+    int deactivateUnseen(@Bind("generation") long generation);
 
-    @SqlUpdate("UPDATE members SET p_currency = p_currency + :amount, updated_at = CURRENT_TIMESTAMP WHERE id = :memberId")
+    @SqlUpdate("UPDATE members SET p_currency = p_currency + :amount, version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = :memberId")
     void incrementPCurrency(@Bind("memberId") long memberId, @Bind("amount") int amount);
 
-    @SqlUpdate("UPDATE members SET s_currency = s_currency + :amount, updated_at = CURRENT_TIMESTAMP WHERE id = :memberId")
+    @SqlUpdate("UPDATE members SET s_currency = s_currency + :amount, version = version + 1, updated_at = CURRENT_TIMESTAMP WHERE id = :memberId")
     void incrementSCurrency(@Bind("memberId") long memberId, @Bind("amount") int amount);
 
     @SqlQuery("SELECT p_currency FROM members WHERE id = :memberId")
@@ -126,4 +208,36 @@ public interface MemberDao {
 
     @SqlQuery("SELECT ext_id FROM members WHERE id = :memberId")
     Long findExtIdById(@Bind("memberId") long memberId);
+
+    /**
+     * One page of members in ID order, starting after the cursor.
+     */
+    @SqlQuery("""
+            SELECT id, ext_id, name, global_name, nickname, is_bot, is_active,
+                   joined_at, level, p_currency, s_currency, updated_at
+            FROM members
+            WHERE id > :after
+            ORDER BY id
+            LIMIT :limit
+            """)
+    List<MemberSummary> findPage(@Bind("after") long after, @Bind("limit") int limit);
+
+    /**
+     * A token that changes whenever the page {@link #findPage} would return
+     * changes, read from the same rows without loading them. Every write to a
+     * member increments its {@code version}, so the sum grows with each one.
+     */
+    @SqlQuery("""
+            SELECT COUNT(*) || ':' || COALESCE(MAX(id), 0) || ':' || COALESCE(SUM(version), 0)
+            FROM (SELECT id, version FROM members WHERE id > :after ORDER BY id LIMIT :limit)
+            """)
+    String findPageVersion(@Bind("after") long after, @Bind("limit") int limit);
+
+    @SqlQuery("""
+            SELECT id, ext_id, name, global_name, nickname, is_bot, is_active,
+                   joined_at, level, p_currency, s_currency, updated_at
+            FROM members
+            WHERE ext_id = :extId
+            """)
+    MemberSummary findSummaryByExtId(@Bind("extId") long extId);
 }
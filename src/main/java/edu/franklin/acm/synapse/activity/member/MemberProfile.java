@@ -0,0 +1,55 @@
+package edu.franklin.acm.synapse.activity.member;
+
+import java.util.Objects;
+
+import net.dv8tion.jda.api.entities.Member;
+
+/**
+ * The Discord-sourced profile columns of a member row. Used by startup
+ * reconciliation to diff the stored guild roster against the live one.
+ */
+public record MemberProfile(
+        long id,
+        long extId,
+        String name,
+        String globalName,
+        String nickname,
+        String avatarHash,
+        boolean isBot,
+        boolean isActive,
+        String joinedAt,
+        String premiumSince,
+        boolean pending) {
+
+    public static MemberProfile fromDiscord(Member member) {
+        var timeBoosted = member.getTimeBoosted();
+        return new MemberProfile(
+                0L,
+                member.getIdLong(),
+                member.getUser().getName(),
+                member.getUser().getGlobalName(),
+                member.getNickname(),
+                member.getUser().getAvatarId(),
+                member.getUser().isBot(),
+                true,
+                member.getTimeJoined().toString(),
+                timeBoosted != null ? timeBoosted.toString() : null,
+                member.isPending());
+    }
+
+    /**
+     * True if both profiles carry the same Discord-sourced values, ignoring
+     * the internal id and activity flag.
+     */
+    public boolean sameProfile(MemberProfile other) {
+        return extId == other.extId
+                && isBot == other.isBot
+                && pending == other.pending
+                && Objects.equals(name, other.name)
+                && Objects.equals(globalName, other.globalName)
+                && Objects.equals(nickname, other.nickname)
+                && Objects.equals(avatarHash, other.avatarHash)
+                && Objects.equals(joinedAt, other.joinedAt)
+                && Objects.equals(premiumSince, other.premiumSince);
+    }
+}
@@ -0,0 +1,9 @@
+package edu.franklin.acm.synapse.activity.member;
+
+/**
+ * One row of the member_roles junction table, by internal IDs.
+ */
+public record MemberRole(
+        long memberId,
+        long roleId) {
+}
@@ -1,9 +1,13 @@
 package edu.franklin.acm.synapse.activity.member;
 
+import java.util.Collection;
 import java.util.List;
 
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
 import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindList;
 import org.jdbi.v3.sqlobject.customizer.BindMethods;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
@@ -13,7 +17,11 @@ import org.jdbi.v3.sqlobject.statement.SqlUpdate;
  * <p><strong>Workflow:</strong> To replace a member's entire role set, call
  * {@link #deleteRoles(long)} followed by zero or more {@link #insertRole(long, long)}
  * calls, then {@link #insertRoleChangeEvent(MemberRoleChangeEvent)} to record the change.
+ * Callers that have already diffed the role sets (live role sync and startup
+ * reconciliation) use {@link #insertRoles(List)} and
+ * {@link #deleteRoleAssignments(List)} to apply only the delta.
  */
+@GenerateSqlObject
 public interface MemberRoleDao {
     
     /**
@@ -37,6 +45,30 @@ public interface MemberRoleDao {
         """)
     void insertRole(@Bind("memberId") long memberId, @Bind("roleId") long roleId);
 
+    /**
+     * Inserts many role assignments in one batch.
+     */
+    @SqlBatch("""
+        INSERT INTO member_roles (member_id, role_id)
+        VALUES (:memberId, :roleId)
+        ON CONFLICT DO NOTHING
+        """)
+    void insertRoles(@BindMethods List<MemberRole> assignments);
+
+    /**
+     * Removes specific role assignments in one batch.
+     */
+    @SqlBatch("DELETE FROM member_roles WHERE member_id = :memberId AND role_id = :roleId")
+    void deleteRoleAssignments(@BindMethods List<MemberRole> assignments);
+
+    /**
+     * Returns the role assignments of the given members, by internal IDs.
+     *
+     * @param memberIds internal member IDs; callers keep this under SQLite's bound parameter limit
+     */
+    @SqlQuery("SELECT member_id, role_id FROM member_roles WHERE member_id IN (<memberIds>)")
+    List<MemberRole> findByMemberIds(@BindList("memberIds") Collection<Long> memberIds);
+
     /**
      * Returns the external Discord role IDs for a member by joining through
      * the {@code roles} reference table.
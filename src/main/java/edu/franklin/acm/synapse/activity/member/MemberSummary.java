@@ -0,0 +1,20 @@
+package edu.franklin.acm.synapse.activity.member;
+
+/**
+ * A member as exposed by the activity API: profile, standing and balances,
+ * without reconciliation bookkeeping.
+ */
+public record MemberSummary(
+        long id,
+        long extId,
+        String name,
+        String globalName,
+        String nickname,
+        boolean isBot,
+        boolean isActive,
+        String joinedAt,
+        int level,
+        int pCurrency,
+        int sCurrency,
+        String updatedAt) {
+}
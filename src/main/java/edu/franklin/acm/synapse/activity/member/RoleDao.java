@@ -2,9 +2,14 @@ package edu.franklin.acm.synapse.activity.member;
 
 import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
+import org.jdbi.v3.sqlobject.config.KeyColumn;
+import org.jdbi.v3.sqlobject.config.ValueColumn;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindList;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
@@ -13,6 +18,7 @@ import org.jdbi.v3.sqlobject.statement.SqlUpdate;
  * human-readable names. Follows the same upsert/deactivate pattern as
  * {@link edu.franklin.acm.synapse.activity.channel.CategoryDao}.
  */
+@GenerateSqlObject
 public interface RoleDao {
 
     @SqlQuery("""
@@ -26,6 +32,21 @@ public interface RoleDao {
             """)
     long upsert(@Bind("extId") long extId, @Bind("name") String name);
 
+    @SqlBatch("""
+            INSERT INTO roles (ext_id, name, is_active)
+            VALUES (:extId, :name, 1)
+            ON CONFLICT (ext_id) DO UPDATE SET
+                name       = :name,
+                is_active  = 1,
+                updated_at = CURRENT_TIMESTAMP
+            """)
+    void upsertBatch(@Bind("extId") List<Long> extIds, @Bind("name") List<String> names);
+
+    @SqlQuery("SELECT ext_id, id FROM roles")
+    @KeyColumn("ext_id")
+    @ValueColumn("id")
+    Map<Long, Long> findAllIds();
+
     @SqlQuery("SELECT ext_id FROM roles WHERE is_active = 1")
     List<Long> findAllActiveExtIds();
 
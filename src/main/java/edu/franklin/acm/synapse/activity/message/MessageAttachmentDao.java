@@ -2,6 +2,7 @@ package edu.franklin.acm.synapse.activity.message;
 
 import java.util.List;
 
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindMethods;
 import org.jdbi.v3.sqlobject.statement.SqlBatch;
@@ -11,6 +12,7 @@ import org.jdbi.v3.sqlobject.statement.SqlUpdate;
  * Writes message attachment rows. When a message is upserted, its old
  * attachments are deleted and re-inserted to keep the set current.
  */
+@GenerateSqlObject
 public interface MessageAttachmentDao {
 
     @SqlUpdate("""
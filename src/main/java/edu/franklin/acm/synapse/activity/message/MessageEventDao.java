@@ -1,13 +1,24 @@
 package edu.franklin.acm.synapse.activity.message;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
+import org.jdbi.v3.sqlobject.config.KeyColumn;
+import org.jdbi.v3.sqlobject.config.ValueColumn;
 import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.BindList;
 import org.jdbi.v3.sqlobject.customizer.BindMethods;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
+import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
 /**
  * Persists message event data with upsert semantics on Discord message ID (ext_id).
  * Ensures a single row per message; message edits overwrite mutable fields in place.
  */
+@GenerateSqlObject
 public interface MessageEventDao {
 
     /**
@@ -54,7 +65,8 @@ public interface MessageEventDao {
                 has_poll = :hasPoll,
                 embed_count = :embedCount,
                 is_voice_message = :isVoiceMessage,
-                flags = :flags
+                flags = :flags,
+                version = version + 1
             RETURNING id
             """)
     long upsert(@BindMethods MessageEvent messageEvent);
@@ -67,4 +79,118 @@ public interface MessageEventDao {
      */
     @SqlQuery("SELECT id FROM messages WHERE ext_id = :extId")
     Long findIdByExtId(@Bind("extId") long extId);
+
+    /**
+     * Looks up internal row IDs for a set of Discord message IDs. Messages that
+     * were never ingested are absent from the result.
+     *
+     * @param extIds Discord message IDs; callers keep this under SQLite's bound parameter limit
+     * @return ext_id to internal row ID
+     */
+    @SqlQuery("SELECT ext_id, id FROM messages WHERE ext_id IN (<extIds>)")
+    @KeyColumn("ext_id")
+    @ValueColumn("id")
+    Map<Long, Long> findIdsByExtIds(@BindList("extIds") Collection<Long> extIds);
+
+    /**
+     * Adjusts the denormalized total reaction count by coalesced live deltas.
+     * Floors at 0 to avoid negative counts from event ordering quirks.
+     */
+    @SqlBatch("UPDATE messages SET reaction_count = MAX(reaction_count + :delta, 0), version = version + 1 WHERE id = :id")
+    void applyReactionCountDeltas(@Bind("id") List<Long> ids, @Bind("delta") List<Integer> deltas);
+
+    /**
+     * Applies a live edit to an already-ingested message. Touches only the
+     * columns an edit can change; reaction_count is owned by the reaction
+     * flush and thread_id cannot change. The row is skipped when nothing
+     * differs (e.g. an embed refresh that unfurled nothing new) or when the
+     * message has been deleted.
+     *
+     * @param id      internal row ID
+     * @param message the edited message; only its mutable fields are read
+     * @return 1 if the row changed, else 0
+     */
+    @SqlUpdate("""
+            UPDATE messages SET
+                content = :content,
+                content_length = :contentLength,
+                edited_at = :editedAt,
+                has_attachments = :hasAttachments,
+                attachment_count = :attachmentCount,
+                mention_user_count = :mentionUserCount,
+                mention_role_count = :mentionRoleCount,
+                mention_channel_count = :mentionChannelCount,
+                mention_everyone = :mentionEveryone,
+                is_pinned = :isPinned,
+                has_poll = :hasPoll,
+                embed_count = :embedCount,
+                flags = :flags,
+                version = version + 1
+            WHERE id = :rowId
+                AND deleted_at IS NULL
+                AND (content IS NOT :content
+                    OR edited_at IS NOT :editedAt
+                    OR attachment_count IS NOT :attachmentCount
+                    OR mention_user_count IS NOT :mentionUserCount
+                    OR mention_role_count IS NOT :mentionRoleCount
+                    OR mention_channel_count IS NOT :mentionChannelCount
+                    OR mention_everyone IS NOT :mentionEveryone
+                    OR is_pinned IS NOT :isPinned
+                    OR has_poll IS NOT :hasPoll
+                    OR embed_count IS NOT :embedCount
+                    OR flags IS NOT :flags)
+            """)
+    int updateMutable(@Bind("rowId") long id, @BindMethods MessageEvent message);
+
+    /**
+     * Tombstones deleted messages by Discord ID. Already-deleted rows keep their
+     * original deletion time.
+     *
+     * @param extIds Discord message IDs; callers keep this under SQLite's bound parameter limit
+     * @return the number of rows tombstoned
+     */
+    @SqlUpdate("""
+            UPDATE messages SET deleted_at = CURRENT_TIMESTAMP, version = version + 1
+            WHERE ext_id IN (<extIds>) AND deleted_at IS NULL
+            """)
+    int markDeleted(@BindList("extIds") Collection<Long> extIds);
+
+    /**
+     * One page of a member's messages, newest first, strictly before the
+     * cursor. The cursor is the message's event ID, so the page is read in
+     * order from the member's events index.
+     */
+    @SqlQuery("""
+            SELECT m.id, m.event_id, m.ext_id, e.channel_id, m.thread_id, m.content_length,
+                   m.is_reply, m.attachment_count, m.reaction_count,
+                   m.created_at, m.edited_at, m.deleted_at
+            FROM events e
+            JOIN messages m ON m.event_id = e.id
+            WHERE e.member_id = :memberId AND e.event_type = 'MESSAGE_CREATE' AND e.id < :before
+            ORDER BY e.id DESC
+            LIMIT :limit
+            """)
+    List<MessageSummary> findPageByMember(
+            @Bind("memberId") long memberId,
+            @Bind("before") long before,
+            @Bind("limit") int limit);
+
+    /**
+     * A token that changes whenever {@link #findPageByMember} would return a
+     * different page, including edits, deletions and reaction counts. Each
+     * of those increments the message's {@code version}, so the sum grows
+     * with every change.
+     */
+    @SqlQuery("""
+            SELECT COUNT(*) || ':' || COALESCE(MAX(e.id), 0) || ':' || COALESCE(MIN(e.id), 0)
+                   || ':' || COALESCE(SUM(m.version), 0)
+            FROM (SELECT id FROM events
+                  WHERE member_id = :memberId AND event_type = 'MESSAGE_CREATE' AND id < :before
+                  ORDER BY id DESC LIMIT :limit) e
+            JOIN messages m ON m.event_id = e.id
+            """)
+    String findPageVersionByMember(
+            @Bind("memberId") long memberId,
+            @Bind("before") long before,
+            @Bind("limit") int limit);
 }
@@ -2,6 +2,7 @@ package edu.franklin.acm.synapse.activity.message;
 
 import java.util.List;
 
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindMethods;
 import org.jdbi.v3.sqlobject.statement.SqlBatch;
@@ -10,8 +11,10 @@ import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 /**
  * Writes per-emoji reaction rows for a message. Batch methods used by scanners
  * for snapshot persistence. Upsert/decrement methods used by live scanner for
- * individual reaction events.
+ * individual reaction events; the batch delta methods apply reaction events
+ * coalesced between flushes.
  */
+@GenerateSqlObject
 public interface MessageReactionDao {
 
     @SqlBatch("""
@@ -61,6 +64,34 @@ public interface MessageReactionDao {
             @Bind("emojiName") String emojiName,
             @Bind("emojiExtId") Long emojiExtId);
 
+    /**
+     * Applies positive coalesced deltas from live reaction events. Inserts rows
+     * for emoji not yet seen on the message.
+     */
+    @SqlBatch("""
+            INSERT INTO message_reactions (
+                message_id, emoji_name, emoji_ext_id, count, burst_count
+            ) VALUES (
+                :messageId, :emojiName, :emojiExtId, :delta, 0
+            )
+            ON CONFLICT (message_id, emoji_name, COALESCE(emoji_ext_id, 0))
+            DO UPDATE SET count = message_reactions.count + :delta
+            """)
+    void incrementBatch(@BindMethods List<ReactionDelta> deltas);
+
+    /**
+     * Applies negative coalesced deltas from live reaction events. Floors at 0
+     * like {@link #decrementCount}.
+     */
+    @SqlBatch("""
+            UPDATE message_reactions
+            SET count = MAX(count + :delta, 0)
+            WHERE message_id = :messageId
+                AND emoji_name = :emojiName
+                AND COALESCE(emoji_ext_id, 0) = COALESCE(:emojiExtId, 0)
+            """)
+    void decrementBatch(@BindMethods List<ReactionDelta> deltas);
+
     @SqlUpdate("DELETE FROM message_reactions WHERE message_id = :messageId")
     void deleteByMessageId(@Bind("messageId") long messageId);
 }
@@ -0,0 +1,22 @@
+package edu.franklin.acm.synapse.activity.message;
+
+/**
+ * A message as exposed by the activity API: its shape and engagement, not
+ * its content.
+ *
+ * @param eventId the message's event, which is also its page cursor
+ */
+public record MessageSummary(
+        long id,
+        long eventId,
+        long extId,
+        Long channelId,
+        Long threadId,
+        int contentLength,
+        boolean isReply,
+        int attachmentCount,
+        int reactionCount,
+        String createdAt,
+        String editedAt,
+        String deletedAt) {
+}
@@ -0,0 +1,14 @@
+package edu.franklin.acm.synapse.activity.message;
+
+/**
+ * Net change to one emoji's reaction count on a message, accumulated from live
+ * REACTION_ADD / REACTION_REMOVE events between flushes.
+ *
+ * @param emojiExtId custom emoji ID, or {@code null} for unicode emoji
+ */
+public record ReactionDelta(
+        long messageId,
+        String emojiName,
+        Long emojiExtId,
+        int delta) {
+}
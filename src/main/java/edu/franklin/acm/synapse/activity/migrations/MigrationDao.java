@@ -1,22 +1,26 @@
 package edu.franklin.acm.synapse.activity.migrations;
 
-import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
+import org.jdbi.v3.sqlobject.config.KeyColumn;
+import org.jdbi.v3.sqlobject.config.ValueColumn;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * DAO for easy access to the migrations table.
  */
+@GenerateSqlObject
 public interface MigrationDao {
     /**
      * Collects all items from the migrations table.
      * @return A list of migration executions.
      */
     @SqlQuery("SELECT name, succeeded, occurred_at FROM migrations ORDER BY occurred_at DESC")
-    @RegisterConstructorMapper(Migration.class)
     List<Migration> getAll();
 
     /**
@@ -26,4 +30,31 @@ public interface MigrationDao {
      */
     @SqlUpdate("INSERT INTO migrations (name, succeeded) VALUES (:name, :success)")
     void commit(@Bind("name") String name, @Bind("success") boolean success);
+
+    /**
+     * Collects the names of all migrations that have succeeded at least once.
+     * @return The succeeded migration names.
+     */
+    @SqlQuery("SELECT DISTINCT name FROM migrations WHERE succeeded")
+    Set<String> getSucceededNames();
+
+    /**
+     * Collects the checksum of every script recorded as applied.
+     * @return Script names mapped to the checksum they were applied with.
+     */
+    @SqlQuery("SELECT name, checksum FROM schema_version")
+    @KeyColumn("name")
+    @ValueColumn("checksum")
+    Map<String, String> getAppliedChecksums();
+
+    /**
+     * Records the checksum a script was applied with, replacing any previous one.
+     * @param name     The name of the script.
+     * @param checksum The checksum of its content.
+     */
+    @SqlUpdate("""
+            INSERT INTO schema_version (name, checksum) VALUES (:name, :checksum)
+            ON CONFLICT (name) DO UPDATE SET checksum = excluded.checksum, applied_at = CURRENT_TIMESTAMP
+            """)
+    void recordChecksum(@Bind("name") String name, @Bind("checksum") String checksum);
 }
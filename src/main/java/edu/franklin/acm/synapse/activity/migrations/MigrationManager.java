@@ -1,117 +1,222 @@
 package edu.franklin.acm.synapse.activity.migrations;
 
-import java.io.BufferedReader;
 import java.io.IOException;
-import java.io.InputStreamReader;
-import java.net.URL;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jdbi.v3.core.Handle;
 import org.jdbi.v3.core.Jdbi;
 import org.jdbi.v3.core.statement.UnableToCreateStatementException;
 import org.jdbi.v3.core.statement.UnableToExecuteStatementException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import edu.franklin.acm.synapse.activity.guild.GuildPartitions;
 import io.quarkus.runtime.Startup;
 import jakarta.inject.Singleton;
 
 /**
  * Singleton Bean that runs on startup. This bean manages the execution and state tracking
  * of the migration and schema files used to keep the database up to date.
+ *
+ * <p>Migrations are listed, in order, by the {@value #INDEX} file in the migrations folder,
+ * since a classpath folder cannot be listed from inside a jar or a native image. Every script
+ * is checksummed when this bean is created, and the checksums it was applied with are kept
+ * in the {@code schema_version} table. A database whose recorded checksums all match costs a
+ * single query; otherwise the schema is re-applied only if it changed, and only the
+ * migrations that never succeeded are run, each in its own transaction.
+ *
+ * <p>The schema only creates what is missing, so a column added to an existing table must
+ * also be added by a migration. An {@code ALTER TABLE ... ADD COLUMN} is skipped when the
+ * table already has the column, as it does on a database the schema has just created.
+ *
+ * <p>The default database is migrated first, then every guild partition (see
+ * {@link GuildPartitions}) concurrently: each partition is a separate
+ * database, so their migrations are independent, while within one they still
+ * run in order.
  */
 @Startup
 @Singleton
 public class MigrationManager implements Runnable {
     private static final Logger log = LoggerFactory.getLogger(MigrationManager.class);
 
+    /** Name of the file listing the migrations to run, relative to the migrations folder. */
+    public static final String INDEX = "index.txt";
+
+    private static final Pattern ADD_COLUMN =
+            Pattern.compile("(?is)^(?:\\s*--[^\\n]*\\n)*\\s*ALTER\\s+TABLE\\s+(\\w+)\\s+ADD\\s+(?:COLUMN\\s+)?(\\w+)");
+
     private final Jdbi jdbi;
     private final MigrationDao migrations;
+    private final GuildPartitions partitions;
     private final String schema;
     private final List<String> migrationFiles;
 
+    /** Every script this manager applies, schema first, mapped to its content. */
+    private final Map<String, String> scripts = new LinkedHashMap<>();
+    /** The checksum of each script, in the same order. */
+    private final Map<String, String> checksums = new LinkedHashMap<>();
+
     /**
      *
      * @param jdbi         A live JDBI connection.
      * @param migrationDao A DAO for maintaining migration execution state.
+     * @param partitions   The guild partitions, migrated after the default database.
      * @param doMigrations Whether to run the migrations automatically or not.
-     * @param schema       The schema file, which is the initial backbone. ALWAYS EXECUTED.
-     * @param migrations   The resource folder that contains the migration files to run.
+     * @param schema       The schema file, which is the initial backbone. Executed whenever it changes.
+     * @param migrations   The resource folder that contains the migration files and their index.
      */
     public MigrationManager(
             Jdbi jdbi,
             MigrationDao migrationDao,
+            GuildPartitions partitions,
             @ConfigProperty(name = "synapse.datasource.auto-migrate", defaultValue = "false") boolean doMigrations,
             @ConfigProperty(name = "synapse.datasource.schema") String schema,
             @ConfigProperty(name = "synapse.datasource.migrations") String migrations) {
         this.jdbi = jdbi;
         this.schema = schema;
         this.migrations = migrationDao;
+        this.partitions = partitions;
         this.migrationFiles = getMigrationFiles(migrations.endsWith("/") ? migrations : migrations + "/");
 
+        load(schema);
+        migrationFiles.forEach(this::load);
+
         if (doMigrations) {
             runMigrations();
+            migratePartitions();
         }
     }
 
+    /**
+     * Migrates the database of the guild bound to the calling thread.
+     */
     @Override
     public void run() {
         runMigrations();
     }
 
+    /**
+     * Migrates every guild partition concurrently.
+     */
+    private void migratePartitions() {
+        Map<Long, Future<?>> runs = new LinkedHashMap<>();
+        try (ExecutorService migrators = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long guildId : partitions.partitionedGuildIds()) {
+                runs.put(guildId, migrators.submit(() -> GuildContext.run(guildId, this)));
+            }
+        }
+        runs.forEach((guildId, run) -> {
+            try {
+                run.get();
+            } catch (ExecutionException e) {
+                throw new IllegalStateException("Migration failed for guild " + guildId, e.getCause());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException("Interrupted migrating guild " + guildId, e);
+            }
+        });
+    }
+
     private void runMigrations() {
-        runResource(schema, true);
+        final var applied = getAppliedChecksums();
+        if (checksums.entrySet().stream().allMatch(c -> c.getValue().equals(applied.get(c.getKey())))) {
+            log.debug("Schema and {} migrations are up to date", migrationFiles.size());
+            return;
+        }
+
+        if (!checksums.get(schema).equals(applied.get(schema))) {
+            runResource(schema, true);
+        }
 
-        final var previousMigrations = migrations.getAll();
+        // Migrations that succeeded before checksums were recorded are adopted, not re-run
+        final var succeeded = applied.isEmpty() ? migrations.getSucceededNames() : Set.<String>of();
 
         for (final var file : migrationFiles) {
-            final var successfulRun = previousMigrations
-                    .stream()
-                    .filter(m -> m.name().equals(file) && m.succeeded())
-                    .findFirst();
-
-            if (successfulRun.isEmpty())  {
+            final var recorded = applied.get(file);
+            if (recorded == null && succeeded.contains(file)) {
+                migrations.recordChecksum(file, checksums.get(file));
+            } else if (recorded == null) {
                 runResource(file, false);
+            } else if (!recorded.equals(checksums.get(file))) {
+                throw new IllegalStateException(
+                        "Migration \"" + file + "\" was modified after it was applied; add a new migration instead");
             }
         }
     }
 
     /**
-     * Collects all migration files from the given resource folder.
+     * Reads the recorded checksums, treating a database without the {@code schema_version}
+     * table yet as having none.
+     * @return Script names mapped to the checksum they were applied with.
+     */
+    private Map<String, String> getAppliedChecksums() {
+        try {
+            return migrations.getAppliedChecksums();
+        } catch (UnableToExecuteStatementException e) {
+            log.info("No schema version recorded yet; applying schema");
+            return Map.of();
+        }
+    }
+
+    /**
+     * Collects all migration files named by the index in the given resource folder.
+     * Blank lines and lines starting with {@code #} are ignored.
      * @param folder The folder to collect files from.
-     * @return A list of absolute resource paths to migration files.
+     * @return A list of absolute resource paths to migration files, in index order.
      */
     private List<String> getMigrationFiles(final String folder) {
-        try (final var is = resource(folder).openStream();
-             final var r  = new InputStreamReader(is);
-             final var br = new BufferedReader(r)) {
-            return br
-                    .lines()
-                    .map(s -> folder + s)
-                    .toList();
-        } catch (IOException e) {
-            throw new IllegalStateException(e);
-        }
+        return read(folder + INDEX)
+                .lines()
+                .map(String::strip)
+                .filter(s -> !s.isEmpty() && !s.startsWith("#"))
+                .map(s -> folder + s)
+                .toList();
+    }
+
+    /**
+     * Reads and checksums a script, keeping both for the lifetime of this bean.
+     * @param resourcePath The path of the SQL file to load.
+     */
+    private void load(String resourcePath) {
+        final var sql = read(resourcePath);
+        scripts.put(resourcePath, sql);
+        checksums.put(resourcePath, checksum(sql));
     }
 
     /**
-     * Executes a resource SQL file, optionally committing the execution to the migrations table.
+     * Executes a SQL script and records its checksum in one transaction, optionally
+     * committing the execution to the migrations table.
      * @param resourcePath The path of the SQL file to execute.
      * @param forced       Whether this execution was forced. If it was, it is not logged in the table.
      */
     private void runResource(String resourcePath, boolean forced) {
         boolean success = false;
 
-        try (final var is  = resource(resourcePath).openStream();
-             final var r   = new InputStreamReader(is);
-             final var h   = jdbi.open()) {
-            h.createScript(r.readAllAsString()).execute();
+        try {
+            jdbi.useTransaction(h -> {
+                String pending = pending(h, scripts.get(resourcePath));
+                if (!pending.isEmpty()) h.createScript(pending).execute();
+                h.attach(MigrationDao.class).recordChecksum(resourcePath, checksums.get(resourcePath));
+            });
             success = true;
 
             log.info("Successfully evaluated SQL resource \"{}\" (Forced: {})", resourcePath, forced);
-        } catch (IOException e) {
-            log.warn("Invalid resource path passed as migration: {} ({})", resourcePath, e.getMessage());
-            throw new IllegalStateException(e);
         } catch (UnableToCreateStatementException e) {
             log.error("Underlying issue in DataSource: {}", e.getMessage());
             throw new IllegalStateException("Migration failed due to DataSource issue: " + resourcePath, e);
@@ -124,17 +229,54 @@ public class MigrationManager implements Runnable {
     }
 
     /**
-     * Safety wrapper for collecting JAR resources without worrying about implicit null values.
-     * @param path The path to resolve to a resource URL.
-     * @return The resource URL.
+     * The statements of a script left to run: every one but those adding a
+     * column the table already has.
      */
-    private URL resource(String path) {
-        final var resource = MigrationManager.class.getResource(path);
-        if (resource == null) {
-            throw new IllegalArgumentException(
-                    "Resource path provided does not resolve to a real resource: " + path);
+    private static String pending(Handle handle, String sql) {
+        StringBuilder pending = new StringBuilder();
+        for (String statement : handle.createScript(sql).getStatements()) {
+            Matcher addColumn = ADD_COLUMN.matcher(statement);
+            if (addColumn.find() && hasColumn(handle, addColumn.group(1), addColumn.group(2))) {
+                log.debug("Column {}.{} already exists; skipping", addColumn.group(1), addColumn.group(2));
+                continue;
+            }
+            pending.append(statement).append(";\n");
         }
+        return pending.toString();
+    }
 
-        return resource;
+    private static boolean hasColumn(Handle handle, String table, String column) {
+        return handle.createQuery("SELECT COUNT(*) FROM pragma_table_info(:table) WHERE name = :column")
+                .bind("table", table)
+                .bind("column", column)
+                .mapTo(Integer.class)
+                .one() > 0;
+    }
+
+    /**
+     * Safety wrapper for reading JAR resources without worrying about implicit null values.
+     * @param path The path of the resource to read.
+     * @return The resource content.
+     */
+    private String read(String path) {
+        try (final InputStream is = MigrationManager.class.getResourceAsStream(path)) {
+            if (is == null) {
+                throw new IllegalArgumentException(
+                        "Resource path provided does not resolve to a real resource: " + path);
+            }
+            return new String(is.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            log.warn("Invalid resource path passed as migration: {} ({})", path, e.getMessage());
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static String checksum(String sql) {
+        try {
+            final var digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(sql.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
     }
 }
@@ -1,10 +1,16 @@
 package edu.franklin.acm.synapse.activity.rules;
 
+import java.util.List;
+
+import org.jdbi.v3.core.result.ResultIterator;
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
 import org.jdbi.v3.sqlobject.customizer.Bind;
+import org.jdbi.v3.sqlobject.customizer.FetchSize;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
+@GenerateSqlObject
 public interface RuleEvaluationDao {
 
     @SqlUpdate("""
@@ -35,4 +41,48 @@ public interface RuleEvaluationDao {
             @Bind("ruleId") long ruleId,
             @Bind("memberId") long memberId,
             @Bind("since") String since);
+
+    /**
+     * One page of the rules that fired for a member, newest first, strictly
+     * before the cursor.
+     */
+    @SqlQuery("""
+            SELECT id, rule_id, event_id, member_id, created_at
+            FROM rule_evaluations
+            WHERE member_id = :memberId AND id < :before
+            ORDER BY id DESC
+            LIMIT :limit
+            """)
+    List<RuleEvaluation> findPageByMember(
+            @Bind("memberId") long memberId,
+            @Bind("before") long before,
+            @Bind("limit") int limit);
+
+    /**
+     * A token that changes whenever {@link #findPageByMember} would return a
+     * different page. Evaluations are immutable, so their IDs suffice.
+     */
+    @SqlQuery("""
+            SELECT COUNT(*) || ':' || COALESCE(MAX(id), 0) || ':' || COALESCE(MIN(id), 0)
+            FROM (SELECT id FROM rule_evaluations WHERE member_id = :memberId AND id < :before
+                  ORDER BY id DESC LIMIT :limit)
+            """)
+    String findPageVersionByMember(
+            @Bind("memberId") long memberId,
+            @Bind("before") long before,
+            @Bind("limit") int limit);
+
+    /**
+     * Every rule evaluation after the cursor in ID order, as a cursor over
+     * the result set. The handle stays open until the iterator is exhausted
+     * or closed.
+     */
+    @SqlQuery("""
+            SELECT id, rule_id, event_id, member_id, created_at
+            FROM rule_evaluations
+            WHERE id > :after
+            ORDER BY id
+            """)
+    @FetchSize(1000)
+    ResultIterator<RuleEvaluation> streamAfter(@Bind("after") long after);
 }
@@ -2,14 +2,14 @@ package edu.franklin.acm.synapse.activity.rules;
 
 import java.util.List;
 
-import org.jdbi.v3.sqlobject.config.RegisterConstructorMapper;
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindMethods;
 import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
-@RegisterConstructorMapper(RulePredicate.class)
+@GenerateSqlObject
 public interface RulePredicateDao {
 
     @SqlQuery("""
@@ -20,6 +20,19 @@ public interface RulePredicateDao {
             """)
     List<RulePredicate> findByRuleId(@Bind("ruleId") long ruleId);
 
+    /**
+     * Loads the predicates of every enabled rule for an event type in one
+     * round-trip. Used by the rule engine when compiling its rule network.
+     */
+    @SqlQuery("""
+            SELECT p.id, p.rule_id, p.predicate_type, p.parameters, p.sort_order
+            FROM rule_predicates p
+            JOIN rules r ON p.rule_id = r.id
+            WHERE r.enabled = 1 AND r.event_type = :eventType
+            ORDER BY p.rule_id, p.sort_order
+            """)
+    List<RulePredicate> findEnabledByEventType(@Bind("eventType") String eventType);
+
     @SqlBatch("""
             INSERT INTO rule_predicates (rule_id, predicate_type, parameters, sort_order)
             VALUES (:ruleId, :predicateType, :parameters, :sortOrder)
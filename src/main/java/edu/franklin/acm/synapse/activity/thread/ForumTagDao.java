@@ -1,8 +1,10 @@
 package edu.franklin.acm.synapse.activity.thread;
 
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 
+@GenerateSqlObject
 public interface ForumTagDao {
 
     @SqlQuery("""
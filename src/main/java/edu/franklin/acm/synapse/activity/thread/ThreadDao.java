@@ -3,11 +3,13 @@ package edu.franklin.acm.synapse.activity.thread;
 import java.util.Collection;
 import java.util.List;
 
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.customizer.BindList;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
+@GenerateSqlObject
 public interface ThreadDao {
 
     @SqlQuery("""
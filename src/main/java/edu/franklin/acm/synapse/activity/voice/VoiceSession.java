@@ -5,7 +5,8 @@ import java.time.LocalDateTime;
 /**
  * One voice session — a member's time in a voice/stage channel.
  * left_at is null while the member is still connected.
- * duration_secs is computed when the session ends.
+ * duration_secs is computed when the session ends. accrued_secs is the part
+ * of the session already credited while it was open, as of checkpointed_at.
  */
 public record VoiceSession(
         long id,
@@ -14,5 +15,7 @@ public record VoiceSession(
         long channelId,
         LocalDateTime joinedAt,
         LocalDateTime leftAt,
-        Double durationSecs) {
+        Double durationSecs,
+        double accruedSecs,
+        LocalDateTime checkpointedAt) {
 }
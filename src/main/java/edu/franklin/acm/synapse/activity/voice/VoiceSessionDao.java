@@ -1,7 +1,11 @@
 package edu.franklin.acm.synapse.activity.voice;
 
+import java.util.List;
+
+import org.jdbi.v3.sqlobject.GenerateSqlObject;
 import org.jdbi.v3.sqlobject.customizer.Bind;
 import org.jdbi.v3.sqlobject.statement.GetGeneratedKeys;
+import org.jdbi.v3.sqlobject.statement.SqlBatch;
 import org.jdbi.v3.sqlobject.statement.SqlQuery;
 import org.jdbi.v3.sqlobject.statement.SqlUpdate;
 
@@ -9,7 +13,12 @@ import org.jdbi.v3.sqlobject.statement.SqlUpdate;
  * Manages voice session rows. Sessions are opened on voice join and closed
  * on voice leave/move. Orphaned sessions (left_at IS NULL after a restart)
  * are closed by the startup reconciliation pass.
+ *
+ * <p>Live voice traffic goes through {@link #openBatch} and {@link #closeBatch},
+ * fed by the in-memory presence tracker, which identifies each session by the
+ * event that opened it and measures durations itself.
  */
+@GenerateSqlObject
 public interface VoiceSessionDao {
 
     /**
@@ -26,6 +35,50 @@ public interface VoiceSessionDao {
             @Bind("channelId") long channelId,
             @Bind("joinedAt") String joinedAt);
 
+    /**
+     * Open many sessions in one batch.
+     */
+    @SqlBatch("""
+            INSERT INTO voice_sessions (event_id, member_id, channel_id, joined_at)
+            VALUES (:eventId, :memberId, :channelId, :joinedAt)
+            """)
+    void openBatch(
+            @Bind("eventId") List<Long> eventIds,
+            @Bind("memberId") List<Long> memberIds,
+            @Bind("channelId") List<Long> channelIds,
+            @Bind("joinedAt") List<String> joinedAts);
+
+    /**
+     * Close many sessions in one batch, each identified by the event that
+     * opened it, with a duration measured by the caller.
+     */
+    @SqlBatch("""
+            UPDATE voice_sessions
+            SET left_at = :leftAt,
+                duration_secs = :durationSecs
+            WHERE event_id = :eventId
+              AND left_at IS NULL
+            """)
+    void closeBatch(
+            @Bind("eventId") List<Long> eventIds,
+            @Bind("leftAt") List<String> leftAts,
+            @Bind("durationSecs") List<Double> durationSecs);
+
+    /**
+     * Save accrual progress for many open sessions in one batch.
+     */
+    @SqlBatch("""
+            UPDATE voice_sessions
+            SET accrued_secs = :accruedSecs,
+                checkpointed_at = :checkpointedAt
+            WHERE event_id = :eventId
+              AND left_at IS NULL
+            """)
+    void checkpointBatch(
+            @Bind("eventId") List<Long> eventIds,
+            @Bind("accruedSecs") List<Double> accruedSecs,
+            @Bind("checkpointedAt") List<String> checkpointedAts);
+
     /**
      * Close a voice session for a member in a specific channel.
      * Computes duration_secs from the difference between left_at and joined_at.
@@ -61,12 +114,14 @@ public interface VoiceSessionDao {
 
     /**
      * Close ALL orphaned sessions. Used during startup reconciliation
-     * before re-opening sessions for members currently in voice.
+     * before re-opening sessions for members currently in voice. Sessions
+     * that were checkpointed end at their last checkpoint, the last time the
+     * process is known to have seen them, rather than at restart.
      */
     @SqlUpdate("""
             UPDATE voice_sessions
-            SET left_at = :leftAt,
-                duration_secs = (julianday(:leftAt) - julianday(joined_at)) * 86400.0
+            SET left_at = COALESCE(checkpointed_at, :leftAt),
+                duration_secs = (julianday(COALESCE(checkpointed_at, :leftAt)) - julianday(joined_at)) * 86400.0
             WHERE left_at IS NULL
             """)
     void closeAllOrphaned(@Bind("leftAt") String leftAt);
@@ -83,4 +138,37 @@ public interface VoiceSessionDao {
     int countOpen(
             @Bind("memberId") long memberId,
             @Bind("channelId") long channelId);
+
+    /**
+     * One page of a member's voice sessions, newest first, strictly before
+     * the cursor.
+     */
+    @SqlQuery("""
+            SELECT id, event_id, member_id, channel_id, joined_at, left_at,
+                   duration_secs, accrued_secs, checkpointed_at
+            FROM voice_sessions
+            WHERE member_id = :memberId AND id < :before
+            ORDER BY id DESC
+            LIMIT :limit
+            """)
+    List<VoiceSession> findPageByMember(
+            @Bind("memberId") long memberId,
+            @Bind("before") long before,
+            @Bind("limit") int limit);
+
+    /**
+     * A token that changes whenever {@link #findPageByMember} would return a
+     * different page, including sessions closing or accruing.
+     */
+    @SqlQuery("""
+            SELECT COUNT(*) || ':' || COALESCE(MAX(id), 0) || ':' || COALESCE(MIN(id), 0)
+                   || ':' || COUNT(left_at) || ':' || COALESCE(MAX(checkpointed_at), '')
+            FROM (SELECT id, left_at, checkpointed_at FROM voice_sessions
+                  WHERE member_id = :memberId AND id < :before
+                  ORDER BY id DESC LIMIT :limit)
+            """)
+    String findPageVersionByMember(
+            @Bind("memberId") long memberId,
+            @Bind("before") long before,
+            @Bind("limit") int limit);
 }
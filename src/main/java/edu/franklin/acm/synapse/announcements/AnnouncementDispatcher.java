@@ -0,0 +1,209 @@
+package edu.franklin.acm.synapse.announcements;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.franklin.acm.synapse.activity.announcement.Announcement;
+import edu.franklin.acm.synapse.activity.announcement.AnnouncementDao;
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import edu.franklin.acm.synapse.activity.guild.GuildPartitions;
+import edu.franklin.acm.synapse.bot.StartupProgress;
+import edu.franklin.acm.synapse.bot.SynapseBot;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel;
+
+/**
+ * Delivers the announcement outbox to Discord.
+ *
+ * <p>Every {@code synapse.announcements.poll-interval} the pending rows of
+ * each guild are read and grouped by channel, and each channel's rows are
+ * merged into as few messages as fit Discord's length limit, so a burst of
+ * rule firings costs one request per channel rather than one per firing.
+ * Messages go through JDA's {@code RestAction} queue, which spaces requests
+ * by Discord's per-route rate limits without blocking the caller; the
+ * outcome is recorded from its callbacks.
+ *
+ * <p>Rows being sent are kept in memory until their send's callback runs, and
+ * later polls skip them however long JDA's queue holds the send. They are
+ * also leased, and the lease renewed on every poll while they wait, so they
+ * stay out of the due rows; if the process stops mid-send the lease runs out
+ * and they become due again. A failed send is retried after an
+ * exponential backoff with jitter, up to
+ * {@code synapse.announcements.max-attempts} times, after which the rows are
+ * marked {@code FAILED}, as are rows whose channel is not one of their
+ * guild's. Delivery only starts once the gateway is ready.
+ */
+@ApplicationScoped
+public class AnnouncementDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(AnnouncementDispatcher.class);
+
+    /** Rows read per guild per poll. */
+    static final int BATCH_SIZE = 100;
+
+    /** How long rows in flight are hidden from later polls, from the last renewal. */
+    static final long LEASE_SECONDS = 60;
+
+    static final long BASE_BACKOFF_SECONDS = 5;
+    static final long MAX_BACKOFF_SECONDS = 900;
+
+    @Inject AnnouncementDao announcementDao;
+    @Inject GuildPartitions partitions;
+    @Inject SynapseBot bot;
+    @Inject StartupProgress progress;
+
+    @ConfigProperty(name = "synapse.announcements.max-attempts", defaultValue = "8")
+    int maxAttempts;
+
+    /** IDs of rows whose send has not yet called back, by guild. */
+    private final Map<Long, Set<Long>> inFlight = new ConcurrentHashMap<>();
+
+    @Scheduled(every = "${synapse.announcements.poll-interval:2s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void deliver() {
+        if (!progress.gatewayReady()) return;
+
+        Set<Long> guilds = new LinkedHashSet<>(partitions.guildIds());
+        if (guilds.isEmpty()) guilds.add(GuildContext.NONE);
+
+        for (long guildId : guilds) {
+            try {
+                GuildContext.run(guildId, () -> deliverDue(guildId));
+            } catch (Exception e) {
+                log.warn("Cannot deliver announcements for guild {}: {}", guildId, e.getMessage());
+            }
+        }
+    }
+
+    private void deliverDue(long guildId) {
+        Set<Long> sending = inFlight.computeIfAbsent(guildId, id -> ConcurrentHashMap.newKeySet());
+        if (!sending.isEmpty()) {
+            announcementDao.lease(List.copyOf(sending), utcNow(LEASE_SECONDS));
+        }
+
+        List<Announcement> due = new ArrayList<>(announcementDao.findDue(utcNow(0), BATCH_SIZE));
+        due.removeIf(announcement -> sending.contains(announcement.id()));
+        if (due.isEmpty()) return;
+        announcementDao.lease(ids(due), utcNow(LEASE_SECONDS));
+
+        Map<Long, List<Announcement>> byChannel = new LinkedHashMap<>();
+        for (Announcement announcement : due) {
+            byChannel.computeIfAbsent(announcement.channelExtId(), id -> new ArrayList<>()).add(announcement);
+        }
+
+        for (Map.Entry<Long, List<Announcement>> channel : byChannel.entrySet()) {
+            GuildMessageChannel target = bot.messageChannel(guildId, channel.getKey());
+            if (target == null) {
+                fail(channel.getValue(), "channel " + channel.getKey() + " is not available in guild " + guildId);
+                continue;
+            }
+            for (List<Announcement> batch : coalesce(channel.getValue())) {
+                send(guildId, target, batch, sending);
+            }
+        }
+    }
+
+    private void send(long guildId, GuildMessageChannel channel, List<Announcement> batch, Set<Long> sending) {
+        StringBuilder text = new StringBuilder();
+        for (Announcement announcement : batch) {
+            if (!text.isEmpty()) text.append('\n');
+            text.append(announcement.content());
+        }
+
+        List<Long> ids = ids(batch);
+        sending.addAll(ids);
+        try {
+            channel.sendMessage(text.toString())
+                    .setAllowedMentions(EnumSet.of(Message.MentionType.USER, Message.MentionType.CHANNEL))
+                    .queue(
+                            sent -> settle(guildId, ids, sending, () -> announcementDao.markSent(ids, utcNow(0))),
+                            error -> settle(guildId, ids, sending, () -> fail(batch, error.getMessage())));
+        } catch (RuntimeException e) {
+            sending.removeAll(ids);
+            throw e;
+        }
+    }
+
+    /**
+     * Records a send's outcome, then lets later polls see its rows again.
+     */
+    private static void settle(long guildId, List<Long> ids, Set<Long> sending, Runnable record) {
+        try {
+            GuildContext.run(guildId, record);
+        } finally {
+            sending.removeAll(ids);
+        }
+    }
+
+    private void fail(List<Announcement> batch, String reason) {
+        int attempts = 1;
+        for (Announcement announcement : batch) {
+            attempts = Math.max(attempts, announcement.attempts() + 1);
+        }
+        long delay = backoffSeconds(attempts);
+        log.warn("Delivering {} announcement(s) failed (attempt {}): {}; retrying in {}s",
+                batch.size(), attempts, reason, delay);
+        announcementDao.recordFailure(ids(batch), utcNow(delay), maxAttempts);
+    }
+
+    /**
+     * Splits one channel's announcements into messages that each fit
+     * Discord's length limit, one announcement per line, in order.
+     */
+    static List<List<Announcement>> coalesce(List<Announcement> announcements) {
+        List<List<Announcement>> batches = new ArrayList<>();
+        List<Announcement> batch = new ArrayList<>();
+        int length = 0;
+        for (Announcement announcement : announcements) {
+            int added = announcement.content().length() + (batch.isEmpty() ? 0 : 1);
+            if (!batch.isEmpty() && length + added > Message.MAX_CONTENT_LENGTH) {
+                batches.add(batch);
+                batch = new ArrayList<>();
+                added = announcement.content().length();
+                length = 0;
+            }
+            batch.add(announcement);
+            length += added;
+        }
+        if (!batch.isEmpty()) batches.add(batch);
+        return batches;
+    }
+
+    /**
+     * Exponential backoff from {@link #BASE_BACKOFF_SECONDS}, capped at
+     * {@link #MAX_BACKOFF_SECONDS}, with up to half of it as random jitter so
+     * that rows failing together are not retried together.
+     */
+    static long backoffSeconds(int attempts) {
+        long ceiling = Math.min(MAX_BACKOFF_SECONDS, BASE_BACKOFF_SECONDS << Math.min(attempts - 1, 20));
+        return ThreadLocalRandom.current().nextLong(ceiling / 2, ceiling + 1);
+    }
+
+    private static List<Long> ids(List<Announcement> announcements) {
+        List<Long> ids = new ArrayList<>(announcements.size());
+        for (Announcement announcement : announcements) {
+            ids.add(announcement.id());
+        }
+        return ids;
+    }
+
+    private static String utcNow(long plusSeconds) {
+        return LocalDateTime.now(ZoneOffset.UTC).plusSeconds(plusSeconds).toString();
+    }
+}
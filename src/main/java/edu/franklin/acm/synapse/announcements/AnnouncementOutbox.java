@@ -0,0 +1,90 @@
+package edu.franklin.acm.synapse.announcements;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.franklin.acm.synapse.activity.announcement.AnnouncementDao;
+import edu.franklin.acm.synapse.activity.rules.Rule;
+import edu.franklin.acm.synapse.activity.rules.RuleOutcome;
+import edu.franklin.acm.synapse.rules.engine.RuleContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import net.dv8tion.jda.api.entities.Message;
+
+/**
+ * Writes {@code ANNOUNCEMENT} outcomes to the outbox for the
+ * {@link AnnouncementDispatcher} to deliver. Enqueueing is a single local
+ * insert, so the rule engine never waits on Discord.
+ *
+ * <p>Outcome parameters are JSON:
+ * <pre>{@code {"channel_id": "123456789012345678", "message": "{member} reached {rule}!"}}</pre>
+ * {@code channel_id} defaults to the channel of the triggering event. The
+ * message may use {@code {member}}, {@code {rule}} and {@code {channel}},
+ * which render as a mention of the member, the rule name and a link to the
+ * channel.
+ */
+@ApplicationScoped
+public class AnnouncementOutbox {
+
+    private static final Logger log = LoggerFactory.getLogger(AnnouncementOutbox.class);
+
+    @Inject AnnouncementDao announcementDao;
+    @Inject ObjectMapper mapper;
+
+    /**
+     * Queues the announcement of an outcome in the guild bound to the calling
+     * thread. Outcomes that name no message or channel are logged and skipped.
+     */
+    public void enqueue(Rule rule, RuleOutcome outcome, RuleContext ctx) {
+        JsonNode parameters = parameters(outcome);
+        String message = parameters.path("message").asText(null);
+        if (message == null || message.isBlank()) {
+            log.warn("Announcement outcome {} of rule '{}' has no message", outcome.id(), rule.name());
+            return;
+        }
+
+        Long channelExtId = parameters.hasNonNull("channel_id")
+                ? Long.valueOf(parameters.get("channel_id").asLong())
+                : ctx.channelExtId();
+        if (channelExtId == null || channelExtId == 0) {
+            log.warn("Announcement outcome {} of rule '{}' has no channel for event {}",
+                    outcome.id(), rule.name(), ctx.eventId());
+            return;
+        }
+
+        String content = render(message, rule, ctx, channelExtId);
+        announcementDao.enqueue(outcome.id(), ctx.eventId(), ctx.memberId(), channelExtId, content,
+                LocalDateTime.now(ZoneOffset.UTC).toString());
+    }
+
+    private JsonNode parameters(RuleOutcome outcome) {
+        if (outcome.parameters() == null) return mapper.createObjectNode();
+        try {
+            return mapper.readTree(outcome.parameters());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid parameters for rule_outcome "
+                    + outcome.id() + ": " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Fills in the placeholders. The result is cut to one Discord message.
+     */
+    static String render(String message, Rule rule, RuleContext ctx, long channelExtId) {
+        String member = ctx.memberExtId() != null ? "<@" + ctx.memberExtId() + ">" : "a member";
+        String content = message
+                .replace("{member}", member)
+                .replace("{rule}", rule.name())
+                .replace("{channel}", "<#" + channelExtId + ">");
+        return content.length() > Message.MAX_CONTENT_LENGTH
+                ? content.substring(0, Message.MAX_CONTENT_LENGTH)
+                : content;
+    }
+}
@@ -0,0 +1,60 @@
+package edu.franklin.acm.synapse.api;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.List;
+import java.util.Optional;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerRequestFilter;
+import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.ext.Provider;
+
+/**
+ * Guards the {@code /admin} endpoints, the bulk {@code /export}s of every
+ * member's activity, the per-member activity under {@code /members}, and the
+ * live {@code /feed} with a shared bearer token,
+ * {@code synapse.admin.token}. Without a configured token the guarded
+ * endpoints are not served at all.
+ */
+@Provider
+public class AdminGuard implements ContainerRequestFilter {
+
+    private static final String BEARER = "Bearer ";
+
+    /** First path segments of the guarded endpoints. */
+    static final List<String> GUARDED = List.of("admin", "export", "members", "feed");
+
+    @ConfigProperty(name = "synapse.admin.token")
+    Optional<String> token;
+
+    @Override
+    public void filter(ContainerRequestContext request) {
+        if (!guarded(request.getUriInfo().getPath())) return;
+
+        if (token.isEmpty() || token.get().isBlank()) {
+            request.abortWith(Response.status(Response.Status.NOT_FOUND).build());
+            return;
+        }
+        String header = request.getHeaderString(HttpHeaders.AUTHORIZATION);
+        if (header == null || !header.startsWith(BEARER) || !matches(header.substring(BEARER.length()))) {
+            request.abortWith(Response.status(Response.Status.UNAUTHORIZED)
+                    .header(HttpHeaders.WWW_AUTHENTICATE, "Bearer")
+                    .build());
+        }
+    }
+
+    static boolean guarded(String path) {
+        if (path.startsWith("/")) path = path.substring(1);
+        String segment = path.split("/", 2)[0];
+        return GUARDED.contains(segment);
+    }
+
+    private boolean matches(String presented) {
+        return MessageDigest.isEqual(presented.strip().getBytes(StandardCharsets.UTF_8),
+                token.get().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,116 @@
+package edu.franklin.acm.synapse.api;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.util.Locale;
+import java.util.function.Supplier;
+
+import org.jdbi.v3.core.result.ResultIterator;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.io.SerializedString;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.franklin.acm.synapse.activity.EventDao;
+import edu.franklin.acm.synapse.activity.ReadOnly;
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import edu.franklin.acm.synapse.activity.rules.RuleEvaluationDao;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.StreamingOutput;
+
+/**
+ * Bulk exports of the Event Lake, streamed row by row.
+ *
+ * <p>Each export holds a database cursor on the guild's read pool and writes
+ * every row to the response with a Jackson {@link JsonGenerator} as soon as
+ * it is mapped, so heap use is constant whatever the size of the export. On
+ * SQLite the cursor reads one WAL snapshot and does not block ingestion.
+ *
+ * <p>{@code format=ndjson} (the default) writes one JSON object per line;
+ * {@code format=json} writes a single JSON array. {@code after} resumes an
+ * interrupted export from the last ID received.
+ *
+ * <p>An export holds a read connection and a snapshot for as long as the
+ * client takes to read it, so callers present {@code synapse.admin.token},
+ * see {@link AdminGuard}.
+ */
+@Path("/export")
+public class ExportResource {
+
+    static final String NDJSON = "application/x-ndjson";
+
+    /** Rows written between flushes of the response. */
+    static final int FLUSH_EVERY = 1_000;
+
+    @Inject ObjectMapper mapper;
+    @Inject GuildScope guilds;
+    @Inject @ReadOnly EventDao eventDao;
+    @Inject @ReadOnly RuleEvaluationDao ruleEvaluationDao;
+
+    @GET
+    @Path("/events")
+    public Response events(@QueryParam("after") @DefaultValue("0") long after,
+                           @QueryParam("type") String type,
+                           @QueryParam("format") @DefaultValue("ndjson") String format,
+                           @QueryParam("guild") @DefaultValue("0") long guildId) {
+        return export(format, guilds.resolve(guildId), () -> eventDao.streamAfter(after, type));
+    }
+
+    @GET
+    @Path("/rule-evaluations")
+    public Response ruleEvaluations(@QueryParam("after") @DefaultValue("0") long after,
+                                    @QueryParam("format") @DefaultValue("ndjson") String format,
+                                    @QueryParam("guild") @DefaultValue("0") long guildId) {
+        return export(format, guilds.resolve(guildId), () -> ruleEvaluationDao.streamAfter(after));
+    }
+
+    private Response export(String format, long guildId, Supplier<ResultIterator<?>> rows) {
+        boolean ndjson = switch (format.toLowerCase(Locale.ROOT)) {
+            case "ndjson" -> true;
+            case "json" -> false;
+            default -> throw new BadRequestException("Unknown export format: " + format);
+        };
+
+        // The body is written after this method returns, possibly on another thread
+        StreamingOutput body = out -> {
+            try {
+                GuildContext.run(guildId, () -> write(out, rows.get(), ndjson));
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+        };
+        return Response.ok(body, ndjson ? NDJSON : MediaType.APPLICATION_JSON).build();
+    }
+
+    private void write(OutputStream out, ResultIterator<?> rows, boolean ndjson) {
+        try (rows; JsonGenerator json = mapper.getFactory().createGenerator(out)) {
+            if (ndjson) {
+                json.setRootValueSeparator(new SerializedString("\n"));
+            } else {
+                json.writeStartArray();
+            }
+
+            long written = 0;
+            while (rows.hasNext()) {
+                json.writeObject(rows.next());
+                if (++written % FLUSH_EVERY == 0) json.flush();
+            }
+
+            if (ndjson) {
+                if (written > 0) json.writeRaw('\n');
+            } else {
+                json.writeEndArray();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
@@ -0,0 +1,116 @@
+package edu.franklin.acm.synapse.api;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.franklin.acm.synapse.feed.ActivityFeed;
+import edu.franklin.acm.synapse.feed.FeedEvent;
+import edu.franklin.acm.synapse.feed.FeedFilter;
+import edu.franklin.acm.synapse.feed.FeedSubscription;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.ServiceUnavailableException;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.sse.OutboundSseEvent;
+import jakarta.ws.rs.sse.Sse;
+import jakarta.ws.rs.sse.SseEventSink;
+
+/**
+ * Live server-sent event stream of the {@link ActivityFeed}.
+ *
+ * <p>Each entry is sent as an {@code EVENT} or {@code RULE_FIRED} event with
+ * the {@link FeedEvent} as JSON data and its sequence number as the event ID.
+ * Filtering happens on the server: {@code kind} and {@code type} may be
+ * repeated, {@code channel} and {@code member} take Discord IDs.
+ *
+ * <p>A client that reads more slowly than entries arrive loses the overflow
+ * of its buffer. After the next entry it receives, which may have been
+ * buffered before the loss, it is sent a {@code lag} event with the number of
+ * entries it missed and the first and last of their sequence numbers, so it
+ * can place the gap by event ID. An idle stream carries a comment
+ * every {@value #HEARTBEAT_SECONDS} seconds so that dropped connections are
+ * noticed and released.
+ *
+ * <p>Callers present {@code synapse.admin.token}, see {@link AdminGuard}.
+ * Once the feed has {@code synapse.feed.max-subscribers} subscribers, further
+ * connections are refused with {@code 503}.
+ */
+@Path("/feed")
+public class FeedResource {
+
+    private static final Logger log = LoggerFactory.getLogger(FeedResource.class);
+
+    static final long HEARTBEAT_SECONDS = 15;
+
+    @Inject ActivityFeed feed;
+    @Inject GuildScope guilds;
+
+    @GET
+    @Produces(MediaType.SERVER_SENT_EVENTS)
+    public void stream(@QueryParam("kind") List<FeedEvent.Kind> kinds,
+                       @QueryParam("type") List<String> types,
+                       @QueryParam("channel") Long channelExtId,
+                       @QueryParam("member") Long memberExtId,
+                       @QueryParam("guild") @DefaultValue("0") long guildId,
+                       @Context SseEventSink sink,
+                       @Context Sse sse) {
+        FeedFilter filter = new FeedFilter(guilds.resolve(guildId),
+                Set.copyOf(kinds), Set.copyOf(types), channelExtId, memberExtId);
+        FeedSubscription subscription = feed.subscribe(filter);
+        if (subscription == null) {
+            throw new ServiceUnavailableException("The feed has too many subscribers", HEARTBEAT_SECONDS);
+        }
+        Thread.ofVirtual().name("synapse-feed").start(() -> pump(subscription, sink, sse));
+    }
+
+    private void pump(FeedSubscription subscription, SseEventSink sink, Sse sse) {
+        try (subscription; sink) {
+            while (!sink.isClosed()) {
+                FeedEvent event = subscription.poll(HEARTBEAT_SECONDS, TimeUnit.SECONDS);
+                if (event != null) {
+                    send(sink, sse.newEventBuilder()
+                            .id(Long.toString(event.seq()))
+                            .name(event.kind().name())
+                            .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                            .data(FeedEvent.class, event)
+                            .build());
+                } else {
+                    send(sink, sse.newEventBuilder().comment("heartbeat").build());
+                }
+
+                // After the entry, which may have been buffered before the loss
+                FeedSubscription.Gap gap = subscription.takeGap();
+                if (gap != null) {
+                    send(sink, sse.newEventBuilder()
+                            .name("lag")
+                            .mediaType(MediaType.APPLICATION_JSON_TYPE)
+                            .data(FeedSubscription.Gap.class, gap)
+                            .build());
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            log.debug("Feed subscriber disconnected: {}", e.getCause().getMessage());
+        }
+    }
+
+    /**
+     * Sends one event and waits for it to be written, so a subscriber never
+     * has more than one event in flight outside its buffer.
+     */
+    private static void send(SseEventSink sink, OutboundSseEvent event)
+            throws InterruptedException, ExecutionException {
+        sink.send(event).toCompletableFuture().get();
+    }
+}
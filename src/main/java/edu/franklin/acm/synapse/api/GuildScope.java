@@ -0,0 +1,29 @@
+package edu.franklin.acm.synapse.api;
+
+import edu.franklin.acm.synapse.activity.guild.GuildPartitions;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.NotFoundException;
+
+/**
+ * Resolves the {@code guild} query parameter accepted by every endpoint.
+ */
+@ApplicationScoped
+public class GuildScope {
+
+    @Inject GuildPartitions partitions;
+
+    /**
+     * The guild a request is for: the given guild if this process serves it,
+     * or the primary guild when none is given ({@code 0}).
+     *
+     * @throws NotFoundException if the guild is not served here
+     */
+    public long resolve(long guildId) {
+        if (guildId == 0) return partitions.primaryGuildId();
+        if (!partitions.serves(guildId)) {
+            throw new NotFoundException("Guild " + guildId + " is not served here");
+        }
+        return guildId;
+    }
+}
@@ -0,0 +1,50 @@
+package edu.franklin.acm.synapse.api;
+
+import java.util.List;
+import java.util.Map;
+
+import edu.franklin.acm.synapse.activity.indexing.IndexAdvisor;
+import edu.franklin.acm.synapse.activity.indexing.IndexAdvisor.IndexAdvice;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.POST;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Index advisor report, and approval of its suggestions. Requires
+ * {@code synapse.db.profiling.enabled}; without it the report is empty.
+ * Callers present {@code synapse.admin.token}, see {@link AdminGuard}.
+ */
+@Path("/admin/indexes")
+@Produces(MediaType.APPLICATION_JSON)
+public class IndexAdvisorResource {
+
+    @Inject IndexAdvisor advisor;
+
+    /**
+     * The most expensive query shapes, with their plans and suggested indexes.
+     */
+    @GET
+    public List<IndexAdvice> report(@QueryParam("limit") @DefaultValue("20") int limit) {
+        return advisor.report(limit);
+    }
+
+    /**
+     * Builds a suggested index on every guild's database.
+     */
+    @POST
+    @Path("{name}")
+    public Map<String, String> apply(@PathParam("name") String name) {
+        try {
+            return Map.of("name", name, "ddl", advisor.apply(name));
+        } catch (IllegalArgumentException e) {
+            throw new NotFoundException(e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,101 @@
+package edu.franklin.acm.synapse.api;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import edu.franklin.acm.synapse.activity.ReadOnly;
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import edu.franklin.acm.synapse.activity.member.MemberDao;
+import edu.franklin.acm.synapse.leaderboard.LeaderboardService;
+import edu.franklin.acm.synapse.leaderboard.Metric;
+import edu.franklin.acm.synapse.leaderboard.Standing;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.BadRequestException;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Leaderboards by currency ({@code p_currency}, {@code s_currency}) or by
+ * seasonal counter ({@code voice_minutes}, {@code messages_sent}, ...), served
+ * from the in-memory rankings of the {@link LeaderboardService}. Seasonal
+ * metrics require {@code season}. Members are identified by Discord ID.
+ */
+@Path("/leaderboards/{metric}")
+@Produces(MediaType.APPLICATION_JSON)
+public class LeaderboardResource {
+
+    /** Largest page of top members served in one request. */
+    static final int MAX_LIMIT = 100;
+
+    @Inject LeaderboardService leaderboards;
+    @Inject GuildScope guilds;
+    @Inject @ReadOnly MemberDao memberDao;
+
+    /**
+     * One row of a leaderboard.
+     */
+    public record LeaderboardRow(int rank, long memberExtId, long score) {
+    }
+
+    /**
+     * The top members of a leaderboard.
+     */
+    @GET
+    public List<LeaderboardRow> top(@PathParam("metric") String metric,
+                                    @QueryParam("season") @DefaultValue("0") long seasonId,
+                                    @QueryParam("limit") @DefaultValue("10") int limit,
+                                    @QueryParam("guild") @DefaultValue("0") long guildId) {
+        Metric m = metric(metric, seasonId);
+        int n = Math.clamp(limit, 1, MAX_LIMIT);
+        return GuildContext.call(guilds.resolve(guildId), () -> {
+            List<Standing> top = leaderboards.top(m, seasonId, n);
+            if (top.isEmpty()) return List.of();
+
+            Map<Long, Long> extIds = memberDao.findExtIdsByIds(top.stream().map(Standing::memberId).toList());
+            return top.stream()
+                    .filter(s -> extIds.containsKey(s.memberId()))
+                    .map(s -> new LeaderboardRow(s.rank(), extIds.get(s.memberId()), s.score()))
+                    .toList();
+        });
+    }
+
+    /**
+     * One member's rank on a leaderboard.
+     */
+    @GET
+    @Path("/members/{memberExtId}")
+    public LeaderboardRow rank(@PathParam("metric") String metric,
+                               @PathParam("memberExtId") long memberExtId,
+                               @QueryParam("season") @DefaultValue("0") long seasonId,
+                               @QueryParam("guild") @DefaultValue("0") long guildId) {
+        Metric m = metric(metric, seasonId);
+        return GuildContext.call(guilds.resolve(guildId), () -> {
+            Long memberId = memberDao.findIdByExtId(memberExtId);
+            Standing standing = memberId != null ? leaderboards.rankOf(m, seasonId, memberId) : null;
+            if (standing == null) {
+                throw new NotFoundException("Member " + memberExtId + " is not ranked");
+            }
+            return new LeaderboardRow(standing.rank(), memberExtId, standing.score());
+        });
+    }
+
+    private static Metric metric(String name, long seasonId) {
+        Metric metric;
+        try {
+            metric = Metric.valueOf(name.toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new NotFoundException("Unknown leaderboard: " + name);
+        }
+        if (metric.seasonal() && seasonId <= 0) {
+            throw new BadRequestException("Leaderboard " + name + " requires a season");
+        }
+        return metric;
+    }
+}
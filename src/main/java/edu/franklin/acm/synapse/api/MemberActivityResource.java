@@ -0,0 +1,173 @@
+package edu.franklin.acm.synapse.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+import java.util.function.Supplier;
+import java.util.function.ToLongFunction;
+
+import edu.franklin.acm.synapse.activity.Event;
+import edu.franklin.acm.synapse.activity.EventDao;
+import edu.franklin.acm.synapse.activity.ReadOnly;
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import edu.franklin.acm.synapse.activity.member.MemberDao;
+import edu.franklin.acm.synapse.activity.member.MemberSummary;
+import edu.franklin.acm.synapse.activity.message.MessageEventDao;
+import edu.franklin.acm.synapse.activity.message.MessageSummary;
+import edu.franklin.acm.synapse.activity.rules.RuleEvaluation;
+import edu.franklin.acm.synapse.activity.rules.RuleEvaluationDao;
+import edu.franklin.acm.synapse.activity.voice.VoiceSession;
+import edu.franklin.acm.synapse.activity.voice.VoiceSessionDao;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DefaultValue;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.NotFoundException;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.PathParam;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.QueryParam;
+import jakarta.ws.rs.core.CacheControl;
+import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.EntityTag;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Request;
+import jakarta.ws.rs.core.Response;
+import jakarta.ws.rs.core.UriInfo;
+
+/**
+ * Read API over member activity: members, and each member's events,
+ * messages, voice sessions and fired rules. Members are addressed by Discord
+ * ID; every query runs on the read pool of the requested guild.
+ *
+ * <p>Listings use keyset pagination on the row ID: each page carries the
+ * cursor of the next ({@code after} for members, oldest first; {@code before}
+ * for activity, newest first), so every page is an index range read however
+ * deep the client pages.
+ *
+ * <p>Pages carry an ETag derived from a version token that each DAO reads
+ * from the page's index range without loading the rows. A client repeating a
+ * request with {@code If-None-Match} gets {@code 304 Not Modified} while the
+ * page is unchanged, and the page is neither loaded nor serialized.
+ *
+ * <p>Callers present {@code synapse.admin.token}, see {@link AdminGuard}.
+ */
+@Path("/members")
+@Produces(MediaType.APPLICATION_JSON)
+public class MemberActivityResource {
+
+    /** Largest page served in one request. */
+    static final int MAX_LIMIT = 200;
+
+    private static final CacheControl REVALIDATE = CacheControl.valueOf("private, no-cache");
+
+    @Inject GuildScope guilds;
+    @Inject @ReadOnly MemberDao memberDao;
+    @Inject @ReadOnly EventDao eventDao;
+    @Inject @ReadOnly MessageEventDao messageDao;
+    @Inject @ReadOnly VoiceSessionDao voiceSessionDao;
+    @Inject @ReadOnly RuleEvaluationDao ruleEvaluationDao;
+
+    @Context Request request;
+    @Context UriInfo uriInfo;
+
+    @GET
+    public Response members(@QueryParam("after") @DefaultValue("0") long after,
+                            @QueryParam("limit") @DefaultValue("50") int limit,
+                            @QueryParam("guild") @DefaultValue("0") long guildId) {
+        int n = limit(limit);
+        return GuildContext.call(guilds.resolve(guildId), () -> page(
+                memberDao.findPageVersion(after, n),
+                () -> Page.of(memberDao.findPage(after, n), n, MemberSummary::id)));
+    }
+
+    @GET
+    @Path("/{memberExtId}")
+    public MemberSummary member(@PathParam("memberExtId") long memberExtId,
+                                @QueryParam("guild") @DefaultValue("0") long guildId) {
+        return GuildContext.call(guilds.resolve(guildId), () -> {
+            MemberSummary member = memberDao.findSummaryByExtId(memberExtId);
+            if (member == null) throw new NotFoundException("Unknown member " + memberExtId);
+            return member;
+        });
+    }
+
+    @GET
+    @Path("/{memberExtId}/events")
+    public Response events(@PathParam("memberExtId") long memberExtId,
+                           @QueryParam("before") Long before,
+                           @QueryParam("limit") @DefaultValue("50") int limit,
+                           @QueryParam("guild") @DefaultValue("0") long guildId) {
+        return memberPage(memberExtId, before, limit, guildId,
+                eventDao::findPageVersionByMember, eventDao::findPageByMember, Event::id);
+    }
+
+    @GET
+    @Path("/{memberExtId}/messages")
+    public Response messages(@PathParam("memberExtId") long memberExtId,
+                             @QueryParam("before") Long before,
+                             @QueryParam("limit") @DefaultValue("50") int limit,
+                             @QueryParam("guild") @DefaultValue("0") long guildId) {
+        return memberPage(memberExtId, before, limit, guildId,
+                messageDao::findPageVersionByMember, messageDao::findPageByMember, MessageSummary::eventId);
+    }
+
+    @GET
+    @Path("/{memberExtId}/voice-sessions")
+    public Response voiceSessions(@PathParam("memberExtId") long memberExtId,
+                                  @QueryParam("before") Long before,
+                                  @QueryParam("limit") @DefaultValue("50") int limit,
+                                  @QueryParam("guild") @DefaultValue("0") long guildId) {
+        return memberPage(memberExtId, before, limit, guildId,
+                voiceSessionDao::findPageVersionByMember, voiceSessionDao::findPageByMember, VoiceSession::id);
+    }
+
+    @GET
+    @Path("/{memberExtId}/rule-evaluations")
+    public Response ruleEvaluations(@PathParam("memberExtId") long memberExtId,
+                                    @QueryParam("before") Long before,
+                                    @QueryParam("limit") @DefaultValue("50") int limit,
+                                    @QueryParam("guild") @DefaultValue("0") long guildId) {
+        return memberPage(memberExtId, before, limit, guildId,
+                ruleEvaluationDao::findPageVersionByMember, ruleEvaluationDao::findPageByMember, RuleEvaluation::id);
+    }
+
+    /**
+     * A member-scoped DAO read: {@code (memberId, before, limit)}.
+     */
+    @FunctionalInterface
+    private interface MemberQuery<R> {
+        R find(long memberId, long before, int limit);
+    }
+
+    private <T> Response memberPage(long memberExtId, Long before, int limit, long guildId,
+                                    MemberQuery<String> version, MemberQuery<List<T>> find,
+                                    ToLongFunction<T> cursor) {
+        int n = limit(limit);
+        long from = before != null ? before : Long.MAX_VALUE;
+        return GuildContext.call(guilds.resolve(guildId), () -> {
+            Long memberId = memberDao.findIdByExtId(memberExtId);
+            if (memberId == null) throw new NotFoundException("Unknown member " + memberExtId);
+            return page(version.find(memberId, from, n),
+                    () -> Page.of(find.find(memberId, from, n), n, cursor));
+        });
+    }
+
+    /**
+     * Answers {@code 304} if the client already holds this version of the
+     * page, otherwise loads and returns it with its ETag.
+     */
+    private Response page(String version, Supplier<Page<?>> load) {
+        String key = uriInfo.getRequestUri() + "|" + version;
+        EntityTag tag = new EntityTag(UUID.nameUUIDFromBytes(key.getBytes(StandardCharsets.UTF_8)).toString());
+
+        Response.ResponseBuilder notModified = request.evaluatePreconditions(tag);
+        if (notModified != null) {
+            return notModified.cacheControl(REVALIDATE).build();
+        }
+        return Response.ok(load.get()).tag(tag).cacheControl(REVALIDATE).build();
+    }
+
+    private static int limit(int limit) {
+        return Math.clamp(limit, 1, MAX_LIMIT);
+    }
+}
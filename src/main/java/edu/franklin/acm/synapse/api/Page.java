@@ -0,0 +1,21 @@
+package edu.franklin.acm.synapse.api;
+
+import java.util.List;
+import java.util.function.ToLongFunction;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * @param next cursor for the following page, or {@code null} on the last page
+ */
+public record Page<T>(List<T> items, Long next) {
+
+    /**
+     * Wraps a page read with {@code LIMIT limit}. A full page may have a
+     * successor, continuing from the cursor of its last item.
+     */
+    public static <T> Page<T> of(List<T> items, int limit, ToLongFunction<T> cursor) {
+        Long next = items.size() == limit ? cursor.applyAsLong(items.getLast()) : null;
+        return new Page<>(items, next);
+    }
+}
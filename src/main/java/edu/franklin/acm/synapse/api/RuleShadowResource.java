@@ -0,0 +1,46 @@
+package edu.franklin.acm.synapse.api;
+
+import java.util.List;
+
+import edu.franklin.acm.synapse.rules.engine.RuleShadowEvaluator;
+import edu.franklin.acm.synapse.rules.engine.RuleShadowEvaluator.ShadowRuleReport;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.DELETE;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+
+/**
+ * Results of shadow rule evaluation. Requires
+ * {@code synapse.rules.shadow.matcher}; without it nothing is compared.
+ * Callers present {@code synapse.admin.token}, see {@link AdminGuard}.
+ */
+@Path("/admin/rules/shadow")
+@Produces(MediaType.APPLICATION_JSON)
+public class RuleShadowResource {
+
+    @Inject RuleShadowEvaluator shadowEvaluator;
+
+    /**
+     * Shadow totals since startup or the last reset.
+     *
+     * @param comparisons events compared by both matchers
+     * @param rules       per-rule results, most mismatched first
+     */
+    public record ShadowReport(long comparisons, List<ShadowRuleReport> rules) {
+    }
+
+    @GET
+    public ShadowReport report() {
+        return new ShadowReport(shadowEvaluator.comparisons(), shadowEvaluator.report());
+    }
+
+    /**
+     * Clears the totals, e.g. after changing the candidate matcher.
+     */
+    @DELETE
+    public void reset() {
+        shadowEvaluator.reset();
+    }
+}
@@ -0,0 +1,63 @@
+package edu.franklin.acm.synapse.bot;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Where each served guild is in the deferred startup sequence. Written by
+ * {@link SynapseBot} and read by {@link StartupReadinessCheck}.
+ */
+@ApplicationScoped
+public class StartupProgress {
+
+    /**
+     * Startup phase of one guild. Live events are buffered until the guild
+     * leaves {@link #CONNECTING} or {@link #RECONCILING}.
+     */
+    public enum Phase {
+        /** Waiting for the gateway shards to become ready. */
+        CONNECTING,
+        /** Reconciling the database with the live guild. */
+        RECONCILING,
+        /** Reconciled; live events are applied as they arrive. */
+        READY,
+        /** Reconciliation failed; live events are applied to unreconciled state. */
+        FAILED,
+        /** The bot is not a member of the guild. */
+        UNAVAILABLE;
+
+        /**
+         * True once the guild no longer holds back live events.
+         */
+        public boolean settled() {
+            return this != CONNECTING && this != RECONCILING;
+        }
+    }
+
+    private final Map<Long, Phase> phases = new ConcurrentHashMap<>();
+    private volatile boolean gatewayReady;
+
+    public void set(long guildId, Phase phase) {
+        phases.put(guildId, phase);
+    }
+
+    public void markGatewayReady() {
+        gatewayReady = true;
+    }
+
+    /**
+     * True once every gateway shard has reached the Ready state.
+     */
+    public boolean gatewayReady() {
+        return gatewayReady;
+    }
+
+    /**
+     * Current phase of every guild that has started.
+     */
+    public Map<Long, Phase> phases() {
+        return Map.copyOf(phases);
+    }
+}
@@ -0,0 +1,57 @@
+package edu.franklin.acm.synapse.bot;
+
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.HealthCheckResponseBuilder;
+import org.eclipse.microprofile.health.Readiness;
+
+import edu.franklin.acm.synapse.scanners.shared.GuildLanes;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Readiness probe for deferred startup. Reports DOWN until the gateway is
+ * ready and every served guild has finished reconciling, with each guild's
+ * phase and the number of live events buffered behind it as progress.
+ * With {@code synapse.discord.enabled} off there is nothing to wait for, and
+ * the stored data is served at once, so it reports UP.
+ */
+@Readiness
+@ApplicationScoped
+public class StartupReadinessCheck implements HealthCheck {
+
+    @Inject StartupProgress progress;
+    @Inject GuildLanes lanes;
+
+    @ConfigProperty(name = "synapse.discord.enabled", defaultValue = "true")
+    boolean gatewayEnabled;
+
+    @Override
+    public HealthCheckResponse call() {
+        if (!gatewayEnabled) {
+            return HealthCheckResponse.named("synapse-startup")
+                    .up()
+                    .withData("gateway", "disabled")
+                    .build();
+        }
+
+        Map<Long, StartupProgress.Phase> phases = progress.phases();
+        long settled = phases.values().stream().filter(StartupProgress.Phase::settled).count();
+
+        HealthCheckResponseBuilder response = HealthCheckResponse.named("synapse-startup")
+                .status(progress.gatewayReady() && settled == phases.size())
+                .withData("gateway", progress.gatewayReady())
+                .withData("guilds", phases.size())
+                .withData("settled", settled);
+        phases.forEach((guildId, phase) -> {
+            response.withData("guild." + guildId, phase.name());
+            if (!phase.settled()) {
+                response.withData("guild." + guildId + ".buffered", lanes.queued(guildId));
+            }
+        });
+        return response.build();
+    }
+}
@@ -1,51 +1,76 @@
 package edu.franklin.acm.synapse.bot;
 
 import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import edu.franklin.acm.synapse.activity.guild.GuildPartitions;
 import edu.franklin.acm.synapse.activity.guild.SynapseStatisticsDao;
+import edu.franklin.acm.synapse.rules.engine.RuleEngine;
 import edu.franklin.acm.synapse.scanners.GuildHistoricalScanner;
 import edu.franklin.acm.synapse.scanners.GuildLiveScanner;
+import edu.franklin.acm.synapse.scanners.shared.GuildLanes;
 import io.quarkus.runtime.Startup;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import net.dv8tion.jda.api.JDA;
-import net.dv8tion.jda.api.JDABuilder;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildMessageChannel;
 import net.dv8tion.jda.api.requests.GatewayIntent;
+import net.dv8tion.jda.api.sharding.DefaultShardManagerBuilder;
+import net.dv8tion.jda.api.sharding.ShardManager;
 
 /**
  * Application entry point and Discord bot lifecycle manager.
  * 
- * <p>Initializes the JDA Discord gateway connection with required intents,
- * registers event listeners, and optionally triggers a historical backfill scan
- * of guild data on startup.
+ * <p>Initializes a JDA {@link ShardManager} with the required intents,
+ * registers event listeners on every shard, and optionally triggers a
+ * historical backfill scan of guild data on startup.
+ *
+ * <p>One process can serve many guilds: the primary guild
+ * ({@code synapse.discord.guild.id}) and any listed in
+ * {@code synapse.discord.guild.ids}. Each guild writes to its own partition
+ * (see {@link GuildPartitions}) and its work runs on its own
+ * {@link GuildLanes lane}, while the gateway connection, thread pools and rule
+ * engine are shared, so adding a guild costs far less than adding a process.
  * 
  * <p>Managed as a {@code @Startup} singleton that begins initialization immediately
- * when the application boots.
+ * when the application boots. Boot does not wait for the gateway or for
+ * reconciliation; readiness is reported by {@link StartupReadinessCheck}.
  */
 @Startup
 @ApplicationScoped
 public class SynapseBot {
     private static final Logger log = LoggerFactory.getLogger(SynapseBot.class);
 
+    private static final long SHARD_POLL_MILLIS = 500;
+
     // Configuration properties
     private final String discordToken;
+    private final boolean gatewayEnabled;
     private final boolean historicalScanEnabled;
-    private final long guildId;
+    private final int shardsTotal;
 
     // Event scanners
     private final GuildHistoricalScanner guildHistoricalScanner;
     private final GuildLiveScanner guildLiveScanner;
 
     @Inject SynapseStatisticsDao statisticsDao;
+    @Inject GuildPartitions partitions;
+    @Inject GuildLanes lanes;
+    @Inject RuleEngine ruleEngine;
+
+    @Inject StartupProgress progress;
 
     // Gateway connection (initialized on startup)
-    private JDA jda;
+    private ShardManager shardManager;
+    private Thread startup;
 
     /**
      * Constructs the bot with configuration and scanner dependencies.
@@ -55,114 +80,217 @@ public class SynapseBot {
      * @param guildLiveScanner          scanner for live Discord events (guild members, messages, etc.)
      * @param scanHistorical            whether to run a full historical scan on startup
      *                                  (from historical.scan.enabled property, default false)
-     * @param guildId                   the guild ID to scan historically, if enabled
-     *                                  (from guild.id property, default 0)
+     * @param shardsTotal               number of gateway shards, or -1 for Discord's
+     *                                  recommendation (from shards.total property)
+     * @param gatewayEnabled            whether to connect to Discord at all; without it
+     *                                  only the stored data is served (from enabled property)
      */
     public SynapseBot(
             @ConfigProperty(name = "synapse.discord.token") String discordToken,
             GuildHistoricalScanner guildHistoricalScanner,
             GuildLiveScanner guildLiveScanner,
             @ConfigProperty(name = "synapse.discord.scan-historical", defaultValue = "false") boolean scanHistorical,
-            @ConfigProperty(name = "synapse.discord.guild.id", defaultValue = "0") long guildId) {
+            @ConfigProperty(name = "synapse.discord.shards.total", defaultValue = "-1") int shardsTotal,
+            @ConfigProperty(name = "synapse.discord.enabled", defaultValue = "true") boolean gatewayEnabled) {
         this.discordToken = discordToken;
+        this.gatewayEnabled = gatewayEnabled;
         this.guildHistoricalScanner = guildHistoricalScanner;
         this.guildLiveScanner = guildLiveScanner;
         this.historicalScanEnabled = scanHistorical;
-        this.guildId = guildId;
+        this.shardsTotal = shardsTotal;
     }
 
     /**
-     * Starts the Discord gateway connection and optionally initiates historical scanning.
-     * 
-     * <p>This method blocks until the bot reaches the Ready state before proceeding,
-     * ensuring all guilds are available. If historical scanning is enabled and the
-     * guild ID is valid, it launches an asynchronous historical scan.
-     * 
-     * @throws InterruptedException if the gateway connection is interrupted while waiting
+     * Starts the Discord gateway connection and returns without waiting for it.
+     *
+     * <p>Every served guild's lane is held first, so live events are accepted
+     * from the moment each shard connects but buffered. The rest of startup
+     * runs in the background: once all shards are ready, each guild is
+     * reconciled in parallel, its rules compiled, and its lane released,
+     * applying its buffered events against reconciled state. Progress is reported through
+     * {@link StartupProgress} to the readiness probe. If historical scanning
+     * is enabled, a historical scan per guild follows.
      */
     @PostConstruct
     @SuppressWarnings("unused")
-    void start() throws InterruptedException {
+    void start() {
+        if (!gatewayEnabled) {
+            log.info("Discord gateway disabled; serving stored data only");
+            return;
+        }
         log.info("SynapseBot starting up...");
-        jda = JDABuilder.createDefault(discordToken)
+        for (long guildId : partitions.guildIds()) {
+            progress.set(guildId, StartupProgress.Phase.CONNECTING);
+            lanes.hold(guildId);
+        }
+
+        shardManager = DefaultShardManagerBuilder.createDefault(discordToken)
                 .enableIntents(
                         GatewayIntent.MESSAGE_CONTENT,
                         GatewayIntent.GUILD_MEMBERS,
                         GatewayIntent.GUILD_MESSAGE_REACTIONS,
                         GatewayIntent.GUILD_VOICE_STATES
                 )
+                .setShardsTotal(shardsTotal)
                 .addEventListeners(guildLiveScanner)
                 .build();
 
-        jda.awaitReady();
-        statisticsDao.recordStartup();
+        startup = Thread.ofVirtual().name("synapse-startup").start(this::completeStartup);
+    }
+
+    /**
+     * Background half of startup: waits for the gateway, then reconciles.
+     */
+    private void completeStartup() {
+        try {
+            awaitShardsReady();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return;
+        }
+        progress.markGatewayReady();
+        if (partitions.guildIds().isEmpty()) {
+            // No guild to reconcile, and so none to record it; it goes to the default database
+            statisticsDao.recordStartup();
+        }
+
+        try (ExecutorService reconcilers = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (long guildId : partitions.guildIds()) {
+                reconcilers.execute(() -> reconcileAndRelease(guildId));
+            }
+        }
+
+        if (historicalScanEnabled) {
+            performHistoricalScans();
+        }
+    }
+
+    /**
+     * Reconciles one guild against its own partition, then releases its lane
+     * whether or not reconciliation succeeded, so live ingestion always
+     * resumes.
+     */
+    private void reconcileAndRelease(long guildId) {
+        try {
+            var guild = shardManager.getGuildById(guildId);
+            if (guild == null) {
+                log.warn("Cannot reconcile: guild {} not available to this bot", guildId);
+                progress.set(guildId, StartupProgress.Phase.UNAVAILABLE);
+                return;
+            }
 
-        // Reconcile database state with live guild
-        if (guildId > 0) {
-            var guild = jda.getGuildById(guildId);
-            if (guild != null) {
+            progress.set(guildId, StartupProgress.Phase.RECONCILING);
+            boolean reconciled = GuildContext.call(guildId, () -> {
                 try {
+                    statisticsDao.recordStartup();
                     guildLiveScanner.reconcile(guild);
+                    return true;
                 } catch (Exception e) {
                     log.error("Startup reconciliation failed for guild {}", guildId, e);
+                    return false;
                 }
-            } else {
-                log.warn("Cannot reconcile: guild {} not available to this bot", guildId);
-            }
+            });
+            // Before the lane opens, so buffered events meet compiled rules and rebuilt windows
+            GuildContext.run(guildId, () -> {
+                try {
+                    ruleEngine.prepare();
+                } catch (Exception e) {
+                    log.error("Cannot prepare rules for guild {}", guildId, e);
+                }
+            });
+            progress.set(guildId, reconciled ? StartupProgress.Phase.READY : StartupProgress.Phase.FAILED);
+        } finally {
+            int buffered = lanes.release(guildId);
+            log.info("Guild {} is live; applying {} events buffered during startup", guildId, buffered);
         }
+    }
 
-        if (historicalScanEnabled) {
-            performHistoricalScan();
+    /**
+     * Waits until every shard has been started and reached the Ready state.
+     * Shards log in one at a time, so the list of shards is only complete once
+     * none are queued.
+     */
+    private void awaitShardsReady() throws InterruptedException {
+        while (shardManager.getShardsQueued() > 0) {
+            Thread.sleep(SHARD_POLL_MILLIS);
+        }
+        for (JDA shard : shardManager.getShards()) {
+            shard.awaitReady();
         }
+        log.info("{} shard(s) ready, serving {} guild(s)",
+                shardManager.getShardsTotal(), partitions.guildIds().size());
     }
 
     /**
-     * Initiates a historical backfill scan for the configured guild.
+     * Initiates a historical backfill scan for every served guild.
      * 
-     * <p>Validates that the guild ID is set and accessible to this bot before
-     * starting the scan. The scan runs asynchronously and logs completion or errors.
+     * <p>Validates that at least one guild is configured and each is
+     * accessible to this bot before starting its scan. Scans run
+     * asynchronously and log completion or errors.
      */
-    private void performHistoricalScan() {
-        if (guildId <= 0) {
-            log.warn("historical.scan.enabled=true but guild.id is not set to a valid guild ID");
+    private void performHistoricalScans() {
+        if (partitions.guildIds().isEmpty()) {
+            log.warn("historical.scan.enabled=true but neither guild.id nor guild.ids is set");
             return;
         }
 
-        var guild = jda.getGuildById(guildId);
-        if (guild == null) {
-            log.warn("Configured guild.id {} is not available to this bot", guildId);
-            return;
-        }
+        for (long guildId : partitions.guildIds()) {
+            var guild = shardManager.getGuildById(guildId);
+            if (guild == null) {
+                log.warn("Configured guild {} is not available to this bot", guildId);
+                continue;
+            }
 
-        log.info("Starting historical scan for guild {} ({})", guild.getName(), guild.getIdLong());
-        guildHistoricalScanner.scanGuild(guild, Map.of())
-                .thenRun(() -> log.info("Historical scan completed for guild {}", guild.getIdLong()))
-                .exceptionally(ex -> {
-                    log.error("Historical scan failed for guild {}", guild.getIdLong(), ex);
-                    return null;
-                });
+            log.info("Starting historical scan for guild {} ({})", guild.getName(), guild.getIdLong());
+            guildHistoricalScanner.scanGuild(guild, Map.of())
+                    .thenRun(() -> log.info("Historical scan completed for guild {}", guild.getIdLong()))
+                    .exceptionally(ex -> {
+                        log.error("Historical scan failed for guild {}", guild.getIdLong(), ex);
+                        return null;
+                    });
+        }
     }
 
     /**
-     * Gracefully shuts down the Discord gateway connection.
+     * Gracefully shuts down every shard's gateway connection.
      * 
      * <p>Called when the application terminates.
      */
     @PreDestroy
     @SuppressWarnings("unused")
     void stop() {
-        if (jda != null) {
-            jda.shutdown();
+        if (startup != null) {
+            startup.interrupt();
+        }
+        if (shardManager != null) {
+            shardManager.shutdown();
         }
     }
 
     /**
-     * Retrieves the bot's latency to Discord's gateway.
+     * Retrieves the bot's average latency to Discord's gateway across shards.
      * 
      * @return the gateway ping in milliseconds, or -1 if the connection is not ready
      */
     public long ping() {
-        if (jda == null) return -1;
-        return jda.getGatewayPing();
+        if (shardManager == null) return -1;
+        return Math.round(shardManager.getAverageGatewayPing());
+    }
+
+    /**
+     * Looks up a channel of one guild that messages can be sent to, on
+     * whichever shard serves it.
+     *
+     * @param guildId the guild the channel must belong to, or
+     *                {@link GuildContext#NONE} to accept any guild's channel
+     * @return the channel, or {@code null} if the gateway is not connected,
+     *         no shard knows the channel, or it belongs to another guild
+     */
+    public GuildMessageChannel messageChannel(long guildId, long channelExtId) {
+        if (shardManager == null) return null;
+        GuildMessageChannel channel = shardManager.getChannelById(GuildMessageChannel.class, channelExtId);
+        if (channel == null) return null;
+        if (guildId != GuildContext.NONE && channel.getGuild().getIdLong() != guildId) return null;
+        return channel;
     }
 }
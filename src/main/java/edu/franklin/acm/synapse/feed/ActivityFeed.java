@@ -0,0 +1,84 @@
+package edu.franklin.acm.synapse.feed;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import edu.franklin.acm.synapse.activity.rules.Rule;
+import edu.franklin.acm.synapse.rules.engine.RuleContext;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * In-process bus of live activity: every event the live scanners persist and
+ * every rule that fires for one, as {@link FeedEvent}s.
+ *
+ * <p>The rule engine publishes both, since every persisted live event reaches
+ * it and an event is published before the rules it fires. Publishing copies
+ * the entry into the buffer of each subscriber whose filter matches and never
+ * blocks; a slow subscriber loses entries instead of holding up ingestion
+ * (see {@link FeedSubscription}). Nothing is published, or allocated, while
+ * no one is subscribed. At most {@code synapse.feed.max-subscribers} may be
+ * subscribed at once, since every entry is copied to each of them.
+ */
+@ApplicationScoped
+public class ActivityFeed {
+
+    @ConfigProperty(name = "synapse.feed.buffer-size", defaultValue = "256")
+    int bufferSize;
+
+    @ConfigProperty(name = "synapse.feed.max-subscribers", defaultValue = "32")
+    int maxSubscribers;
+
+    private final List<FeedSubscription> subscribers = new CopyOnWriteArrayList<>();
+    private final AtomicLong seq = new AtomicLong();
+
+    /**
+     * Starts delivering matching entries. Close the subscription to stop.
+     *
+     * @return the subscription, or {@code null} if the feed already has
+     *         {@code synapse.feed.max-subscribers} subscribers
+     */
+    public synchronized FeedSubscription subscribe(FeedFilter filter) {
+        if (subscribers.size() >= maxSubscribers) return null;
+        FeedSubscription subscription = new FeedSubscription(this, filter, bufferSize);
+        subscribers.add(subscription);
+        return subscription;
+    }
+
+    void unsubscribe(FeedSubscription subscription) {
+        subscribers.remove(subscription);
+    }
+
+    /**
+     * Publishes an event persisted to the partition of {@code guildId}.
+     */
+    public void eventIngested(long guildId, RuleContext ctx) {
+        if (subscribers.isEmpty()) return;
+        publish(FeedEvent.of(seq.incrementAndGet(), FeedEvent.Kind.EVENT, guildId, ctx,
+                null, null, utcNow()));
+    }
+
+    /**
+     * Publishes a rule firing in the guild bound to the calling thread.
+     */
+    public void ruleFired(Rule rule, RuleContext ctx) {
+        if (subscribers.isEmpty()) return;
+        publish(FeedEvent.of(seq.incrementAndGet(), FeedEvent.Kind.RULE_FIRED, GuildContext.current(), ctx,
+                rule.id(), rule.name(), utcNow()));
+    }
+
+    private void publish(FeedEvent event) {
+        for (FeedSubscription subscription : subscribers) {
+            subscription.offer(event);
+        }
+    }
+
+    private static String utcNow() {
+        return LocalDateTime.now(ZoneOffset.UTC).toString();
+    }
+}
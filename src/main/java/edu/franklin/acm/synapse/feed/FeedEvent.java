@@ -0,0 +1,39 @@
+package edu.franklin.acm.synapse.feed;
+
+import edu.franklin.acm.synapse.rules.engine.RuleContext;
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * One entry on the activity feed: an event persisted to the Event Lake, or a
+ * rule that fired for one.
+ *
+ * @param seq          position on the feed, increasing across all guilds; a
+ *                     subscriber sees gaps where events were filtered or dropped
+ * @param kind         what happened
+ * @param guildId      the guild the event belongs to
+ * @param eventId      the Event Lake row
+ * @param eventType    the event type, e.g. {@code MESSAGE_CREATE}
+ * @param memberId     internal member ID
+ * @param memberExtId  Discord member ID, when known
+ * @param channelExtId Discord channel ID, for channel and voice events
+ * @param ruleId       the rule that fired, for {@link Kind#RULE_FIRED}
+ * @param ruleName     the rule that fired, for {@link Kind#RULE_FIRED}
+ * @param publishedAt  UTC time the entry was published
+ */
+@RegisterForReflection
+public record FeedEvent(long seq, Kind kind, long guildId, long eventId, String eventType,
+                        long memberId, Long memberExtId, Long channelExtId,
+                        Long ruleId, String ruleName, String publishedAt) {
+
+    public enum Kind {
+        EVENT,
+        RULE_FIRED
+    }
+
+    static FeedEvent of(long seq, Kind kind, long guildId, RuleContext ctx,
+                        Long ruleId, String ruleName, String publishedAt) {
+        Long channelExtId = ctx.channelExtId() != null ? ctx.channelExtId() : ctx.voiceChannelExtId();
+        return new FeedEvent(seq, kind, guildId, ctx.eventId(), ctx.eventType(), ctx.memberId(),
+                ctx.memberExtId(), channelExtId, ruleId, ruleName, publishedAt);
+    }
+}
@@ -0,0 +1,30 @@
+package edu.franklin.acm.synapse.feed;
+
+import java.util.Set;
+
+/**
+ * Server-side selection of feed entries for one subscriber. Empty sets and
+ * {@code null} IDs match everything.
+ *
+ * @param guildId      the only guild delivered
+ * @param kinds        entry kinds to deliver
+ * @param eventTypes   event types to deliver
+ * @param channelExtId deliver only events in this Discord channel
+ * @param memberExtId  deliver only events of this Discord member
+ */
+public record FeedFilter(long guildId, Set<FeedEvent.Kind> kinds, Set<String> eventTypes,
+                         Long channelExtId, Long memberExtId) {
+
+    public FeedFilter {
+        kinds = Set.copyOf(kinds);
+        eventTypes = Set.copyOf(eventTypes);
+    }
+
+    boolean matches(FeedEvent event) {
+        return event.guildId() == guildId
+                && (kinds.isEmpty() || kinds.contains(event.kind()))
+                && (eventTypes.isEmpty() || eventTypes.contains(event.eventType()))
+                && (channelExtId == null || channelExtId.equals(event.channelExtId()))
+                && (memberExtId == null || memberExtId.equals(event.memberExtId()));
+    }
+}
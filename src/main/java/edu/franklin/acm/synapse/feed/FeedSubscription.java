@@ -0,0 +1,75 @@
+package edu.franklin.acm.synapse.feed;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import io.quarkus.runtime.annotations.RegisterForReflection;
+
+/**
+ * A subscriber's view of the {@link ActivityFeed}: the entries matching its
+ * filter, in a bounded buffer.
+ *
+ * <p>Publishing never waits for a subscriber. When the buffer is full the new
+ * entry is dropped and counted; the consumer reads the count and the range of
+ * sequence numbers dropped with {@link #takeGap()} and tells its client what
+ * it missed.
+ */
+public final class FeedSubscription implements AutoCloseable {
+
+    private final ActivityFeed feed;
+    private final FeedFilter filter;
+    private final BlockingQueue<FeedEvent> buffer;
+    /** Entries dropped since the last {@link #takeGap()}; guarded by this. */
+    private Gap gap;
+
+    /**
+     * Entries a subscriber missed. Publishers race, so entries inside the
+     * range may still have been delivered.
+     *
+     * @param firstSeq lowest sequence number dropped
+     * @param lastSeq  highest sequence number dropped
+     */
+    @RegisterForReflection
+    public record Gap(long dropped, long firstSeq, long lastSeq) {
+    }
+
+    FeedSubscription(ActivityFeed feed, FeedFilter filter, int capacity) {
+        this.feed = feed;
+        this.filter = filter;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+    }
+
+    void offer(FeedEvent event) {
+        if (filter.matches(event) && !buffer.offer(event)) {
+            drop(event.seq());
+        }
+    }
+
+    private synchronized void drop(long seq) {
+        gap = gap == null ? new Gap(1, seq, seq)
+                : new Gap(gap.dropped() + 1, Math.min(gap.firstSeq(), seq), Math.max(gap.lastSeq(), seq));
+    }
+
+    /**
+     * The next entry, or {@code null} if none arrives within the timeout.
+     */
+    public FeedEvent poll(long timeout, TimeUnit unit) throws InterruptedException {
+        return buffer.poll(timeout, unit);
+    }
+
+    /**
+     * Entries dropped since the last call because the buffer was full, or
+     * {@code null} if none were.
+     */
+    public synchronized Gap takeGap() {
+        Gap taken = gap;
+        gap = null;
+        return taken;
+    }
+
+    @Override
+    public void close() {
+        feed.unsubscribe(this);
+    }
+}
@@ -0,0 +1,237 @@
+package edu.franklin.acm.synapse.leaderboard;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.franklin.acm.synapse.activity.LeaderboardDao;
+import edu.franklin.acm.synapse.activity.ReadOnly;
+import edu.franklin.acm.synapse.activity.SeasonDao;
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import edu.franklin.acm.synapse.activity.guild.GuildPartitions;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * In-memory leaderboards: one {@link Ranking} per guild, per currency, and
+ * per season and counter. Rank-of-member and top-N are answered from memory
+ * without touching the database.
+ *
+ * <p>Boards are loaded from the read pool at startup for the currencies and
+ * every active season, and on first use otherwise. The writers keep them
+ * current: the rule engine calls {@link #add} after granting currency, and
+ * the voice tracker calls {@link #addSeasonal} after crediting voice
+ * minutes. Only boards already loaded are updated; a board loaded later
+ * reads the updated rows. Every board is reloaded on
+ * {@code synapse.leaderboard.rebuild-interval} to absorb writes made outside
+ * these paths. Changes that arrive while a board loads are replayed onto the
+ * loaded board before it replaces the old one, so none are lost to the swap.
+ * Boards are only created for seasons that exist.
+ *
+ * <p>Like the DAOs, every method works on the guild bound by
+ * {@link GuildContext}.
+ */
+@ApplicationScoped
+public class LeaderboardService {
+
+    private static final Logger log = LoggerFactory.getLogger(LeaderboardService.class);
+
+    @Inject @ReadOnly LeaderboardDao leaderboardDao;
+    @Inject SeasonDao seasonDao;
+    @Inject GuildPartitions partitions;
+
+    /**
+     * One leaderboard. {@code seasonId} is 0 for currency boards.
+     */
+    private record BoardKey(long guildId, Metric metric, long seasonId) {
+    }
+
+    private record Delta(long memberId, long delta) {
+    }
+
+    /**
+     * One board's current ranking, swapped whole on reload. Guarded by its
+     * own monitor; {@code loading} serializes loads of the board.
+     */
+    private static final class Board {
+        final Object loading = new Object();
+        private Ranking ranking;
+        /** Changes applied since the running load began, or {@code null}. */
+        private List<Delta> replay;
+
+        synchronized Ranking ranking() {
+            return ranking;
+        }
+
+        synchronized void add(long memberId, long delta) {
+            if (ranking != null) ranking.add(memberId, delta);
+            if (replay != null) replay.add(new Delta(memberId, delta));
+        }
+
+        synchronized void beginLoad() {
+            replay = new ArrayList<>();
+        }
+
+        synchronized void endLoad(Ranking loaded) {
+            if (loaded != null) {
+                for (Delta d : replay) loaded.add(d.memberId(), d.delta());
+                ranking = loaded;
+            }
+            replay = null;
+        }
+    }
+
+    private final Map<BoardKey, Board> boards = new ConcurrentHashMap<>();
+
+    void onStart(@Observes StartupEvent event) {
+        Thread.ofVirtual().name("synapse-leaderboards").start(this::rebuild);
+    }
+
+    /**
+     * Reloads every loaded board, plus the currency and active-season boards
+     * of every served guild, from the database.
+     */
+    @Scheduled(every = "${synapse.leaderboard.rebuild-interval:1h}",
+            delayed = "${synapse.leaderboard.rebuild-interval:1h}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void rebuild() {
+        Set<BoardKey> keys = new LinkedHashSet<>(boards.keySet());
+        Set<Long> guilds = new LinkedHashSet<>(partitions.guildIds());
+        if (guilds.isEmpty()) guilds.add(GuildContext.NONE);
+
+        String now = utcNow();
+        for (long guildId : guilds) {
+            try {
+                GuildContext.run(guildId, () -> {
+                    for (Metric metric : Metric.values()) {
+                        if (metric.seasonal()) {
+                            for (long seasonId : seasonDao.findActiveIds(now)) {
+                                keys.add(new BoardKey(guildId, metric, seasonId));
+                            }
+                        } else {
+                            keys.add(new BoardKey(guildId, metric, 0L));
+                        }
+                    }
+                });
+            } catch (Exception e) {
+                log.warn("Cannot list leaderboards for guild {}: {}", guildId, e.getMessage());
+            }
+        }
+
+        for (BoardKey key : keys) {
+            try {
+                reload(key, boards.computeIfAbsent(key, k -> new Board()));
+            } catch (Exception e) {
+                log.warn("Cannot load leaderboard {}: {}", key, e.getMessage());
+            }
+        }
+        log.info("Loaded {} leaderboards", keys.size());
+    }
+
+    /**
+     * The top {@code limit} members of a board in the current guild.
+     *
+     * @param seasonId the season, for seasonal metrics; ignored otherwise
+     */
+    public List<Standing> top(Metric metric, long seasonId, int limit) {
+        Ranking board = board(metric, seasonId);
+        return board != null ? board.top(limit) : List.of();
+    }
+
+    /**
+     * A member's position on a board in the current guild, or {@code null}
+     * if they are not ranked or the season does not exist.
+     */
+    public Standing rankOf(Metric metric, long seasonId, long memberId) {
+        Ranking board = board(metric, seasonId);
+        return board != null ? board.rankOf(memberId) : null;
+    }
+
+    /**
+     * Applies a currency change already written to the database.
+     */
+    public void add(Metric metric, long memberId, long delta) {
+        Board board = boards.get(new BoardKey(GuildContext.current(), metric, 0L));
+        if (board != null) board.add(memberId, delta);
+    }
+
+    /**
+     * Applies seasonal counter changes already written to the database for
+     * every season active at {@code now}, in the same way the statistics DAO
+     * credits them.
+     */
+    public void addSeasonal(Metric metric, String now, List<Long> memberIds, List<Integer> deltas) {
+        long guildId = GuildContext.current();
+        List<Long> seasons = null;
+        for (Map.Entry<BoardKey, Board> board : boards.entrySet()) {
+            BoardKey key = board.getKey();
+            if (key.guildId() != guildId || key.metric() != metric) continue;
+            if (seasons == null) seasons = seasonDao.findActiveIds(now);
+            if (!seasons.contains(key.seasonId())) continue;
+
+            for (int i = 0; i < memberIds.size(); i++) {
+                board.getValue().add(memberIds.get(i), deltas.get(i));
+            }
+        }
+    }
+
+    /**
+     * A board of the current guild, loaded on first use, or {@code null} for
+     * a season that does not exist.
+     */
+    private Ranking board(Metric metric, long seasonId) {
+        BoardKey key = new BoardKey(GuildContext.current(), metric, metric.seasonal() ? seasonId : 0L);
+        Board board = boards.get(key);
+        if (board == null) {
+            if (metric.seasonal() && !seasonDao.exists(seasonId)) return null;
+            board = boards.computeIfAbsent(key, k -> new Board());
+        }
+        Ranking ranking = board.ranking();
+        if (ranking != null) return ranking;
+
+        synchronized (board.loading) {
+            // Another caller may have loaded it while this one waited
+            if (board.ranking() == null) reload(key, board);
+        }
+        return board.ranking();
+    }
+
+    /**
+     * Loads a board from the database and swaps it in, with every change
+     * made during the load replayed onto it. A change committed in the
+     * moment before the load's read, but applied after the load began, is
+     * counted twice until the next reload.
+     */
+    private void reload(BoardKey key, Board board) {
+        synchronized (board.loading) {
+            board.beginLoad();
+            Ranking loaded = null;
+            try {
+                loaded = load(key);
+            } finally {
+                board.endLoad(loaded);
+            }
+        }
+    }
+
+    private Ranking load(BoardKey key) {
+        return GuildContext.call(key.guildId(), () -> new Ranking(key.metric().seasonal()
+                ? leaderboardDao.findSeasonalScores(key.metric().column(), key.seasonId())
+                : leaderboardDao.findMemberScores(key.metric().column())));
+    }
+
+    private static String utcNow() {
+        return LocalDateTime.now(ZoneOffset.UTC).toString();
+    }
+}
@@ -0,0 +1,37 @@
+package edu.franklin.acm.synapse.leaderboard;
+
+/**
+ * A score members can be ranked by: a currency balance on {@code members},
+ * or a per-season counter on {@code seasonal_member_statistics}.
+ */
+public enum Metric {
+    P_CURRENCY("p_currency", false),
+    S_CURRENCY("s_currency", false),
+    MESSAGES_SENT("messages_sent", true),
+    REACTIONS_SENT("reactions_sent", true),
+    REACTIONS_RECV("reactions_recv", true),
+    THREADS_POSTED("threads_posted", true),
+    VOICE_MINUTES("voice_minutes", true);
+
+    private final String column;
+    private final boolean seasonal;
+
+    Metric(String column, boolean seasonal) {
+        this.column = column;
+        this.seasonal = seasonal;
+    }
+
+    /**
+     * The column holding this score.
+     */
+    public String column() {
+        return column;
+    }
+
+    /**
+     * True if this score is kept per season, so a leaderboard needs a season.
+     */
+    public boolean seasonal() {
+        return seasonal;
+    }
+}
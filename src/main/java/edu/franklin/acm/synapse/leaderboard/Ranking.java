@@ -0,0 +1,130 @@
+package edu.franklin.acm.synapse.leaderboard;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Every member of one leaderboard, kept sorted by score.
+ *
+ * <p>Entries live in two parallel primitive arrays ordered by score
+ * descending, then member ID ascending, with a map from member to current
+ * score to locate an entry. Rank and top-N are binary searches and slices;
+ * an update moves one entry with two array copies, which for a guild's
+ * member count is a few microseconds and allocates nothing.
+ *
+ * <p>Ranks are competition ranks: tied members share the best rank of the
+ * tie ({@code 1, 2, 2, 4}).
+ */
+final class Ranking {
+
+    private long[] scores;
+    private long[] members;
+    private int size;
+    private final Map<Long, Long> scoreByMember;
+
+    Ranking(Map<Long, Long> initial) {
+        scoreByMember = new HashMap<>(initial);
+        size = initial.size();
+        scores = new long[Math.max(16, size)];
+        members = new long[scores.length];
+
+        List<Map.Entry<Long, Long>> sorted = new ArrayList<>(initial.entrySet());
+        sorted.sort((a, b) -> compare(a.getValue(), a.getKey(), b.getValue(), b.getKey()));
+        for (int i = 0; i < size; i++) {
+            scores[i] = sorted.get(i).getValue();
+            members[i] = sorted.get(i).getKey();
+        }
+    }
+
+    /**
+     * Adds to a member's score, entering them at zero if not yet ranked.
+     */
+    synchronized void add(long memberId, long delta) {
+        Long previous = scoreByMember.get(memberId);
+        long score = (previous != null ? previous : 0L) + delta;
+        if (previous != null) {
+            if (delta == 0) return;
+            remove(indexOf(previous, memberId));
+        }
+        scoreByMember.put(memberId, score);
+        insert(score, memberId);
+    }
+
+    /**
+     * The member's position, or {@code null} if they are not ranked.
+     */
+    synchronized Standing rankOf(long memberId) {
+        Long score = scoreByMember.get(memberId);
+        if (score == null) return null;
+        return new Standing(memberId, score, firstWithScore(score) + 1);
+    }
+
+    /**
+     * The first {@code limit} entries, best first.
+     */
+    synchronized List<Standing> top(int limit) {
+        int n = Math.min(limit, size);
+        List<Standing> top = new ArrayList<>(n);
+        int rank = 0;
+        for (int i = 0; i < n; i++) {
+            if (i == 0 || scores[i] != scores[i - 1]) rank = i + 1;
+            top.add(new Standing(members[i], scores[i], rank));
+        }
+        return top;
+    }
+
+    synchronized int size() {
+        return size;
+    }
+
+    private void remove(int index) {
+        System.arraycopy(scores, index + 1, scores, index, size - index - 1);
+        System.arraycopy(members, index + 1, members, index, size - index - 1);
+        size--;
+    }
+
+    private void insert(long score, long memberId) {
+        if (size == scores.length) {
+            scores = Arrays.copyOf(scores, size * 2);
+            members = Arrays.copyOf(members, size * 2);
+        }
+        int index = -indexOf(score, memberId) - 1;
+        System.arraycopy(scores, index, scores, index + 1, size - index);
+        System.arraycopy(members, index, members, index + 1, size - index);
+        scores[index] = score;
+        members[index] = memberId;
+        size++;
+    }
+
+    /**
+     * Binary search for an entry; returns {@code -(insertion point) - 1} if absent.
+     */
+    private int indexOf(long score, long memberId) {
+        int low = 0;
+        int high = size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int cmp = compare(scores[mid], members[mid], score, memberId);
+            if (cmp < 0) low = mid + 1;
+            else if (cmp > 0) high = mid - 1;
+            else return mid;
+        }
+        return -(low + 1);
+    }
+
+    /**
+     * Index of the first entry with the given score; the lowest member ID
+     * sorts first among ties.
+     */
+    private int firstWithScore(long score) {
+        return -indexOf(score, Long.MIN_VALUE) - 1;
+    }
+
+    private static int compare(long scoreA, long memberA, long scoreB, long memberB) {
+        int byScore = Long.compare(scoreB, scoreA);
+        return byScore != 0 ? byScore : Long.compare(memberA, memberB);
+    }
+}
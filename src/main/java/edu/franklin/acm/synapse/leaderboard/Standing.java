@@ -0,0 +1,11 @@
+package edu.franklin.acm.synapse.leaderboard;
+
+/**
+ * One member's position on a leaderboard.
+ *
+ * @param memberId internal member ID
+ * @param score    the member's score on the board's metric
+ * @param rank     1-based competition rank; tied members share a rank
+ */
+public record Standing(long memberId, long score, int rank) {
+}
@@ -0,0 +1,26 @@
+package edu.franklin.acm.synapse.rules.engine;
+
+/**
+ * A predicate specialized for one {@code rule_predicates} row. Produced once by
+ * a {@link PredicateFactory} when rules load, with its parameters already
+ * parsed and its field ids already resolved, so testing an event is a direct
+ * comparison against the {@link RuleContext}.
+ *
+ * <p>Implementations must be stateless with respect to events: the same
+ * instance is shared by every rule that uses the same predicate and may be
+ * tested concurrently from several evaluation threads.
+ */
+@FunctionalInterface
+public interface CompiledPredicate {
+
+    /**
+     * Fails every event. Used for unknown types and unusable parameters.
+     */
+    CompiledPredicate ALWAYS_FALSE = ctx -> false;
+
+    /**
+     * @param ctx the rule evaluation context
+     * @return true if the predicate passes
+     */
+    boolean test(RuleContext ctx);
+}
@@ -0,0 +1,20 @@
+package edu.franklin.acm.synapse.rules.engine;
+
+import java.util.List;
+
+import edu.franklin.acm.synapse.activity.rules.Rule;
+
+/**
+ * Everything the engine caches for one event type: the live rules, the
+ * primary matcher whose results are dispatched, and, when shadow mode is
+ * enabled, a candidate matcher compiled from the same rules.
+ *
+ * @param candidate the shadow matcher, or {@code null} if shadowing is off
+ */
+record CompiledRules(String eventType, List<Rule> rules, RuleMatcher primary,
+                     RuleMatcher candidate, long compiledAtNanos) {
+
+    int ruleCount() {
+        return rules.size();
+    }
+}
@@ -0,0 +1,41 @@
+package edu.franklin.acm.synapse.rules.engine;
+
+import java.util.List;
+import java.util.Map;
+
+import edu.franklin.acm.synapse.activity.rules.Rule;
+import edu.franklin.acm.synapse.activity.rules.RulePredicate;
+
+/**
+ * Available {@link RuleMatcher} implementations, selectable through
+ * {@code synapse.rules.matcher} (primary) and
+ * {@code synapse.rules.shadow.matcher} (candidate).
+ */
+public enum MatcherStrategy {
+
+    /**
+     * Shared predicate network with scope indexes. See {@link RuleNetwork}.
+     */
+    NETWORK {
+        @Override
+        RuleMatcher compile(String eventType, Map<Rule, List<RulePredicate>> rules,
+                            Iterable<PredicateFactory> factories, Iterable<PredicateEvaluator> evaluators) {
+            return RuleNetwork.compile(eventType, rules, factories, evaluators);
+        }
+    },
+
+    /**
+     * Reference implementation: every rule tests every one of its predicates
+     * in sort order. See {@link SequentialRuleMatcher}.
+     */
+    SEQUENTIAL {
+        @Override
+        RuleMatcher compile(String eventType, Map<Rule, List<RulePredicate>> rules,
+                            Iterable<PredicateFactory> factories, Iterable<PredicateEvaluator> evaluators) {
+            return SequentialRuleMatcher.compile(rules, factories, evaluators);
+        }
+    };
+
+    abstract RuleMatcher compile(String eventType, Map<Rule, List<RulePredicate>> rules,
+                                 Iterable<PredicateFactory> factories, Iterable<PredicateEvaluator> evaluators);
+}
@@ -0,0 +1,61 @@
+package edu.franklin.acm.synapse.rules.engine;
+
+import org.jboss.logging.Logger;
+
+import edu.franklin.acm.synapse.activity.rules.RulePredicate;
+
+/**
+ * Binds stored predicates to their {@link CompiledPredicate} form. Shared by
+ * every {@link RuleMatcher} so that all matchers agree on how an unknown type
+ * or a failing predicate behaves.
+ */
+final class PredicateCompiler {
+
+    private static final Logger log = Logger.getLogger(PredicateCompiler.class);
+
+    private PredicateCompiler() {
+    }
+
+    /**
+     * Compiles a predicate with the first factory that handles its type,
+     * falling back to a legacy evaluator. Unknown types and parameters a
+     * factory rejects compile to {@link CompiledPredicate#ALWAYS_FALSE}.
+     */
+    static CompiledPredicate compile(RulePredicate predicate,
+                                     Iterable<PredicateFactory> factories,
+                                     Iterable<PredicateEvaluator> evaluators) {
+        String type = predicate.predicateType();
+        for (PredicateFactory factory : factories) {
+            if (factory.handles(type)) {
+                try {
+                    return factory.compile(predicate);
+                } catch (IllegalArgumentException e) {
+                    log.warnf("Predicate '%s' on rule_predicate %d has unusable parameters, it will never pass: %s",
+                            type, predicate.id(), e.getMessage());
+                    return CompiledPredicate.ALWAYS_FALSE;
+                }
+            }
+        }
+        for (PredicateEvaluator evaluator : evaluators) {
+            if (evaluator.handles(type)) {
+                String parameters = predicate.parameters();
+                return ctx -> evaluator.evaluate(type, ctx, parameters);
+            }
+        }
+        log.warnf("No evaluator found for predicate type '%s' on rule_predicate %d",
+                type, predicate.id());
+        return CompiledPredicate.ALWAYS_FALSE;
+    }
+
+    /**
+     * Tests a compiled predicate, treating any runtime failure as a fail.
+     */
+    static boolean test(CompiledPredicate predicate, String predicateType, RuleContext ctx) {
+        try {
+            return predicate.test(ctx);
+        } catch (RuntimeException e) {
+            log.errorf(e, "Predicate '%s' failed for event %d", predicateType, ctx.eventId());
+            return false;
+        }
+    }
+}
@@ -4,6 +4,10 @@ package edu.franklin.acm.synapse.rules.engine;
  * A parameterized predicate type. Each implementation handles one structural
  * pattern (boolean field check, numeric threshold, string match, etc.) and
  * maps multiple predicate type names to the appropriate field accessors.
+ *
+ * <p>Superseded by {@link PredicateFactory}, which parses parameters once per
+ * rule load instead of once per event. Evaluator beans are still consulted
+ * for any predicate type no factory handles.
  */
 public interface PredicateEvaluator {
 
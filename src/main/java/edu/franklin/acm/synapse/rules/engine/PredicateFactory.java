@@ -0,0 +1,53 @@
+package edu.franklin.acm.synapse.rules.engine;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.franklin.acm.synapse.activity.rules.RulePredicate;
+
+/**
+ * Second-generation predicate SPI. A factory turns a stored
+ * {@link RulePredicate} into a specialized {@link CompiledPredicate} once,
+ * when the rule engine compiles its rule network, instead of re-parsing
+ * parameters and switching on the type name for every event.
+ *
+ * <p>Factories are discovered as CDI beans, so a third-party predicate only
+ * needs an {@code @ApplicationScoped} implementation on the classpath.
+ * Legacy {@link PredicateEvaluator} beans are still honoured for types no
+ * factory handles.
+ */
+public interface PredicateFactory {
+
+    /**
+     * Returns true if this factory handles the given predicate type name.
+     */
+    boolean handles(String predicateType);
+
+    /**
+     * Specializes the predicate for its parameters.
+     *
+     * @param predicate the stored predicate, including its JSON parameters
+     * @return the compiled predicate; {@link CompiledPredicate#ALWAYS_FALSE}
+     *         when the parameters cannot produce a passing result
+     * @throws IllegalArgumentException if the parameters are malformed; the
+     *         engine logs it and treats the predicate as always failing
+     */
+    CompiledPredicate compile(RulePredicate predicate);
+
+    /**
+     * Parses a predicate's parameters for use in {@link #compile}.
+     *
+     * @return the parameters tree, or {@code null} if the predicate has none
+     * @throws IllegalArgumentException if the parameters are not valid JSON
+     */
+    static JsonNode parameters(ObjectMapper mapper, RulePredicate predicate) {
+        if (predicate.parameters() == null) return null;
+        try {
+            return mapper.readTree(predicate.parameters());
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid parameters for predicate '"
+                    + predicate.predicateType() + "': " + e.getOriginalMessage(), e);
+        }
+    }
+}
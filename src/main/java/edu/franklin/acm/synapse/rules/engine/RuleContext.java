@@ -4,113 +4,188 @@ import edu.franklin.acm.synapse.activity.message.MessageEvent;
 
 /**
  * Carries all evaluable fields for rule predicate evaluation.
- * Built from event data at the point of evaluation. Null fields
+ * Built from event data at the point of evaluation. Absent fields
  * indicate the data is not applicable for this event type.
+ *
+ * <p>Fields are addressed by the interned ids in {@link RuleFields} and stored
+ * unboxed: booleans and integral values in a primitive slot array, doubles as
+ * raw long bits, strings in a reference array, with a single {@code long}
+ * bitmask recording which fields are present. The primitive getters perform
+ * no allocation and no name lookup, so compiled predicates stay cheap for the
+ * JIT to inline. Instances are immutable once a factory method returns.
  */
-public record RuleContext(
-        // Event metadata
-        String eventType,
-        long eventId,
-        long memberId,
-        Long channelId,
-
-        // Message fields (null for non-message events)
-        Integer contentLength,
-        Boolean authorIsBot,
-        Boolean isReply,
-        Boolean hasPoll,
-        Boolean hasStickers,
-        Boolean isTts,
-        Boolean isPinned,
-        Boolean hasAttachments,
-        Integer attachmentCount,
-        Integer reactionCount,
-        Integer mentionUserCount,
-        Boolean mentionEveryone,
-        Integer embedCount,
-        Boolean isVoiceMessage,
-        Integer messageType,
-
-        // Attachment fields (from first attachment, null if none)
-        String attachmentFilename,
-        String attachmentContentType,
-
-        // Member state
-        Long memberExtId,
-        Boolean memberIsBoosting,
-        String memberJoinedAt,
-        Integer memberPCurrency,
-        Integer memberSCurrency,
-
-        // Channel state
-        Long channelExtId,
-        String channelType,
-        Long categoryExtId,
-
-        // Role change fields (null for non-role events)
-        String rolesAdded,
-        String rolesRemoved,
-
-        // Voice fields (null for non-voice events)
-        Long voiceChannelExtId,
-        Double sessionDurationMinutes,
-
-        // Timestamp
-        String createdAt) {
+public final class RuleContext {
+
+    private final String eventType;
+    private final long eventId;
+    private final long dedupEventId;
+    private final long memberId;
+
+    private final long[] slots = new long[RuleFields.COUNT];
+    private final String[] strings = new String[RuleFields.COUNT];
+    private long present;
+
+    private RuleContext(String eventType, long eventId, long memberId) {
+        this(eventType, eventId, eventId, memberId);
+    }
+
+    private RuleContext(String eventType, long eventId, long dedupEventId, long memberId) {
+        this.eventType = eventType;
+        this.eventId = eventId;
+        this.dedupEventId = dedupEventId;
+        this.memberId = memberId;
+    }
+
+    // ---- Event metadata ----
+
+    public String eventType() {
+        return eventType;
+    }
+
+    public long eventId() {
+        return eventId;
+    }
+
+    /**
+     * The event a rule fires at most once for. The event itself, except for
+     * VOICE_ACTIVE, where it is the event that opened the session.
+     */
+    public long dedupEventId() {
+        return dedupEventId;
+    }
+
+    public long memberId() {
+        return memberId;
+    }
+
+    // ---- Primitive, allocation-free access by field id ----
+
+    /**
+     * True if the field carries a value for this event.
+     */
+    public boolean has(int field) {
+        return (present & (1L << field)) != 0;
+    }
+
+    /**
+     * Reads a boolean field. Only meaningful when {@link #has(int)} is true.
+     */
+    public boolean getBoolean(int field) {
+        return slots[field] != 0;
+    }
 
     /**
-     * Resolves a named boolean field from this context.
+     * Reads an integral field (int or long kind). Only meaningful when
+     * {@link #has(int)} is true.
      */
-    public Boolean getBooleanField(String fieldName) {
-        return switch (fieldName) {
-            case "author_is_bot" -> authorIsBot;
-            case "is_reply" -> isReply;
-            case "has_poll" -> hasPoll;
-            case "has_stickers" -> hasStickers;
-            case "is_tts" -> isTts;
-            case "is_pinned" -> isPinned;
-            case "has_attachments" -> hasAttachments;
-            case "mention_everyone" -> mentionEveryone;
-            case "is_voice_message" -> isVoiceMessage;
-            case "has_embed" -> embedCount != null && embedCount > 0;
-            case "member_is_boosting" -> memberIsBoosting;
-            default -> null;
-        };
+    public long getLong(int field) {
+        return slots[field];
     }
 
     /**
-     * Resolves a named numeric field from this context.
+     * Reads any numeric field widened to double. Only meaningful when
+     * {@link #has(int)} is true.
      */
-    public Number getNumericField(String fieldName) {
-        return switch (fieldName) {
-            case "content_length" -> contentLength;
-            case "attachment_count" -> attachmentCount;
-            case "reaction_count" -> reactionCount;
-            case "mention_user_count" -> mentionUserCount;
-            case "embed_count" -> embedCount;
-            case "message_type" -> messageType;
-            case "p_currency" -> memberPCurrency;
-            case "s_currency" -> memberSCurrency;
-            case "attachment_size" -> null; // would need attachment size on context
-            case "session_duration_minutes" -> sessionDurationMinutes;
-            default -> null;
-        };
+    public double getDouble(int field) {
+        return RuleFields.kind(field) == RuleFields.Kind.DOUBLE
+                ? Double.longBitsToDouble(slots[field])
+                : slots[field];
     }
 
     /**
-     * Resolves a named string field from this context.
+     * Reads a string field, or {@code null} if absent.
      */
-    public String getStringField(String fieldName) {
-        return switch (fieldName) {
-            case "channel_ext_id" -> channelExtId != null ? channelExtId.toString() : null;
-            case "channel_type" -> channelType;
-            case "category_ext_id" -> categoryExtId != null ? categoryExtId.toString() : null;
-            case "message_type" -> messageType != null ? messageType.toString() : null;
-            case "attachment_filename" -> attachmentFilename;
-            case "attachment_content_type" -> attachmentContentType;
-            case "voice_channel_ext_id" -> voiceChannelExtId != null ? voiceChannelExtId.toString() : null;
-            default -> null;
-        };
+    public String getString(int field) {
+        return strings[field];
+    }
+
+    // ---- Convenience accessors for callers outside the hot path ----
+
+    public Long memberExtId() {
+        return boxedLong(RuleFields.MEMBER_EXT_ID);
+    }
+
+    public String memberJoinedAt() {
+        return strings[RuleFields.MEMBER_JOINED_AT];
+    }
+
+    public Long channelId() {
+        return boxedLong(RuleFields.CHANNEL_ID);
+    }
+
+    public Long channelExtId() {
+        return boxedLong(RuleFields.CHANNEL_EXT_ID);
+    }
+
+    public String channelType() {
+        return strings[RuleFields.CHANNEL_TYPE];
+    }
+
+    public Long categoryExtId() {
+        return boxedLong(RuleFields.CATEGORY_EXT_ID);
+    }
+
+    public Long voiceChannelExtId() {
+        return boxedLong(RuleFields.VOICE_CHANNEL_EXT_ID);
+    }
+
+    public String attachmentFilename() {
+        return strings[RuleFields.ATTACHMENT_FILENAME];
+    }
+
+    public String attachmentContentType() {
+        return strings[RuleFields.ATTACHMENT_CONTENT_TYPE];
+    }
+
+    public String rolesAdded() {
+        return strings[RuleFields.ROLES_ADDED];
+    }
+
+    public String rolesRemoved() {
+        return strings[RuleFields.ROLES_REMOVED];
+    }
+
+    private Long boxedLong(int field) {
+        return has(field) ? slots[field] : null;
+    }
+
+    // ---- Construction ----
+
+    private RuleContext set(int field, boolean value) {
+        slots[field] = value ? 1L : 0L;
+        present |= 1L << field;
+        return this;
+    }
+
+    private RuleContext set(int field, long value) {
+        slots[field] = value;
+        present |= 1L << field;
+        return this;
+    }
+
+    private RuleContext set(int field, Long value) {
+        return value != null ? set(field, value.longValue()) : this;
+    }
+
+    private RuleContext set(int field, Double value) {
+        return value != null ? set(field, Double.doubleToRawLongBits(value)) : this;
+    }
+
+    private RuleContext set(int field, String value) {
+        if (value != null) {
+            strings[field] = value;
+            present |= 1L << field;
+        }
+        return this;
+    }
+
+    private RuleContext member(Long memberExtId, boolean memberIsBoosting, String memberJoinedAt,
+                               int memberPCurrency, int memberSCurrency) {
+        return set(RuleFields.MEMBER_EXT_ID, memberExtId)
+                .set(RuleFields.MEMBER_IS_BOOSTING, memberIsBoosting)
+                .set(RuleFields.MEMBER_JOINED_AT, memberJoinedAt)
+                .set(RuleFields.P_CURRENCY, memberPCurrency)
+                .set(RuleFields.S_CURRENCY, memberSCurrency);
     }
 
     /**
@@ -122,21 +197,30 @@ public record RuleContext(
                                          int memberPCurrency, int memberSCurrency,
                                          Long channelExtId, String channelType, Long categoryExtId,
                                          String attachmentFilename, String attachmentContentType) {
-        return new RuleContext(
-                "MESSAGE_CREATE", eventId, memberId, channelId,
-                msg.contentLength(), msg.authorIsBot(), msg.isReply(),
-                msg.hasPoll(), msg.hasStickers(), msg.isTts(), msg.isPinned(),
-                msg.hasAttachments(), msg.attachmentCount(), msg.reactionCount(),
-                msg.mentionUserCount(), msg.mentionEveryone(), msg.embedCount(),
-                msg.isVoiceMessage(), msg.type(),
-                attachmentFilename, attachmentContentType,
-                memberExtId, memberIsBoosting, memberJoinedAt,
-                memberPCurrency, memberSCurrency,
-                channelExtId, channelType, categoryExtId,
-                null, null,
-                null, null,
-                null
-        );
+        return new RuleContext("MESSAGE_CREATE", eventId, memberId)
+                .set(RuleFields.CHANNEL_ID, channelId)
+                .set(RuleFields.CONTENT_LENGTH, msg.contentLength())
+                .set(RuleFields.AUTHOR_IS_BOT, msg.authorIsBot())
+                .set(RuleFields.IS_REPLY, msg.isReply())
+                .set(RuleFields.HAS_POLL, msg.hasPoll())
+                .set(RuleFields.HAS_STICKERS, msg.hasStickers())
+                .set(RuleFields.IS_TTS, msg.isTts())
+                .set(RuleFields.IS_PINNED, msg.isPinned())
+                .set(RuleFields.HAS_ATTACHMENTS, msg.hasAttachments())
+                .set(RuleFields.ATTACHMENT_COUNT, msg.attachmentCount())
+                .set(RuleFields.REACTION_COUNT, msg.reactionCount())
+                .set(RuleFields.MENTION_USER_COUNT, msg.mentionUserCount())
+                .set(RuleFields.MENTION_EVERYONE, msg.mentionEveryone())
+                .set(RuleFields.EMBED_COUNT, msg.embedCount())
+                .set(RuleFields.HAS_EMBED, msg.embedCount() > 0)
+                .set(RuleFields.IS_VOICE_MESSAGE, msg.isVoiceMessage())
+                .set(RuleFields.MESSAGE_TYPE, msg.type())
+                .set(RuleFields.ATTACHMENT_FILENAME, attachmentFilename)
+                .set(RuleFields.ATTACHMENT_CONTENT_TYPE, attachmentContentType)
+                .member(memberExtId, memberIsBoosting, memberJoinedAt, memberPCurrency, memberSCurrency)
+                .set(RuleFields.CHANNEL_EXT_ID, channelExtId)
+                .set(RuleFields.CHANNEL_TYPE, channelType)
+                .set(RuleFields.CATEGORY_EXT_ID, categoryExtId);
     }
 
     /**
@@ -146,19 +230,8 @@ public record RuleContext(
                                              Long memberExtId, boolean memberIsBoosting,
                                              String memberJoinedAt,
                                              int memberPCurrency, int memberSCurrency) {
-        return new RuleContext(
-                eventType, eventId, memberId,
-                null,                                                     // channelId
-                null, null, null, null, null, null, null,                  // message booleans
-                null, null, null, null, null, null, null, null,            // message numerics + type
-                null, null,                                                // attachment fields
-                memberExtId, memberIsBoosting, memberJoinedAt,             // member state
-                memberPCurrency, memberSCurrency,
-                null, null, null,                                          // channel state
-                null, null,                                                // role change
-                null, null,                                                // voice
-                null                                                       // createdAt
-        );
+        return new RuleContext(eventType, eventId, memberId)
+                .member(memberExtId, memberIsBoosting, memberJoinedAt, memberPCurrency, memberSCurrency);
     }
 
     /**
@@ -169,23 +242,14 @@ public record RuleContext(
                                             String memberJoinedAt,
                                             int memberPCurrency, int memberSCurrency,
                                             String rolesAdded, String rolesRemoved) {
-        return new RuleContext(
-                "MEMBER_ROLE_CHANGE", eventId, memberId,
-                null,                                                     // channelId
-                null, null, null, null, null, null, null,                  // message booleans
-                null, null, null, null, null, null, null, null,            // message numerics + type
-                null, null,                                                // attachment fields
-                memberExtId, memberIsBoosting, memberJoinedAt,             // member state
-                memberPCurrency, memberSCurrency,
-                null, null, null,                                          // channel state
-                rolesAdded, rolesRemoved,                                  // role change
-                null, null,                                                // voice
-                null                                                       // createdAt
-        );
+        return new RuleContext("MEMBER_ROLE_CHANGE", eventId, memberId)
+                .member(memberExtId, memberIsBoosting, memberJoinedAt, memberPCurrency, memberSCurrency)
+                .set(RuleFields.ROLES_ADDED, rolesAdded)
+                .set(RuleFields.ROLES_REMOVED, rolesRemoved);
     }
 
     /**
-     * Build a context for VOICE_JOIN, VOICE_LEAVE, or VOICE_MOVE events.
+     * Build a context for VOICE_JOIN, VOICE_LEAVE or VOICE_MOVE events.
      */
     public static RuleContext forVoiceEvent(String eventType, long eventId, long memberId,
                                             Long channelId, Long memberExtId,
@@ -193,18 +257,31 @@ public record RuleContext(
                                             int memberPCurrency, int memberSCurrency,
                                             Long channelExtId, String channelType,
                                             Double sessionDurationMinutes) {
-        return new RuleContext(
-                eventType, eventId, memberId,
-                channelId,                                                 // channelId
-                null, null, null, null, null, null, null,                  // message booleans
-                null, null, null, null, null, null, null, null,            // message numerics + type
-                null, null,                                                // attachment fields
-                memberExtId, memberIsBoosting, memberJoinedAt,             // member state
-                memberPCurrency, memberSCurrency,
-                channelExtId, channelType, null,                           // channel state
-                null, null,                                                // role change
-                channelExtId, sessionDurationMinutes,                      // voice
-                null                                                       // createdAt
-        );
+        return new RuleContext(eventType, eventId, memberId)
+                .set(RuleFields.CHANNEL_ID, channelId)
+                .member(memberExtId, memberIsBoosting, memberJoinedAt, memberPCurrency, memberSCurrency)
+                .set(RuleFields.CHANNEL_EXT_ID, channelExtId)
+                .set(RuleFields.CHANNEL_TYPE, channelType)
+                .set(RuleFields.VOICE_CHANNEL_EXT_ID, channelExtId)
+                .set(RuleFields.SESSION_DURATION_MINUTES, sessionDurationMinutes);
+    }
+
+    /**
+     * Build a context for a VOICE_ACTIVE accrual of an open session. Rules
+     * fire at most once per session, keyed on {@code sessionEventId}, the
+     * VOICE_JOIN or VOICE_MOVE that opened it.
+     */
+    public static RuleContext forVoiceActive(long eventId, long sessionEventId, long memberId,
+                                             Long channelId, Long memberExtId,
+                                             int memberPCurrency, int memberSCurrency,
+                                             Long channelExtId, String channelType,
+                                             Double sessionDurationMinutes) {
+        return new RuleContext("VOICE_ACTIVE", eventId, sessionEventId, memberId)
+                .set(RuleFields.CHANNEL_ID, channelId)
+                .member(memberExtId, false, null, memberPCurrency, memberSCurrency)
+                .set(RuleFields.CHANNEL_EXT_ID, channelExtId)
+                .set(RuleFields.CHANNEL_TYPE, channelType)
+                .set(RuleFields.VOICE_CHANNEL_EXT_ID, channelExtId)
+                .set(RuleFields.SESSION_DURATION_MINUTES, sessionDurationMinutes);
     }
 }
@@ -2,10 +2,21 @@ package edu.franklin.acm.synapse.rules.engine;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import edu.franklin.acm.synapse.achievements.AchievementTracker;
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
 import edu.franklin.acm.synapse.activity.member.MemberDao;
 import edu.franklin.acm.synapse.activity.rules.Rule;
 import edu.franklin.acm.synapse.activity.rules.RuleDao;
@@ -14,6 +25,10 @@ import edu.franklin.acm.synapse.activity.rules.RuleOutcome;
 import edu.franklin.acm.synapse.activity.rules.RuleOutcomeDao;
 import edu.franklin.acm.synapse.activity.rules.RulePredicate;
 import edu.franklin.acm.synapse.activity.rules.RulePredicateDao;
+import edu.franklin.acm.synapse.announcements.AnnouncementOutbox;
+import edu.franklin.acm.synapse.feed.ActivityFeed;
+import edu.franklin.acm.synapse.leaderboard.LeaderboardService;
+import edu.franklin.acm.synapse.leaderboard.Metric;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.enterprise.event.ObservesAsync;
 import jakarta.inject.Inject;
@@ -22,6 +37,24 @@ import jakarta.inject.Inject;
  * Core rule evaluation engine. Observes async CDI events fired by the live
  * scanner after event persistence. Evaluates matching rules against the
  * event context and dispatches outcomes.
+ *
+ * <p>Rules are compiled per event type into a {@link RuleMatcher}, by default
+ * a {@link RuleNetwork} so that predicates shared between rules are evaluated
+ * once per event. Compiled matchers are cached and recompiled after {@code synapse.rules.refresh-seconds}
+ * or on {@link #invalidate()}.
+ *
+ * <p>Each request carries the guild it came from; evaluation runs bound to
+ * that guild's partition and its compiled rules are cached per guild.
+ *
+ * <p>When {@code synapse.rules.shadow.matcher} is set, a second matcher is
+ * compiled from the same rules and run on every event right after the
+ * primary by the {@link RuleShadowEvaluator}, which compares its selection
+ * and latency with the primary without dispatching anything.
+ *
+ * <p>Every request and every firing is published to the {@link ActivityFeed}
+ * for live subscribers, and every request is counted by the
+ * {@link AchievementTracker} and, before its rules are evaluated, by the
+ * {@link WindowCounters} behind windowed predicates.
  */
 @ApplicationScoped
 public class RuleEngine {
@@ -43,16 +76,53 @@ public class RuleEngine {
     @Inject
     MemberDao memberDao;
 
+    @Inject
+    jakarta.enterprise.inject.Instance<PredicateFactory> factoryBeans;
+
     @Inject
     jakarta.enterprise.inject.Instance<PredicateEvaluator> evaluatorBeans;
 
+    @Inject
+    RuleShadowEvaluator shadowEvaluator;
+
+    @Inject
+    LeaderboardService leaderboards;
+
+    @Inject
+    ActivityFeed feed;
+
+    @Inject
+    AnnouncementOutbox announcements;
+
+    @Inject
+    AchievementTracker achievements;
+
+    @Inject
+    WindowCounters windowCounters;
+
+    @ConfigProperty(name = "synapse.rules.refresh-seconds", defaultValue = "30")
+    long refreshSeconds;
+
+    @ConfigProperty(name = "synapse.rules.matcher", defaultValue = "network")
+    MatcherStrategy matcher;
+
+    @ConfigProperty(name = "synapse.rules.shadow.matcher")
+    Optional<MatcherStrategy> shadowMatcher;
+
+    private final Map<RuleSetKey, CompiledRules> compiled = new ConcurrentHashMap<>();
+
     /**
      * Async observer — receives evaluation requests from the live scanner.
      */
     public void onEvaluationRequest(@ObservesAsync RuleEvaluationRequest request) {
         RuleContext ctx = request.context();
+        feed.eventIngested(request.guildId(), ctx);
         try {
-            evaluate(ctx);
+            GuildContext.run(request.guildId(), () -> {
+                windowCounters.record(ctx);
+                achievements.onEvent(ctx);
+                evaluate(ctx);
+            });
         } catch (Exception e) {
             log.errorf(e, "Rule evaluation failed for event %d (type=%s, member=%d)",
                     ctx.eventId(), ctx.eventType(), ctx.memberId());
@@ -60,27 +130,100 @@ public class RuleEngine {
     }
 
     /**
-     * Evaluate all enabled rules matching the event type against the context.
+     * Evaluate all enabled rules matching the event type against the context,
+     * using the rules of the guild bound to the calling thread.
      */
     void evaluate(RuleContext ctx) {
-        List<Rule> candidates = ruleDao.findEnabledByEventType(ctx.eventType());
-        if (candidates.isEmpty()) return;
+        CompiledRules rules = rules(new RuleSetKey(GuildContext.current(), ctx.eventType()));
+        if (rules.ruleCount() == 0) return;
 
-        for (Rule rule : candidates) {
-            if (!rule.appliesLive()) continue;
+        long start = System.nanoTime();
+        List<Rule> matched = rules.primary().match(ctx);
+        if (rules.candidate() != null) {
+            shadowEvaluator.compare(ctx, rules, matched, System.nanoTime() - start);
+        }
 
+        for (Rule rule : matched) {
             try {
-                evaluateRule(rule, ctx);
+                if (shouldFire(rule, ctx)) {
+                    fire(rule, ctx);
+                }
             } catch (Exception e) {
                 log.errorf(e, "Error evaluating rule '%s' for event %d", rule.name(), ctx.eventId());
             }
         }
     }
 
-    private void evaluateRule(Rule rule, RuleContext ctx) {
+    /**
+     * Compiles the live rules of every event type for the guild bound to the
+     * calling thread, and rebuilds the windows their predicates registered.
+     * Run at startup, after reconciliation, so that the first events are not
+     * held up compiling or replaying the Event Lake.
+     */
+    public void prepare() {
+        Set<String> eventTypes = new LinkedHashSet<>();
+        for (Rule rule : ruleDao.findAll()) {
+            if (rule.enabled() && rule.appliesLive()) eventTypes.add(rule.eventType());
+        }
+        for (String eventType : eventTypes) {
+            rules(new RuleSetKey(GuildContext.current(), eventType));
+        }
+        windowCounters.rebuildPending();
+    }
+
+    /**
+     * Drops all compiled rule matchers, for every guild, along with the
+     * achievement definitions their {@code ACHIEVEMENT} outcomes name. The
+     * next event of each type recompiles from the database. Call after rules,
+     * predicates, outcomes or achievements change.
+     */
+    public void invalidate() {
+        compiled.clear();
+        achievements.invalidate();
+    }
+
+    private CompiledRules rules(RuleSetKey key) {
+        long maxAgeNanos = TimeUnit.SECONDS.toNanos(refreshSeconds);
+        return compiled.compute(key, (k, current) ->
+                current != null && System.nanoTime() - current.compiledAtNanos() < maxAgeNanos
+                        ? current
+                        : compile(k.eventType()));
+    }
+
+    /**
+     * Compiled rules are cached per guild: each guild's partition has its own
+     * rule definitions.
+     */
+    private record RuleSetKey(long guildId, String eventType) {
+    }
+
+    private CompiledRules compile(String eventType) {
+        Map<Long, List<RulePredicate>> predicatesByRule = new LinkedHashMap<>();
+        for (RulePredicate predicate : rulePredicateDao.findEnabledByEventType(eventType)) {
+            predicatesByRule.computeIfAbsent(predicate.ruleId(), id -> new ArrayList<>()).add(predicate);
+        }
+
+        Map<Rule, List<RulePredicate>> rules = new LinkedHashMap<>();
+        for (Rule rule : ruleDao.findEnabledByEventType(eventType)) {
+            if (!rule.appliesLive()) continue;
+            rules.put(rule, predicatesByRule.getOrDefault(rule.id(), List.of()));
+        }
+        RuleMatcher primary = matcher.compile(eventType, rules, factoryBeans, evaluatorBeans);
+        RuleMatcher candidate = shadowMatcher
+                .map(strategy -> strategy.compile(eventType, rules, factoryBeans, evaluatorBeans))
+                .orElse(null);
+        return new CompiledRules(eventType, List.copyOf(rules.keySet()), primary, candidate, System.nanoTime());
+    }
+
+    /**
+     * Per-rule checks that depend on evaluation history rather than the event
+     * itself. Run only for rules whose predicates already passed, so the
+     * database is consulted once per match instead of once per candidate.
+     */
+    private boolean shouldFire(Rule rule, RuleContext ctx) {
         // Deduplication check
-        if (ruleEvaluationDao.countByRuleAndEvent(rule.id(), ctx.eventId()) > 0) {
-            return;
+        if (ruleEvaluationDao.countByRuleAndEvent(rule.id(), ctx.dedupEventId()) > 0) {
+            return false;
         }
 
         // Cooldown check
@@ -88,54 +231,30 @@ public class RuleEngine {
             String since = LocalDateTime.now(ZoneOffset.UTC)
                     .minusSeconds(rule.cooldownSeconds())
                     .toString();
-            if (ruleEvaluationDao.countRecentByRuleAndMember(rule.id(), ctx.memberId(), since) > 0) {
-                return;
-            }
-        }
-
-        // Load and evaluate predicates
-        List<RulePredicate> predicates = rulePredicateDao.findByRuleId(rule.id());
-        for (RulePredicate predicate : predicates) {
-            if (!evaluatePredicate(predicate, ctx)) {
-                return; // Short-circuit: predicate failed, rule does not fire
-            }
-        }
-
-        // All predicates passed — fire the rule
-        fire(rule, ctx);
-    }
-
-    private boolean evaluatePredicate(RulePredicate predicate, RuleContext ctx) {
-        for (PredicateEvaluator evaluator : evaluatorBeans) {
-            if (evaluator.handles(predicate.predicateType())) {
-                return evaluator.evaluate(predicate.predicateType(), ctx, predicate.parameters());
-            }
+            return ruleEvaluationDao.countRecentByRuleAndMember(rule.id(), ctx.memberId(), since) == 0;
         }
-        log.warnf("No evaluator found for predicate type '%s' on rule_predicate %d",
-                predicate.predicateType(), predicate.id());
-        return false; // Unknown predicate type = fail safe
+        return true;
     }
 
     private void fire(Rule rule, RuleContext ctx) {
         log.infof("Rule '%s' fired for event %d (member %d)", rule.name(), ctx.eventId(), ctx.memberId());
 
         // Log the evaluation
-        ruleEvaluationDao.insert(rule.id(), ctx.eventId(), ctx.memberId());
+        ruleEvaluationDao.insert(rule.id(), ctx.dedupEventId(), ctx.memberId());
+        feed.ruleFired(rule, ctx);
 
         // Dispatch outcomes
         List<RuleOutcome> outcomes = ruleOutcomeDao.findByRuleId(rule.id());
         for (RuleOutcome outcome : outcomes) {
-            dispatchOutcome(outcome, ctx);
+            dispatchOutcome(rule, outcome, ctx);
         }
     }
 
-    private void dispatchOutcome(RuleOutcome outcome, RuleContext ctx) {
+    private void dispatchOutcome(Rule rule, RuleOutcome outcome, RuleContext ctx) {
         switch (outcome.type()) {
             case "CURRENCY" -> dispatchCurrency(outcome, ctx);
-            case "ACHIEVEMENT" -> log.infof("Achievement outcome for member %d (stub — no achievements table yet)",
-                    ctx.memberId());
-            case "ANNOUNCEMENT" -> log.infof("Announcement outcome for member %d (stub — no delivery mechanism yet)",
-                    ctx.memberId());
+            case "ACHIEVEMENT" -> achievements.onOutcome(outcome, ctx);
+            case "ANNOUNCEMENT" -> announcements.enqueue(rule, outcome, ctx);
             default -> log.warnf("Unknown outcome type '%s' on rule_outcome %d", outcome.type(), outcome.id());
         }
     }
@@ -143,11 +262,13 @@ public class RuleEngine {
     private void dispatchCurrency(RuleOutcome outcome, RuleContext ctx) {
         if (outcome.pCurrency() != null && outcome.pCurrency() != 0) {
             memberDao.incrementPCurrency(ctx.memberId(), outcome.pCurrency());
+            leaderboards.add(Metric.P_CURRENCY, ctx.memberId(), outcome.pCurrency());
             log.debugf("Granted %d primary currency to member %d",
                     (Object) outcome.pCurrency(), (Object) ctx.memberId());
         }
         if (outcome.sCurrency() != null && outcome.sCurrency() != 0) {
             memberDao.incrementSCurrency(ctx.memberId(), outcome.sCurrency());
+            leaderboards.add(Metric.S_CURRENCY, ctx.memberId(), outcome.sCurrency());
             log.debugf("Granted %d secondary currency to member %d",
                     (Object) outcome.sCurrency(), (Object) ctx.memberId());
         }
@@ -1,8 +1,19 @@
 package edu.franklin.acm.synapse.rules.engine;
 
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+
 /**
  * CDI async event payload fired by the live scanner after persisting an event.
  * The rule engine observes this asynchronously to evaluate matching rules.
+ *
+ * @param guildId the guild whose partition the event was persisted to
  */
-public record RuleEvaluationRequest(RuleContext context) {
+public record RuleEvaluationRequest(long guildId, RuleContext context) {
+
+    /**
+     * A request for the guild bound to the calling thread.
+     */
+    public RuleEvaluationRequest(RuleContext context) {
+        this(GuildContext.current(), context);
+    }
 }
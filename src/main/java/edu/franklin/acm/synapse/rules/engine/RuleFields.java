@@ -0,0 +1,146 @@
+package edu.franklin.acm.synapse.rules.engine;
+
+import java.util.Map;
+
+/**
+ * Interned field ids for {@link RuleContext}. Every evaluable field has a
+ * compile-time integer id and a {@link Kind} describing its storage slot.
+ * Predicate evaluators resolve field names to ids once, when rules load, and
+ * address the context by id on the evaluation hot path.
+ *
+ * <p>Ids are dense and below 64 so that a single {@code long} can act as the
+ * context's null mask.
+ */
+public final class RuleFields {
+
+    /**
+     * Storage kind of a field. Booleans and integral fields live in the
+     * primitive slot array; doubles are stored as raw long bits; strings live
+     * in a separate reference array.
+     */
+    public enum Kind { BOOLEAN, INT, LONG, DOUBLE, STRING }
+
+    // Message booleans
+    public static final int AUTHOR_IS_BOT = 0;
+    public static final int IS_REPLY = 1;
+    public static final int HAS_POLL = 2;
+    public static final int HAS_STICKERS = 3;
+    public static final int IS_TTS = 4;
+    public static final int IS_PINNED = 5;
+    public static final int HAS_ATTACHMENTS = 6;
+    public static final int MENTION_EVERYONE = 7;
+    public static final int IS_VOICE_MESSAGE = 8;
+    public static final int HAS_EMBED = 9;
+
+    // Message numerics
+    public static final int CONTENT_LENGTH = 10;
+    public static final int ATTACHMENT_COUNT = 11;
+    public static final int REACTION_COUNT = 12;
+    public static final int MENTION_USER_COUNT = 13;
+    public static final int EMBED_COUNT = 14;
+    public static final int MESSAGE_TYPE = 15;
+    public static final int ATTACHMENT_SIZE = 16;
+
+    // Attachment fields (from first attachment)
+    public static final int ATTACHMENT_FILENAME = 17;
+    public static final int ATTACHMENT_CONTENT_TYPE = 18;
+
+    // Member state
+    public static final int MEMBER_EXT_ID = 19;
+    public static final int MEMBER_IS_BOOSTING = 20;
+    public static final int MEMBER_JOINED_AT = 21;
+    public static final int P_CURRENCY = 22;
+    public static final int S_CURRENCY = 23;
+
+    // Channel state
+    public static final int CHANNEL_ID = 24;
+    public static final int CHANNEL_EXT_ID = 25;
+    public static final int CHANNEL_TYPE = 26;
+    public static final int CATEGORY_EXT_ID = 27;
+
+    // Role change fields
+    public static final int ROLES_ADDED = 28;
+    public static final int ROLES_REMOVED = 29;
+
+    // Voice fields
+    public static final int VOICE_CHANNEL_EXT_ID = 30;
+    public static final int SESSION_DURATION_MINUTES = 31;
+
+    // Timestamp
+    public static final int CREATED_AT = 32;
+
+    public static final int COUNT = 33;
+
+    private static final Kind[] KINDS = new Kind[COUNT];
+
+    @SuppressWarnings("null") // Map.ofEntries() guarantees non-null values by contract
+    private static final Map<String, Integer> BY_NAME = Map.ofEntries(
+            field("author_is_bot", AUTHOR_IS_BOT, Kind.BOOLEAN),
+            field("is_reply", IS_REPLY, Kind.BOOLEAN),
+            field("has_poll", HAS_POLL, Kind.BOOLEAN),
+            field("has_stickers", HAS_STICKERS, Kind.BOOLEAN),
+            field("is_tts", IS_TTS, Kind.BOOLEAN),
+            field("is_pinned", IS_PINNED, Kind.BOOLEAN),
+            field("has_attachments", HAS_ATTACHMENTS, Kind.BOOLEAN),
+            field("mention_everyone", MENTION_EVERYONE, Kind.BOOLEAN),
+            field("is_voice_message", IS_VOICE_MESSAGE, Kind.BOOLEAN),
+            field("has_embed", HAS_EMBED, Kind.BOOLEAN),
+            field("content_length", CONTENT_LENGTH, Kind.INT),
+            field("attachment_count", ATTACHMENT_COUNT, Kind.INT),
+            field("reaction_count", REACTION_COUNT, Kind.INT),
+            field("mention_user_count", MENTION_USER_COUNT, Kind.INT),
+            field("embed_count", EMBED_COUNT, Kind.INT),
+            field("message_type", MESSAGE_TYPE, Kind.INT),
+            field("attachment_size", ATTACHMENT_SIZE, Kind.INT),
+            field("attachment_filename", ATTACHMENT_FILENAME, Kind.STRING),
+            field("attachment_content_type", ATTACHMENT_CONTENT_TYPE, Kind.STRING),
+            field("member_ext_id", MEMBER_EXT_ID, Kind.LONG),
+            field("member_is_boosting", MEMBER_IS_BOOSTING, Kind.BOOLEAN),
+            field("member_joined_at", MEMBER_JOINED_AT, Kind.STRING),
+            field("p_currency", P_CURRENCY, Kind.INT),
+            field("s_currency", S_CURRENCY, Kind.INT),
+            field("channel_id", CHANNEL_ID, Kind.LONG),
+            field("channel_ext_id", CHANNEL_EXT_ID, Kind.LONG),
+            field("channel_type", CHANNEL_TYPE, Kind.STRING),
+            field("category_ext_id", CATEGORY_EXT_ID, Kind.LONG),
+            field("roles_added", ROLES_ADDED, Kind.STRING),
+            field("roles_removed", ROLES_REMOVED, Kind.STRING),
+            field("voice_channel_ext_id", VOICE_CHANNEL_EXT_ID, Kind.LONG),
+            field("session_duration_minutes", SESSION_DURATION_MINUTES, Kind.DOUBLE),
+            field("created_at", CREATED_AT, Kind.STRING)
+    );
+
+    private RuleFields() {
+    }
+
+    /**
+     * Resolves a snake_case field name to its id.
+     *
+     * @return the field id, or -1 if no such field exists
+     */
+    public static int resolve(String name) {
+        if (name == null) return -1;
+        Integer id = BY_NAME.get(name);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Returns the storage kind of a field id.
+     */
+    public static Kind kind(int field) {
+        return KINDS[field];
+    }
+
+    /**
+     * True for integral and floating-point fields.
+     */
+    public static boolean isNumeric(int field) {
+        Kind kind = KINDS[field];
+        return kind == Kind.INT || kind == Kind.LONG || kind == Kind.DOUBLE;
+    }
+
+    private static Map.Entry<String, Integer> field(String name, int id, Kind kind) {
+        KINDS[id] = kind;
+        return Map.entry(name, id);
+    }
+}
@@ -0,0 +1,21 @@
+package edu.franklin.acm.synapse.rules.engine;
+
+import java.util.List;
+
+import edu.franklin.acm.synapse.activity.rules.Rule;
+
+/**
+ * Selects the rules of one event type whose predicates all pass for an event.
+ * History checks (deduplication, cooldown) and outcome dispatch stay in
+ * {@link RuleEngine}; a matcher is pure and may be run speculatively, which
+ * is what lets the shadow evaluator compare two implementations on live
+ * traffic.
+ */
+interface RuleMatcher {
+
+    /**
+     * Returns the matching rules in compilation order. Must be safe to call
+     * concurrently.
+     */
+    List<Rule> match(RuleContext ctx);
+}
@@ -0,0 +1,364 @@
+package edu.franklin.acm.synapse.rules.engine;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jboss.logging.Logger;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+
+import edu.franklin.acm.synapse.activity.rules.Rule;
+import edu.franklin.acm.synapse.activity.rules.RulePredicate;
+
+/**
+ * All enabled live rules for one event type, compiled into a shared
+ * discrimination network. Every distinct (predicateType, parameters) pair
+ * becomes a single {@link PredicateNode}; rules reference nodes by index.
+ *
+ * <p>During evaluation each node is tested at most once per event. The result
+ * is memoized in a per-evaluation scratch array and fanned out to every rule
+ * that depends on it, so cost grows with distinct predicates rather than
+ * rules × predicates.
+ *
+ * <p>Rules scoped by an equality predicate ({@code IN_CHANNEL},
+ * {@code IN_VOICE_CHANNEL}, {@code IN_CATEGORY}, {@code CHANNEL_TYPE_IS}) are
+ * additionally bucketed into hash indexes on that value. An event only visits
+ * the buckets its own channel, category and channel type select, plus the
+ * unscoped rules, so per-event work does not grow with the number of
+ * channel-specific rules. The indexed predicate is implied by the bucket and
+ * is dropped from the rule's node list.
+ *
+ * <p>Instances are immutable and safe to share between evaluation threads.
+ */
+final class RuleNetwork implements RuleMatcher {
+
+    private static final Logger log = Logger.getLogger(RuleNetwork.class);
+    private static final ObjectMapper CANONICAL = new ObjectMapper()
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+
+    private static final byte UNKNOWN = 0;
+    private static final byte PASSED = 1;
+    private static final byte FAILED = 2;
+
+    private static final int[] NONE = new int[0];
+
+    private final String eventType;
+    private final PredicateNode[] nodes;
+    private final RuleNode[] rules;
+    private final int[] unscoped;
+    private final LongIndex byChannel;
+    private final LongIndex byVoiceChannel;
+    private final LongIndex byCategory;
+    private final Map<String, int[]> byChannelType;
+
+    private RuleNetwork(String eventType, PredicateNode[] nodes, RuleNode[] rules, ScopeIndex index) {
+        this.eventType = eventType;
+        this.nodes = nodes;
+        this.rules = rules;
+        this.unscoped = toArray(index.unscoped);
+        this.byChannel = new LongIndex(index.byChannel);
+        this.byVoiceChannel = new LongIndex(index.byVoiceChannel);
+        this.byCategory = new LongIndex(index.byCategory);
+        this.byChannelType = freeze(index.byChannelType);
+    }
+
+    /**
+     * Compiles the given rules into a network. Predicates are deduplicated on
+     * their type and canonicalized JSON parameters, and each node is compiled
+     * into a specialized {@link CompiledPredicate} once here rather than
+     * parsing parameters on every event.
+     *
+     * @param eventType          the event type all rules share
+     * @param rulesWithPredicates each rule mapped to its predicates, in sort order
+     * @param factories          all available predicate factories
+     * @param evaluators         legacy evaluators, used for types no factory handles
+     */
+    static RuleNetwork compile(String eventType,
+                               Map<Rule, List<RulePredicate>> rulesWithPredicates,
+                               Iterable<PredicateFactory> factories,
+                               Iterable<PredicateEvaluator> evaluators) {
+        Map<String, Integer> nodeIndex = new HashMap<>();
+        List<PredicateNode> nodes = new ArrayList<>();
+        List<RuleNode> rules = new ArrayList<>(rulesWithPredicates.size());
+        ScopeIndex index = new ScopeIndex();
+
+        for (var entry : rulesWithPredicates.entrySet()) {
+            List<RulePredicate> predicates = entry.getValue();
+            int ruleIndex = rules.size();
+            int scope = index.add(ruleIndex, predicates);
+
+            List<Integer> refs = new ArrayList<>(predicates.size());
+            for (int i = 0; i < predicates.size(); i++) {
+                if (i == scope) continue; // implied by the index bucket
+                RulePredicate predicate = predicates.get(i);
+                String key = predicate.predicateType() + '\u0000' + canonicalize(predicate.parameters());
+                refs.add(nodeIndex.computeIfAbsent(key, k -> {
+                    nodes.add(new PredicateNode(predicate.predicateType(),
+                            PredicateCompiler.compile(predicate, factories, evaluators)));
+                    return nodes.size() - 1;
+                }));
+            }
+            rules.add(new RuleNode(entry.getKey(), toArray(refs)));
+        }
+
+        log.debugf("Compiled %d rules for %s into %d distinct predicate nodes (%d unscoped)",
+                rules.size(), eventType, nodes.size(), index.unscoped.size());
+        return new RuleNetwork(eventType, nodes.toArray(PredicateNode[]::new),
+                rules.toArray(RuleNode[]::new), index);
+    }
+
+    /**
+     * Returns every rule whose predicates all pass for the given context.
+     * Only rules in the index buckets selected by the context are visited.
+     * Rules are returned in compilation order.
+     *
+     * <p>Bucket lookup and predicate memoization use primitive keys and a
+     * per-thread scratch buffer, so the only allocation is the result list
+     * when at least one rule matches.
+     */
+    @Override
+    public List<Rule> match(RuleContext ctx) {
+        if (rules.length == 0) return List.of();
+
+        Scratch scratch = SCRATCH.get().reset(nodes.length);
+        int[][] candidates = scratch.candidates;
+        candidates[0] = unscoped;
+        candidates[1] = lookup(byChannel, ctx, RuleFields.CHANNEL_EXT_ID);
+        candidates[2] = lookup(byVoiceChannel, ctx, RuleFields.VOICE_CHANNEL_EXT_ID);
+        candidates[3] = lookup(byCategory, ctx, RuleFields.CATEGORY_EXT_ID);
+        candidates[4] = byChannelType.getOrDefault(ctx.getString(RuleFields.CHANNEL_TYPE), NONE);
+        int[] cursors = scratch.cursors;
+        byte[] memo = scratch.memo;
+
+        List<Rule> matched = List.of();
+        // k-way merge of the sorted buckets keeps compilation order; a rule
+        // lives in exactly one bucket, so there are no duplicates.
+        while (true) {
+            int next = Integer.MAX_VALUE;
+            int from = -1;
+            for (int b = 0; b < candidates.length; b++) {
+                if (cursors[b] < candidates[b].length && candidates[b][cursors[b]] < next) {
+                    next = candidates[b][cursors[b]];
+                    from = b;
+                }
+            }
+            if (from < 0) break;
+            cursors[from]++;
+
+            RuleNode rule = rules[next];
+            if (passes(rule, ctx, memo)) {
+                if (matched.isEmpty()) matched = new ArrayList<>();
+                matched.add(rule.rule());
+            }
+        }
+        return matched;
+    }
+
+    private boolean passes(RuleNode rule, RuleContext ctx, byte[] memo) {
+        for (int ref : rule.predicates()) {
+            byte state = memo[ref];
+            if (state == UNKNOWN) {
+                state = nodes[ref].test(ctx) ? PASSED : FAILED;
+                memo[ref] = state;
+            }
+            if (state == FAILED) {
+                return false; // Short-circuit: predicate failed, rule does not fire
+            }
+        }
+        return true;
+    }
+
+    String eventType() {
+        return eventType;
+    }
+
+    int ruleCount() {
+        return rules.length;
+    }
+
+    int nodeCount() {
+        return nodes.length;
+    }
+
+    private static int[] lookup(LongIndex index, RuleContext ctx, int field) {
+        return ctx.has(field) ? index.get(ctx.getLong(field)) : NONE;
+    }
+
+    private static int[] toArray(List<Integer> values) {
+        return values.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    private static <K> Map<K, int[]> freeze(Map<K, List<Integer>> buckets) {
+        Map<K, int[]> frozen = new HashMap<>(buckets.size() * 2);
+        buckets.forEach((key, ruleIndexes) -> frozen.put(key, toArray(ruleIndexes)));
+        return frozen;
+    }
+
+    /**
+     * Normalizes a parameters blob so that semantically identical JSON (key
+     * order, whitespace) maps to the same node. Unparseable input is used
+     * verbatim; the factory will reject it when the node is compiled.
+     */
+    private static String canonicalize(String parametersJson) {
+        if (parametersJson == null || parametersJson.isBlank()) return "";
+        try {
+            return CANONICAL.writeValueAsString(CANONICAL.readValue(parametersJson, Object.class));
+        } catch (JsonProcessingException e) {
+            return parametersJson;
+        }
+    }
+
+    /**
+     * One distinct predicate in the network, compiled for its parameters.
+     */
+    private record PredicateNode(String predicateType, CompiledPredicate predicate) {
+
+        boolean test(RuleContext ctx) {
+            return PredicateCompiler.test(predicate, predicateType, ctx);
+        }
+    }
+
+    private static final ThreadLocal<Scratch> SCRATCH = ThreadLocal.withInitial(Scratch::new);
+
+    /**
+     * Reusable per-thread evaluation buffers: the predicate memo and the
+     * bucket merge cursors.
+     */
+    private static final class Scratch {
+        final int[][] candidates = new int[5][];
+        final int[] cursors = new int[5];
+        byte[] memo = new byte[64];
+
+        Scratch reset(int nodeCount) {
+            if (memo.length < nodeCount) {
+                memo = new byte[Math.max(nodeCount, memo.length * 2)];
+            } else {
+                Arrays.fill(memo, 0, nodeCount, UNKNOWN);
+            }
+            Arrays.fill(cursors, 0);
+            return this;
+        }
+    }
+
+    /**
+     * Immutable open-addressing map from a snowflake to a rule bucket. Keeps
+     * bucket lookups free of {@code Long} boxing.
+     */
+    private static final class LongIndex {
+        private final long[] keys;
+        private final int[][] values;
+        private final int mask;
+
+        LongIndex(Map<Long, List<Integer>> buckets) {
+            int capacity = Integer.highestOneBit(Math.max(4, buckets.size() * 2) - 1) << 1;
+            keys = new long[capacity];
+            values = new int[capacity][];
+            mask = capacity - 1;
+            buckets.forEach((key, ruleIndexes) -> {
+                int slot = slot(key);
+                while (values[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+                values[slot] = toArray(ruleIndexes);
+            });
+        }
+
+        int[] get(long key) {
+            for (int slot = slot(key); values[slot] != null; slot = (slot + 1) & mask) {
+                if (keys[slot] == key) return values[slot];
+            }
+            return NONE;
+        }
+
+        private int slot(long key) {
+            long h = key * 0x9E3779B97F4A7C15L;
+            return (int) (h ^ (h >>> 32)) & mask;
+        }
+    }
+
+    /**
+     * Build-time scope buckets. Each rule is filed under at most one equality
+     * predicate, preferring the most selective: channel, voice channel,
+     * category, then channel type. Rule indexes are appended in ascending
+     * order, so every bucket is sorted.
+     */
+    private static final class ScopeIndex {
+        final List<Integer> unscoped = new ArrayList<>();
+        final Map<Long, List<Integer>> byChannel = new HashMap<>();
+        final Map<Long, List<Integer>> byVoiceChannel = new HashMap<>();
+        final Map<Long, List<Integer>> byCategory = new HashMap<>();
+        final Map<String, List<Integer>> byChannelType = new HashMap<>();
+
+        /**
+         * Files the rule and returns the position of the predicate the bucket
+         * implies, or -1 if the rule is unscoped.
+         */
+        int add(int ruleIndex, List<RulePredicate> predicates) {
+            for (String type : List.of("IN_CHANNEL", "IN_VOICE_CHANNEL", "IN_CATEGORY", "CHANNEL_TYPE_IS")) {
+                for (int i = 0; i < predicates.size(); i++) {
+                    RulePredicate predicate = predicates.get(i);
+                    if (!predicate.predicateType().equals(type)) continue;
+                    String paramKey = type.equals("CHANNEL_TYPE_IS") ? "type"
+                            : type.equals("IN_CATEGORY") ? "category_ext_id" : "channel_ext_id";
+                    String value = parameter(predicate.parameters(), paramKey);
+                    if (value == null) continue;
+
+                    if (type.equals("CHANNEL_TYPE_IS")) {
+                        byChannelType.computeIfAbsent(value, k -> new ArrayList<>()).add(ruleIndex);
+                        return i;
+                    }
+                    Long extId = snowflake(value);
+                    if (extId == null) continue;
+                    Map<Long, List<Integer>> bucket = switch (type) {
+                        case "IN_CHANNEL" -> byChannel;
+                        case "IN_VOICE_CHANNEL" -> byVoiceChannel;
+                        default -> byCategory;
+                    };
+                    bucket.computeIfAbsent(extId, k -> new ArrayList<>()).add(ruleIndex);
+                    return i;
+                }
+            }
+            unscoped.add(ruleIndex);
+            return -1;
+        }
+
+        /**
+         * Reads a parameter as text the same way {@code StringMatchEvaluator}
+         * does, so the bucket key matches exactly what the predicate compares.
+         */
+        private static String parameter(String parametersJson, String key) {
+            if (parametersJson == null) return null;
+            try {
+                var params = CANONICAL.readTree(parametersJson);
+                return params.has(key) ? params.path(key).asText() : null;
+            } catch (JsonProcessingException e) {
+                return null;
+            }
+        }
+
+        /**
+         * Parses a snowflake only if its canonical form round-trips, since the
+         * predicate compares the decimal string representation.
+         */
+        private static Long snowflake(String value) {
+            try {
+                long parsed = Long.parseLong(value);
+                return Long.toString(parsed).equals(value) ? parsed : null;
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+    }
+
+    /**
+     * A rule and the indices of the nodes it depends on, in sort order.
+     */
+    private record RuleNode(Rule rule, int[] predicates) {
+    }
+}
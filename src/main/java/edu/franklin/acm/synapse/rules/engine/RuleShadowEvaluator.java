@@ -0,0 +1,153 @@
+package edu.franklin.acm.synapse.rules.engine;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jboss.logging.Logger;
+
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import edu.franklin.acm.synapse.activity.rules.Rule;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Runs a candidate {@link RuleMatcher} against the same events as the primary
+ * one and records where they disagree and how their latencies compare.
+ * Candidate results are never dispatched.
+ *
+ * <p>The candidate runs on the evaluation thread right after the primary, so
+ * both see the same window counters, member roles and clock. Running it
+ * later would compare against state the event has since changed and report
+ * mismatches neither matcher caused. The cost is that shadowing adds the
+ * candidate's latency to every evaluation while it is enabled.
+ */
+@ApplicationScoped
+public class RuleShadowEvaluator {
+
+    private static final Logger log = Logger.getLogger(RuleShadowEvaluator.class);
+
+    private final Map<RuleKey, RuleStats> stats = new ConcurrentHashMap<>();
+    private final LongAdder comparisons = new LongAdder();
+
+    /**
+     * Runs the candidate matcher on the event the primary just evaluated and
+     * records the comparison. Must be called on the evaluating thread, before
+     * any matched rule fires.
+     *
+     * @param ctx           the event the primary matcher just evaluated
+     * @param compiled      the rule set both matchers were compiled from
+     * @param primary       the rules the primary matcher selected
+     * @param primaryNanos  how long the primary match took
+     */
+    void compare(RuleContext ctx, CompiledRules compiled, List<Rule> primary, long primaryNanos) {
+        long guildId = GuildContext.current();
+        List<Rule> candidate;
+        long start = System.nanoTime();
+        try {
+            candidate = compiled.candidate().match(ctx);
+        } catch (RuntimeException e) {
+            log.errorf(e, "Shadow matcher failed for event %d (type=%s)", ctx.eventId(), ctx.eventType());
+            return;
+        }
+        long candidateNanos = System.nanoTime() - start;
+        comparisons.increment();
+
+        Set<Long> primaryIds = ids(primary);
+        Set<Long> candidateIds = ids(candidate);
+
+        // Latency is measured per event; every rule in scope for the event
+        // type shares it, so per-rule totals compare like for like.
+        for (Rule rule : compiled.rules()) {
+            RuleStats ruleStats = stats.computeIfAbsent(new RuleKey(guildId, rule.id()),
+                    key -> new RuleStats(rule.name()));
+            ruleStats.evaluations.increment();
+            ruleStats.primaryNanos.add(primaryNanos);
+            ruleStats.candidateNanos.add(candidateNanos);
+
+            boolean primaryMatched = primaryIds.contains(rule.id());
+            if (primaryMatched != candidateIds.contains(rule.id())) {
+                ruleStats.mismatches.increment();
+                log.warnf("Shadow mismatch for rule '%s' on event %d (type=%s): primary=%s candidate=%s",
+                        rule.name(), ctx.eventId(), ctx.eventType(), primaryMatched, !primaryMatched);
+            }
+        }
+    }
+
+    private static Set<Long> ids(List<Rule> rules) {
+        Set<Long> ids = new HashSet<>(rules.size() * 2);
+        for (Rule rule : rules) {
+            ids.add(rule.id());
+        }
+        return ids;
+    }
+
+    /**
+     * Number of events compared so far.
+     */
+    public long comparisons() {
+        return comparisons.sum();
+    }
+
+    /**
+     * Current per-rule totals, most mismatched first.
+     */
+    public List<ShadowRuleReport> report() {
+        List<ShadowRuleReport> report = new ArrayList<>(stats.size());
+        stats.forEach((key, s) -> report.add(new ShadowRuleReport(key.guildId(), key.ruleId(), s.name,
+                s.evaluations.sum(), s.mismatches.sum(), s.primaryNanos.sum(), s.candidateNanos.sum())));
+        report.sort(Comparator.comparingLong(ShadowRuleReport::mismatches).reversed()
+                .thenComparingLong(ShadowRuleReport::guildId)
+                .thenComparingLong(ShadowRuleReport::ruleId));
+        return report;
+    }
+
+    /**
+     * Clears all counters, e.g. after changing the candidate matcher.
+     */
+    public void reset() {
+        stats.clear();
+        comparisons.reset();
+    }
+
+    /**
+     * Shadow results for one rule.
+     *
+     * @param guildId        the guild whose partition defines the rule
+     * @param evaluations    events of the rule's type compared by both matchers
+     * @param mismatches     events where exactly one matcher selected the rule
+     * @param primaryNanos   total primary match time over those events
+     * @param candidateNanos total candidate match time over those events
+     */
+    public record ShadowRuleReport(long guildId, long ruleId, String ruleName, long evaluations, long mismatches,
+                                   long primaryNanos, long candidateNanos) {
+
+        /**
+         * Mean candidate minus mean primary latency, in nanoseconds. Negative
+         * means the candidate is faster.
+         */
+        public double meanDeltaNanos() {
+            return evaluations == 0 ? 0 : (double) (candidateNanos - primaryNanos) / evaluations;
+        }
+    }
+
+    /** Rule IDs are only unique within a guild's partition. */
+    private record RuleKey(long guildId, long ruleId) {
+    }
+
+    private static final class RuleStats {
+        final String name;
+        final LongAdder evaluations = new LongAdder();
+        final LongAdder mismatches = new LongAdder();
+        final LongAdder primaryNanos = new LongAdder();
+        final LongAdder candidateNanos = new LongAdder();
+
+        RuleStats(String name) {
+            this.name = name;
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package edu.franklin.acm.synapse.rules.engine;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import edu.franklin.acm.synapse.activity.rules.Rule;
+import edu.franklin.acm.synapse.activity.rules.RulePredicate;
+
+/**
+ * The straightforward matcher: each rule owns its own compiled predicates and
+ * tests all of them, in sort order, for every event. No sharing, no indexes.
+ * Kept as the reference semantics that optimized matchers are shadowed
+ * against.
+ */
+final class SequentialRuleMatcher implements RuleMatcher {
+
+    private final Rule[] rules;
+    private final String[][] types;
+    private final CompiledPredicate[][] predicates;
+
+    private SequentialRuleMatcher(Rule[] rules, String[][] types, CompiledPredicate[][] predicates) {
+        this.rules = rules;
+        this.types = types;
+        this.predicates = predicates;
+    }
+
+    static SequentialRuleMatcher compile(Map<Rule, List<RulePredicate>> rulesWithPredicates,
+                                         Iterable<PredicateFactory> factories,
+                                         Iterable<PredicateEvaluator> evaluators) {
+        int size = rulesWithPredicates.size();
+        Rule[] rules = new Rule[size];
+        String[][] types = new String[size][];
+        CompiledPredicate[][] predicates = new CompiledPredicate[size][];
+
+        int i = 0;
+        for (var entry : rulesWithPredicates.entrySet()) {
+            List<RulePredicate> list = entry.getValue();
+            rules[i] = entry.getKey();
+            types[i] = new String[list.size()];
+            predicates[i] = new CompiledPredicate[list.size()];
+            for (int p = 0; p < list.size(); p++) {
+                types[i][p] = list.get(p).predicateType();
+                predicates[i][p] = PredicateCompiler.compile(list.get(p), factories, evaluators);
+            }
+            i++;
+        }
+        return new SequentialRuleMatcher(rules, types, predicates);
+    }
+
+    @Override
+    public List<Rule> match(RuleContext ctx) {
+        List<Rule> matched = new ArrayList<>();
+        for (int r = 0; r < rules.length; r++) {
+            if (passes(r, ctx)) {
+                matched.add(rules[r]);
+            }
+        }
+        return matched;
+    }
+
+    private boolean passes(int rule, RuleContext ctx) {
+        CompiledPredicate[] rulePredicates = predicates[rule];
+        for (int p = 0; p < rulePredicates.length; p++) {
+            if (!PredicateCompiler.test(rulePredicates[p], types[rule][p], ctx)) {
+                return false; // Short-circuit: predicate failed, rule does not fire
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,60 @@
+package edu.franklin.acm.synapse.rules.engine;
+
+import java.util.Arrays;
+
+/**
+ * A count of events over a sliding window, kept as a ring buffer of
+ * {@link #BUCKETS} time buckets with a running total. Counting and adding are
+ * constant time: advancing the window only clears the buckets that have
+ * expired since the last call, at most one full turn of the ring.
+ *
+ * <p>Buckets are identified by their absolute index, {@code time / width},
+ * so the window edge moves in steps of one bucket width; the count covers the
+ * current bucket and the {@code BUCKETS - 1} before it.
+ */
+final class SlidingWindow {
+
+    static final int BUCKETS = 60;
+
+    private final long[] counts = new long[BUCKETS];
+    private long head = Long.MIN_VALUE;
+    private long total;
+
+    /**
+     * Counts one event in the given bucket. Events older than the window are
+     * ignored, so a rebuild may replay events in any order.
+     */
+    synchronized void add(long bucket) {
+        advance(bucket);
+        if (bucket <= head - BUCKETS) return;
+        counts[index(bucket)]++;
+        total++;
+    }
+
+    /**
+     * Events in the window ending at the given bucket.
+     */
+    synchronized long count(long bucket) {
+        advance(bucket);
+        return total;
+    }
+
+    private void advance(long bucket) {
+        if (bucket <= head) return;
+        if (head == Long.MIN_VALUE || bucket - head >= BUCKETS) {
+            Arrays.fill(counts, 0L);
+            total = 0;
+        } else {
+            for (long expired = head + 1; expired <= bucket; expired++) {
+                int i = index(expired);
+                total -= counts[i];
+                counts[i] = 0;
+            }
+        }
+        head = bucket;
+    }
+
+    private static int index(long bucket) {
+        return (int) Math.floorMod(bucket, BUCKETS);
+    }
+}
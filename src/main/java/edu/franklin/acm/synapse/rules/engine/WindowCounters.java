@@ -0,0 +1,271 @@
+package edu.franklin.acm.synapse.rules.engine;
+
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import org.jboss.logging.Logger;
+import org.jdbi.v3.core.result.ResultIterator;
+
+import edu.franklin.acm.synapse.activity.Event;
+import edu.franklin.acm.synapse.activity.EventDao;
+import edu.franklin.acm.synapse.activity.ReadOnly;
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * In-memory sliding-window event counts for windowed rule predicates, such as
+ * "the 5th message in this channel within an hour".
+ *
+ * <p>A window is registered when a predicate that needs it compiles, and is
+ * identified by event type, {@link WindowScope} and length. Registration does
+ * no I/O; the window is rebuilt from the {@code events} table, on the read
+ * pool, by {@link #rebuildPending}. The rule engine calls it at startup, after
+ * reconciliation and before live events are applied, for the windows of every
+ * enabled rule. Windows registered later, by rules added while running, are
+ * rebuilt off the evaluation path every
+ * {@code synapse.rules.window.rebuild-interval} and count nothing until then.
+ *
+ * <p>Once rebuilt, the rule engine {@link #record records} every live event
+ * into the windows of its type before evaluating rules, so the event being
+ * evaluated is already counted. Each window keeps one {@link SlidingWindow}
+ * per member, channel, or both, and a count is a map lookup and a ring buffer
+ * read.
+ *
+ * <p>Counters that have emptied are swept every
+ * {@code synapse.rules.window.sweep-interval}. State is kept per guild, for
+ * the guild bound by {@link GuildContext}.
+ */
+@ApplicationScoped
+public class WindowCounters {
+
+    private static final Logger log = Logger.getLogger(WindowCounters.class);
+
+    @Inject
+    @ReadOnly
+    EventDao eventDao;
+
+    /**
+     * The member and channel a counter is kept for; {@code 0} where the
+     * scope ignores one.
+     */
+    record CounterKey(long memberId, long channelId) {
+    }
+
+    private record WindowKey(String eventType, WindowScope scope, long windowMinutes) {
+    }
+
+    /**
+     * One registered window in one guild.
+     */
+    public static final class Window {
+        private final WindowScope scope;
+        private final long bucketMillis;
+        private final Map<CounterKey, SlidingWindow> counters = new ConcurrentHashMap<>();
+
+        private final String eventType;
+        private final long windowMinutes;
+
+        /**
+         * Events up to this ID were counted by the rebuild; live recording
+         * skips them. Everything is skipped until the window is rebuilt.
+         */
+        private volatile long rebuiltThrough = Long.MAX_VALUE;
+
+        private Window(String eventType, WindowScope scope, long windowMinutes) {
+            this.eventType = eventType;
+            this.scope = scope;
+            this.windowMinutes = windowMinutes;
+            this.bucketMillis = TimeUnit.MINUTES.toMillis(windowMinutes) / SlidingWindow.BUCKETS;
+        }
+
+        /**
+         * Events in the window ending now, for the event's member, channel,
+         * or both, depending on the scope. Includes the event itself.
+         */
+        public long count(RuleContext ctx) {
+            CounterKey key = scope.key(ctx.memberId(), ctx.channelId());
+            if (key == null) return 0;
+            SlidingWindow counter = counters.get(key);
+            return counter != null ? counter.count(System.currentTimeMillis() / bucketMillis) : 0;
+        }
+
+        private void add(long memberId, Long channelId, long epochMillis) {
+            CounterKey key = scope.key(memberId, channelId);
+            if (key == null) return;
+            long bucket = epochMillis / bucketMillis;
+            // compute() rather than get-then-add, so the sweep cannot drop a counter mid-add
+            counters.compute(key, (k, counter) -> {
+                if (counter == null) counter = new SlidingWindow();
+                counter.add(bucket);
+                return counter;
+            });
+        }
+
+        private void sweep(long nowMillis) {
+            long bucket = nowMillis / bucketMillis;
+            for (CounterKey key : counters.keySet()) {
+                counters.computeIfPresent(key, (k, counter) -> counter.count(bucket) == 0 ? null : counter);
+            }
+        }
+    }
+
+    /**
+     * One guild's windows, by identity and by the event type they count.
+     */
+    private static final class GuildWindows {
+        final Map<WindowKey, Window> windows = new ConcurrentHashMap<>();
+        final Map<String, List<Window>> byEventType = new ConcurrentHashMap<>();
+        final Queue<Window> unbuilt = new ConcurrentLinkedQueue<>();
+    }
+
+    private final Map<Long, GuildWindows> guilds = new ConcurrentHashMap<>();
+
+    /**
+     * Returns the window for the guild bound to the calling thread, creating
+     * it on first use. A new window is queued for {@link #rebuildPending} and
+     * counts nothing until it has been rebuilt.
+     *
+     * @param windowMinutes window length; counts move in steps of
+     *                      1/{@value SlidingWindow#BUCKETS} of it
+     */
+    public Window register(String eventType, WindowScope scope, long windowMinutes) {
+        GuildWindows guild = guild();
+        WindowKey key = new WindowKey(eventType, scope, windowMinutes);
+        Window existing = guild.windows.get(key);
+        if (existing != null) return existing;
+
+        synchronized (guild) {
+            existing = guild.windows.get(key);
+            if (existing != null) return existing;
+
+            Window window = new Window(eventType, scope, windowMinutes);
+            guild.windows.put(key, window);
+            guild.byEventType.computeIfAbsent(eventType, type -> new CopyOnWriteArrayList<>()).add(window);
+            guild.unbuilt.add(window);
+            return window;
+        }
+    }
+
+    /**
+     * Rebuilds every window of the guild bound to the calling thread that
+     * has been registered but not yet rebuilt.
+     */
+    public void rebuildPending() {
+        GuildWindows guild = guilds.get(GuildContext.current());
+        if (guild == null) return;
+        synchronized (guild.unbuilt) {
+            Window window;
+            while ((window = guild.unbuilt.peek()) != null) {
+                // Visible to live recording first, then bounded: an event is either
+                // persisted by the time maxId is read, and counted by the rebuild,
+                // or recorded live afterwards.
+                long maxId = eventDao.findMaxId();
+                window.rebuiltThrough = maxId;
+                try {
+                    rebuild(window, maxId);
+                } catch (RuntimeException e) {
+                    // Start over on the next attempt; anything recorded since is below its maxId
+                    window.rebuiltThrough = Long.MAX_VALUE;
+                    window.counters.clear();
+                    throw e;
+                }
+                guild.unbuilt.remove();
+            }
+        }
+    }
+
+    /**
+     * Rebuilds windows registered since startup, in every guild.
+     */
+    @Scheduled(every = "${synapse.rules.window.rebuild-interval:5s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void rebuildRegistered() {
+        guilds.forEach((guildId, guild) -> {
+            if (guild.unbuilt.isEmpty()) return;
+            try {
+                GuildContext.run(guildId, this::rebuildPending);
+            } catch (Exception e) {
+                log.errorf(e, "Cannot rebuild windows for guild %d", guildId);
+            }
+        });
+    }
+
+    /**
+     * Counts a live event into every window of its type, in the guild bound
+     * to the calling thread.
+     */
+    public void record(RuleContext ctx) {
+        GuildWindows guild = guilds.get(GuildContext.current());
+        if (guild == null) return;
+        List<Window> windows = guild.byEventType.get(ctx.eventType());
+        if (windows == null) return;
+
+        long now = System.currentTimeMillis();
+        for (Window window : windows) {
+            if (ctx.eventId() > window.rebuiltThrough) {
+                window.add(ctx.memberId(), ctx.channelId(), now);
+            }
+        }
+    }
+
+    /**
+     * Drops counters with nothing left in their window.
+     */
+    @Scheduled(every = "${synapse.rules.window.sweep-interval:10m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void sweep() {
+        long now = System.currentTimeMillis();
+        for (GuildWindows guild : guilds.values()) {
+            for (Window window : guild.windows.values()) {
+                window.sweep(now);
+            }
+        }
+    }
+
+    private void rebuild(Window window, long maxId) {
+        long start = System.nanoTime();
+        String since = LocalDateTime.now(ZoneOffset.UTC).minusMinutes(window.windowMinutes)
+                .toString().replace('T', ' ');
+        int replayed = 0;
+        try (ResultIterator<Event> events = eventDao.streamByTypeSince(window.eventType, since, maxId)) {
+            while (events.hasNext()) {
+                Event event = events.next();
+                Long at = epochMillis(event.createdAt());
+                if (at == null) continue;
+                window.add(event.memberId(), event.channelId(), at);
+                replayed++;
+            }
+        }
+        log.infof("Rebuilt %d-minute %s window of %s from %d events in %d ms",
+                window.windowMinutes, window.scope, window.eventType, replayed,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Parses a stored event time, in SQL or ISO form, as UTC.
+     */
+    private static Long epochMillis(String createdAt) {
+        if (createdAt == null) return null;
+        try {
+            Instant instant = LocalDateTime.parse(createdAt.replace(' ', 'T')).toInstant(ZoneOffset.UTC);
+            return instant.toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private GuildWindows guild() {
+        return guilds.computeIfAbsent(GuildContext.current(), id -> new GuildWindows());
+    }
+}
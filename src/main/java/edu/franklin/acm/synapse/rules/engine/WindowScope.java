@@ -0,0 +1,28 @@
+package edu.franklin.acm.synapse.rules.engine;
+
+/**
+ * What a windowed count is kept per.
+ */
+public enum WindowScope {
+
+    /** Each member's events, in any channel. */
+    MEMBER,
+
+    /** Each channel's events, from any member. */
+    CHANNEL,
+
+    /** Each member's events in each channel. */
+    MEMBER_CHANNEL;
+
+    /**
+     * The counter an event belongs to, or {@code null} if the scope needs a
+     * channel and the event has none.
+     */
+    WindowCounters.CounterKey key(long memberId, Long channelId) {
+        return switch (this) {
+            case MEMBER -> new WindowCounters.CounterKey(memberId, 0L);
+            case CHANNEL -> channelId != null ? new WindowCounters.CounterKey(0L, channelId) : null;
+            case MEMBER_CHANNEL -> channelId != null ? new WindowCounters.CounterKey(memberId, channelId) : null;
+        };
+    }
+}
@@ -2,39 +2,40 @@ package edu.franklin.acm.synapse.rules.engine.predicates;
 
 import java.util.Map;
 
-import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import edu.franklin.acm.synapse.rules.engine.PredicateEvaluator;
-import edu.franklin.acm.synapse.rules.engine.RuleContext;
+import edu.franklin.acm.synapse.activity.rules.RulePredicate;
+import edu.franklin.acm.synapse.rules.engine.CompiledPredicate;
+import edu.franklin.acm.synapse.rules.engine.PredicateFactory;
+import edu.franklin.acm.synapse.rules.engine.RuleFields;
 import jakarta.enterprise.context.ApplicationScoped;
-import org.jboss.logging.Logger;
 
 /**
  * Handles all boolean field predicates. Each predicate type maps to a
- * specific boolean field on the RuleContext and an expected value.
+ * specific boolean field on the RuleContext and an expected value, and
+ * compiles to a single slot read.
  */
 @ApplicationScoped
-public class BooleanFieldEvaluator implements PredicateEvaluator {
+public class BooleanFieldEvaluator implements PredicateFactory {
 
-    private static final Logger log = Logger.getLogger(BooleanFieldEvaluator.class);
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
     @SuppressWarnings("null") // Map.ofEntries() guarantees non-null values by contract
     private static final Map<String, BooleanMapping> MAPPINGS = Map.ofEntries(
-            Map.entry("AUTHOR_NOT_BOT", new BooleanMapping("author_is_bot", false)),
-            Map.entry("IS_REPLY", new BooleanMapping("is_reply", true)),
-            Map.entry("IS_NOT_REPLY", new BooleanMapping("is_reply", false)),
-            Map.entry("HAS_ATTACHMENT", new BooleanMapping("has_attachments", true)),
-            Map.entry("NO_ATTACHMENT", new BooleanMapping("has_attachments", false)),
-            Map.entry("IS_NOT_TTS", new BooleanMapping("is_tts", false)),
-            Map.entry("HAS_EMBED", new BooleanMapping("has_embed", true)),
-            Map.entry("HAS_POLL", new BooleanMapping("has_poll", true)),
-            Map.entry("HAS_STICKER", new BooleanMapping("has_stickers", true)),
-            Map.entry("IS_VOICE_MESSAGE", new BooleanMapping("is_voice_message", true)),
-            Map.entry("NOT_MENTIONS_EVERYONE", new BooleanMapping("mention_everyone", false)),
-            Map.entry("MEMBER_IS_BOOSTING", new BooleanMapping("member_is_boosting", true)),
-            Map.entry("IS_PINNED", new BooleanMapping("is_pinned", true))
+            Map.entry("AUTHOR_NOT_BOT", new BooleanMapping(RuleFields.AUTHOR_IS_BOT, false)),
+            Map.entry("IS_REPLY", new BooleanMapping(RuleFields.IS_REPLY, true)),
+            Map.entry("IS_NOT_REPLY", new BooleanMapping(RuleFields.IS_REPLY, false)),
+            Map.entry("HAS_ATTACHMENT", new BooleanMapping(RuleFields.HAS_ATTACHMENTS, true)),
+            Map.entry("NO_ATTACHMENT", new BooleanMapping(RuleFields.HAS_ATTACHMENTS, false)),
+            Map.entry("IS_NOT_TTS", new BooleanMapping(RuleFields.IS_TTS, false)),
+            Map.entry("HAS_EMBED", new BooleanMapping(RuleFields.HAS_EMBED, true)),
+            Map.entry("HAS_POLL", new BooleanMapping(RuleFields.HAS_POLL, true)),
+            Map.entry("HAS_STICKER", new BooleanMapping(RuleFields.HAS_STICKERS, true)),
+            Map.entry("IS_VOICE_MESSAGE", new BooleanMapping(RuleFields.IS_VOICE_MESSAGE, true)),
+            Map.entry("NOT_MENTIONS_EVERYONE", new BooleanMapping(RuleFields.MENTION_EVERYONE, false)),
+            Map.entry("MEMBER_IS_BOOSTING", new BooleanMapping(RuleFields.MEMBER_IS_BOOSTING, true)),
+            Map.entry("IS_PINNED", new BooleanMapping(RuleFields.IS_PINNED, true))
     );
 
     @Override
@@ -43,29 +44,22 @@ public class BooleanFieldEvaluator implements PredicateEvaluator {
     }
 
     @Override
-    public boolean evaluate(String predicateType, RuleContext ctx, String parametersJson) {
-        BooleanMapping mapping = MAPPINGS.get(predicateType);
-        if (mapping == null) return false;
-
-        boolean expected = mapping.expected;
+    public CompiledPredicate compile(RulePredicate predicate) {
+        BooleanMapping mapping = MAPPINGS.get(predicate.predicateType());
+        if (mapping == null) return CompiledPredicate.ALWAYS_FALSE;
 
         // Allow overriding expected value via parameters
-        if (parametersJson != null) {
-            try {
-                var params = MAPPER.readTree(parametersJson);
-                if (params.has("expected")) {
-                    expected = params.get("expected").asBoolean();
-                }
-            } catch (JsonProcessingException e) {
-                log.warnf(e, "BooleanFieldEvaluator could not parse parameters for predicate '%s'", predicateType);
-            }
-        }
+        JsonNode params = PredicateFactory.parameters(MAPPER, predicate);
+        boolean expected = params != null && params.has("expected")
+                ? params.get("expected").asBoolean()
+                : mapping.expected;
 
-        Boolean actual = ctx.getBooleanField(mapping.field);
-        if (actual == null) return false;
-        return actual == expected;
+        int field = mapping.field;
+        return expected
+                ? ctx -> ctx.has(field) && ctx.getBoolean(field)
+                : ctx -> ctx.has(field) && !ctx.getBoolean(field);
     }
 
-    private record BooleanMapping(String field, boolean expected) {
+    private record BooleanMapping(int field, boolean expected) {
     }
 }
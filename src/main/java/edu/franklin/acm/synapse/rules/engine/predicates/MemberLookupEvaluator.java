@@ -3,7 +3,6 @@ package edu.franklin.acm.synapse.rules.engine.predicates;
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
 import java.time.temporal.ChronoUnit;
-import java.util.List;
 import java.util.Set;
 
 import com.fasterxml.jackson.databind.JsonNode;
@@ -12,23 +11,28 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import edu.franklin.acm.synapse.activity.EventDao;
 import edu.franklin.acm.synapse.activity.member.MemberDao;
 import edu.franklin.acm.synapse.activity.member.MemberRoleDao;
-import edu.franklin.acm.synapse.rules.engine.PredicateEvaluator;
+import edu.franklin.acm.synapse.activity.rules.RulePredicate;
+import edu.franklin.acm.synapse.rules.engine.CompiledPredicate;
+import edu.franklin.acm.synapse.rules.engine.PredicateFactory;
 import edu.franklin.acm.synapse.rules.engine.RuleContext;
+import edu.franklin.acm.synapse.rules.engine.RuleFields;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import org.jboss.logging.Logger;
 
 /**
  * Handles predicates requiring database lookups against member state:
  * role membership, server age, account age, first join detection,
- * and role change event matching.
+ * and role change event matching. Parameters are parsed at compile time;
+ * the lookups themselves still run per event.
  */
 @ApplicationScoped
-public class MemberLookupEvaluator implements PredicateEvaluator {
+public class MemberLookupEvaluator implements PredicateFactory {
 
-    private static final Logger log = Logger.getLogger(MemberLookupEvaluator.class);
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    // Discord snowflake epoch: 2015-01-01T00:00:00Z
+    private static final long DISCORD_EPOCH_MS = 1420070400000L;
+
     private static final Set<String> HANDLED = Set.of(
             "MEMBER_HAS_ROLE", "MEMBER_NOT_HAS_ROLE",
             "MIN_SERVER_AGE_DAYS", "MIN_ACCOUNT_AGE_DAYS",
@@ -51,64 +55,58 @@ public class MemberLookupEvaluator implements PredicateEvaluator {
     }
 
     @Override
-    public boolean evaluate(String predicateType, RuleContext ctx, String parametersJson) {
-        try {
-            return switch (predicateType) {
-                case "MEMBER_HAS_ROLE" -> hasRole(ctx, parametersJson, false);
-                case "MEMBER_NOT_HAS_ROLE" -> hasRole(ctx, parametersJson, true);
-                case "MIN_SERVER_AGE_DAYS" -> minServerAgeDays(ctx, parametersJson);
-                case "MIN_ACCOUNT_AGE_DAYS" -> minAccountAgeDays(ctx, parametersJson);
-                case "MEMBER_IS_FIRST_JOIN" -> isFirstJoin(ctx);
-                case "MEMBER_IS_REJOIN" -> !isFirstJoin(ctx);
-                case "ROLE_WAS_ADDED" -> roleWasChanged(ctx, parametersJson, true);
-                case "ROLE_WAS_REMOVED" -> roleWasChanged(ctx, parametersJson, false);
-                default -> false;
-            };
-        } catch (Exception e) {
-            log.warnf(e, "MemberLookupEvaluator failed for predicate '%s' (member %d)", predicateType, ctx.memberId());
-            return false;
-        }
+    public CompiledPredicate compile(RulePredicate predicate) {
+        JsonNode params = PredicateFactory.parameters(MAPPER, predicate);
+        return switch (predicate.predicateType()) {
+            case "MEMBER_HAS_ROLE" -> hasRole(params, false);
+            case "MEMBER_NOT_HAS_ROLE" -> hasRole(params, true);
+            case "MIN_SERVER_AGE_DAYS" -> minServerAgeDays(params);
+            case "MIN_ACCOUNT_AGE_DAYS" -> minAccountAgeDays(params);
+            case "MEMBER_IS_FIRST_JOIN" -> this::isFirstJoin;
+            case "MEMBER_IS_REJOIN" -> ctx -> !isFirstJoin(ctx);
+            case "ROLE_WAS_ADDED" -> roleWasChanged(params, RuleFields.ROLES_ADDED);
+            case "ROLE_WAS_REMOVED" -> roleWasChanged(params, RuleFields.ROLES_REMOVED);
+            default -> CompiledPredicate.ALWAYS_FALSE;
+        };
     }
 
-    private boolean hasRole(RuleContext ctx, String parametersJson, boolean negate) throws Exception {
-        if (parametersJson == null) return false;
-        JsonNode params = MAPPER.readTree(parametersJson);
-        long roleExtId = params.path("role_ext_id").asLong();
-        List<Long> roles = memberRoleDao.findRoleExtIdsByMemberId(ctx.memberId());
-        boolean has = roles.contains(roleExtId);
-        return negate != has;
+    private CompiledPredicate hasRole(JsonNode params, boolean negate) {
+        if (params == null) return CompiledPredicate.ALWAYS_FALSE;
+        Long roleExtId = params.path("role_ext_id").asLong();
+        return ctx -> negate != memberRoleDao.findRoleExtIdsByMemberId(ctx.memberId()).contains(roleExtId);
     }
 
-    private boolean minServerAgeDays(RuleContext ctx, String parametersJson) throws Exception {
-        if (parametersJson == null) return false;
-        String joinedAt = ctx.memberJoinedAt();
-        if (joinedAt == null) {
-            joinedAt = memberDao.findJoinedAt(ctx.memberId());
-        }
-        if (joinedAt == null) return false;
-        JsonNode params = MAPPER.readTree(parametersJson);
+    private CompiledPredicate minServerAgeDays(JsonNode params) {
+        if (params == null) return CompiledPredicate.ALWAYS_FALSE;
         int threshold = params.path("threshold").asInt();
-        LocalDateTime joined = LocalDateTime.parse(joinedAt);
-        long days = ChronoUnit.DAYS.between(joined, LocalDateTime.now(ZoneOffset.UTC));
-        return days >= threshold;
+        return ctx -> {
+            String joinedAt = ctx.memberJoinedAt();
+            if (joinedAt == null) {
+                joinedAt = memberDao.findJoinedAt(ctx.memberId());
+            }
+            if (joinedAt == null) return false;
+            LocalDateTime joined = LocalDateTime.parse(joinedAt);
+            return ChronoUnit.DAYS.between(joined, LocalDateTime.now(ZoneOffset.UTC)) >= threshold;
+        };
     }
 
-    private boolean minAccountAgeDays(RuleContext ctx, String parametersJson) throws Exception {
-        if (parametersJson == null) return false;
-        Long memberExtId = ctx.memberExtId();
-        if (memberExtId == null) {
-            memberExtId = memberDao.findExtIdById(ctx.memberId());
-        }
-        if (memberExtId == null) return false;
-        // Discord snowflake epoch: 2015-01-01T00:00:00Z
-        long discordEpochMs = 1420070400000L;
-        long timestampMs = (memberExtId >> 22) + discordEpochMs;
-        LocalDateTime accountCreated = LocalDateTime.ofEpochSecond(
-                timestampMs / 1000, 0, ZoneOffset.UTC);
-        JsonNode params = MAPPER.readTree(parametersJson);
+    private CompiledPredicate minAccountAgeDays(JsonNode params) {
+        if (params == null) return CompiledPredicate.ALWAYS_FALSE;
         int threshold = params.path("threshold").asInt();
-        long days = ChronoUnit.DAYS.between(accountCreated, LocalDateTime.now(ZoneOffset.UTC));
-        return days >= threshold;
+        return ctx -> {
+            long memberExtId;
+            if (ctx.has(RuleFields.MEMBER_EXT_ID)) {
+                memberExtId = ctx.getLong(RuleFields.MEMBER_EXT_ID);
+            } else {
+                Long stored = memberDao.findExtIdById(ctx.memberId());
+                if (stored == null) return false;
+                memberExtId = stored;
+            }
+            // Whole seconds, then whole days, as the LocalDateTime comparison did
+            long createdMs = ((memberExtId >> 22) + DISCORD_EPOCH_MS) / 1000 * 1000;
+            long days = (System.currentTimeMillis() - createdMs) / 86_400_000L;
+            return days >= threshold;
+        };
     }
 
     private boolean isFirstJoin(RuleContext ctx) {
@@ -118,14 +116,28 @@ public class MemberLookupEvaluator implements PredicateEvaluator {
         return joinCount <= 1;
     }
 
-    private boolean roleWasChanged(RuleContext ctx, String parametersJson, boolean added) throws Exception {
-        if (parametersJson == null) return false;
-        JsonNode params = MAPPER.readTree(parametersJson);
+    private static CompiledPredicate roleWasChanged(JsonNode params, int field) {
+        if (params == null) return CompiledPredicate.ALWAYS_FALSE;
         String roleExtId = params.path("role_ext_id").asText();
-        String changeList = added ? ctx.rolesAdded() : ctx.rolesRemoved();
+        return ctx -> containsId(ctx.getString(field), roleExtId);
+    }
+
+    /**
+     * Scans a comma-separated id list for an exact (trimmed) entry without
+     * splitting it into substrings.
+     */
+    private static boolean containsId(String changeList, String id) {
         if (changeList == null || changeList.isEmpty()) return false;
-        for (String id : changeList.split(",")) {
-            if (id.trim().equals(roleExtId)) return true;
+        int start = 0;
+        while (start <= changeList.length()) {
+            int end = changeList.indexOf(',', start);
+            if (end < 0) end = changeList.length();
+            int from = start;
+            int to = end;
+            while (from < to && Character.isWhitespace(changeList.charAt(from))) from++;
+            while (to > from && Character.isWhitespace(changeList.charAt(to - 1))) to--;
+            if (to - from == id.length() && changeList.startsWith(id, from)) return true;
+            start = end + 1;
         }
         return false;
     }
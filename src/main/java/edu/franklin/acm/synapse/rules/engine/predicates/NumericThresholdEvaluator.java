@@ -2,41 +2,41 @@ package edu.franklin.acm.synapse.rules.engine.predicates;
 
 import java.util.Map;
 
-import org.jboss.logging.Logger;
-
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import edu.franklin.acm.synapse.rules.engine.PredicateEvaluator;
-import edu.franklin.acm.synapse.rules.engine.RuleContext;
+import edu.franklin.acm.synapse.activity.rules.RulePredicate;
+import edu.franklin.acm.synapse.rules.engine.CompiledPredicate;
+import edu.franklin.acm.synapse.rules.engine.PredicateFactory;
+import edu.franklin.acm.synapse.rules.engine.RuleFields;
 import jakarta.enterprise.context.ApplicationScoped;
 
 /**
  * Handles all numeric threshold predicates. Each predicate type maps to a
  * field name, a default operator, and reads the threshold from parameters.
+ * The operator and threshold are fixed when the predicate compiles; integral
+ * fields with a whole threshold compare as longs.
  *
  * Parameters: {"threshold": 80}
  * Some types also support: {"field": "content_length", "operator": ">=", "threshold": 80}
  */
 @ApplicationScoped
-public class NumericThresholdEvaluator implements PredicateEvaluator {
+public class NumericThresholdEvaluator implements PredicateFactory {
 
-    private static final Logger log = Logger.getLogger(NumericThresholdEvaluator.class);
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
     @SuppressWarnings("null") // Map.ofEntries() guarantees non-null values by contract
     private static final Map<String, NumericMapping> MAPPINGS = Map.ofEntries(
-            Map.entry("MIN_CONTENT_LENGTH", new NumericMapping("content_length", ">=")),
-            Map.entry("MAX_CONTENT_LENGTH", new NumericMapping("content_length", "<=")),
-            Map.entry("MIN_ATTACHMENT_COUNT", new NumericMapping("attachment_count", ">=")),
-            Map.entry("MIN_REACTION_COUNT", new NumericMapping("reaction_count", ">=")),
-            Map.entry("MENTION_USER_COUNT_MAX", new NumericMapping("mention_user_count", "<=")),
-            Map.entry("MEMBER_P_CURRENCY_MIN", new NumericMapping("p_currency", ">=")),
-            Map.entry("MEMBER_P_CURRENCY_MAX", new NumericMapping("p_currency", "<=")),
-            Map.entry("MEMBER_S_CURRENCY_MIN", new NumericMapping("s_currency", ">=")),
-            Map.entry("MIN_EMBED_COUNT", new NumericMapping("embed_count", ">=")),
-            Map.entry("MIN_SESSION_DURATION_MINUTES", new NumericMapping("session_duration_minutes", ">="))
+            Map.entry("MIN_CONTENT_LENGTH", new NumericMapping(RuleFields.CONTENT_LENGTH, ">=")),
+            Map.entry("MAX_CONTENT_LENGTH", new NumericMapping(RuleFields.CONTENT_LENGTH, "<=")),
+            Map.entry("MIN_ATTACHMENT_COUNT", new NumericMapping(RuleFields.ATTACHMENT_COUNT, ">=")),
+            Map.entry("MIN_REACTION_COUNT", new NumericMapping(RuleFields.REACTION_COUNT, ">=")),
+            Map.entry("MENTION_USER_COUNT_MAX", new NumericMapping(RuleFields.MENTION_USER_COUNT, "<=")),
+            Map.entry("MEMBER_P_CURRENCY_MIN", new NumericMapping(RuleFields.P_CURRENCY, ">=")),
+            Map.entry("MEMBER_P_CURRENCY_MAX", new NumericMapping(RuleFields.P_CURRENCY, "<=")),
+            Map.entry("MEMBER_S_CURRENCY_MIN", new NumericMapping(RuleFields.S_CURRENCY, ">=")),
+            Map.entry("MIN_EMBED_COUNT", new NumericMapping(RuleFields.EMBED_COUNT, ">=")),
+            Map.entry("MIN_SESSION_DURATION_MINUTES", new NumericMapping(RuleFields.SESSION_DURATION_MINUTES, ">="))
     );
 
     @Override
@@ -45,40 +45,57 @@ public class NumericThresholdEvaluator implements PredicateEvaluator {
     }
 
     @Override
-    public boolean evaluate(String predicateType, RuleContext ctx, String parametersJson) {
-        NumericMapping mapping = MAPPINGS.get(predicateType);
-        if (mapping == null) return false;
-        if (parametersJson == null) return false;
-
-        try {
-            JsonNode params = MAPPER.readTree(parametersJson);
+    public CompiledPredicate compile(RulePredicate predicate) {
+        NumericMapping mapping = MAPPINGS.get(predicate.predicateType());
+        JsonNode params = PredicateFactory.parameters(MAPPER, predicate);
+        if (mapping == null || params == null) return CompiledPredicate.ALWAYS_FALSE;
 
-            String field = params.has("field") ? params.path("field").asText() : mapping.field;
-            String operator = params.has("operator") ? params.path("operator").asText() : mapping.operator;
-            double threshold = params.path("threshold").asDouble();
+        int field = params.has("field") ? RuleFields.resolve(params.path("field").asText()) : mapping.field;
+        String operator = params.has("operator") ? params.path("operator").asText() : mapping.operator;
+        double threshold = params.path("threshold").asDouble();
 
-            Number actual = ctx.getNumericField(field);
-            if (actual == null) return false;
+        if (field < 0 || !RuleFields.isNumeric(field)) {
+            throw new IllegalArgumentException("'" + params.path("field").asText() + "' is not a numeric field");
+        }
 
-            return compare(actual.doubleValue(), operator, threshold);
-        } catch (JsonProcessingException e) {
-            log.warnf(e, "NumericThresholdEvaluator failed for predicate '%s'", predicateType);
-            return false;
+        // Integral fields compared against a whole threshold never need to
+        // leave long arithmetic.
+        RuleFields.Kind kind = RuleFields.kind(field);
+        if (kind != RuleFields.Kind.DOUBLE && threshold == Math.rint(threshold)
+                && Math.abs(threshold) < 0x1p53) {
+            return integral(field, operator, (long) threshold);
         }
+        return floating(field, operator, threshold);
     }
 
-    private boolean compare(double actual, String operator, double threshold) {
+    private static CompiledPredicate integral(int field, String operator, long threshold) {
         return switch (operator) {
-            case ">=" -> actual >= threshold;
-            case "<=" -> actual <= threshold;
-            case ">" -> actual > threshold;
-            case "<" -> actual < threshold;
-            case "==" -> actual == threshold;
-            case "!=" -> actual != threshold;
-            default -> false;
+            case ">=" -> ctx -> ctx.has(field) && ctx.getLong(field) >= threshold;
+            case "<=" -> ctx -> ctx.has(field) && ctx.getLong(field) <= threshold;
+            case ">" -> ctx -> ctx.has(field) && ctx.getLong(field) > threshold;
+            case "<" -> ctx -> ctx.has(field) && ctx.getLong(field) < threshold;
+            case "==" -> ctx -> ctx.has(field) && ctx.getLong(field) == threshold;
+            case "!=" -> ctx -> ctx.has(field) && ctx.getLong(field) != threshold;
+            default -> throw unknownOperator(operator);
         };
     }
 
-    private record NumericMapping(String field, String operator) {
+    private static CompiledPredicate floating(int field, String operator, double threshold) {
+        return switch (operator) {
+            case ">=" -> ctx -> ctx.has(field) && ctx.getDouble(field) >= threshold;
+            case "<=" -> ctx -> ctx.has(field) && ctx.getDouble(field) <= threshold;
+            case ">" -> ctx -> ctx.has(field) && ctx.getDouble(field) > threshold;
+            case "<" -> ctx -> ctx.has(field) && ctx.getDouble(field) < threshold;
+            case "==" -> ctx -> ctx.has(field) && ctx.getDouble(field) == threshold;
+            case "!=" -> ctx -> ctx.has(field) && ctx.getDouble(field) != threshold;
+            default -> throw unknownOperator(operator);
+        };
+    }
+
+    private static IllegalArgumentException unknownOperator(String operator) {
+        return new IllegalArgumentException("Unknown operator '" + operator + "'");
+    }
+
+    private record NumericMapping(int field, String operator) {
     }
 }
@@ -2,19 +2,19 @@ package edu.franklin.acm.synapse.rules.engine.predicates;
 
 import java.util.Set;
 
-import org.jboss.logging.Logger;
-
-import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
-import edu.franklin.acm.synapse.rules.engine.PredicateEvaluator;
-import edu.franklin.acm.synapse.rules.engine.RuleContext;
+import edu.franklin.acm.synapse.activity.rules.RulePredicate;
+import edu.franklin.acm.synapse.rules.engine.CompiledPredicate;
+import edu.franklin.acm.synapse.rules.engine.PredicateFactory;
+import edu.franklin.acm.synapse.rules.engine.RuleFields;
 import jakarta.enterprise.context.ApplicationScoped;
 
 /**
  * Handles string match predicates including channel targeting,
- * message type matching, and attachment content type checks.
+ * message type matching, and attachment content type checks. Expected
+ * values are read and, for snowflake fields, parsed once at compile time.
  *
  * Parameters vary by type:
  * - IN_CHANNEL: {"channel_ext_id": 123456789}
@@ -25,9 +25,8 @@ import jakarta.enterprise.context.ApplicationScoped;
  * - ATTACHMENT_IS_IMAGE/VIDEO/AUDIO: no parameters
  */
 @ApplicationScoped
-public class StringMatchEvaluator implements PredicateEvaluator {
+public class StringMatchEvaluator implements PredicateFactory {
 
-    private static final Logger log = Logger.getLogger(StringMatchEvaluator.class);
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
     private static final Set<String> HANDLED = Set.of(
@@ -45,62 +44,80 @@ public class StringMatchEvaluator implements PredicateEvaluator {
     }
 
     @Override
-    public boolean evaluate(String predicateType, RuleContext ctx, String parametersJson) {
-        try {
-            return switch (predicateType) {
-                case "IN_CHANNEL" -> matchField(ctx, "channel_ext_id", parametersJson, "channel_ext_id", false);
-                case "NOT_IN_CHANNEL" -> matchField(ctx, "channel_ext_id", parametersJson, "channel_ext_id", true);
-                case "CHANNEL_TYPE_IS" -> matchField(ctx, "channel_type", parametersJson, "type", false);
-                case "IN_CATEGORY" -> matchField(ctx, "category_ext_id", parametersJson, "category_ext_id", false);
-                case "MESSAGE_TYPE_IS" -> matchField(ctx, "message_type", parametersJson, "type", false);
-                case "IN_VOICE_CHANNEL" -> matchField(ctx, "voice_channel_ext_id", parametersJson, "channel_ext_id", false);
-                case "ATTACHMENT_EXTENSION_IS" -> matchExtension(ctx, parametersJson);
-                case "ATTACHMENT_CONTENT_TYPE_IS" -> matchContentType(ctx, parametersJson, false);
-                case "ATTACHMENT_IS_IMAGE" -> prefixMatch(ctx, "image/");
-                case "ATTACHMENT_IS_VIDEO" -> prefixMatch(ctx, "video/");
-                case "ATTACHMENT_IS_AUDIO" -> prefixMatch(ctx, "audio/");
-                default -> false;
-            };
-        } catch (JsonProcessingException e) {
-            log.warnf(e, "StringMatchEvaluator failed for predicate '%s'", predicateType);
-            return false;
-        }
+    public CompiledPredicate compile(RulePredicate predicate) {
+        JsonNode params = PredicateFactory.parameters(MAPPER, predicate);
+        return switch (predicate.predicateType()) {
+            case "IN_CHANNEL" -> matchField(RuleFields.CHANNEL_EXT_ID, params, "channel_ext_id", false);
+            case "NOT_IN_CHANNEL" -> matchField(RuleFields.CHANNEL_EXT_ID, params, "channel_ext_id", true);
+            case "CHANNEL_TYPE_IS" -> matchField(RuleFields.CHANNEL_TYPE, params, "type", false);
+            case "IN_CATEGORY" -> matchField(RuleFields.CATEGORY_EXT_ID, params, "category_ext_id", false);
+            case "MESSAGE_TYPE_IS" -> matchField(RuleFields.MESSAGE_TYPE, params, "type", false);
+            case "IN_VOICE_CHANNEL" -> matchField(RuleFields.VOICE_CHANNEL_EXT_ID, params, "channel_ext_id", false);
+            case "ATTACHMENT_EXTENSION_IS" -> matchExtension(params);
+            case "ATTACHMENT_CONTENT_TYPE_IS" -> matchContentType(params);
+            case "ATTACHMENT_IS_IMAGE" -> prefixMatch("image/");
+            case "ATTACHMENT_IS_VIDEO" -> prefixMatch("video/");
+            case "ATTACHMENT_IS_AUDIO" -> prefixMatch("audio/");
+            default -> CompiledPredicate.ALWAYS_FALSE;
+        };
     }
 
-    private boolean matchField(RuleContext ctx, String contextField,
-                               String parametersJson, String paramKey, boolean negate) throws JsonProcessingException {
-        if (parametersJson == null) return false;
-        JsonNode params = MAPPER.readTree(parametersJson);
+    private static CompiledPredicate matchField(int field, JsonNode params, String paramKey, boolean negate) {
+        if (params == null) return CompiledPredicate.ALWAYS_FALSE;
         // path() returns MissingNode (not null) when key is absent; asText() on MissingNode returns "".
         String expected = params.path(paramKey).asText();
-        String actual = ctx.getStringField(contextField);
-        if (actual == null) return negate;
-        boolean matches = actual.equals(expected);
-        return negate != matches;
+
+        if (RuleFields.kind(field) == RuleFields.Kind.STRING) {
+            return ctx -> ctx.has(field) ? negate != ctx.getString(field).equals(expected) : negate;
+        }
+        Long value = canonicalLong(expected);
+        if (value == null) {
+            return ctx -> negate; // No integral value can ever equal the expected text
+        }
+        long target = value;
+        return ctx -> ctx.has(field) ? negate != (ctx.getLong(field) == target) : negate;
+    }
+
+    /**
+     * Parses the expected decimal text of an integral field. Only the
+     * canonical form can match, exactly as a string comparison of
+     * {@code Long.toString(actual)} would.
+     */
+    private static Long canonicalLong(String expected) {
+        try {
+            long parsed = Long.parseLong(expected);
+            return Long.toString(parsed).equals(expected) ? parsed : null;
+        } catch (NumberFormatException e) {
+            return null;
+        }
     }
 
-    private boolean matchExtension(RuleContext ctx, String parametersJson) throws JsonProcessingException {
-        if (parametersJson == null) return false;
-        String filename = ctx.attachmentFilename();
-        if (filename == null) return false;
-        JsonNode params = MAPPER.readTree(parametersJson);
+    private static CompiledPredicate matchExtension(JsonNode params) {
+        if (params == null) return CompiledPredicate.ALWAYS_FALSE;
         String extension = params.path("extension").asText().toLowerCase();
-        int dot = filename.lastIndexOf('.');
-        if (dot < 0) return false;
-        return filename.substring(dot + 1).toLowerCase().equals(extension);
+        int length = extension.length();
+        return ctx -> {
+            String filename = ctx.getString(RuleFields.ATTACHMENT_FILENAME);
+            if (filename == null) return false;
+            int dot = filename.lastIndexOf('.');
+            return dot >= 0 && filename.length() - dot - 1 == length
+                    && filename.regionMatches(true, dot + 1, extension, 0, length);
+        };
     }
 
-    private boolean matchContentType(RuleContext ctx, String parametersJson, boolean prefix) throws JsonProcessingException {
-        if (parametersJson == null) return false;
-        String contentType = ctx.attachmentContentType();
-        if (contentType == null) return false;
-        JsonNode params = MAPPER.readTree(parametersJson);
+    private static CompiledPredicate matchContentType(JsonNode params) {
+        if (params == null) return CompiledPredicate.ALWAYS_FALSE;
         String expected = params.path("content_type").asText();
-        return prefix ? contentType.startsWith(expected) : contentType.equalsIgnoreCase(expected);
+        return ctx -> {
+            String contentType = ctx.getString(RuleFields.ATTACHMENT_CONTENT_TYPE);
+            return contentType != null && contentType.equalsIgnoreCase(expected);
+        };
     }
 
-    private boolean prefixMatch(RuleContext ctx, String prefix) {
-        String contentType = ctx.attachmentContentType();
-        return contentType != null && contentType.startsWith(prefix);
+    private static CompiledPredicate prefixMatch(String prefix) {
+        return ctx -> {
+            String contentType = ctx.getString(RuleFields.ATTACHMENT_CONTENT_TYPE);
+            return contentType != null && contentType.startsWith(prefix);
+        };
     }
 }
@@ -9,23 +9,25 @@ import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import edu.franklin.acm.synapse.activity.SeasonDao;
-import edu.franklin.acm.synapse.rules.engine.PredicateEvaluator;
-import edu.franklin.acm.synapse.rules.engine.RuleContext;
+import edu.franklin.acm.synapse.activity.rules.RulePredicate;
+import edu.franklin.acm.synapse.rules.engine.CompiledPredicate;
+import edu.franklin.acm.synapse.rules.engine.PredicateFactory;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 
-import org.jboss.logging.Logger;
-
 /**
  * Handles temporal predicates: time-of-day ranges, day-of-week checks,
- * and season activity.
+ * and season activity. Hour and day checks compile to arithmetic on the
+ * current epoch millis in UTC.
  */
 @ApplicationScoped
-public class TemporalEvaluator implements PredicateEvaluator {
+public class TemporalEvaluator implements PredicateFactory {
 
-    private static final Logger log = Logger.getLogger(TemporalEvaluator.class);
     private static final ObjectMapper MAPPER = new ObjectMapper();
 
+    private static final long MILLIS_PER_HOUR = 3_600_000L;
+    private static final long MILLIS_PER_DAY = 86_400_000L;
+
     private static final Set<String> HANDLED = Set.of(
             "HOUR_OF_DAY_BETWEEN", "DAY_OF_WEEK_IS",
             "DURING_SEASON", "NOT_DURING_SEASON", "SEASON_ACTIVE"
@@ -40,56 +42,61 @@ public class TemporalEvaluator implements PredicateEvaluator {
     }
 
     @Override
-    public boolean evaluate(String predicateType, RuleContext ctx, String parametersJson) {
-        try {
-            return switch (predicateType) {
-                case "HOUR_OF_DAY_BETWEEN" -> hourOfDayBetween(parametersJson);
-                case "DAY_OF_WEEK_IS" -> dayOfWeekIs(parametersJson);
-                case "DURING_SEASON" -> duringSeason(parametersJson, false);
-                case "NOT_DURING_SEASON" -> duringSeason(parametersJson, true);
-                case "SEASON_ACTIVE" -> seasonActive();
-                default -> false;
-            };
-        } catch (Exception e) {
-            log.warnf(e, "TemporalEvaluator failed for predicate '%s'", predicateType);
-            return false;
-        }
+    public CompiledPredicate compile(RulePredicate predicate) {
+        JsonNode params = PredicateFactory.parameters(MAPPER, predicate);
+        return switch (predicate.predicateType()) {
+            case "HOUR_OF_DAY_BETWEEN" -> hourOfDayBetween(params);
+            case "DAY_OF_WEEK_IS" -> dayOfWeekIs(params);
+            case "DURING_SEASON" -> duringSeason(params, false);
+            case "NOT_DURING_SEASON" -> duringSeason(params, true);
+            case "SEASON_ACTIVE" -> ctx -> seasonDao.countActiveSeasons(now()) > 0;
+            default -> CompiledPredicate.ALWAYS_FALSE;
+        };
     }
 
-    private boolean hourOfDayBetween(String parametersJson) throws Exception {
-        if (parametersJson == null) return false;
-        JsonNode params = MAPPER.readTree(parametersJson);
+    private static CompiledPredicate hourOfDayBetween(JsonNode params) {
+        if (params == null) return CompiledPredicate.ALWAYS_FALSE;
         int from = params.path("from").asInt();
         int to = params.path("to").asInt();
-        int currentHour = LocalDateTime.now(ZoneOffset.UTC).getHour();
 
         if (from <= to) {
-            return currentHour >= from && currentHour < to;
-        } else {
-            // Wraps midnight, e.g., from=22 to=6
-            return currentHour >= from || currentHour < to;
+            return ctx -> {
+                long hour = currentHour();
+                return hour >= from && hour < to;
+            };
         }
+        // Wraps midnight, e.g., from=22 to=6
+        return ctx -> {
+            long hour = currentHour();
+            return hour >= from || hour < to;
+        };
     }
 
-    private boolean dayOfWeekIs(String parametersJson) throws Exception {
-        if (parametersJson == null) return false;
-        JsonNode params = MAPPER.readTree(parametersJson);
+    private static CompiledPredicate dayOfWeekIs(JsonNode params) {
+        if (params == null) return CompiledPredicate.ALWAYS_FALSE;
         String day = params.path("day").asText().toUpperCase();
-        DayOfWeek target = DayOfWeek.valueOf(day);
-        return LocalDateTime.now(ZoneOffset.UTC).getDayOfWeek() == target;
+        DayOfWeek target;
+        try {
+            target = DayOfWeek.valueOf(day);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown day of week '" + day + "'", e);
+        }
+        // 1970-01-01 was a Thursday, three days after a Monday
+        int ordinal = target.ordinal();
+        return ctx -> Math.floorMod(System.currentTimeMillis() / MILLIS_PER_DAY + 3, 7) == ordinal;
     }
 
-    private boolean duringSeason(String parametersJson, boolean negate) throws Exception {
-        if (parametersJson == null) return false;
-        JsonNode params = MAPPER.readTree(parametersJson);
+    private CompiledPredicate duringSeason(JsonNode params, boolean negate) {
+        if (params == null) return CompiledPredicate.ALWAYS_FALSE;
         long seasonId = params.path("season_id").asLong();
-        String now = LocalDateTime.now(ZoneOffset.UTC).toString();
-        boolean active = seasonDao.countActiveSeason(seasonId, now) > 0;
-        return negate != active;
+        return ctx -> negate != seasonDao.countActiveSeason(seasonId, now()) > 0;
+    }
+
+    private static long currentHour() {
+        return System.currentTimeMillis() / MILLIS_PER_HOUR % 24;
     }
 
-    private boolean seasonActive() {
-        String now = LocalDateTime.now(ZoneOffset.UTC).toString();
-        return seasonDao.countActiveSeasons(now) > 0;
+    private static String now() {
+        return LocalDateTime.now(ZoneOffset.UTC).toString();
     }
 }
@@ -0,0 +1,79 @@
+package edu.franklin.acm.synapse.rules.engine.predicates;
+
+import java.util.Locale;
+import java.util.Set;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import edu.franklin.acm.synapse.activity.rules.RulePredicate;
+import edu.franklin.acm.synapse.rules.engine.CompiledPredicate;
+import edu.franklin.acm.synapse.rules.engine.PredicateFactory;
+import edu.franklin.acm.synapse.rules.engine.WindowCounters;
+import edu.franklin.acm.synapse.rules.engine.WindowScope;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Handles windowed count predicates: how many events of a type the member,
+ * the channel, or the member in the channel has had within the last N
+ * minutes, including the event being evaluated. Counts come from the
+ * in-memory {@link WindowCounters}, so a test is constant time.
+ *
+ * Parameters: {"event_type": "MESSAGE_CREATE", "window_minutes": 60, "threshold": 5}
+ * Optional: {"scope": "member_channel", "operator": "=="}; scope is one of
+ * member (default), channel, member_channel, and operator defaults to >=.
+ */
+@ApplicationScoped
+public class WindowCountEvaluator implements PredicateFactory {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    private static final Set<String> OPERATORS = Set.of(">=", "<=", ">", "<", "==", "!=");
+
+    @Inject
+    WindowCounters windowCounters;
+
+    @Override
+    public boolean handles(String predicateType) {
+        return "WINDOW_COUNT".equals(predicateType);
+    }
+
+    @Override
+    public CompiledPredicate compile(RulePredicate predicate) {
+        JsonNode params = PredicateFactory.parameters(MAPPER, predicate);
+        if (params == null) return CompiledPredicate.ALWAYS_FALSE;
+
+        String eventType = params.path("event_type").asText("");
+        long windowMinutes = params.path("window_minutes").asLong();
+        long threshold = params.path("threshold").asLong();
+        String operator = params.path("operator").asText(">=");
+        if (eventType.isEmpty()) {
+            throw new IllegalArgumentException("event_type is required");
+        }
+        if (windowMinutes < 1) {
+            throw new IllegalArgumentException("window_minutes must be at least 1");
+        }
+        if (!OPERATORS.contains(operator)) {
+            throw new IllegalArgumentException("Unknown operator '" + operator + "'");
+        }
+
+        WindowScope scope;
+        try {
+            scope = WindowScope.valueOf(params.path("scope").asText("member").toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown scope '" + params.path("scope").asText() + "'");
+        }
+
+        WindowCounters.Window window = windowCounters.register(eventType, scope, windowMinutes);
+        return switch (operator) {
+            case ">=" -> ctx -> window.count(ctx) >= threshold;
+            case "<=" -> ctx -> window.count(ctx) <= threshold;
+            case ">" -> ctx -> window.count(ctx) > threshold;
+            case "<" -> ctx -> window.count(ctx) < threshold;
+            case "==" -> ctx -> window.count(ctx) == threshold;
+            case "!=" -> ctx -> window.count(ctx) != threshold;
+            default -> throw new IllegalArgumentException("Unknown operator '" + operator + "'");
+        };
+    }
+}
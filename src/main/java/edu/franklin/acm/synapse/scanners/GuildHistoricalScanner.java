@@ -9,6 +9,7 @@ import java.util.concurrent.CompletableFuture;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
 import edu.franklin.acm.synapse.activity.guild.GuildMetadataDao;
 import edu.franklin.acm.synapse.activity.member.MemberDao;
 import edu.franklin.acm.synapse.scanners.shared.ChannelService;
@@ -51,14 +52,15 @@ public class GuildHistoricalScanner {
     @Inject MessagePersistenceService messagePersistenceService;
 
     /**
-     * Scans all message-bearing channels and threads in a guild.
+     * Scans all message-bearing channels and threads in a guild, writing to
+     * the guild's own partition.
      *
      * @param guild             the guild to scan
      * @param lastSeenByChannel map of channel/thread ext_id to last-seen message ext_id
      * @return a future that completes when all scanning is done
      */
     public CompletableFuture<Void> scanGuild(Guild guild, Map<Long, Long> lastSeenByChannel) {
-        return CompletableFuture.runAsync(() -> {
+        return CompletableFuture.runAsync(() -> GuildContext.run(guild.getIdLong(), () -> {
             guildMetadataDao.upsert(guild.getIdLong(), guild.getName(),
                     guild.getTimeCreated().toInstant().toString());
             log.info("Recorded guild metadata: {}", guild.getName());
@@ -102,7 +104,7 @@ public class GuildHistoricalScanner {
                 scanArchivedThreads(container, lastSeenByChannel);
             }
 
-        }).exceptionally(ex -> {
+        })).exceptionally(ex -> {
             log.error("Fatal error during guild scan for {}", guild.getName(), ex);
             return null;
         });
@@ -1,14 +1,19 @@
 package edu.franklin.acm.synapse.scanners;
 
+import java.util.List;
+
 import org.jetbrains.annotations.NotNull;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import edu.franklin.acm.synapse.activity.guild.GuildPartitions;
 import edu.franklin.acm.synapse.scanners.handlers.ChannelEventHandler;
 import edu.franklin.acm.synapse.scanners.handlers.MemberEventHandler;
 import edu.franklin.acm.synapse.scanners.handlers.MessageIngestionHandler;
+import edu.franklin.acm.synapse.scanners.handlers.ReactionEventHandler;
 import edu.franklin.acm.synapse.scanners.handlers.ReconciliationHandler;
 import edu.franklin.acm.synapse.scanners.handlers.VoiceEventHandler;
+import edu.franklin.acm.synapse.scanners.shared.GuildLanes;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import net.dv8tion.jda.api.entities.Guild;
@@ -22,14 +27,22 @@ import net.dv8tion.jda.api.events.guild.member.GuildMemberJoinEvent;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberRemoveEvent;
 import net.dv8tion.jda.api.events.guild.member.GuildMemberUpdateEvent;
 import net.dv8tion.jda.api.events.guild.voice.GuildVoiceUpdateEvent;
+import net.dv8tion.jda.api.events.message.MessageBulkDeleteEvent;
+import net.dv8tion.jda.api.events.message.MessageDeleteEvent;
 import net.dv8tion.jda.api.events.message.MessageReceivedEvent;
+import net.dv8tion.jda.api.events.message.MessageUpdateEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionAddEvent;
+import net.dv8tion.jda.api.events.message.react.MessageReactionRemoveEvent;
 import net.dv8tion.jda.api.hooks.ListenerAdapter;
 
 /**
  * Thin JDA gateway dispatcher. Receives Discord events and delegates to
  * domain-specific handlers for persistence and rule evaluation.
  *
- * <p>Registered as a JDA {@link ListenerAdapter} by {@code SynapseBot}.
+ * <p>Registered as a JDA {@link ListenerAdapter} on every shard by
+ * {@code SynapseBot}. Handlers run on the event's {@link GuildLanes guild
+ * lane}, so each guild's events are applied in order against its own
+ * partition while different guilds proceed in parallel.
  */
 @ApplicationScoped
 public class GuildLiveScanner extends ListenerAdapter {
@@ -40,108 +53,207 @@ public class GuildLiveScanner extends ListenerAdapter {
     @Inject MemberEventHandler memberHandler;
     @Inject VoiceEventHandler voiceHandler;
     @Inject ChannelEventHandler channelHandler;
+    @Inject ReactionEventHandler reactionHandler;
     @Inject ReconciliationHandler reconciliationHandler;
+    @Inject GuildPartitions partitions;
+    @Inject GuildLanes lanes;
 
     @Override
     public void onMessageReceived(@NotNull MessageReceivedEvent event) {
         if (event.isWebhookMessage()) return;
         if (!event.isFromGuild()) return;
 
-        try {
-            messageHandler.handle(event.getMessage());
-        } catch (Exception e) {
-            log.error("Failed to ingest live message {}", event.getMessage().getId(), e);
-        }
+        dispatch(event.getGuild(), () -> {
+            try {
+                messageHandler.handle(event.getMessage());
+            } catch (Exception e) {
+                log.error("Failed to ingest live message {}", event.getMessage().getId(), e);
+            }
+        });
+    }
+
+    @Override
+    public void onMessageUpdate(@NotNull MessageUpdateEvent event) {
+        if (event.getMessage().isWebhookMessage()) return;
+        if (!event.isFromGuild()) return;
+
+        dispatch(event.getGuild(), () -> {
+            try {
+                messageHandler.handleUpdate(event.getMessage());
+            } catch (Exception e) {
+                log.error("Failed to apply live edit to message {}", event.getMessageId(), e);
+            }
+        });
+    }
+
+    @Override
+    public void onMessageDelete(@NotNull MessageDeleteEvent event) {
+        if (!event.isFromGuild()) return;
+
+        dispatch(event.getGuild(), () -> {
+            try {
+                messageHandler.handleDelete(List.of(event.getMessageIdLong()));
+            } catch (Exception e) {
+                log.error("Failed to process delete of message {}", event.getMessageId(), e);
+            }
+        });
+    }
+
+    @Override
+    public void onMessageBulkDelete(@NotNull MessageBulkDeleteEvent event) {
+        dispatch(event.getGuild(), () -> {
+            try {
+                messageHandler.handleDelete(event.getMessageIds().stream().map(Long::parseLong).toList());
+            } catch (Exception e) {
+                log.error("Failed to process bulk delete of {} messages in {}",
+                        event.getMessageIds().size(), event.getChannel().getName(), e);
+            }
+        });
+    }
+
+    @Override
+    public void onMessageReactionAdd(@NotNull MessageReactionAddEvent event) {
+        if (!event.isFromGuild()) return;
+
+        dispatch(event.getGuild(), () -> {
+            try {
+                reactionHandler.handleAdd(event.getMessageIdLong(), event.getEmoji());
+            } catch (Exception e) {
+                log.error("Failed to process reaction add on message {}", event.getMessageId(), e);
+            }
+        });
+    }
+
+    @Override
+    public void onMessageReactionRemove(@NotNull MessageReactionRemoveEvent event) {
+        if (!event.isFromGuild()) return;
+
+        dispatch(event.getGuild(), () -> {
+            try {
+                reactionHandler.handleRemove(event.getMessageIdLong(), event.getEmoji());
+            } catch (Exception e) {
+                log.error("Failed to process reaction remove on message {}", event.getMessageId(), e);
+            }
+        });
     }
 
     @Override
     public void onGuildMemberUpdate(@NotNull GuildMemberUpdateEvent event) {
-        try {
-            memberHandler.handleUpdate(event.getMember());
-        } catch (Exception e) {
-            log.error("Failed to process member update for {}", event.getMember().getUser().getName(), e);
-        }
+        dispatch(event.getGuild(), () -> {
+            try {
+                memberHandler.handleUpdate(event.getMember());
+            } catch (Exception e) {
+                log.error("Failed to process member update for {}", event.getMember().getUser().getName(), e);
+            }
+        });
     }
 
     @Override
     public void onGuildMemberJoin(@NotNull GuildMemberJoinEvent event) {
-        try {
-            memberHandler.handleJoin(event.getMember());
-        } catch (Exception e) {
-            log.error("Failed to process member join for {}", event.getMember().getUser().getName(), e);
-        }
+        dispatch(event.getGuild(), () -> {
+            try {
+                memberHandler.handleJoin(event.getMember());
+            } catch (Exception e) {
+                log.error("Failed to process member join for {}", event.getMember().getUser().getName(), e);
+            }
+        });
     }
 
     @Override
     public void onGuildMemberRemove(@NotNull GuildMemberRemoveEvent event) {
-        try {
-            memberHandler.handleLeave(event.getUser());
-        } catch (Exception e) {
-            log.error("Failed to process member remove for {}", event.getUser().getName(), e);
-        }
+        dispatch(event.getGuild(), () -> {
+            try {
+                memberHandler.handleLeave(event.getUser());
+            } catch (Exception e) {
+                log.error("Failed to process member remove for {}", event.getUser().getName(), e);
+            }
+        });
     }
 
     @Override
     public void onGuildVoiceUpdate(@NotNull GuildVoiceUpdateEvent event) {
-        try {
-            voiceHandler.handle(event);
-        } catch (Exception e) {
-            log.error("Failed to process voice update for {}", event.getMember().getUser().getName(), e);
-        }
+        dispatch(event.getGuild(), () -> {
+            try {
+                voiceHandler.handle(event);
+            } catch (Exception e) {
+                log.error("Failed to process voice update for {}", event.getMember().getUser().getName(), e);
+            }
+        });
     }
 
     @Override
     public void onChannelCreate(@NotNull ChannelCreateEvent event) {
-        try {
-            channelHandler.handleCreate(event);
-        } catch (Exception e) {
-            log.error("Failed to process channel create for {}", event.getChannel().getName(), e);
-        }
+        dispatch(event.getGuild(), () -> {
+            try {
+                channelHandler.handleCreate(event);
+            } catch (Exception e) {
+                log.error("Failed to process channel create for {}", event.getChannel().getName(), e);
+            }
+        });
     }
 
     @Override
     public void onChannelDelete(@NotNull ChannelDeleteEvent event) {
-        try {
-            channelHandler.handleDelete(event);
-        } catch (Exception e) {
-            log.error("Failed to process channel delete for {}", event.getChannel().getName(), e);
-        }
+        dispatch(event.getGuild(), () -> {
+            try {
+                channelHandler.handleDelete(event);
+            } catch (Exception e) {
+                log.error("Failed to process channel delete for {}", event.getChannel().getName(), e);
+            }
+        });
     }
 
     @Override
     public void onChannelUpdateName(@NotNull ChannelUpdateNameEvent event) {
-        try {
-            channelHandler.handleNameUpdate(event);
-        } catch (Exception e) {
-            log.error("Failed to process channel rename for {}", event.getChannel().getName(), e);
-        }
+        dispatch(event.getGuild(), () -> {
+            try {
+                channelHandler.handleNameUpdate(event);
+            } catch (Exception e) {
+                log.error("Failed to process channel rename for {}", event.getChannel().getName(), e);
+            }
+        });
     }
 
     @Override
     public void onChannelUpdateParent(@NotNull ChannelUpdateParentEvent event) {
-        try {
-            channelHandler.handleParentUpdate(event);
-        } catch (Exception e) {
-            log.error("Failed to process channel parent update for {}", event.getChannel().getName(), e);
-        }
+        dispatch(event.getGuild(), () -> {
+            try {
+                channelHandler.handleParentUpdate(event);
+            } catch (Exception e) {
+                log.error("Failed to process channel parent update for {}", event.getChannel().getName(), e);
+            }
+        });
     }
 
     @Override
     public void onChannelUpdateArchived(@NotNull ChannelUpdateArchivedEvent event) {
-        try {
-            channelHandler.handleArchivedUpdate(event);
-        } catch (Exception e) {
-            log.error("Failed to process thread archive update for {}", event.getChannel().getName(), e);
-        }
+        dispatch(event.getGuild(), () -> {
+            try {
+                channelHandler.handleArchivedUpdate(event);
+            } catch (Exception e) {
+                log.error("Failed to process thread archive update for {}", event.getChannel().getName(), e);
+            }
+        });
     }
 
     @Override
     public void onChannelUpdateLocked(@NotNull ChannelUpdateLockedEvent event) {
-        try {
-            channelHandler.handleLockedUpdate(event);
-        } catch (Exception e) {
-            log.error("Failed to process thread lock update for {}", event.getChannel().getName(), e);
-        }
+        dispatch(event.getGuild(), () -> {
+            try {
+                channelHandler.handleLockedUpdate(event);
+            } catch (Exception e) {
+                log.error("Failed to process thread lock update for {}", event.getChannel().getName(), e);
+            }
+        });
+    }
+
+    /**
+     * Runs a handler on the guild's lane, bound to the guild's data
+     * partition. Events from guilds this instance does not serve are dropped.
+     */
+    private void dispatch(Guild guild, Runnable handler) {
+        if (!partitions.serves(guild.getIdLong())) return;
+        lanes.execute(guild.getIdLong(), handler);
     }
 
     /**
@@ -2,9 +2,6 @@ package edu.franklin.acm.synapse.scanners.handlers;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
-import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -17,10 +14,11 @@ import edu.franklin.acm.synapse.activity.member.MemberRoleDao;
 import edu.franklin.acm.synapse.activity.voice.VoiceSessionDao;
 import edu.franklin.acm.synapse.rules.engine.RuleContext;
 import edu.franklin.acm.synapse.rules.engine.RuleEvaluationRequest;
+import edu.franklin.acm.synapse.scanners.shared.RoleDiff;
 import edu.franklin.acm.synapse.scanners.shared.RoleSyncService;
+import edu.franklin.acm.synapse.scanners.shared.VoicePresenceTracker;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import net.dv8tion.jda.api.entities.ISnowflake;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.User;
 
@@ -39,6 +37,8 @@ public class MemberEventHandler {
     VoiceSessionDao voiceSessionDao;
     @Inject
     RoleSyncService roleSyncService;
+    @Inject
+    VoicePresenceTracker voicePresence;
 
     @Inject
     jakarta.enterprise.event.Event<RuleEvaluationRequest> ruleEvents;
@@ -77,7 +77,10 @@ public class MemberEventHandler {
         Long memberId = memberDao.findIdByExtId(user.getIdLong());
         if (memberId != null) {
             long eventId = eventDao.insert(new Event(0L, memberId, null, "MEMBER_LEAVE", null));
-            voiceSessionDao.closeAllForMember(memberId, utcNow());
+            String now = utcNow();
+            if (voicePresence.close(memberId, now) == null) {
+                voiceSessionDao.closeAllForMember(memberId, now);
+            }
 
             RuleContext ctx = RuleContext.forMemberEvent(
                     "MEMBER_LEAVE", eventId, memberId,
@@ -110,33 +113,22 @@ public class MemberEventHandler {
                 member.isPending()
         );
 
-        detectAndRecordRoleChanges(member, memberId, timeBoosted != null);
-        roleSyncService.syncRoles(memberId, member);
-    }
-
-    private void detectAndRecordRoleChanges(Member member, long memberId, boolean isBoosting) {
-        List<Long> storedRoles = memberRoleDao.findRoleExtIdsByMemberId(memberId);
-        Set<Long> currentRoleExtIds = member.getRoles().stream()
-                .map(ISnowflake::getIdLong)
-                .collect(Collectors.toSet());
-
-        Set<Long> storedSet = Set.copyOf(storedRoles);
-        List<Long> added = currentRoleExtIds.stream()
-                .filter(r -> !storedSet.contains(r))
-                .toList();
-        List<Long> removed = storedRoles.stream()
-                .filter(r -> !currentRoleExtIds.contains(r))
-                .toList();
-
-        if (added.isEmpty() && removed.isEmpty()) {
-            return;
+        RoleDiff diff = roleSyncService.syncRoles(memberId, member);
+        if (!diff.isEmpty()) {
+            recordRoleChange(member, memberId, timeBoosted != null, diff);
         }
+    }
 
+    /**
+     * Records a MEMBER_ROLE_CHANGE event from the diff produced by the role
+     * sync and submits it for rule evaluation.
+     */
+    private void recordRoleChange(Member member, long memberId, boolean isBoosting, RoleDiff diff) {
         long eventId = eventDao.insert(
                 new Event(0L, memberId, null, "MEMBER_ROLE_CHANGE", null));
 
-        String addedStr = added.stream().map(String::valueOf).collect(Collectors.joining(","));
-        String removedStr = removed.stream().map(String::valueOf).collect(Collectors.joining(","));
+        String addedStr = diff.addedCsv();
+        String removedStr = diff.removedCsv();
         memberRoleDao.insertRoleChangeEvent(new MemberRoleChangeEvent(0L, eventId, addedStr, removedStr));
 
         log.info("Recorded role change for {} — added: [{}], removed: [{}]",
@@ -1,18 +1,25 @@
 package edu.franklin.acm.synapse.scanners.handlers;
 
+import java.util.List;
+
+import org.jdbi.v3.core.Jdbi;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import edu.franklin.acm.synapse.activity.member.MemberDao;
 import edu.franklin.acm.synapse.activity.message.MessageEvent;
+import edu.franklin.acm.synapse.activity.message.MessageEventDao;
 import edu.franklin.acm.synapse.rules.engine.RuleContext;
 import edu.franklin.acm.synapse.rules.engine.RuleEvaluationRequest;
 import edu.franklin.acm.synapse.scanners.shared.ChannelService;
+import edu.franklin.acm.synapse.scanners.shared.MessageIdentityCache;
 import edu.franklin.acm.synapse.scanners.shared.MessagePersistenceService;
 import edu.franklin.acm.synapse.scanners.shared.ThreadService;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import net.dv8tion.jda.api.entities.Message;
+import net.dv8tion.jda.api.entities.channel.Channel;
+import net.dv8tion.jda.api.entities.channel.attribute.ICategorizableChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 
 @ApplicationScoped
@@ -24,6 +31,12 @@ public class MessageIngestionHandler {
     @Inject ChannelService channelService;
     @Inject ThreadService threadService;
     @Inject MessagePersistenceService messagePersistenceService;
+    @Inject MessageEventDao messageEventDao;
+    @Inject MessageIdentityCache messageIds;
+    @Inject Jdbi jdbi;
+
+    /** Keeps IN lists under SQLite's default bound parameter limit. */
+    private static final int DELETE_CHUNK = 500;
 
     @Inject
     jakarta.enterprise.event.Event<RuleEvaluationRequest> ruleEvents;
@@ -51,6 +64,10 @@ public class MessageIngestionHandler {
 
         String attFilename = m.getAttachments().isEmpty() ? null : m.getAttachments().get(0).getFileName();
         String attContentType = m.getAttachments().isEmpty() ? null : m.getAttachments().get(0).getContentType();
+        Channel channel = m.getChannel() instanceof ThreadChannel tc ? tc.getParentChannel() : m.getChannel();
+        Long categoryExtId = channel instanceof ICategorizableChannel cat && cat.getParentCategoryIdLong() != 0L
+                ? cat.getParentCategoryIdLong()
+                : null;
         RuleContext ctx = RuleContext.forMessage(
                 eventId, memberInternalId, channelInternalId,
                 MessageEvent.fromDiscord(eventId, threadInternalId, m),
@@ -58,14 +75,47 @@ public class MessageIngestionHandler {
                 false, null,
                 memberDao.findPCurrency(memberInternalId),
                 memberDao.findSCurrency(memberInternalId),
-                m.getChannel() instanceof ThreadChannel tc
-                        ? tc.getParentChannel().getIdLong()
-                        : m.getChannel().getIdLong(),
-                m.getChannel() instanceof ThreadChannel tc2
-                        ? tc2.getParentChannel().getType().name()
-                        : m.getChannel().getType().name(),
-                null,
+                channel.getIdLong(),
+                channel.getType().name(),
+                categoryExtId,
                 attFilename, attContentType);
         ruleEvents.fireAsync(new RuleEvaluationRequest(ctx));
     }
+
+    /**
+     * Applies a live edit in place. Unlike {@link #handle(Message)} this records
+     * no new event and leaves attachments and reactions alone; edits to
+     * messages that were never ingested are ignored.
+     */
+    public void handleUpdate(Message m) {
+        Long messageId = messageIds.resolve(m.getIdLong());
+        if (messageId == null) {
+            log.debug("Ignoring edit to unknown message {}", m.getId());
+            return;
+        }
+        int changed = messageEventDao.updateMutable(messageId, MessageEvent.fromDiscord(0L, null, m));
+        log.debug("Applied live edit to message {} (changed: {})", m.getId(), changed > 0);
+    }
+
+    /**
+     * Tombstones deleted messages, single or bulk, in chunked batches within
+     * one transaction.
+     *
+     * @param extIds Discord message IDs
+     */
+    public void handleDelete(List<Long> extIds) {
+        if (extIds.isEmpty()) return;
+
+        int deleted = jdbi.inTransaction(handle -> {
+            MessageEventDao txMsg = handle.attach(MessageEventDao.class);
+            int rows = 0;
+            for (int from = 0; from < extIds.size(); from += DELETE_CHUNK) {
+                rows += txMsg.markDeleted(extIds.subList(from, Math.min(from + DELETE_CHUNK, extIds.size())));
+            }
+            return rows;
+        });
+        extIds.forEach(messageIds::evict);
+
+        log.debug("Tombstoned {} of {} deleted messages", deleted, extIds.size());
+    }
 }
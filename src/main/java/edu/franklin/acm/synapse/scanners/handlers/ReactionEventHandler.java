@@ -0,0 +1,139 @@
+package edu.franklin.acm.synapse.scanners.handlers;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jdbi.v3.core.Jdbi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import edu.franklin.acm.synapse.activity.message.MessageEventDao;
+import edu.franklin.acm.synapse.activity.message.MessageReactionDao;
+import edu.franklin.acm.synapse.activity.message.ReactionDelta;
+import edu.franklin.acm.synapse.scanners.shared.MessageIdentityCache;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import net.dv8tion.jda.api.entities.emoji.Emoji;
+import net.dv8tion.jda.api.entities.emoji.EmojiUnion;
+
+/**
+ * Live reaction ingestion. Add/remove events only adjust an in-memory delta per
+ * (message, emoji); a scheduled flush writes all pending deltas and the
+ * matching {@code messages.reaction_count} adjustments in one transaction.
+ * A message collecting hundreds of reactions between flushes therefore costs
+ * one row update per emoji instead of one per reaction.
+ *
+ * <p>Reactions on messages that were never ingested are dropped at flush time,
+ * the same as the per-event DAO methods would have found no row to update.
+ */
+@ApplicationScoped
+public class ReactionEventHandler {
+
+    private static final Logger log = LoggerFactory.getLogger(ReactionEventHandler.class);
+
+    @Inject Jdbi jdbi;
+    @Inject MessageIdentityCache messageIds;
+
+    private final ConcurrentHashMap<ReactionKey, Integer> pending = new ConcurrentHashMap<>();
+
+    public void handleAdd(long messageExtId, EmojiUnion emoji) {
+        pending.merge(ReactionKey.of(GuildContext.current(), messageExtId, emoji), 1, Integer::sum);
+    }
+
+    public void handleRemove(long messageExtId, EmojiUnion emoji) {
+        pending.merge(ReactionKey.of(GuildContext.current(), messageExtId, emoji), -1, Integer::sum);
+    }
+
+    /**
+     * Writes all pending deltas, one transaction per guild partition. Each
+     * key is removed atomically, so events arriving during a flush simply
+     * start a new delta for the next one.
+     */
+    @Scheduled(every = "${synapse.reactions.flush-interval:5s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void flush() {
+        if (pending.isEmpty()) return;
+
+        Map<Long, Map<ReactionKey, Integer>> drainedByGuild = new HashMap<>();
+        for (ReactionKey key : pending.keySet()) {
+            Integer delta = pending.remove(key);
+            if (delta != null && delta != 0) {
+                drainedByGuild.computeIfAbsent(key.guildId(), id -> new HashMap<>()).put(key, delta);
+            }
+        }
+
+        drainedByGuild.forEach((guildId, drained) -> {
+            try {
+                GuildContext.run(guildId, () -> write(drained));
+            } catch (Exception e) {
+                // Put the deltas back so the next flush retries them
+                drained.forEach((key, delta) -> pending.merge(key, delta, Integer::sum));
+                log.error("Failed to flush {} reaction deltas for guild {}", drained.size(), guildId, e);
+            }
+        });
+    }
+
+    void onShutdown(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    private void write(Map<ReactionKey, Integer> drained) {
+        Map<Long, Long> ids = messageIds.resolveAll(
+                drained.keySet().stream().map(ReactionKey::messageExtId).distinct().toList());
+
+        List<ReactionDelta> increments = new ArrayList<>();
+        List<ReactionDelta> decrements = new ArrayList<>();
+        Map<Long, Integer> perMessage = new HashMap<>();
+        int unknown = 0;
+
+        for (var entry : drained.entrySet()) {
+            ReactionKey key = entry.getKey();
+            Long messageId = ids.get(key.messageExtId());
+            if (messageId == null) {
+                unknown++;
+                continue;
+            }
+            int delta = entry.getValue();
+            ReactionDelta row = new ReactionDelta(messageId, key.emojiName(),
+                    key.emojiExtId() != 0L ? key.emojiExtId() : null, delta);
+            (delta > 0 ? increments : decrements).add(row);
+            perMessage.merge(messageId, delta, Integer::sum);
+        }
+        if (unknown > 0) {
+            log.debug("Dropped {} reaction deltas for messages not in the database", unknown);
+        }
+        if (perMessage.isEmpty()) return;
+
+        List<Long> messageIdList = new ArrayList<>(perMessage.keySet());
+        List<Integer> messageDeltas = messageIdList.stream().map(perMessage::get).toList();
+
+        jdbi.useTransaction(handle -> {
+            MessageReactionDao txRxn = handle.attach(MessageReactionDao.class);
+            if (!increments.isEmpty()) txRxn.incrementBatch(increments);
+            if (!decrements.isEmpty()) txRxn.decrementBatch(decrements);
+            handle.attach(MessageEventDao.class).applyReactionCountDeltas(messageIdList, messageDeltas);
+        });
+        log.debug("Flushed {} reaction deltas across {} messages",
+                increments.size() + decrements.size(), perMessage.size());
+    }
+
+    /**
+     * Identifies one emoji on one message, in the guild partition the message
+     * lives in. Unicode emoji use 0 for the ID, the same collapse the
+     * {@code message_reactions_uq} index applies.
+     */
+    private record ReactionKey(long guildId, long messageExtId, String emojiName, long emojiExtId) {
+
+        static ReactionKey of(long guildId, long messageExtId, EmojiUnion emoji) {
+            long emojiExtId = emoji.getType() == Emoji.Type.CUSTOM ? emoji.asCustom().getIdLong() : 0L;
+            return new ReactionKey(guildId, messageExtId, emoji.getName(), emojiExtId);
+        }
+    }
+}
@@ -2,11 +2,26 @@ package edu.franklin.acm.synapse.scanners.handlers;
 
 import java.time.LocalDateTime;
 import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Collectors;
 
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jdbi.v3.core.Jdbi;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -14,9 +29,13 @@ import edu.franklin.acm.synapse.activity.Event;
 import edu.franklin.acm.synapse.activity.EventDao;
 import edu.franklin.acm.synapse.activity.channel.CategoryDao;
 import edu.franklin.acm.synapse.activity.channel.ChannelDao;
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
 import edu.franklin.acm.synapse.activity.guild.GuildMetadataDao;
 import edu.franklin.acm.synapse.activity.guild.SynapseStatisticsDao;
 import edu.franklin.acm.synapse.activity.member.MemberDao;
+import edu.franklin.acm.synapse.activity.member.MemberProfile;
+import edu.franklin.acm.synapse.activity.member.MemberRole;
+import edu.franklin.acm.synapse.activity.member.MemberRoleDao;
 import edu.franklin.acm.synapse.activity.member.RoleDao;
 import edu.franklin.acm.synapse.activity.thread.ForumTagDao;
 import edu.franklin.acm.synapse.activity.thread.ThreadDao;
@@ -24,6 +43,7 @@ import edu.franklin.acm.synapse.activity.voice.VoiceSessionDao;
 import edu.franklin.acm.synapse.scanners.shared.ChannelService;
 import edu.franklin.acm.synapse.scanners.shared.RoleSyncService;
 import edu.franklin.acm.synapse.scanners.shared.ThreadService;
+import edu.franklin.acm.synapse.scanners.shared.VoicePresenceTracker;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import net.dv8tion.jda.api.entities.Guild;
@@ -31,6 +51,8 @@ import net.dv8tion.jda.api.entities.ISnowflake;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
 import net.dv8tion.jda.api.entities.channel.ChannelType;
+import net.dv8tion.jda.api.entities.channel.attribute.ICategorizableChannel;
+import net.dv8tion.jda.api.entities.channel.middleman.GuildChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ForumChannel;
 import net.dv8tion.jda.api.entities.channel.concrete.ThreadChannel;
 import net.dv8tion.jda.api.entities.channel.forums.ForumTag;
@@ -39,15 +61,24 @@ import net.dv8tion.jda.api.entities.emoji.CustomEmoji;
 /**
  * Reconciles database state with the live guild after a restart.
  *
+ * <p>Each phase loads the stored state in bulk, diffs it against the guild in
+ * memory and writes only the differences with batched statements, committed in
+ * transactions of at most {@code synapse.reconcile.batch-size} rows. Phases
+ * without data dependencies run in parallel:
+ *
  * <ol>
  *   <li>Upsert guild metadata</li>
- *   <li>Fetch current members from Discord, then deactivate all and re-activate
- *       the fetched set.</li>
+ *   <li>In parallel:
+ *     <ul>
+ *       <li>Roles, then members and their role assignments, streamed chunk
+ *           by chunk. Members whose profile is unchanged are not written;
+ *           members the pass did not see are deactivated afterwards by
+ *           reconcile generation.</li>
+ *       <li>Categories and channels, then forum tags and active threads.
+ *           Anything no longer in Discord is deactivated (set-difference).</li>
+ *     </ul>
+ *   </li>
  *   <li>Close orphaned voice sessions, re-open for currently connected members</li>
- *   <li>Enumerate all guild channels and categories. Upsert all present; deactivate
- *       any in the DB that are no longer in Discord (set-difference).</li>
- *   <li>Sync forum tags, upsert active threads from JDA cache, deactivate threads
- *       no longer in the active set (set-difference).</li>
  * </ol>
  */
 @ApplicationScoped
@@ -55,29 +86,51 @@ public class ReconciliationHandler {
 
     private static final Logger log = LoggerFactory.getLogger(ReconciliationHandler.class);
 
+    /** Queued member chunks a lagging writer merges into one transaction. */
+    private static final int MAX_COALESCED_CHUNKS = 4;
+
+    /** Marks the end of the member stream on the writer's queue. */
+    private static final List<Member> END_OF_MEMBERS = List.of();
+
+    @Inject Jdbi jdbi;
     @Inject GuildMetadataDao guildMetadataDao;
     @Inject MemberDao memberDao;
-    @Inject EventDao eventDao;
-    @Inject VoiceSessionDao voiceSessionDao;
+    @Inject RoleSyncService roleSyncService;
+    @Inject VoicePresenceTracker voicePresence;
     @Inject ChannelService channelService;
     @Inject ThreadService threadService;
     @Inject ChannelDao channelDao;
     @Inject CategoryDao categoryDao;
     @Inject ThreadDao threadDao;
     @Inject ForumTagDao forumTagDao;
-    @Inject RoleSyncService roleSyncService;
     @Inject RoleDao roleDao;
     @Inject SynapseStatisticsDao statisticsDao;
 
+    @ConfigProperty(name = "synapse.reconcile.batch-size", defaultValue = "500")
+    int batchSize;
+
     public void reconcile(Guild guild) throws Exception {
         log.info("Starting startup reconciliation for guild {}", guild.getName());
 
         reconcileGuildMetadata(guild);
-        reconcileMembers(guild);
-        reconcileRoles(guild);
-        reconcileVoiceSessions(guild);
-        reconcileChannelsAndCategories(guild);
-        reconcileThreadsAndForumTags(guild);
+
+        AtomicInteger threadCount = new AtomicInteger();
+        try (ExecutorService pool = Executors.newFixedThreadPool(2, runnable ->
+                new Thread(runnable, "reconcile-" + threadCount.incrementAndGet()))) {
+            // Both branches write to the partition of the guild being reconciled
+            Executor executor = GuildContext.bind(pool);
+            CompletableFuture<Map<Long, Long>> members = CompletableFuture
+                    .supplyAsync(() -> reconcileRoles(guild), executor)
+                    .thenApplyAsync(roleIds -> reconcileMembers(guild, roleIds), executor);
+            CompletableFuture<Map<Long, Long>> channels = CompletableFuture
+                    .supplyAsync(() -> reconcileChannelsAndCategories(guild), executor)
+                    .thenApplyAsync(channelIds -> reconcileThreadsAndForumTags(guild, channelIds), executor);
+
+            members.thenAcceptBoth(channels, (memberIds, channelIds) ->
+                    reconcileVoiceSessions(guild, memberIds, channelIds)).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
 
         statisticsDao.recordReconciliation();
     }
@@ -88,45 +141,220 @@ public class ReconciliationHandler {
     }
 
     /**
-     * Fetches all members from Discord, then deactivates all DB members and
-     * re-activates the fetched set. Fetching first keeps members active during
-     * the Discord API round-trip.
+     * Streams the guild roster from JDA's member chunks and reconciles each
+     * chunk as it arrives. Neither the roster nor the stored members are held
+     * in memory: each chunk's stored profiles and role assignments are read
+     * with it, and only a member ext_id to ID map outlives the chunk.
+     * Every chunk is diffed against the stored members: new or changed
+     * profiles are upserted, role assignments are brought in line by
+     * inserting and deleting only the differing junction rows, and all of the
+     * chunk's members are stamped with this pass's reconcile generation. Once
+     * the stream completes, active members left with an older stamp are
+     * deactivated. Nobody is marked inactive while the pass is running, and
+     * live joins are held on the guild's lane until it is over, so the sweep
+     * needs no guard beyond the generation.
+     *
+     * <p>JDA delivers members on its own thread, which must not block, so
+     * chunks are handed to a single writer thread through an unbounded queue.
+     * The writer absorbs the back-pressure: when it falls behind, it merges up
+     * to {@value #MAX_COALESCED_CHUNKS} queued chunks into one transaction,
+     * so a slow database is paid per commit less often as the queue grows.
+     *
+     * @param roleIds role ext_id to internal ID, from {@link #reconcileRoles}
+     * @return member ext_id to internal ID for every member in the guild
      */
-    private void reconcileMembers(Guild guild) throws Exception {
-        List<Member> members = guild.loadMembers().get();
-        memberDao.deactivateAll();
-        for (Member member : members) {
-            var timeBoosted = member.getTimeBoosted();
-            long memberId = memberDao.upsertFull(
-                    member.getIdLong(),
-                    member.getUser().getName(),
-                    member.getUser().getGlobalName(),
-                    member.getNickname(),
-                    member.getUser().getAvatarId(),
-                    member.getUser().isBot(),
-                    member.getTimeJoined().toString(),
-                    timeBoosted != null ? timeBoosted.toString() : null,
-                    member.isPending());
-            roleSyncService.syncRoles(memberId, member);
+    private Map<Long, Long> reconcileMembers(Guild guild, Map<Long, Long> roleIds) {
+        MemberPass pass = new MemberPass(memberDao.nextReconcileGeneration(), roleIds);
+
+        BlockingQueue<List<Member>> chunks = new LinkedBlockingQueue<>();
+        List<Member> buffer = new ArrayList<>(batchSize);
+
+        try (ExecutorService writer = Executors.newSingleThreadExecutor(runnable ->
+                new Thread(runnable, "reconcile-members"))) {
+            Future<?> written = writer.submit(GuildContext.wrap(() -> pass.writeAll(chunks)));
+            try {
+                guild.loadMembers(member -> {
+                    buffer.add(member);
+                    if (buffer.size() >= batchSize) {
+                        chunks.add(List.copyOf(buffer));
+                        buffer.clear();
+                    }
+                }).get();
+                if (!buffer.isEmpty()) {
+                    chunks.add(List.copyOf(buffer));
+                }
+            } finally {
+                chunks.add(END_OF_MEMBERS);
+            }
+            written.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        } catch (ExecutionException e) {
+            // A chunk or the stream failed: skip the sweep rather than
+            // deactivating members that were never stamped.
+            throw new CompletionException(e.getCause());
+        } catch (RuntimeException e) {
+            throw new CompletionException(e);
+        }
+
+        int departed = memberDao.deactivateUnseen(pass.generation);
+        roleSyncService.invalidate();
+
+        log.info("Reconciled {} members ({} written, {} deactivated, {} role assignments changed)",
+                pass.seen, pass.written, departed, pass.roleChanges);
+        return pass.memberIds;
+    }
+
+    /**
+     * State of one streamed member reconciliation: the running totals and the
+     * internal IDs of the members seen. Only touched by the writer thread.
+     */
+    private final class MemberPass {
+        final long generation;
+        final Map<Long, Long> roleIds;
+        final Map<Long, Long> memberIds = new HashMap<>();
+        int seen;
+        int written;
+        int roleChanges;
+
+        MemberPass(long generation, Map<Long, Long> roleIds) {
+            this.generation = generation;
+            this.roleIds = roleIds;
+        }
+
+        /**
+         * Writes queued chunks until the end of the stream, merging whatever
+         * has queued up behind the writer into one transaction. After a
+         * failed write the rest of the stream is discarded.
+         */
+        void writeAll(BlockingQueue<List<Member>> chunks) throws InterruptedException {
+            List<List<Member>> drained = new ArrayList<>(MAX_COALESCED_CHUNKS);
+            RuntimeException failure = null;
+            while (true) {
+                drained.add(chunks.take());
+                chunks.drainTo(drained, MAX_COALESCED_CHUNKS - 1);
+
+                boolean end = false;
+                List<Member> merged = new ArrayList<>();
+                for (List<Member> chunk : drained) {
+                    if (chunk == END_OF_MEMBERS) end = true;
+                    else merged.addAll(chunk);
+                }
+                drained.clear();
+
+                if (failure == null && !merged.isEmpty()) {
+                    try {
+                        write(merged);
+                    } catch (RuntimeException e) {
+                        failure = e;
+                    }
+                }
+                if (end) break;
+            }
+            if (failure != null) throw failure;
+        }
+
+        /**
+         * Reconciles members in a single transaction, diffing them against
+         * their stored profiles and role assignments, read for this chunk
+         * only.
+         */
+        private void write(List<Member> chunk) {
+            List<Long> extIds = new ArrayList<>(chunk.size());
+            for (Member member : chunk) {
+                extIds.add(member.getIdLong());
+            }
+
+            jdbi.useTransaction(h -> {
+                MemberDao txMember = h.attach(MemberDao.class);
+                Map<Long, MemberProfile> stored = new HashMap<>();
+                for (MemberProfile profile : txMember.findProfilesByExtIds(extIds)) {
+                    stored.put(profile.extId(), profile);
+                }
+
+                List<MemberProfile> changed = new ArrayList<>();
+                List<Long> inserted = new ArrayList<>();
+                for (Member member : chunk) {
+                    MemberProfile current = MemberProfile.fromDiscord(member);
+                    MemberProfile previous = stored.get(member.getIdLong());
+                    if (previous == null) {
+                        inserted.add(member.getIdLong());
+                    }
+                    if (previous == null || !previous.isActive() || !previous.sameProfile(current)) {
+                        changed.add(current);
+                    }
+                }
+
+                if (!changed.isEmpty()) txMember.upsertFullBatch(changed);
+                txMember.stampReconcileGeneration(generation, extIds);
+                Map<Long, Long> ids = new HashMap<>();
+                stored.forEach((extId, profile) -> ids.put(extId, profile.id()));
+                if (!inserted.isEmpty()) ids.putAll(txMember.findIdsByExtIds(inserted));
+
+                MemberRoleDao txRoles = h.attach(MemberRoleDao.class);
+                Map<Long, Set<Long>> storedRoles = new HashMap<>();
+                if (!ids.isEmpty()) {
+                    for (MemberRole assignment : txRoles.findByMemberIds(ids.values())) {
+                        storedRoles.computeIfAbsent(assignment.memberId(), id -> new HashSet<>())
+                                .add(assignment.roleId());
+                    }
+                }
+                List<MemberRole> added = new ArrayList<>();
+                List<MemberRole> removed = new ArrayList<>();
+                diffRoles(chunk, ids, storedRoles, added, removed);
+                if (!removed.isEmpty()) txRoles.deleteRoleAssignments(removed);
+                if (!added.isEmpty()) txRoles.insertRoles(added);
+
+                memberIds.putAll(ids);
+                written += changed.size();
+                roleChanges += added.size() + removed.size();
+            });
+            seen += chunk.size();
+        }
+
+        /**
+         * Diffs each member's role set against the stored junction rows.
+         */
+        private void diffRoles(List<Member> chunk, Map<Long, Long> ids, Map<Long, Set<Long>> storedRoles,
+                               List<MemberRole> added, List<MemberRole> removed) {
+            for (Member member : chunk) {
+                Long memberId = ids.get(member.getIdLong());
+                if (memberId == null) continue;
+
+                Set<Long> current = new HashSet<>();
+                for (Role role : member.getRoles()) {
+                    Long roleId = roleIds.get(role.getIdLong());
+                    if (roleId != null) current.add(roleId);
+                }
+                Set<Long> previous = storedRoles.getOrDefault(memberId, Set.of());
+                for (Long roleId : current) {
+                    if (!previous.contains(roleId)) added.add(new MemberRole(memberId, roleId));
+                }
+                for (Long roleId : previous) {
+                    if (!current.contains(roleId)) removed.add(new MemberRole(memberId, roleId));
+                }
+            }
         }
-        log.info("Reconciled {} members", members.size());
     }
 
     /**
      * Upserts all guild roles into the roles reference table and deactivates
      * any that no longer exist on Discord (set-difference).
+     *
+     * @return role ext_id to internal ID
      */
-    private void reconcileRoles(Guild guild) {
-        Set<Long> discordRoleIds = guild.getRoles().stream()
+    private Map<Long, Long> reconcileRoles(Guild guild) {
+        List<Role> roles = guild.getRoles();
+        Set<Long> discordRoleIds = roles.stream()
                 .map(ISnowflake::getIdLong)
                 .collect(Collectors.toSet());
 
-        for (Role role : guild.getRoles()) {
-            roleDao.upsert(role.getIdLong(), role.getName());
-        }
+        jdbi.useTransaction(h -> h.attach(RoleDao.class).upsertBatch(
+                roles.stream().map(ISnowflake::getIdLong).toList(),
+                roles.stream().map(Role::getName).toList()));
 
-        Set<Long> dbActiveRoleIds = new HashSet<>(roleDao.findAllActiveExtIds());
-        Set<Long> deletedRoles = new HashSet<>(dbActiveRoleIds);
+        Set<Long> deletedRoles = new HashSet<>(roleDao.findAllActiveExtIds());
         deletedRoles.removeAll(discordRoleIds);
         if (!deletedRoles.isEmpty()) {
             roleDao.deactivateByExtIds(deletedRoles);
@@ -134,38 +362,64 @@ public class ReconciliationHandler {
 
         log.info("Reconciled {} roles ({} deactivated)",
                 discordRoleIds.size(), deletedRoles.size());
+        return roleDao.findAllIds();
     }
 
     /**
-     * Closes orphaned voice sessions and re-opens for currently connected members.
+     * Closes orphaned voice sessions and re-opens for currently connected
+     * members, in a single transaction, then hands the re-opened sessions to
+     * the {@link VoicePresenceTracker} so live leaves can measure them.
      */
-    private void reconcileVoiceSessions(Guild guild) {
+    private void reconcileVoiceSessions(Guild guild, Map<Long, Long> memberIds, Map<Long, Long> channelIds) {
         String now = utcNow();
-        voiceSessionDao.closeAllOrphaned(now);
-        for (var voiceState : guild.getVoiceStates()) {
-            var channel = voiceState.getChannel();
-            if (channel == null) continue;
-            Member member = voiceState.getMember();
-            long memberId = memberDao.upsert(
-                    member.getIdLong(),
-                    member.getUser().getName(),
-                    member.getUser().isBot());
-            long channelId = channelService.upsertChannel(channel);
-
-            long eventId = eventDao.insert(
-                    new Event(0L, memberId, channelId, "VOICE_JOIN", null));
-            voiceSessionDao.open(eventId, memberId, channelId, now);
-        }
-        log.info("Voice session reconciliation complete");
+        long nowNanos = System.nanoTime();
+        // Land any live writes queued so far before closing orphans
+        voicePresence.flush();
+        List<VoicePresenceTracker.Presence> reopened = jdbi.inTransaction(h -> {
+            VoiceSessionDao txVoice = h.attach(VoiceSessionDao.class);
+            EventDao txEvent = h.attach(EventDao.class);
+            txVoice.closeAllOrphaned(now);
+
+            List<VoicePresenceTracker.Presence> sessions = new ArrayList<>();
+            for (var voiceState : guild.getVoiceStates()) {
+                var channel = voiceState.getChannel();
+                if (channel == null) continue;
+                Member member = voiceState.getMember();
+                Long memberId = memberIds.get(member.getIdLong());
+                if (memberId == null) {
+                    memberId = h.attach(MemberDao.class).upsert(
+                            member.getIdLong(),
+                            member.getUser().getName(),
+                            member.getUser().isBot());
+                }
+                Long channelId = channelIds.get(channel.getIdLong());
+                if (channelId == null) {
+                    channelId = channelService.upsertChannel(channel);
+                }
+
+                long eventId = txEvent.insert(
+                        new Event(0L, memberId, channelId, "VOICE_JOIN", null));
+                txVoice.open(eventId, memberId, channelId, now);
+                sessions.add(new VoicePresenceTracker.Presence(memberId, member.getIdLong(), channelId,
+                        channel.getIdLong(), channel.getType().name(), eventId, nowNanos, 0L));
+            }
+            return sessions;
+        });
+        voicePresence.restore(reopened);
+        log.info("Voice session reconciliation complete ({} sessions re-opened)", reopened.size());
     }
 
     /**
-     * Upserts all categories and non-thread channels from JDA's local cache,
-     * then deactivates any that are no longer in Discord (set-difference).
+     * Upserts all categories and non-thread channels from JDA's local cache in
+     * batches, then deactivates any that are no longer in Discord
+     * (set-difference).
+     *
+     * @return channel ext_id to internal ID
      */
-    private void reconcileChannelsAndCategories(Guild guild) {
+    private Map<Long, Long> reconcileChannelsAndCategories(Guild guild) {
         // Categories
-        Set<Long> discordCategoryIds = guild.getCategories().stream()
+        var categories = guild.getCategories();
+        Set<Long> discordCategoryIds = categories.stream()
                 .map(ISnowflake::getIdLong)
                 .collect(Collectors.toSet());
         Set<Long> deletedCategories = new HashSet<>(categoryDao.findAllActiveExtIds());
@@ -173,12 +427,17 @@ public class ReconciliationHandler {
         if (!deletedCategories.isEmpty()) {
             categoryDao.deactivateByExtIds(deletedCategories);
         }
-        guild.getCategories().forEach(cat -> categoryDao.upsert(cat.getIdLong(), cat.getName(),
-                cat.getTimeCreated().toInstant().toString()));
+        jdbi.useTransaction(h -> h.attach(CategoryDao.class).upsertBatch(
+                categories.stream().map(ISnowflake::getIdLong).toList(),
+                categories.stream().map(GuildChannel::getName).toList(),
+                categories.stream().map(cat -> cat.getTimeCreated().toInstant().toString()).toList()));
+        Map<Long, Long> categoryIds = categoryDao.findAllIds();
 
         // Channels (excluding categories and threads)
-        Set<Long> discordChannelIds = guild.getChannels().stream()
+        List<GuildChannel> channels = guild.getChannels().stream()
                 .filter(c -> c.getType() != ChannelType.CATEGORY && !c.getType().isThread())
+                .toList();
+        Set<Long> discordChannelIds = channels.stream()
                 .map(ISnowflake::getIdLong)
                 .collect(Collectors.toSet());
         Set<Long> deletedChannels = new HashSet<>(channelDao.findAllActiveExtIds());
@@ -186,23 +445,36 @@ public class ReconciliationHandler {
         if (!deletedChannels.isEmpty()) {
             channelDao.deactivateByExtIds(deletedChannels);
         }
-        guild.getChannels().stream()
-                .filter(c -> c.getType() != ChannelType.CATEGORY && !c.getType().isThread())
-                .forEach(channelService::upsertChannel);
+        List<Long> channelCategoryIds = new ArrayList<>(channels.size());
+        for (GuildChannel channel : channels) {
+            channelCategoryIds.add(channel instanceof ICategorizableChannel cat
+                    ? categoryIds.get(cat.getParentCategoryIdLong())
+                    : null);
+        }
+        jdbi.useTransaction(h -> h.attach(ChannelDao.class).upsertBatch(
+                channels.stream().map(ISnowflake::getIdLong).toList(),
+                channels.stream().map(GuildChannel::getName).toList(),
+                channels.stream().map(c -> c.getType().name()).toList(),
+                channelCategoryIds,
+                channels.stream().map(c -> c.getTimeCreated().toInstant().toString()).toList()));
 
         log.info("Reconciled {} channels across {} categories ({} channels deactivated, {} categories deactivated)",
                 discordChannelIds.size(), discordCategoryIds.size(),
                 deletedChannels.size(), deletedCategories.size());
+        return channelDao.findAllIds();
     }
 
     /**
      * Syncs forum tag definitions, upserts active threads from JDA cache,
      * and deactivates threads no longer in the active set (set-difference).
      */
-    private void reconcileThreadsAndForumTags(Guild guild) {
+    private Map<Long, Long> reconcileThreadsAndForumTags(Guild guild, Map<Long, Long> channelIds) {
         int tagCount = 0;
         for (ForumChannel forum : guild.getForumChannels()) {
-            long forumInternalId = channelService.upsertChannel(forum);
+            Long forumInternalId = channelIds.get(forum.getIdLong());
+            if (forumInternalId == null) {
+                forumInternalId = channelService.upsertChannel(forum);
+            }
             for (ForumTag tag : forum.getAvailableTags()) {
                 String emojiName = null;
                 Long emojiExtId = null;
@@ -224,7 +496,12 @@ public class ReconciliationHandler {
                 .map(ISnowflake::getIdLong)
                 .collect(Collectors.toSet());
         for (ThreadChannel thread : guild.getThreadChannelCache()) {
-            threadService.upsertThread(thread);
+            Long parentInternalId = channelIds.get(thread.getParentChannel().getIdLong());
+            if (parentInternalId != null) {
+                threadService.upsertThread(thread, parentInternalId);
+            } else {
+                threadService.upsertThread(thread);
+            }
         }
 
         Set<Long> deletedThreads = new HashSet<>(threadDao.findAllActiveExtIds());
@@ -235,6 +512,7 @@ public class ReconciliationHandler {
 
         log.info("Reconciled {} active threads, {} forum tags ({} threads deactivated)",
                 discordThreadIds.size(), tagCount, deletedThreads.size());
+        return channelIds;
     }
 
     private String utcNow() {
@@ -8,17 +8,28 @@ import org.slf4j.LoggerFactory;
 
 import edu.franklin.acm.synapse.activity.Event;
 import edu.franklin.acm.synapse.activity.EventDao;
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
 import edu.franklin.acm.synapse.activity.member.MemberDao;
 import edu.franklin.acm.synapse.activity.voice.VoiceSessionDao;
 import edu.franklin.acm.synapse.rules.engine.RuleContext;
 import edu.franklin.acm.synapse.rules.engine.RuleEvaluationRequest;
 import edu.franklin.acm.synapse.scanners.shared.ChannelService;
+import edu.franklin.acm.synapse.scanners.shared.VoicePresenceTracker;
+import io.quarkus.scheduler.Scheduled;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.channel.unions.AudioChannelUnion;
 import net.dv8tion.jda.api.events.guild.voice.GuildVoiceUpdateEvent;
 
+/**
+ * Live voice state changes. Membership in a channel is tracked by
+ * {@link VoicePresenceTracker}, which measures each session and batches the
+ * {@code voice_sessions} writes; only the event row is inserted inline, since
+ * the rule engine needs its ID. Open sessions accrue voice minutes on a
+ * schedule, each accrual recorded as a VOICE_ACTIVE event and offered to
+ * its rules.
+ */
 @ApplicationScoped
 public class VoiceEventHandler {
 
@@ -28,6 +39,7 @@ public class VoiceEventHandler {
     @Inject EventDao eventDao;
     @Inject VoiceSessionDao voiceSessionDao;
     @Inject ChannelService channelService;
+    @Inject VoicePresenceTracker voicePresence;
 
     @Inject
     jakarta.enterprise.event.Event<RuleEvaluationRequest> ruleEvents;
@@ -59,7 +71,8 @@ public class VoiceEventHandler {
 
         long eventId = eventDao.insert(
                 new Event(0L, memberId, channelId, "VOICE_JOIN", null));
-        voiceSessionDao.open(eventId, memberId, channelId, now);
+        voicePresence.open(memberId, member.getIdLong(), channelId,
+                channel.getIdLong(), channel.getType().name(), eventId, now);
 
         log.debug("Voice join: {} -> {}", member.getUser().getName(), channel.getName());
 
@@ -80,7 +93,7 @@ public class VoiceEventHandler {
                 member.getUser().isBot());
         long channelId = channelService.upsertChannel(channel);
 
-        voiceSessionDao.close(memberId, channelId, now);
+        Double durationSecs = closeSession(memberId, channelId, now);
         long eventId = eventDao.insert(new Event(0L, memberId, channelId, "VOICE_LEAVE", null));
 
         log.debug("Voice leave: {} <- {}", member.getUser().getName(), channel.getName());
@@ -90,7 +103,7 @@ public class VoiceEventHandler {
                 member.getIdLong(), false, null,
                 memberDao.findPCurrency(memberId),
                 memberDao.findSCurrency(memberId),
-                channel.getIdLong(), channel.getType().name(), null);
+                channel.getIdLong(), channel.getType().name(), minutes(durationSecs));
         ruleEvents.fireAsync(new RuleEvaluationRequest(ctx));
     }
 
@@ -103,11 +116,12 @@ public class VoiceEventHandler {
         long oldChannelId = channelService.upsertChannel(oldChannel);
         long newChannelId = channelService.upsertChannel(newChannel);
 
-        voiceSessionDao.close(memberId, oldChannelId, now);
+        Double durationSecs = closeSession(memberId, oldChannelId, now);
 
         long eventId = eventDao.insert(
                 new Event(0L, memberId, newChannelId, "VOICE_MOVE", null));
-        voiceSessionDao.open(eventId, memberId, newChannelId, now);
+        voicePresence.open(memberId, member.getIdLong(), newChannelId,
+                newChannel.getIdLong(), newChannel.getType().name(), eventId, now);
 
         log.debug("Voice move: {} from {} to {}",
                 member.getUser().getName(), oldChannel.getName(), newChannel.getName());
@@ -117,10 +131,56 @@ public class VoiceEventHandler {
                 member.getIdLong(), false, null,
                 memberDao.findPCurrency(memberId),
                 memberDao.findSCurrency(memberId),
-                newChannel.getIdLong(), newChannel.getType().name(), null);
+                newChannel.getIdLong(), newChannel.getType().name(), minutes(durationSecs));
         ruleEvents.fireAsync(new RuleEvaluationRequest(ctx));
     }
 
+    /**
+     * Credits open sessions with the voice minutes gained since the last
+     * accrual, then records a VOICE_ACTIVE event for each credited session
+     * and submits it for evaluation, so time-based rules can fire while the
+     * member is still connected. Rules are deduplicated on the session's
+     * opening event, so a rule fires at most once per session.
+     */
+    @Scheduled(every = "${synapse.voice.accrual-interval:5m}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void accrue() {
+        String now = utcNow();
+        for (long guildId : voicePresence.guildIds()) {
+            GuildContext.run(guildId, () -> {
+                long nowNanos = System.nanoTime();
+                for (VoicePresenceTracker.Presence session : voicePresence.accrue(now)) {
+                    long eventId = eventDao.insert(
+                            new Event(0L, session.memberId(), session.channelId(), "VOICE_ACTIVE", null));
+                    RuleContext ctx = RuleContext.forVoiceActive(
+                            eventId, session.eventId(), session.memberId(), session.channelId(),
+                            session.memberExtId(),
+                            memberDao.findPCurrency(session.memberId()),
+                            memberDao.findSCurrency(session.memberId()),
+                            session.channelExtId(), session.channelType(), session.minutes(nowNanos));
+                    ruleEvents.fireAsync(new RuleEvaluationRequest(ctx));
+                }
+            });
+        }
+    }
+
+    /**
+     * Ends the member's tracked session. If none is tracked (e.g. the join
+     * predates reconciliation), falls back to closing the row directly; no
+     * duration is known for the rule engine in that case.
+     */
+    private Double closeSession(long memberId, long channelId, String now) {
+        Double durationSecs = voicePresence.close(memberId, now);
+        if (durationSecs == null) {
+            voiceSessionDao.close(memberId, channelId, now);
+        }
+        return durationSecs;
+    }
+
+    private static Double minutes(Double durationSecs) {
+        return durationSecs != null ? durationSecs / 60.0 : null;
+    }
+
     private String utcNow() {
         return LocalDateTime.now(ZoneOffset.UTC).toString();
     }
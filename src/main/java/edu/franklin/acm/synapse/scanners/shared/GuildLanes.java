@@ -0,0 +1,139 @@
+package edu.franklin.acm.synapse.scanners.shared;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+
+/**
+ * Per-guild serial executors. Each guild's tasks run one at a time, in
+ * submission order, bound to the guild's {@link GuildContext}; tasks of
+ * different guilds run in parallel.
+ *
+ * <p>Lanes are not threads: a lane is a queue that is drained by a virtual
+ * thread only while it has work, so an idle guild costs a map entry rather
+ * than a platform thread and its stack. A lane yields after
+ * {@value #DRAIN_BATCH} tasks so one busy guild cannot monopolize a carrier.
+ *
+ * <p>A lane can be {@linkplain #hold held}: tasks are queued but not run
+ * until it is {@linkplain #release released}. Startup holds every lane while
+ * the guild is reconciled, so live events arriving meanwhile are buffered and
+ * then applied, in order, against reconciled state.
+ */
+@ApplicationScoped
+public class GuildLanes {
+
+    private static final Logger log = LoggerFactory.getLogger(GuildLanes.class);
+
+    private static final int DRAIN_BATCH = 64;
+
+    private final ExecutorService workers = Executors.newThreadPerTaskExecutor(
+            Thread.ofVirtual().name("guild-lane-", 0).factory());
+    private final Map<Long, Lane> lanes = new ConcurrentHashMap<>();
+
+    /**
+     * Queues a task on the guild's lane.
+     */
+    public void execute(long guildId, Runnable task) {
+        lanes.computeIfAbsent(guildId, Lane::new).execute(task);
+    }
+
+    /**
+     * Queues a task on the guild's lane and returns its result.
+     */
+    public <T> CompletableFuture<T> submit(long guildId, Supplier<T> task) {
+        CompletableFuture<T> result = new CompletableFuture<>();
+        execute(guildId, () -> {
+            try {
+                result.complete(task.get());
+            } catch (Throwable t) {
+                result.completeExceptionally(t);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Stops running the guild's tasks; new tasks are buffered until
+     * {@link #release}. Tasks already running finish normally.
+     */
+    public void hold(long guildId) {
+        lanes.computeIfAbsent(guildId, Lane::new).held = true;
+    }
+
+    /**
+     * Resumes the guild's lane, running everything buffered while it was held.
+     *
+     * @return the number of tasks that were buffered
+     */
+    public int release(long guildId) {
+        Lane lane = lanes.computeIfAbsent(guildId, Lane::new);
+        lane.held = false;
+        int buffered = lane.tasks.size();
+        lane.schedule();
+        return buffered;
+    }
+
+    /**
+     * Number of tasks waiting on the guild's lane.
+     */
+    public int queued(long guildId) {
+        Lane lane = lanes.get(guildId);
+        return lane != null ? lane.tasks.size() : 0;
+    }
+
+    @PreDestroy
+    void stop() {
+        workers.close();
+    }
+
+    private final class Lane {
+        private final long guildId;
+        private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+        private volatile boolean held;
+
+        Lane(long guildId) {
+            this.guildId = guildId;
+        }
+
+        void execute(Runnable task) {
+            tasks.add(task);
+            schedule();
+        }
+
+        private void schedule() {
+            if (!held && scheduled.compareAndSet(false, true)) {
+                workers.execute(this::drain);
+            }
+        }
+
+        private void drain() {
+            try {
+                Runnable task;
+                for (int i = 0; i < DRAIN_BATCH && !held && (task = tasks.poll()) != null; i++) {
+                    try {
+                        GuildContext.run(guildId, task);
+                    } catch (RuntimeException e) {
+                        log.error("Unhandled failure on lane for guild {}", guildId, e);
+                    }
+                }
+            } finally {
+                scheduled.set(false);
+                if (!tasks.isEmpty()) schedule();
+            }
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package edu.franklin.acm.synapse.scanners.shared;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+
+import edu.franklin.acm.synapse.activity.message.MessageEventDao;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+/**
+ * Bounded cache of Discord message ID (ext_id) to internal {@code messages.id}.
+ * Live reaction, edit and delete events only carry the Discord ID, and they
+ * overwhelmingly target recent messages, so a small LRU spares most of them a
+ * lookup. Populated by {@link MessagePersistenceService} on ingest. Discord
+ * message IDs are globally unique, so one cache serves every guild partition;
+ * misses are looked up in the partition bound to the calling thread.
+ */
+@ApplicationScoped
+public class MessageIdentityCache {
+
+    /** Keeps IN lists under SQLite's default bound parameter limit. */
+    private static final int LOOKUP_CHUNK = 500;
+
+    @Inject MessageEventDao messageEventDao;
+
+    @ConfigProperty(name = "synapse.cache.message-ids.max-size", defaultValue = "50000")
+    int maxSize;
+
+    private Map<Long, Long> ids;
+
+    @PostConstruct
+    void init() {
+        ids = new LinkedHashMap<>(1024, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Long> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Records a message's internal ID. Call only after the row is committed.
+     */
+    public synchronized void put(long extId, long id) {
+        ids.put(extId, id);
+    }
+
+    /**
+     * Forgets a message, e.g. after it is deleted.
+     */
+    public synchronized void evict(long extId) {
+        ids.remove(extId);
+    }
+
+    /**
+     * Resolves one message, falling back to the database on a miss.
+     *
+     * @return the internal ID, or {@code null} if the message was never ingested
+     */
+    public Long resolve(long extId) {
+        synchronized (this) {
+            Long cached = ids.get(extId);
+            if (cached != null) return cached;
+        }
+        Long id = messageEventDao.findIdByExtId(extId);
+        if (id != null) put(extId, id);
+        return id;
+    }
+
+    /**
+     * Resolves many messages at once, looking up all misses in chunked
+     * {@code IN} queries.
+     *
+     * @return ext_id to internal ID for every message that was ingested
+     */
+    public Map<Long, Long> resolveAll(Collection<Long> extIds) {
+        Map<Long, Long> resolved = new HashMap<>(extIds.size() * 2);
+        List<Long> misses = new ArrayList<>();
+        synchronized (this) {
+            for (Long extId : extIds) {
+                Long cached = ids.get(extId);
+                if (cached != null) {
+                    resolved.put(extId, cached);
+                } else {
+                    misses.add(extId);
+                }
+            }
+        }
+        for (int from = 0; from < misses.size(); from += LOOKUP_CHUNK) {
+            Map<Long, Long> found = messageEventDao.findIdsByExtIds(
+                    misses.subList(from, Math.min(from + LOOKUP_CHUNK, misses.size())));
+            resolved.putAll(found);
+            synchronized (this) {
+                ids.putAll(found);
+            }
+        }
+        return resolved;
+    }
+}
@@ -27,6 +27,7 @@ import net.dv8tion.jda.api.entities.Message;
 public class MessagePersistenceService {
 
     @Inject Jdbi jdbi;
+    @Inject MessageIdentityCache messageIds;
 
     /**
      * Persists an event, message row, attachments, and reactions atomically.
@@ -39,7 +40,7 @@ public class MessagePersistenceService {
      */
     @SuppressWarnings("null")
     public long persistMessage(long memberInternalId, long channelInternalId, Long threadInternalId, Message m) {
-        return jdbi.inTransaction(handle -> {
+        Persisted persisted = jdbi.inTransaction(handle -> {
             EventDao txEvent = handle.attach(EventDao.class);
             MessageEventDao txMsg = handle.attach(MessageEventDao.class);
             MessageAttachmentDao txAtt = handle.attach(MessageAttachmentDao.class);
@@ -65,7 +66,13 @@ public class MessagePersistenceService {
                         .toList());
             }
 
-            return eventId;
+            return new Persisted(eventId, messageId);
         });
+
+        messageIds.put(m.getIdLong(), persisted.messageId());
+        return persisted.eventId();
+    }
+
+    private record Persisted(long eventId, long messageId) {
     }
 }
@@ -0,0 +1,37 @@
+package edu.franklin.acm.synapse.scanners.shared;
+
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+/**
+ * Difference between a member's stored and current role sets, as sorted
+ * external (Discord) role IDs. Produced by {@link RoleSyncService#syncRoles}.
+ */
+public record RoleDiff(long[] added, long[] removed) {
+
+    public static final RoleDiff NONE = new RoleDiff(new long[0], new long[0]);
+
+    public boolean isEmpty() {
+        return added.length == 0 && removed.length == 0;
+    }
+
+    /**
+     * Added role IDs in the comma-separated form stored on
+     * {@code member_role_change_events}.
+     */
+    public String addedCsv() {
+        return csv(added);
+    }
+
+    /**
+     * Removed role IDs in the comma-separated form stored on
+     * {@code member_role_change_events}.
+     */
+    public String removedCsv() {
+        return csv(removed);
+    }
+
+    private static String csv(long[] ids) {
+        return Arrays.stream(ids).mapToObj(String::valueOf).collect(Collectors.joining(","));
+    }
+}
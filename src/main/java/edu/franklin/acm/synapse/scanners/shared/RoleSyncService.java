@@ -1,5 +1,15 @@
 package edu.franklin.acm.synapse.scanners.shared;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.jdbi.v3.core.Jdbi;
+
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import edu.franklin.acm.synapse.activity.member.MemberRole;
 import edu.franklin.acm.synapse.activity.member.MemberRoleDao;
 import edu.franklin.acm.synapse.activity.member.RoleDao;
 import jakarta.enterprise.context.ApplicationScoped;
@@ -8,26 +18,139 @@ import net.dv8tion.jda.api.entities.Member;
 import net.dv8tion.jda.api.entities.Role;
 
 /**
- * Synchronizes a member's role snapshot. Upserts each role into the
- * {@code roles} reference table (capturing name), then replaces the
- * {@code member_roles} junction rows.
+ * Synchronizes a member's role snapshot by diffing it against the last known
+ * role set instead of rewriting the {@code member_roles} junction rows.
+ *
+ * <p>Each member's role set is cached as a sorted {@code long[]} of Discord
+ * role IDs, loaded from the database on first use. Most member updates
+ * (nickname, avatar, boost) leave roles untouched and never reach the
+ * database; otherwise only the added and removed assignments are written, in
+ * one transaction. Added roles are upserted into the {@code roles} reference
+ * table so their names are current.
  */
 @ApplicationScoped
 public class RoleSyncService {
 
+    @Inject Jdbi jdbi;
     @Inject RoleDao roleDao;
     @Inject MemberRoleDao memberRoleDao;
 
     /**
-     * Replaces the member_roles junction table rows with the member's current roles.
-     * Each role is first upserted into the {@code roles} reference table so its
-     * human-readable name is always current.
+     * Guild to member internal ID to sorted Discord role IDs. Internal IDs
+     * are only unique within a guild's partition.
+     */
+    private final Map<Long, Map<Long, long[]>> roleSetsByGuild = new ConcurrentHashMap<>();
+
+    /**
+     * Discord role ID to internal {@code roles.id}. Role snowflakes are
+     * globally unique, so one map serves every partition.
+     */
+    private final Map<Long, Long> roleIds = new ConcurrentHashMap<>();
+
+    /**
+     * Brings the member's role assignments in line with the member's current
+     * roles, writing only the delta.
+     *
+     * @return the roles added and removed, or {@link RoleDiff#NONE} when the
+     *         role set is unchanged
      */
-    public void syncRoles(long memberId, Member member) {
-        memberRoleDao.deleteRoles(memberId);
-        for (Role role : member.getRoles()) {
-            long roleId = roleDao.upsert(role.getIdLong(), role.getName());
-            memberRoleDao.insertRole(memberId, roleId);
+    public RoleDiff syncRoles(long memberId, Member member) {
+        List<Role> roles = member.getRoles();
+        long[] current = new long[roles.size()];
+        for (int i = 0; i < current.length; i++) {
+            current[i] = roles.get(i).getIdLong();
+        }
+        Arrays.sort(current);
+
+        Map<Long, long[]> roleSets = roleSets();
+        long[] previous = roleSets.get(memberId);
+        if (previous == null) {
+            previous = memberRoleDao.findRoleExtIdsByMemberId(memberId).stream()
+                    .mapToLong(Long::longValue)
+                    .sorted()
+                    .toArray();
+        }
+
+        RoleDiff diff = diff(previous, current);
+        if (!diff.isEmpty()) {
+            apply(memberId, roles, diff);
+        }
+        roleSets.put(memberId, current);
+        return diff;
+    }
+
+    /**
+     * Forgets the cached role sets of the current guild. Call after its
+     * junction table is written outside this service, e.g. by startup
+     * reconciliation.
+     */
+    public void invalidate() {
+        roleSetsByGuild.remove(GuildContext.current());
+        roleIds.clear();
+    }
+
+    private Map<Long, long[]> roleSets() {
+        return roleSetsByGuild.computeIfAbsent(GuildContext.current(), id -> new ConcurrentHashMap<>());
+    }
+
+    private void apply(long memberId, List<Role> roles, RoleDiff diff) {
+        jdbi.useTransaction(h -> {
+            RoleDao txRoles = h.attach(RoleDao.class);
+            MemberRoleDao txMemberRoles = h.attach(MemberRoleDao.class);
+
+            if (diff.removed().length > 0) {
+                List<MemberRole> removed = new ArrayList<>(diff.removed().length);
+                for (long extId : diff.removed()) {
+                    Long roleId = resolveRoleId(txRoles, extId);
+                    if (roleId != null) removed.add(new MemberRole(memberId, roleId));
+                }
+                txMemberRoles.deleteRoleAssignments(removed);
+            }
+
+            if (diff.added().length > 0) {
+                List<MemberRole> added = new ArrayList<>(diff.added().length);
+                for (Role role : roles) {
+                    if (Arrays.binarySearch(diff.added(), role.getIdLong()) < 0) continue;
+                    long roleId = txRoles.upsert(role.getIdLong(), role.getName());
+                    roleIds.put(role.getIdLong(), roleId);
+                    added.add(new MemberRole(memberId, roleId));
+                }
+                txMemberRoles.insertRoles(added);
+            }
+        });
+    }
+
+    private Long resolveRoleId(RoleDao dao, long extId) {
+        Long roleId = roleIds.get(extId);
+        if (roleId == null) {
+            roleIds.putAll(dao.findAllIds());
+            roleId = roleIds.get(extId);
+        }
+        return roleId;
+    }
+
+    /**
+     * Merges two sorted ID arrays into the IDs only in {@code current} (added)
+     * and only in {@code previous} (removed).
+     */
+    static RoleDiff diff(long[] previous, long[] current) {
+        if (Arrays.equals(previous, current)) return RoleDiff.NONE;
+
+        long[] added = new long[current.length];
+        long[] removed = new long[previous.length];
+        int a = 0, r = 0, i = 0, j = 0;
+        while (i < previous.length && j < current.length) {
+            if (previous[i] == current[j]) {
+                i++;
+                j++;
+            } else if (previous[i] < current[j]) {
+                removed[r++] = previous[i++];
+            } else {
+                added[a++] = current[j++];
+            }
         }
+        while (i < previous.length) removed[r++] = previous[i++];
+        while (j < current.length) added[a++] = current[j++];
+        return new RoleDiff(Arrays.copyOf(added, a), Arrays.copyOf(removed, r));
     }
 }
@@ -0,0 +1,305 @@
+package edu.franklin.acm.synapse.scanners.shared;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.TimeUnit;
+
+import org.jdbi.v3.core.Jdbi;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import edu.franklin.acm.synapse.activity.SeasonalMemberStatisticsDao;
+import edu.franklin.acm.synapse.activity.guild.GuildContext;
+import edu.franklin.acm.synapse.activity.voice.VoiceSessionDao;
+import edu.franklin.acm.synapse.leaderboard.LeaderboardService;
+import edu.franklin.acm.synapse.leaderboard.Metric;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+
+/**
+ * In-memory voice presence: which channel each member is connected to, and
+ * since when. Session durations are measured here on a monotonic clock rather
+ * than by SQLite date arithmetic, so they are available to the rule engine
+ * the moment a member leaves or moves.
+ *
+ * <p>Long sessions accrue while they are open: every {@link #accrue} credits
+ * the whole minutes each session has gained since its last checkpoint to
+ * {@code seasonal_member_statistics.voice_minutes} and saves the progress on
+ * the session row. A leave then only credits the last partial interval, and a
+ * crash loses at most one accrual interval.
+ *
+ * <p>Session opens, checkpoints and closes are queued and written by a
+ * scheduled flush in one transaction. Writes identify the session by the
+ * event that opened it, so a join and leave landing in the same flush are
+ * applied correctly. Sessions still open when the process stops are recovered
+ * by startup reconciliation, which then {@link #restore restores} the map.
+ *
+ * <p>State is kept per guild, for the guild bound by {@link GuildContext}.
+ */
+@ApplicationScoped
+public class VoicePresenceTracker {
+
+    private static final Logger log = LoggerFactory.getLogger(VoicePresenceTracker.class);
+
+    private static final long MINUTE_NANOS = TimeUnit.MINUTES.toNanos(1);
+
+    @Inject Jdbi jdbi;
+    @Inject LeaderboardService leaderboards;
+
+    /**
+     * One member's open voice session.
+     *
+     * @param eventId       the VOICE_JOIN/VOICE_MOVE event that opened the session
+     * @param joinedAtNanos {@link System#nanoTime()} when the session opened
+     * @param creditedNanos session time already credited as voice minutes
+     */
+    public record Presence(long memberId, long memberExtId, long channelId, long channelExtId,
+                           String channelType, long eventId, long joinedAtNanos, long creditedNanos) {
+
+        /**
+         * Session length so far, in minutes.
+         */
+        public double minutes(long nowNanos) {
+            return (nowNanos - joinedAtNanos) / (double) MINUTE_NANOS;
+        }
+
+        Presence credit(long nanos) {
+            return new Presence(memberId, memberExtId, channelId, channelExtId,
+                    channelType, eventId, joinedAtNanos, creditedNanos + nanos);
+        }
+    }
+
+    private sealed interface SessionWrite permits Open, Checkpoint, Close {
+    }
+
+    private record Open(long eventId, long memberId, long channelId, String joinedAt) implements SessionWrite {
+    }
+
+    private record Checkpoint(long eventId, long memberId, String at, double accruedSecs, int minutes)
+            implements SessionWrite {
+    }
+
+    private record Close(long eventId, long memberId, String leftAt, double durationSecs, int minutes)
+            implements SessionWrite {
+    }
+
+    /**
+     * One guild's open sessions, keyed by member internal ID, and its queued
+     * writes. Internal IDs are only unique within a guild's partition.
+     */
+    private static final class GuildVoice {
+        final Map<Long, Presence> presence = new ConcurrentHashMap<>();
+        final ConcurrentLinkedDeque<SessionWrite> pending = new ConcurrentLinkedDeque<>();
+    }
+
+    private final Map<Long, GuildVoice> guilds = new ConcurrentHashMap<>();
+
+    /**
+     * State of the guild bound to the calling thread.
+     */
+    private GuildVoice guild() {
+        return guilds.computeIfAbsent(GuildContext.current(), id -> new GuildVoice());
+    }
+
+    /**
+     * Records a member joining a channel and queues the session open. A
+     * session the member still had open (a missed leave) is closed first.
+     */
+    public void open(long memberId, long memberExtId, long channelId, long channelExtId,
+                     String channelType, long eventId, String joinedAt) {
+        GuildVoice guild = guild();
+        long now = System.nanoTime();
+        Presence previous = guild.presence.put(memberId, new Presence(memberId, memberExtId, channelId,
+                channelExtId, channelType, eventId, now, 0L));
+        if (previous != null) {
+            guild.pending.add(closing(previous, joinedAt, now));
+        }
+        guild.pending.add(new Open(eventId, memberId, channelId, joinedAt));
+    }
+
+    /**
+     * Records a member leaving voice and queues the session close, crediting
+     * whatever the session gained since its last checkpoint.
+     *
+     * @return the session duration in seconds, or {@code null} if no open
+     *         session was tracked for the member
+     */
+    public Double close(long memberId, String leftAt) {
+        GuildVoice guild = guild();
+        Presence previous = guild.presence.remove(memberId);
+        if (previous == null) return null;
+
+        Close close = closing(previous, leftAt, System.nanoTime());
+        guild.pending.add(close);
+        return close.durationSecs();
+    }
+
+    /**
+     * Credits every open session of the current guild with the whole minutes
+     * it has gained since its last checkpoint, then flushes the checkpoints
+     * together with any other queued writes. Sub-minute remainders carry over
+     * to the next accrual or to the close.
+     *
+     * @return the sessions that were credited, as of this accrual
+     */
+    public List<Presence> accrue(String now) {
+        GuildVoice guild = guild();
+        long nowNanos = System.nanoTime();
+        List<Presence> credited = new ArrayList<>();
+        for (Long memberId : guild.presence.keySet()) {
+            guild.presence.computeIfPresent(memberId, (id, session) -> {
+                long minutes = (nowNanos - session.joinedAtNanos() - session.creditedNanos()) / MINUTE_NANOS;
+                if (minutes <= 0) return session;
+
+                Presence updated = session.credit(minutes * MINUTE_NANOS);
+                guild.pending.add(new Checkpoint(session.eventId(), id, now,
+                        updated.creditedNanos() / 1_000_000_000.0, (int) minutes));
+                credited.add(updated);
+                return updated;
+            });
+        }
+        flush();
+        return credited;
+    }
+
+    /**
+     * Replaces the current guild's presence map with sessions opened outside
+     * the tracker, i.e. by startup reconciliation, which has already written
+     * them.
+     */
+    public void restore(Collection<Presence> sessions) {
+        Map<Long, Presence> presence = guild().presence;
+        presence.clear();
+        for (Presence session : sessions) {
+            presence.put(session.memberId(), session);
+        }
+    }
+
+    /**
+     * Number of members of the current guild tracked as connected.
+     */
+    public int connected() {
+        return guild().presence.size();
+    }
+
+    /**
+     * Guilds with tracked voice state.
+     */
+    public Set<Long> guildIds() {
+        return guilds.keySet();
+    }
+
+    /**
+     * Writes all queued session opens, checkpoints and closes, and the voice
+     * minutes they credit, in one transaction per guild partition. Writes
+     * queued during a flush are left for the next one.
+     */
+    @Scheduled(every = "${synapse.voice.flush-interval:5s}",
+            concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    public synchronized void flush() {
+        guilds.forEach((guildId, guild) -> {
+            List<SessionWrite> drained = new ArrayList<>();
+            SessionWrite write;
+            while ((write = guild.pending.poll()) != null) {
+                drained.add(write);
+            }
+            if (drained.isEmpty()) return;
+
+            try {
+                GuildContext.run(guildId, () -> write(drained));
+            } catch (Exception e) {
+                // Put the writes back, in order, ahead of anything queued since
+                for (int i = drained.size() - 1; i >= 0; i--) {
+                    guild.pending.addFirst(drained.get(i));
+                }
+                log.error("Failed to flush {} voice session writes for guild {}", drained.size(), guildId, e);
+            }
+        });
+    }
+
+    void onShutdown(@Observes ShutdownEvent event) {
+        flush();
+    }
+
+    private void write(List<SessionWrite> drained) {
+        List<Long> openEvents = new ArrayList<>();
+        List<Long> openMembers = new ArrayList<>();
+        List<Long> openChannels = new ArrayList<>();
+        List<String> openTimes = new ArrayList<>();
+        List<Long> checkpointEvents = new ArrayList<>();
+        List<Double> checkpointSecs = new ArrayList<>();
+        List<String> checkpointTimes = new ArrayList<>();
+        List<Long> closeEvents = new ArrayList<>();
+        List<String> closeTimes = new ArrayList<>();
+        List<Double> closeDurations = new ArrayList<>();
+        Map<Long, Integer> minutesByMember = new HashMap<>();
+
+        for (SessionWrite write : drained) {
+            if (write instanceof Open open) {
+                openEvents.add(open.eventId());
+                openMembers.add(open.memberId());
+                openChannels.add(open.channelId());
+                openTimes.add(open.joinedAt());
+            } else if (write instanceof Checkpoint checkpoint) {
+                checkpointEvents.add(checkpoint.eventId());
+                checkpointSecs.add(checkpoint.accruedSecs());
+                checkpointTimes.add(checkpoint.at());
+                minutesByMember.merge(checkpoint.memberId(), checkpoint.minutes(), Integer::sum);
+            } else if (write instanceof Close close) {
+                closeEvents.add(close.eventId());
+                closeTimes.add(close.leftAt());
+                closeDurations.add(close.durationSecs());
+                if (close.minutes() > 0) {
+                    minutesByMember.merge(close.memberId(), close.minutes(), Integer::sum);
+                }
+            }
+        }
+
+        List<Long> creditedMembers = new ArrayList<>(minutesByMember.keySet());
+        List<Integer> creditedMinutes = creditedMembers.stream().map(minutesByMember::get).toList();
+
+        // Opens first: a checkpoint or close may target a session opened in this same flush
+        String now = utcNow();
+        jdbi.useTransaction(h -> {
+            VoiceSessionDao txVoice = h.attach(VoiceSessionDao.class);
+            if (!openEvents.isEmpty()) txVoice.openBatch(openEvents, openMembers, openChannels, openTimes);
+            if (!checkpointEvents.isEmpty()) txVoice.checkpointBatch(checkpointEvents, checkpointSecs, checkpointTimes);
+            if (!closeEvents.isEmpty()) txVoice.closeBatch(closeEvents, closeTimes, closeDurations);
+            if (!creditedMembers.isEmpty()) {
+                h.attach(SeasonalMemberStatisticsDao.class)
+                        .addVoiceMinutes(creditedMembers, creditedMinutes, now);
+            }
+        });
+        if (!creditedMembers.isEmpty()) {
+            leaderboards.addSeasonal(Metric.VOICE_MINUTES, now, creditedMembers, creditedMinutes);
+        }
+        log.debug("Flushed {} voice session opens, {} checkpoints and {} closes",
+                openEvents.size(), checkpointEvents.size(), closeEvents.size());
+    }
+
+    /**
+     * Builds the close for a session, crediting the whole minutes of the
+     * uncredited remainder, as {@link #accrue} does.
+     */
+    private static Close closing(Presence session, String leftAt, long nowNanos) {
+        long durationNanos = nowNanos - session.joinedAtNanos();
+        int minutes = (int) Math.max(0, (durationNanos - session.creditedNanos()) / MINUTE_NANOS);
+        return new Close(session.eventId(), session.memberId(), leftAt,
+                durationNanos / 1_000_000_000.0, minutes);
+    }
+
+    private static String utcNow() {
+        return LocalDateTime.now(ZoneOffset.UTC).toString();
+    }
+}
@@ -0,0 +1,3 @@
+-- Per-row write counters behind the member and message listing ETags.
+ALTER TABLE members ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE messages ADD COLUMN version INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,2 @@
+-- Last startup reconciliation pass that saw each member in the guild.
+ALTER TABLE members ADD COLUMN reconcile_generation INTEGER NOT NULL DEFAULT 0;
@@ -0,0 +1,3 @@
+-- Session time already credited to voice_minutes, and when it was saved.
+ALTER TABLE voice_sessions ADD COLUMN accrued_secs REAL NOT NULL DEFAULT 0;
+ALTER TABLE voice_sessions ADD COLUMN checkpointed_at TIMESTAMP;
@@ -0,0 +1,2 @@
+-- Tombstone time of deleted messages.
+ALTER TABLE messages ADD COLUMN deleted_at TIMESTAMP;
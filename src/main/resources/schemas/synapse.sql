@@ -1,14 +1,17 @@
 -- Synapse Schema — Single-Guild Model
 --
--- One instance = one guild. All data is implicitly scoped to this guild.
+-- One database = one guild. All data is implicitly scoped to this guild; a
+-- multi-guild instance opens one database per guild.
 -- Design principles:
 --   No JSON. All queryable data lives in real SQL columns.
 --   Events are a lean parent table. Child tables hold type-specific data.
 --   Message edits UPSERT — only the current state is kept, no edit history.
 --   Rewards are derived by the rule engine, never stored on events.
--- Migration is not required when booting fresh. The schema is always
--- re-applied idempotently. Nuclear overwrite of any existing database
--- file is safe during development.
+-- Migration is not required when booting fresh. The schema is re-applied
+-- whenever its checksum differs from the one recorded in schema_version, but
+-- that only creates missing tables and indexes: a column added to an existing
+-- table must also be added by a migration (see migrations/index.txt), which
+-- is skipped where the column already exists.
 --
 -- Timestamp convention for Discord-origin tables:
 --   created_at  = when the entity was created on Discord (explicit, from JDA)
@@ -23,6 +26,15 @@ CREATE TABLE IF NOT EXISTS migrations (
     occurred_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Content checksum of this schema script and of each migration as last
+-- applied. Boot compares these against the packaged scripts and skips all
+-- schema work when they match.
+CREATE TABLE IF NOT EXISTS schema_version (
+    name        VARCHAR NOT NULL PRIMARY KEY,
+    checksum    VARCHAR NOT NULL,
+    applied_at  TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
 -- Metadata about the guild this instance manages.
 CREATE TABLE IF NOT EXISTS guild_metadata (
     id          INTEGER PRIMARY KEY CHECK (id = 1),
@@ -126,7 +138,10 @@ CREATE TABLE IF NOT EXISTS thread_tags (
     FOREIGN KEY (forum_tag_id) REFERENCES forum_tags (id)
 );
 
--- Guild members.
+-- Guild members. reconcile_generation is the last startup reconciliation pass
+-- that saw the member in the guild; active members a pass did not stamp are
+-- deactivated when it finishes. version is incremented by every write to the
+-- row except the stamp, and versions the member listing's ETags.
 CREATE TABLE IF NOT EXISTS members (
     id              INTEGER PRIMARY KEY,
     ext_id          BIGINT NOT NULL UNIQUE,
@@ -142,6 +157,8 @@ CREATE TABLE IF NOT EXISTS members (
     p_currency      INTEGER NOT NULL DEFAULT 0,
     level           INTEGER NOT NULL DEFAULT 1,
     s_currency      INTEGER NOT NULL DEFAULT 0,
+    reconcile_generation INTEGER NOT NULL DEFAULT 0,
+    version         INTEGER NOT NULL DEFAULT 0,
     created_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
@@ -204,12 +221,21 @@ CREATE TABLE IF NOT EXISTS events (
     FOREIGN KEY (channel_id) REFERENCES channels (id)
 );
 
-CREATE INDEX IF NOT EXISTS events_member_id_idx  ON events (member_id);
+-- member_id keeps each member's events in id order, for keyset pagination;
+-- (member_id, event_type) serves per-member type counts; (event_type,
+-- created_at) serves type lookups and the recent-events scans that rebuild
+-- windowed rule counters.
+CREATE INDEX IF NOT EXISTS events_member_id_idx   ON events (member_id);
+CREATE INDEX IF NOT EXISTS events_member_type_idx ON events (member_id, event_type);
 CREATE INDEX IF NOT EXISTS events_channel_id_idx ON events (channel_id);
-CREATE INDEX IF NOT EXISTS events_event_type_idx ON events (event_type);
+DROP INDEX IF EXISTS events_event_type_idx;
+CREATE INDEX IF NOT EXISTS events_type_created_idx ON events (event_type, created_at);
 CREATE INDEX IF NOT EXISTS events_created_at_idx ON events (created_at);
 
 -- Current state of each message. Edits UPSERT on ext_id — no edit history is kept.
+-- Deleted messages are tombstoned with deleted_at rather than removed, so events
+-- and rule evaluations that reference them stay intact. version is incremented
+-- by every update, and versions the message listing's ETags.
 CREATE TABLE IF NOT EXISTS messages (
     id                          INTEGER PRIMARY KEY,
     event_id                    BIGINT NOT NULL,
@@ -239,6 +265,8 @@ CREATE TABLE IF NOT EXISTS messages (
     author_is_bot               INTEGER NOT NULL DEFAULT 0,
     created_at                  TIMESTAMP,
     ingested_at                 TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    deleted_at                  TIMESTAMP,
+    version                     INTEGER NOT NULL DEFAULT 0,
     FOREIGN KEY (event_id)   REFERENCES events (id),
     FOREIGN KEY (thread_id)  REFERENCES threads (id)
 );
@@ -296,6 +324,7 @@ CREATE TABLE IF NOT EXISTS member_role_change_events (
 
 -- Voice session per member connection. left_at is NULL while connected.
 -- Startup reconciliation closes orphaned sessions and re-opens for currently connected members.
+-- accrued_secs is the session time already credited to voice_minutes, saved at checkpointed_at.
 CREATE TABLE IF NOT EXISTS voice_sessions (
     id              INTEGER PRIMARY KEY,
     event_id        BIGINT NOT NULL,
@@ -304,6 +333,8 @@ CREATE TABLE IF NOT EXISTS voice_sessions (
     joined_at       TIMESTAMP NOT NULL,
     left_at         TIMESTAMP,
     duration_secs   REAL,
+    accrued_secs    REAL NOT NULL DEFAULT 0,
+    checkpointed_at TIMESTAMP,
     FOREIGN KEY (event_id)   REFERENCES events (id),
     FOREIGN KEY (member_id)  REFERENCES members (id),
     FOREIGN KEY (channel_id) REFERENCES channels (id)
@@ -311,6 +342,7 @@ CREATE TABLE IF NOT EXISTS voice_sessions (
 
 CREATE INDEX IF NOT EXISTS voice_sessions_member_idx ON voice_sessions (member_id);
 CREATE INDEX IF NOT EXISTS voice_sessions_open_idx   ON voice_sessions (left_at) WHERE left_at IS NULL;
+CREATE INDEX IF NOT EXISTS voice_sessions_event_idx  ON voice_sessions (event_id);
 
 -- Rules: named evaluation targets with event scoping, cooldown, and toggles.
 CREATE TABLE IF NOT EXISTS rules (
@@ -364,5 +396,71 @@ CREATE TABLE IF NOT EXISTS rule_evaluations (
     FOREIGN KEY (member_id) REFERENCES members (id)
 );
 
-CREATE INDEX IF NOT EXISTS rule_evaluations_rule_member_idx ON rule_evaluations (rule_id, member_id);
+-- Cooldown checks filter on rule, member and a created_at lower bound.
+DROP INDEX IF EXISTS rule_evaluations_rule_member_idx;
+CREATE INDEX IF NOT EXISTS rule_evaluations_cooldown_idx ON rule_evaluations (rule_id, member_id, created_at);
 CREATE INDEX IF NOT EXISTS rule_evaluations_event_idx ON rule_evaluations (event_id);
+CREATE INDEX IF NOT EXISTS rule_evaluations_member_idx ON rule_evaluations (member_id);
+
+-- Achievements: granted once per member when their progress reaches the
+-- threshold. Progress advances by one on every live event of event_type, and
+-- by the amount of any ACHIEVEMENT rule outcome naming the achievement; an
+-- achievement without event_type advances through outcomes only.
+CREATE TABLE IF NOT EXISTS achievements (
+    id          INTEGER PRIMARY KEY,
+    name        VARCHAR NOT NULL UNIQUE,
+    description TEXT,
+    event_type  VARCHAR,
+    threshold   INTEGER NOT NULL DEFAULT 1,
+    enabled     INTEGER NOT NULL DEFAULT 1,
+    created_at  TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    updated_at  TIMESTAMP DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Progress counters, checkpointed from memory by the achievement tracker.
+CREATE TABLE IF NOT EXISTS achievement_progress (
+    member_id       BIGINT NOT NULL,
+    achievement_id  BIGINT NOT NULL,
+    progress        INTEGER NOT NULL DEFAULT 0,
+    updated_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (member_id, achievement_id),
+    FOREIGN KEY (member_id)      REFERENCES members (id),
+    FOREIGN KEY (achievement_id) REFERENCES achievements (id) ON DELETE CASCADE
+);
+
+-- Granted achievements. One row per member and achievement.
+CREATE TABLE IF NOT EXISTS member_achievements (
+    id              INTEGER PRIMARY KEY,
+    member_id       BIGINT NOT NULL,
+    achievement_id  BIGINT NOT NULL,
+    event_id        BIGINT,
+    granted_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE (member_id, achievement_id),
+    FOREIGN KEY (member_id)      REFERENCES members (id),
+    FOREIGN KEY (achievement_id) REFERENCES achievements (id) ON DELETE CASCADE,
+    FOREIGN KEY (event_id)       REFERENCES events (id)
+);
+
+-- Announcement outbox. The rule engine writes a row per ANNOUNCEMENT outcome
+-- fired; the announcement dispatcher delivers pending rows to Discord,
+-- merging those for the same channel, and retries failures after
+-- next_attempt_at. Rows survive restarts until sent or out of attempts.
+CREATE TABLE IF NOT EXISTS announcements (
+    id              INTEGER PRIMARY KEY,
+    outcome_id      BIGINT NOT NULL,
+    event_id        BIGINT NOT NULL,
+    member_id       BIGINT NOT NULL,
+    channel_ext_id  BIGINT NOT NULL,
+    content         TEXT NOT NULL,
+    status          VARCHAR NOT NULL DEFAULT 'PENDING',
+    attempts        INTEGER NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    created_at      TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    sent_at         TIMESTAMP,
+    UNIQUE (outcome_id, event_id),
+    FOREIGN KEY (outcome_id) REFERENCES rule_outcomes (id) ON DELETE CASCADE,
+    FOREIGN KEY (event_id)   REFERENCES events (id),
+    FOREIGN KEY (member_id)  REFERENCES members (id)
+);
+
+CREATE INDEX IF NOT EXISTS announcements_due_idx ON announcements (status, next_attempt_at);
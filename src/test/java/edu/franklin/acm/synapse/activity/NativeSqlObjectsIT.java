@@ -0,0 +1,45 @@
+package edu.franklin.acm.synapse.activity;
+
+import static io.restassured.RestAssured.given;
+import static org.hamcrest.Matchers.is;
+
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import io.quarkus.test.junit.QuarkusIntegrationTest;
+import io.quarkus.test.junit.QuarkusTestProfile;
+import io.quarkus.test.junit.TestProfile;
+
+/**
+ * Boots the packaged application, the native executable under
+ * {@code -Dnative}, against a fresh SQLite database without connecting to
+ * Discord, and checks that every DAO ran a statement in the
+ * {@link SqlObjectCheck} startup probe.
+ */
+@QuarkusIntegrationTest
+@TestProfile(NativeSqlObjectsIT.Offline.class)
+class NativeSqlObjectsIT {
+
+    private static final String CHECK = "checks.find { it.name == 'synapse-sql-objects' }";
+
+    public static class Offline implements QuarkusTestProfile {
+        @Override
+        public Map<String, String> getConfigOverrides() {
+            return Map.of(
+                    "synapse.discord.enabled", "false",
+                    "synapse.datasource.auto-migrate", "true",
+                    "quarkus.datasource.jdbc.url", "jdbc:sqlite:target/synapse-it.sqlite?journal_mode=WAL");
+        }
+    }
+
+    @Test
+    void everySqlObjectRunsAgainstSqlite() {
+        given()
+                .when().get("/q/health/started")
+                .then()
+                .statusCode(200)
+                .body(CHECK + ".status", is("UP"))
+                .body(CHECK + ".data.size()", is(25));
+    }
+}
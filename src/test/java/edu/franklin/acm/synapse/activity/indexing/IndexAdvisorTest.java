@@ -0,0 +1,69 @@
+package edu.franklin.acm.synapse.activity.indexing;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.util.List;
+
+import org.jdbi.v3.core.Handle;
+import org.jdbi.v3.core.Jdbi;
+import org.jdbi.v3.sqlobject.SqlObjectPlugin;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import edu.franklin.acm.synapse.activity.EventDao;
+import edu.franklin.acm.synapse.activity.indexing.QueryProfiler.QueryStats;
+
+class IndexAdvisorTest {
+
+    private final QueryProfiler profiler = new QueryProfiler();
+    private Handle handle;
+
+    @BeforeEach
+    void open() {
+        Jdbi jdbi = Jdbi.create("jdbc:sqlite::memory:").installPlugin(new SqlObjectPlugin());
+        jdbi.setSqlLogger(profiler);
+        handle = jdbi.open();
+        handle.execute("""
+                CREATE TABLE events (
+                    id         INTEGER PRIMARY KEY,
+                    member_id  BIGINT NOT NULL,
+                    channel_id BIGINT,
+                    event_type VARCHAR NOT NULL,
+                    created_at TIMESTAMP
+                )""");
+        handle.execute("CREATE INDEX events_member_idx ON events (member_id)");
+        profiler.reset();
+    }
+
+    @AfterEach
+    void close() {
+        handle.close();
+    }
+
+    @Test
+    void suggestsCompositeIndexForMemberAndTypeCount() {
+        handle.attach(EventDao.class).countByMemberAndType(1, "MESSAGE_CREATE");
+
+        QueryStats stats = profiler.snapshot().get(0);
+        List<String> plan = IndexAdvisor.explain(handle, stats.sql());
+
+        assertEquals("CREATE INDEX IF NOT EXISTS events_member_id_event_type_idx ON events (member_id, event_type)",
+                IndexAdvisor.suggest(stats.sql(), plan));
+    }
+
+    @Test
+    void noSuggestionOnceCompositeIndexExists() {
+        handle.execute("CREATE INDEX events_member_type_idx ON events (member_id, event_type)");
+        handle.attach(EventDao.class).countByMemberAndType(1, "MESSAGE_CREATE");
+
+        QueryStats stats = profiler.snapshot().get(0);
+        assertNull(IndexAdvisor.suggest(stats.sql(), IndexAdvisor.explain(handle, stats.sql())));
+    }
+
+    @Test
+    void countsParametersOutsideLiterals() {
+        assertEquals(2, IndexAdvisor.parameterCount("SELECT * FROM t WHERE a = ? AND b = '?' AND c IN (?)"));
+    }
+}